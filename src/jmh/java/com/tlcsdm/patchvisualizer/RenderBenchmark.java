@@ -0,0 +1,362 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.util.DiffHandleUtil;
+import com.tlcsdm.patchvisualizer.util.PatchCorpus;
+import com.tlcsdm.patchvisualizer.util.ProgressListener;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Worker;
+import javafx.scene.Scene;
+import javafx.scene.web.WebEngine;
+import javafx.scene.web.WebView;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * End-to-end render benchmark for the WebView pipeline.
+ * <p>
+ * Loads patches the way the import tab does with the web viewer selected and measures the
+ * time until the page signals that its first view is laid out, broken down into the Java
+ * stages, the page load and the stages timed by the page itself. Runs on the headless
+ * Monocle platform unless {@code glass.platform} is set. Arguments, all optional:
+ * {@code --from 64k --to 8m --runs 3 --seed 1 --dark false --inputs a.patch,b.patch --out report.md}.
+ * With {@code --inputs} the given patch files are measured instead of generated ones.
+ */
+public final class RenderBenchmark {
+
+    // Maximum time for one page to signal that it is rendered
+    private static final long RENDER_TIMEOUT_SECONDS = 300;
+    // Interval for checking the render signal; timings come from the page clock, not from polling
+    private static final Duration POLL_INTERVAL = Duration.millis(5);
+    private static final long MB = 1024 * 1024;
+    private static final List<String> JAVA_STAGES = List.of("read", "parse", "html");
+
+    // The WebEngine only keeps a weak reference to the bridge
+    private static Object bridge;
+
+    private RenderBenchmark() {
+    }
+
+    /**
+     * Median timings of one input.
+     *
+     * @param name   input name
+     * @param bytes  input size
+     * @param files  files in the patch
+     * @param page   page type, full or lazy
+     * @param stages milliseconds by stage
+     * @param total  milliseconds from reading the file to the render signal
+     * @param error  failure, or null
+     */
+    record Result(String name, long bytes, int files, String page, Map<String, Double> stages, double total,
+                  String error) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        setDefault("glass.platform", "Monocle");
+        setDefault("monocle.platform", "Headless");
+        setDefault("prism.order", "sw");
+        Map<String, String> options = new LinkedHashMap<>(Map.of("--from", "64k", "--to", "8m", "--runs", "3",
+                "--seed", "1", "--dark", "false", "--inputs", "", "--out", "target/render-report.md"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!options.containsKey(args[i])) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        int runs = Integer.parseInt(options.get("--runs"));
+        boolean dark = Boolean.parseBoolean(options.get("--dark"));
+
+        Platform.startup(() -> {
+        });
+        WebView webView = onFxThread(() -> {
+            WebView view = new WebView();
+            Stage stage = new Stage();
+            stage.setScene(new Scene(view, 1280, 900));
+            stage.show();
+            return view;
+        });
+        Path dir = Files.createTempDirectory("render-benchmark");
+        try {
+            List<Result> results = new ArrayList<>();
+            if (!options.get("--inputs").isBlank()) {
+                for (String input : options.get("--inputs").split(",")) {
+                    Path path = Path.of(input.trim());
+                    results.add(measure(webView, path.getFileName().toString(), path, runs, dark));
+                }
+            } else {
+                long seed = Long.parseLong(options.get("--seed"));
+                long to = parseSize(options.get("--to"));
+                for (String shape : List.of("single", "multi")) {
+                    for (long size = parseSize(options.get("--from")); size <= to; size *= 2) {
+                        Path path = dir.resolve(shape + "-" + size + ".patch");
+                        generate(shape, size, seed, path);
+                        Result result = measure(webView, shape + " " + formatSize(size), path, runs, dark);
+                        results.add(result);
+                        Files.delete(path);
+                        if (result.error() != null) {
+                            break;
+                        }
+                    }
+                }
+            }
+            String report = format(results, runs, dark);
+            System.out.print(report);
+            Path out = Path.of(options.get("--out"));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, report);
+        } finally {
+            Files.deleteIfExists(dir);
+            Platform.exit();
+        }
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Write a patch of about {@code size} bytes: one file, or many files in a format-patch
+     * with some binary sections.
+     */
+    private static void generate(String shape, long size, long seed, Path path) throws IOException {
+        PatchCorpus corpus = shape.equals("single")
+                ? PatchCorpus.of(seed, 1).withHunkDensity(10).withLinesPerFile((int) Math.max(1, size / 70))
+                : PatchCorpus.ofSize(seed, size).withBinaryEvery(20).withFormatPatch(true);
+        corpus.writePatch(path);
+    }
+
+    private static Result measure(WebView webView, String name, Path input, int runs, boolean dark)
+            throws Exception {
+        long bytes = Files.size(input);
+        ParsedPatch patch = DiffHandleUtil.parsePatch(DiffHandleUtil.readPatch(input, ProgressListener.NONE));
+        String page = PatchVisualizerApp.useLazyRender(patch) ? "lazy" : "full";
+        int files = patch.files().size();
+        List<Map<String, Double>> samples = new ArrayList<>();
+        try {
+            // The first run warms up the JIT and the page's script engine
+            renderOnce(webView, input, dark);
+            for (int run = 0; run < runs; run++) {
+                System.gc();
+                samples.add(renderOnce(webView, input, dark));
+            }
+        } catch (TimeoutException e) {
+            return new Result(name, bytes, files, page, Map.of(), Double.NaN, "timed out");
+        } catch (OutOfMemoryError e) {
+            return new Result(name, bytes, files, page, Map.of(), Double.NaN, "out of memory");
+        } finally {
+            onFxThread(() -> {
+                webView.getEngine().loadContent("");
+                return null;
+            });
+            bridge = null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        samples.forEach(sample -> names.addAll(sample.keySet()));
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (String stage : names) {
+            stages.put(stage, median(samples.stream().mapToDouble(sample -> sample.getOrDefault(stage, 0.0))
+                    .toArray()));
+        }
+        double total = median(samples.stream().mapToDouble(sample -> sample.values().stream()
+                .mapToDouble(Double::doubleValue).sum()).toArray());
+        System.err.printf(Locale.ROOT, "%s: %.0f ms%n", name, total);
+        return new Result(name, bytes, files, page, stages, total, null);
+    }
+
+    /**
+     * Render a patch file once, as the import tab does.
+     *
+     * @return milliseconds by stage; the stages add up to the end-to-end time
+     */
+    private static Map<String, Double> renderOnce(WebView webView, Path input, boolean dark) throws Exception {
+        Map<String, Double> stages = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        // The import tab's read: large patches are mapped and decoded on demand
+        List<String> lines = DiffHandleUtil.readPatch(input, ProgressListener.NONE);
+        start = stage(stages, "read", start);
+        ParsedPatch patch = DiffHandleUtil.parsePatch(lines);
+        start = stage(stages, "parse", start);
+        PatchVisualizerApp.PatchPage page = PatchVisualizerApp.renderPatchPage(patch, dark);
+        stage(stages, "html", start);
+        bridge = page.bridge();
+
+        CompletableFuture<Map<String, Double>> rendered = new CompletableFuture<>();
+        Platform.runLater(() -> load(webView.getEngine(), page.html(), rendered));
+        stages.putAll(rendered.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return stages;
+    }
+
+    private static long stage(Map<String, Double> stages, String name, long start) {
+        long now = System.nanoTime();
+        stages.put(name, (now - start) / 1e6);
+        return now;
+    }
+
+    /**
+     * Load a page and start it like the import tab does, then wait for its render signal.
+     */
+    private static void load(WebEngine engine, String html, CompletableFuture<Map<String, Double>> rendered) {
+        long loadStart = System.currentTimeMillis();
+        ChangeListener<Worker.State> listener = new ChangeListener<>() {
+            @Override
+            public void changed(javafx.beans.value.ObservableValue<? extends Worker.State> obs,
+                                Worker.State oldState, Worker.State newState) {
+                if (newState == Worker.State.SUCCEEDED) {
+                    engine.getLoadWorker().stateProperty().removeListener(this);
+                    if (bridge != null) {
+                        PatchVisualizerApp.startPage(engine, bridge);
+                    }
+                    awaitRender(engine, loadStart, rendered);
+                } else if (newState == Worker.State.FAILED || newState == Worker.State.CANCELLED) {
+                    engine.getLoadWorker().stateProperty().removeListener(this);
+                    rendered.completeExceptionally(new IllegalStateException("Page load " + newState));
+                }
+            }
+        };
+        engine.getLoadWorker().stateProperty().addListener(listener);
+        engine.loadContent(html);
+    }
+
+    private static void awaitRender(WebEngine engine, long loadStart,
+                                    CompletableFuture<Map<String, Double>> rendered) {
+        if (rendered.isDone()) {
+            return;
+        }
+        Object json = engine.executeScript(
+                "window.patchVisualizerRender && window.patchVisualizerRender.completedAt"
+                        + " ? JSON.stringify(window.patchVisualizerRender) : null");
+        if (!(json instanceof String)) {
+            PauseTransition pause = new PauseTransition(POLL_INTERVAL);
+            pause.setOnFinished(event -> awaitRender(engine, loadStart, rendered));
+            pause.play();
+            return;
+        }
+        PageTimings timings = new Gson().fromJson((String) json, new TypeToken<PageTimings>() {
+        }.getType());
+        Map<String, Double> stages = new LinkedHashMap<>();
+        // From loadContent to the page starting to render: HTML parsing and script compilation
+        stages.put("load", (double) (timings.startedAt - loadStart));
+        stages.putAll(timings.stages);
+        double timed = timings.stages.values().stream().mapToDouble(Double::doubleValue).sum();
+        // Page time outside the timed stages, such as waiting for the first intersection callback
+        stages.put("other", Math.max(0, timings.completedAt - timings.startedAt - timed));
+        rendered.complete(stages);
+    }
+
+    /**
+     * Timings reported by the page.
+     */
+    private static final class PageTimings {
+
+        long startedAt;
+        long completedAt;
+        Map<String, Double> stages = Map.of();
+    }
+
+    private static <T> T onFxThread(java.util.concurrent.Callable<T> action) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(action.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static double median(double[] values) {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Format the results as a markdown table with one column per stage.
+     *
+     * @param results measured inputs
+     * @param runs    runs per input
+     * @param dark    whether the dark theme was rendered
+     * @return markdown report
+     */
+    static String format(List<Result> results, int runs, boolean dark) {
+        Set<String> stages = new LinkedHashSet<>(JAVA_STAGES);
+        stages.add("load");
+        results.forEach(result -> stages.addAll(result.stages().keySet()));
+        // Keep the remainder last
+        stages.remove("other");
+        stages.add("other");
+
+        StringBuilder sb = new StringBuilder("# Render report\n\n");
+        sb.append("Java ").append(Runtime.version()).append(", platform ").append(System.getProperty("glass.platform"))
+                .append(", ").append(dark ? "dark" : "light").append(" theme, median of ").append(runs)
+                .append(" runs after one warm-up run, times in ms.\n\n");
+        sb.append("| Input | Size KB | Files | Page |");
+        stages.forEach(stage -> sb.append(' ').append(stage).append(" |"));
+        sb.append(" Total |\n|---|---:|---:|---|").append("---:|".repeat(stages.size() + 1)).append('\n');
+        for (Result result : results) {
+            sb.append(String.format(Locale.ROOT, "| %s | %d | %d | %s |", result.name(), result.bytes() / 1024,
+                    result.files(), result.page()));
+            if (result.error() != null) {
+                sb.append(" ").append(result.error()).append(" |").append(" |".repeat(stages.size())).append('\n');
+                continue;
+            }
+            for (String stage : stages) {
+                Double millis = result.stages().get(stage);
+                sb.append(millis == null ? " - |" : String.format(Locale.ROOT, " %.1f |", millis));
+            }
+            sb.append(String.format(Locale.ROOT, " %.1f |\n", result.total()));
+        }
+        return sb.toString();
+    }
+
+    private static String formatSize(long bytes) {
+        return bytes >= MB ? bytes / MB + "m" : bytes / 1024 + "k";
+    }
+
+    private static long parseSize(String size) {
+        String value = size.trim().toLowerCase(Locale.ROOT);
+        long unit = switch (value.charAt(value.length() - 1)) {
+            case 'k' -> 1024;
+            case 'm' -> MB;
+            case 'g' -> MB * 1024;
+            default -> 1;
+        };
+        String digits = unit == 1 ? value : value.substring(0, value.length() - 1);
+        return Long.parseLong(digits) * unit;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.patch.Patch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares diffing lines directly against diffing interned line IDs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DiffLinesBenchmark {
+
+    @Param({"20000", "200000"})
+    public int lines;
+
+    @Param({"20", "2000"})
+    public int edits;
+
+    private List<String> original;
+    private List<String> revised;
+    private DiffOptions options;
+
+    @Setup
+    public void setUp() {
+        original = generate(new Random(1), lines);
+        revised = edit(new Random(2), original, edits);
+        options = DiffOptions.DEFAULT.withTimeBudget(Duration.ofMinutes(10))
+                .withMaxEditDistance(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Patch<String> strings() {
+        return DiffEngine.diff(original, revised, options);
+    }
+
+    @Benchmark
+    public Patch<String> interned() {
+        return DiffEngine.diffLines(original, revised, options);
+    }
+
+    /**
+     * Generate source-like lines: long indented statements with frequent repeats.
+     */
+    private static List<String> generate(Random random, int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 2) {
+                lines.add("    }");
+            } else if (kind < 3) {
+                lines.add("");
+            } else {
+                lines.add("        final String value" + random.nextInt(5_000) + " = compute(context, \"generated-"
+                        + random.nextInt(1_000) + "\", options.withLimit(" + random.nextInt(100) + "));");
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Copy and edit the lines. Every line is a new instance, as if both files were read from disk.
+     */
+    private static List<String> edit(Random random, List<String> lines, int edits) {
+        List<String> result = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            result.add(new String(line));
+        }
+        for (int i = 0; i < edits; i++) {
+            int index = random.nextInt(result.size());
+            switch (random.nextInt(3)) {
+                case 0 -> result.remove(index);
+                case 1 -> result.add(index, "        // inserted " + i);
+                default -> result.set(index, result.get(index) + " // changed");
+            }
+        }
+        return result;
+    }
+}
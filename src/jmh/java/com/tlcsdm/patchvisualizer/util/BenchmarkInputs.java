@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs for the benchmarks.
+ */
+public final class BenchmarkInputs {
+
+    /**
+     * How the revised file differs from the original.
+     */
+    public enum Shape {
+        /**
+         * One changed, inserted or deleted line roughly every 100 lines.
+         */
+        SCATTERED,
+        /**
+         * A few large rewritten blocks.
+         */
+        CLUSTERED,
+        /**
+         * Unchanged original followed by appended lines.
+         */
+        APPENDED
+    }
+
+    /**
+     * Layout of a generated patch.
+     */
+    public enum PatchShape {
+        /**
+         * One large file.
+         */
+        SINGLE_FILE,
+        /**
+         * Many files of {@value #LINES_PER_FILE} lines each.
+         */
+        MULTI_FILE,
+        /**
+         * Many files wrapped in git format-patch mail headers, with binary sections.
+         */
+        FORMAT_PATCH
+    }
+
+    // Lines per file of multi-file patches
+    private static final int LINES_PER_FILE = 200;
+    // Every n-th file of a format-patch is binary
+    private static final int BINARY_FILE_INTERVAL = 10;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Generate source-like lines.
+     *
+     * @param seed  random seed
+     * @param count number of lines
+     * @return lines
+     */
+    public static List<String> sourceLines(long seed, int count) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 2) {
+                lines.add("    }");
+            } else if (kind < 3) {
+                lines.add("");
+            } else {
+                lines.add("        final String value" + random.nextInt(5_000) + " = compute(context, \"item-"
+                        + i + "\", options.withLimit(" + random.nextInt(100) + "));");
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Derive a revised version of some lines. Every line is a new instance, as if read from disk.
+     *
+     * @param lines original lines
+     * @param shape kind of edits
+     * @param seed  random seed
+     * @return revised lines
+     */
+    public static List<String> edit(List<String> lines, Shape shape, long seed) {
+        Random random = new Random(seed);
+        List<String> result = new ArrayList<>(lines.size() + lines.size() / 10);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = new String(lines.get(i));
+            switch (shape) {
+                case SCATTERED -> {
+                    int edit = i % 100 == 50 ? random.nextInt(3) : -1;
+                    if (edit == 0) {
+                        result.add(line + " // changed");
+                    } else if (edit == 1) {
+                        result.add("        // inserted " + i);
+                        result.add(line);
+                    } else if (edit != 2) {
+                        result.add(line);
+                    }
+                }
+                case CLUSTERED -> {
+                    // Rewrite 5% of the file in four blocks
+                    int block = lines.size() / 4;
+                    if (block > 0 && i % block < block / 20) {
+                        result.add("        rewritten(" + i + ");");
+                    } else {
+                        result.add(line);
+                    }
+                }
+                case APPENDED -> result.add(line);
+            }
+        }
+        if (shape == Shape.APPENDED) {
+            result.addAll(sourceLines(seed, lines.size() / 10));
+        }
+        return result;
+    }
+
+    /**
+     * Generate a git patch with about {@code lines} source lines.
+     *
+     * @param lines number of source lines covered by the patch
+     * @param shape patch layout
+     * @param seed  random seed
+     * @return patch lines
+     */
+    public static List<String> patch(int lines, PatchShape shape, long seed) {
+        PatchCorpus corpus = switch (shape) {
+            case SINGLE_FILE -> PatchCorpus.of(seed, 1).withLinesPerFile(lines);
+            case MULTI_FILE -> PatchCorpus.of(seed, Math.max(1, lines / LINES_PER_FILE))
+                    .withLinesPerFile(LINES_PER_FILE);
+            case FORMAT_PATCH -> PatchCorpus.of(seed, Math.max(1, lines / LINES_PER_FILE))
+                    .withLinesPerFile(LINES_PER_FILE)
+                    .withBinaryEvery(BINARY_FILE_INTERVAL)
+                    .withFormatPatch(true);
+        };
+        return corpus.patchLines();
+    }
+}
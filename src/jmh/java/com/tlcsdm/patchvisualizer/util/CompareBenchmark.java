@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.Patch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for comparing two files: diffing, merging hunks into the original and applying patches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CompareBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    @Param({"SCATTERED", "CLUSTERED", "APPENDED"})
+    public BenchmarkInputs.Shape shape;
+
+    private List<String> original;
+    private List<String> revised;
+    private List<String> prefixedOriginal;
+    private List<String> zeroContextDiff;
+    private List<String> unifiedDiff;
+    private Patch<String> patch;
+
+    @Setup
+    public void setUp() {
+        original = BenchmarkInputs.sourceLines(1, lines);
+        revised = BenchmarkInputs.edit(original, shape, 2);
+        patch = DiffUtils.diff(original, revised);
+        unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff("a.txt", "b.txt", original, patch, 3);
+        // Input as diffString prepared it for insertOrig before hunks were merged directly
+        zeroContextDiff = UnifiedDiffUtils.generateUnifiedDiff("a.txt", "b.txt", original, patch, 0);
+        if (zeroContextDiff.size() >= 3 && !zeroContextDiff.get(2).contains("@@ -1,")) {
+            zeroContextDiff.add(2, HunkMerge.PLACEHOLDER);
+        }
+        prefixedOriginal = original.stream().map(v -> " " + v).toList();
+    }
+
+    /**
+     * Make every diffString call compute the diff instead of hitting the cache.
+     */
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        DiffHandleUtil.getDiffCache().clear();
+    }
+
+    @Benchmark
+    public List<String> diffString() {
+        return DiffHandleUtil.diffString(original, revised, "a.txt", "b.txt");
+    }
+
+    @Benchmark
+    public List<String> insertOrig() {
+        return DiffHandleUtil.insertOrig(prefixedOriginal, zeroContextDiff);
+    }
+
+    @Benchmark
+    public List<String> mergeHunks() {
+        return HunkMerge.merge(original, patch, "a.txt", "b.txt");
+    }
+
+    @Benchmark
+    public List<String> applyPatch() {
+        return DiffHandleUtil.applyPatch(original, unifiedDiff);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for opening a patch file: cleaning up its content and rendering it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PatchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int lines;
+
+    @Param({"SINGLE_FILE", "MULTI_FILE", "FORMAT_PATCH"})
+    public BenchmarkInputs.PatchShape shape;
+
+    private List<String> patch;
+    private List<List<String>> optimized;
+
+    @Setup
+    public void setUp() {
+        patch = BenchmarkInputs.patch(lines, shape, 3);
+        optimized = List.of(DiffHandleUtil.optimizePatchContent(patch));
+    }
+
+    @Benchmark
+    public List<String> optimizePatchContent() {
+        return DiffHandleUtil.optimizePatchContent(patch);
+    }
+
+    @Benchmark
+    public List<String> stripFormatPatchMetadata() {
+        return DiffHandleUtil.stripFormatPatchMetadata(patch);
+    }
+
+    @Benchmark
+    public String getDiffHtml() {
+        return DiffHandleUtil.getDiffHtml(optimized);
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the DiffHandleUtil pipelines on generated inputs of doubling size and reports
+ * time and peak heap per size, and where growth stops being linear.
+ * <p>
+ * Arguments, all optional:
+ * {@code --pipeline patch|compare|all --from 1m --to 256m --runs 3 --seed 1 --out report.md}.
+ */
+public final class ScalabilitySuite {
+
+    // Growth of time or heap per input byte, against the best smaller size, that counts as non-linear
+    private static final double NON_LINEAR_GROWTH = 1.5;
+    private static final long MB = 1024 * 1024;
+
+    private ScalabilitySuite() {
+    }
+
+    /**
+     * Measurements for one input size.
+     *
+     * @param bytes      input size
+     * @param lines      input lines
+     * @param stageNanos best time of each stage
+     * @param peakHeap   highest heap use above the baseline, in bytes
+     * @param error      failure such as running out of memory, or null
+     */
+    record Result(long bytes, long lines, Map<String, Long> stageNanos, long peakHeap, String error) {
+
+        long totalNanos() {
+            return stageNanos.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    /**
+     * One pipeline run, timed stage by stage.
+     */
+    private interface Pipeline {
+
+        void run(Path dir, Map<String, Long> stageNanos) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>(Map.of("--pipeline", "all", "--from", "1m",
+                "--to", "256m", "--runs", "3", "--seed", "1", "--out", "target/scalability-report.md"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!options.containsKey(args[i])) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        long from = parseSize(options.get("--from"));
+        long to = parseSize(options.get("--to"));
+        int runs = Integer.parseInt(options.get("--runs"));
+        long seed = Long.parseLong(options.get("--seed"));
+        String pipeline = options.get("--pipeline");
+
+        StringBuilder report = new StringBuilder("# Scalability report\n\n");
+        report.append("Java ").append(Runtime.version()).append(", max heap ")
+                .append(Runtime.getRuntime().maxMemory() / MB).append(" MB, ")
+                .append(runs).append(" runs per size, seed ").append(seed).append(".\n");
+        if (pipeline.equals("all") || pipeline.equals("patch")) {
+            report.append('\n').append(run("Patch: read, parse, optimize, render", from, to, runs, seed,
+                    "input.patch", ScalabilitySuite::preparePatch, ScalabilitySuite::runPatch));
+        }
+        if (pipeline.equals("all") || pipeline.equals("compare")) {
+            report.append('\n').append(run("Compare: read, diff, render", from, to, runs, seed,
+                    "original.txt", ScalabilitySuite::prepareFilePair, ScalabilitySuite::runCompare));
+        }
+        System.out.print(report);
+        Path out = Path.of(options.get("--out"));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.writeString(out, report);
+    }
+
+    private interface Preparer {
+
+        long prepare(Path dir, long bytes, long seed) throws IOException;
+    }
+
+    private static String run(String title, long from, long to, int runs, long seed, String input,
+                              Preparer preparer, Pipeline pipeline) throws IOException {
+        List<Result> results = new ArrayList<>();
+        // Warm up the JIT on the smallest size so the first row is not dominated by it
+        Path warmup = Files.createTempDirectory("scalability");
+        try {
+            preparer.prepare(warmup, from, seed);
+            measure(warmup, warmup.resolve(input), from, runs, pipeline);
+        } finally {
+            deleteDirectory(warmup);
+        }
+        for (long size = from; size <= to; size *= 2) {
+            Path dir = Files.createTempDirectory("scalability");
+            try {
+                long bytes = preparer.prepare(dir, size, seed);
+                Result result = measure(dir, dir.resolve(input), bytes, runs, pipeline);
+                results.add(result);
+                System.err.printf(Locale.ROOT, "%s %d MB: %d ms%n", title, bytes / MB, result.totalNanos() / 1_000_000);
+                if (result.error() != null) {
+                    break;
+                }
+            } finally {
+                deleteDirectory(dir);
+            }
+        }
+        return format(title, results);
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static Result measure(Path dir, Path input, long bytes, int runs, Pipeline pipeline)
+            throws IOException {
+        Map<String, Long> best = new LinkedHashMap<>();
+        long peak = 0;
+        long lines;
+        try (var stream = Files.lines(input)) {
+            lines = stream.count();
+        }
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+                .toList();
+        for (int run = 0; run < runs; run++) {
+            System.gc();
+            long baseline = heapUsed(pools);
+            pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            Map<String, Long> stageNanos = new LinkedHashMap<>();
+            try {
+                pipeline.run(dir, stageNanos);
+            } catch (OutOfMemoryError e) {
+                return new Result(bytes, lines, stageNanos, maxPeak(pools, baseline), "out of memory");
+            }
+            // Sum of per-pool peaks: an upper bound of the real peak
+            peak = Math.max(peak, maxPeak(pools, baseline));
+            stageNanos.forEach((stage, nanos) -> best.merge(stage, nanos, Math::min));
+        }
+        return new Result(bytes, lines, best, peak, null);
+    }
+
+    private static long heapUsed(List<MemoryPoolMXBean> pools) {
+        return pools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+
+    private static long maxPeak(List<MemoryPoolMXBean> pools, long baseline) {
+        return Math.max(0, pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() - baseline);
+    }
+
+    private static long preparePatch(Path dir, long bytes, long seed) throws IOException {
+        return PatchCorpus.ofSize(seed, bytes).withBinaryEvery(20).withFormatPatch(true)
+                .writePatch(dir.resolve("input.patch"));
+    }
+
+    private static long prepareFilePair(Path dir, long bytes, long seed) throws IOException {
+        return PatchCorpus.ofSize(seed, bytes).withLinesPerFile(1_000).withHunkDensity(0.5)
+                .writeFilePair(dir.resolve("original.txt"), dir.resolve("revised.txt"));
+    }
+
+    private static void runPatch(Path dir, Map<String, Long> stageNanos) throws IOException {
+        long start = System.nanoTime();
+        List<String> lines = Files.readAllLines(dir.resolve("input.patch"));
+        start = stage(stageNanos, "read", start);
+        ParsedPatch patch = DiffHandleUtil.parsePatch(lines);
+        start = stage(stageNanos, "parse", start);
+        List<String> content = DiffHandleUtil.getOptimizedContent(patch);
+        start = stage(stageNanos, "optimize", start);
+        DiffHandleUtil.generateDiffHtml(dir.resolve("output.html"), List.of(content), false);
+        stage(stageNanos, "render", start);
+    }
+
+    private static void runCompare(Path dir, Map<String, Long> stageNanos) throws IOException {
+        DiffHandleUtil.getDiffCache().clear();
+        long start = System.nanoTime();
+        List<String> original = Files.readAllLines(dir.resolve("original.txt"));
+        List<String> revised = Files.readAllLines(dir.resolve("revised.txt"));
+        start = stage(stageNanos, "read", start);
+        List<String> diff = DiffHandleUtil.diffString(original, revised, "original.txt", "revised.txt");
+        start = stage(stageNanos, "diff", start);
+        DiffHandleUtil.generateDiffHtml(dir.resolve("output.html"), List.of(diff), false);
+        stage(stageNanos, "render", start);
+    }
+
+    private static long stage(Map<String, Long> stageNanos, String name, long start) {
+        long now = System.nanoTime();
+        stageNanos.put(name, now - start);
+        return now;
+    }
+
+    /**
+     * Format the results as a markdown table. The exponents compare each size with the
+     * previous one: log(growth) / log(size ratio), so 1 is linear. The verdict names the
+     * first size whose time or heap per input byte grew {@value #NON_LINEAR_GROWTH} times
+     * over the best smaller size, which is less sensitive to noise than a single step.
+     *
+     * @param title   section title
+     * @param results measurements by increasing size
+     * @return markdown section
+     */
+    static String format(String title, List<Result> results) {
+        StringBuilder sb = new StringBuilder("## ").append(title).append("\n\n");
+        if (results.isEmpty()) {
+            return sb.append("No sizes measured.\n").toString();
+        }
+        List<String> stages = new ArrayList<>(results.getFirst().stageNanos().keySet());
+        sb.append("| Input MB | Lines | Total ms |");
+        stages.forEach(stage -> sb.append(' ').append(stage).append(" ms |"));
+        sb.append(" ns/byte | Peak heap MB | Heap/input | Time exp. | Heap exp. |\n|");
+        sb.append("---:|".repeat(8 + stages.size())).append('\n');
+        String verdict = null;
+        Result bestTime = null;
+        Result bestHeap = null;
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            sb.append(String.format(Locale.ROOT, "| %.1f | %d | %d |", megabytes(result), result.lines(),
+                    result.totalNanos() / 1_000_000));
+            for (String stage : stages) {
+                Long nanos = result.stageNanos().get(stage);
+                sb.append(' ').append(nanos == null ? "-" : String.valueOf(nanos / 1_000_000)).append(" |");
+            }
+            sb.append(String.format(Locale.ROOT, " %.1f | %d | %.2f |", timePerByte(result),
+                    result.peakHeap() / MB, heapPerByte(result)));
+            if (result.error() != null) {
+                sb.append(' ').append(result.error()).append(" | |\n");
+                if (verdict == null) {
+                    verdict = String.format(Locale.ROOT, "Failed at %.1f MB: %s.", megabytes(result),
+                            result.error());
+                }
+                continue;
+            }
+            if (i == 0) {
+                sb.append(" - | - |\n");
+            } else {
+                Result previous = results.get(i - 1);
+                sb.append(String.format(Locale.ROOT, " %.2f | %.2f |\n",
+                        exponent(previous.totalNanos(), result.totalNanos(), previous.bytes(), result.bytes()),
+                        exponent(previous.peakHeap(), result.peakHeap(), previous.bytes(), result.bytes())));
+            }
+            if (verdict == null && bestTime != null
+                    && timePerByte(result) > NON_LINEAR_GROWTH * timePerByte(bestTime)) {
+                StringBuilder stageGrowth = new StringBuilder();
+                for (String stage : stages) {
+                    double before = bestTime.stageNanos().get(stage) / (double) bestTime.bytes();
+                    double after = result.stageNanos().get(stage) / (double) result.bytes();
+                    stageGrowth.append(stageGrowth.isEmpty() ? "" : ", ")
+                            .append(String.format(Locale.ROOT, "%s %.1fx", stage, after / before));
+                }
+                verdict = String.format(Locale.ROOT,
+                        "Time stops scaling linearly at %.1f MB: %.1fx the time per byte of %.1f MB (%s).",
+                        megabytes(result), timePerByte(result) / timePerByte(bestTime), megabytes(bestTime),
+                        stageGrowth);
+            }
+            if (verdict == null && bestHeap != null
+                    && heapPerByte(result) > NON_LINEAR_GROWTH * heapPerByte(bestHeap)) {
+                verdict = String.format(Locale.ROOT,
+                        "Heap stops scaling linearly at %.1f MB: %.1fx the heap per byte of %.1f MB.",
+                        megabytes(result), heapPerByte(result) / heapPerByte(bestHeap), megabytes(bestHeap));
+            }
+            if (bestTime == null || timePerByte(result) < timePerByte(bestTime)) {
+                bestTime = result;
+            }
+            if (result.peakHeap() > 0 && (bestHeap == null || heapPerByte(result) < heapPerByte(bestHeap))) {
+                bestHeap = result;
+            }
+        }
+        if (verdict == null) {
+            verdict = String.format(Locale.ROOT, "Scaled linearly up to %.1f MB.", megabytes(results.getLast()));
+        }
+        return sb.append('\n').append(verdict).append('\n').toString();
+    }
+
+    private static double megabytes(Result result) {
+        return result.bytes() / (double) MB;
+    }
+
+    private static double timePerByte(Result result) {
+        return result.totalNanos() / (double) result.bytes();
+    }
+
+    private static double heapPerByte(Result result) {
+        return result.peakHeap() / (double) result.bytes();
+    }
+
+    private static double exponent(long before, long after, long sizeBefore, long sizeAfter) {
+        if (before <= 0 || after <= 0) {
+            return Double.NaN;
+        }
+        return Math.log((double) after / before) / Math.log((double) sizeAfter / sizeBefore);
+    }
+
+    private static long parseSize(String size) {
+        String value = size.trim().toLowerCase(Locale.ROOT);
+        long unit = switch (value.charAt(value.length() - 1)) {
+            case 'k' -> 1024;
+            case 'm' -> MB;
+            case 'g' -> MB * 1024;
+            default -> 1;
+        };
+        String digits = unit == 1 ? value : value.substring(0, value.length() - 1);
+        return Long.parseLong(digits) * unit;
+    }
+}
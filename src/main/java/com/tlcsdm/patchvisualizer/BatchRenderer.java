@@ -0,0 +1,478 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.tlcsdm.patchvisualizer.diff.DiffAlgorithm;
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.util.BinarySniffer;
+import com.tlcsdm.patchvisualizer.util.DiffHandleUtil;
+import com.tlcsdm.patchvisualizer.util.DirectoryDiff;
+import com.tlcsdm.patchvisualizer.util.ProgressListener;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Headless command line renderer that writes diff pages without starting JavaFX.
+ * <p>
+ * {@code --render} turns patch files, given as paths or glob patterns, into HTML
+ * pages on a pool of workers and prints the timing and throughput of each file.
+ * {@code --compare} compares two files or directory trees into one page.
+ * Only the diff utilities are used, so the JavaFX toolkit is never initialized.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class BatchRenderer {
+
+    static final String RENDER = "--render";
+    static final String COMPARE = "--compare";
+
+    // Exit codes
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String HTML_EXTENSION = ".html";
+    private static final double MB = 1024.0 * 1024.0;
+
+    private static final String USAGE = """
+            Usage:
+              --render <patch|glob>... [-o <file.html|dir>] [-j <workers>] [--dark]
+              --compare <original> <revised> [-o <file.html>] [--algorithm <name>] [--dark]
+
+            --render writes one page per patch, next to the patch unless -o is given.
+            With a single input, -o may name the page; otherwise it is a directory.
+            Quote glob patterns such as "build/**/*.patch" to expand them here.
+            --compare accepts two files or two directories and writes to standard
+            output unless -o is given.
+            """;
+
+    private BatchRenderer() {
+    }
+
+    /**
+     * Mode of a command line.
+     */
+    enum Mode {
+        RENDER,
+        COMPARE
+    }
+
+    /**
+     * Parsed command line.
+     *
+     * @param mode        what to do
+     * @param inputs      patch paths and glob patterns, or the two compared paths
+     * @param output      output file or directory, or null for the default
+     * @param jobs        number of render workers
+     * @param darkMode    whether pages use the dark color scheme
+     * @param diffOptions diff algorithm used by comparisons
+     */
+    record Options(Mode mode, List<String> inputs, Path output, int jobs, boolean darkMode,
+                   DiffOptions diffOptions) {
+
+        Options {
+            inputs = List.copyOf(inputs);
+            if (jobs < 1) {
+                throw new IllegalArgumentException("Worker count must be positive: " + jobs);
+            }
+            if (mode == Mode.RENDER && inputs.isEmpty()) {
+                throw new IllegalArgumentException("No patch files given");
+            }
+            if (mode == Mode.COMPARE && inputs.size() != 2) {
+                throw new IllegalArgumentException("--compare needs exactly two paths");
+            }
+        }
+
+        /**
+         * Parse command line arguments.
+         *
+         * @param args the arguments
+         * @return the options
+         * @throws IllegalArgumentException if the arguments are invalid
+         */
+        static Options parse(String[] args) {
+            Mode mode = null;
+            List<String> inputs = new ArrayList<>();
+            Path output = null;
+            int jobs = Runtime.getRuntime().availableProcessors();
+            boolean darkMode = false;
+            DiffOptions diffOptions = DiffOptions.DEFAULT;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case RENDER, COMPARE -> {
+                        Mode selected = arg.equals(RENDER) ? Mode.RENDER : Mode.COMPARE;
+                        if (mode != null && mode != selected) {
+                            throw new IllegalArgumentException("Use either " + RENDER + " or " + COMPARE);
+                        }
+                        mode = selected;
+                    }
+                    case "-o", "--output" -> output = Path.of(value(args, ++i, arg));
+                    case "-j", "--jobs" -> {
+                        String value = value(args, ++i, arg);
+                        try {
+                            jobs = Integer.parseInt(value);
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Invalid worker count: " + value);
+                        }
+                    }
+                    case "--dark" -> darkMode = true;
+                    case "--algorithm" -> diffOptions = DiffOptions.of(DiffAlgorithm.fromName(value(args, ++i, arg)));
+                    default -> {
+                        if (arg.startsWith("-") && arg.length() > 1) {
+                            throw new IllegalArgumentException("Unknown option: " + arg);
+                        }
+                        inputs.add(arg);
+                    }
+                }
+            }
+            if (mode == null) {
+                throw new IllegalArgumentException("Missing " + RENDER + " or " + COMPARE);
+            }
+            return new Options(mode, inputs, output, jobs, darkMode, diffOptions);
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            return args[index];
+        }
+    }
+
+    /**
+     * A patch and the page rendered from it.
+     *
+     * @param input  the patch file
+     * @param output the page file
+     */
+    record Job(Path input, Path output) {
+    }
+
+    /**
+     * Outcome of rendering one patch.
+     *
+     * @param job         the rendered patch
+     * @param inputBytes  size of the patch
+     * @param outputBytes size of the page
+     * @param readNanos   time spent reading and parsing
+     * @param renderNanos time spent writing the page
+     * @param error       the failure, or null on success
+     */
+    record Result(Job job, long inputBytes, long outputBytes, long readNanos, long renderNanos, Exception error) {
+    }
+
+    /**
+     * Check whether command line arguments ask for a headless run.
+     *
+     * @param args the arguments
+     * @return true if the arguments contain {@code --render} or {@code --compare}
+     */
+    public static boolean isBatchCommand(String[] args) {
+        for (String arg : args) {
+            if (RENDER.equals(arg) || COMPARE.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run a headless command line.
+     *
+     * @param args the arguments
+     * @param out  target of reports, and of the page when comparing without {@code -o}
+     * @param err  target of errors
+     * @return process exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return EXIT_USAGE;
+        }
+        try {
+            return options.mode() == Mode.RENDER ? render(options, out, err) : compare(options, out, err);
+        } catch (IOException | RuntimeException e) {
+            err.println(describe(e));
+            return EXIT_FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return EXIT_FAILED;
+        }
+    }
+
+    private static int render(Options options, PrintStream out, PrintStream err)
+            throws IOException, InterruptedException {
+        List<Job> jobs = planJobs(expandInputs(options.inputs()), options.output());
+        if (jobs.isEmpty()) {
+            err.println("No patch files match " + String.join(" ", options.inputs()));
+            return EXIT_FAILED;
+        }
+        int workers = Math.min(options.jobs(), jobs.size());
+        long start = System.nanoTime();
+        long inputBytes = 0;
+        long outputBytes = 0;
+        int failed = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+            for (Job job : jobs) {
+                completion.submit(() -> render(job, options.darkMode()));
+            }
+            // Report in completion order so progress is visible on long runs
+            for (int i = 0; i < jobs.size(); i++) {
+                Result result = completion.take().get();
+                if (result.error() != null) {
+                    failed++;
+                    err.println("FAILED " + result.job().input() + ": " + describe(result.error()));
+                    continue;
+                }
+                inputBytes += result.inputBytes();
+                outputBytes += result.outputBytes();
+                out.println(formatResult(result));
+            }
+        } catch (ExecutionException e) {
+            // render(Job, boolean) reports failures in its result
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf(Locale.ROOT, "Rendered %d of %d files in %.2f s: %s in, %s out, %.1f MB/s with %d workers%n",
+                jobs.size() - failed, jobs.size(), seconds, formatBytes(inputBytes), formatBytes(outputBytes),
+                inputBytes / MB / Math.max(seconds, 1e-9), workers);
+        return failed == 0 ? EXIT_OK : EXIT_FAILED;
+    }
+
+    /**
+     * Render one patch into its page.
+     *
+     * @param job      the patch and page
+     * @param darkMode whether the page uses the dark color scheme
+     * @return timings and sizes, or the failure
+     */
+    static Result render(Job job, boolean darkMode) {
+        long start = System.nanoTime();
+        try {
+            if (BinarySniffer.isBinary(job.input())) {
+                throw new IOException("Binary file, not a patch");
+            }
+            // Map the file instead of decoding it onto the heap; lines are decoded on demand
+            List<String> lines = DiffHandleUtil.readPatch(job.input(), ProgressListener.NONE);
+            ParsedPatch patch = DiffHandleUtil.parsePatch(lines);
+            List<String> content = DiffHandleUtil.getOptimizedContent(patch);
+            long read = System.nanoTime();
+            Path parent = job.output().toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            DiffHandleUtil.generateDiffHtml(job.output(), List.of(content), darkMode);
+            long rendered = System.nanoTime();
+            return new Result(job, Files.size(job.input()), Files.size(job.output()), read - start, rendered - read,
+                    null);
+        } catch (IOException | RuntimeException e) {
+            return new Result(job, 0, 0, 0, 0, e);
+        }
+    }
+
+    private static int compare(Options options, PrintStream out, PrintStream err)
+            throws IOException, InterruptedException {
+        Path original = Path.of(options.inputs().get(0));
+        Path revised = Path.of(options.inputs().get(1));
+        long start = System.nanoTime();
+        List<List<String>> diffs;
+        if (Files.isDirectory(original) && Files.isDirectory(revised)) {
+            diffs = DirectoryDiff.compare(original, revised, options.diffOptions(), diff -> {
+            }).stream().map(DirectoryDiff.FileDiff::diff).toList();
+        } else {
+            diffs = List.of(DiffHandleUtil.diffString(original.toString(), revised.toString(),
+                    options.diffOptions()));
+        }
+        long compared = System.nanoTime();
+        PrintStream report = out;
+        if (options.output() == null) {
+            // The page goes to standard output, so the timings go to the error stream
+            DiffHandleUtil.generateDiffHtml(Channels.newChannel(out), diffs, options.darkMode());
+            out.flush();
+            report = err;
+        } else {
+            DiffHandleUtil.generateDiffHtml(options.output(), diffs, options.darkMode());
+        }
+        long rendered = System.nanoTime();
+        report.printf(Locale.ROOT, "Compared %s and %s: diff %.1f ms, render %.1f ms%n",
+                original, revised, (compared - start) / 1e6, (rendered - compared) / 1e6);
+        return EXIT_OK;
+    }
+
+    /**
+     * Expand inputs into patch files.
+     * Inputs containing glob characters are matched against the files below the
+     * longest directory prefix without glob characters; other inputs are taken as is.
+     *
+     * @param inputs patch paths and glob patterns
+     * @return the patch files, without duplicates, in input order
+     * @throws IOException if a directory cannot be walked
+     */
+    static List<Path> expandInputs(List<String> inputs) throws IOException {
+        Set<Path> seen = new HashSet<>();
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            if (!isGlob(input)) {
+                Path path = Path.of(input);
+                if (seen.add(path.toAbsolutePath().normalize())) {
+                    files.add(path);
+                }
+                continue;
+            }
+            String pattern = input.replace('\\', '/');
+            int firstGlob = firstGlobIndex(pattern);
+            int baseEnd = pattern.lastIndexOf('/', firstGlob);
+            Path base = baseEnd < 0 ? Path.of("") : Path.of(baseEnd == 0 ? "/" : pattern.substring(0, baseEnd));
+            PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + pattern.substring(baseEnd + 1));
+            Path root = base.toString().isEmpty() ? Path.of(".") : base;
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(root)) {
+                List<Path> matched = walk.filter(Files::isRegularFile)
+                        .filter(path -> matcher.matches(root.relativize(path)))
+                        .map(path -> base.toString().isEmpty() ? root.relativize(path) : path)
+                        .sorted()
+                        .toList();
+                for (Path path : matched) {
+                    if (seen.add(path.toAbsolutePath().normalize())) {
+                        files.add(path);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Decide where each patch's page is written.
+     * Without an output, each page is written next to its patch; with a single
+     * patch and an output ending in ".html" that is not a directory, that is the page;
+     * otherwise the output is a directory holding all pages.
+     *
+     * @param inputs the patch files
+     * @param output output file or directory, or null
+     * @return one job per patch
+     * @throws IllegalArgumentException if two patches would be written to the same page
+     */
+    static List<Job> planJobs(List<Path> inputs, Path output) {
+        boolean singleFile = output != null && inputs.size() == 1 && !Files.isDirectory(output)
+                && output.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(HTML_EXTENSION);
+        Set<Path> outputs = new HashSet<>();
+        List<Job> jobs = new ArrayList<>(inputs.size());
+        for (Path input : inputs) {
+            Path page;
+            if (singleFile) {
+                page = output;
+            } else {
+                String name = pageName(input);
+                page = output == null ? input.resolveSibling(name) : output.resolve(name);
+            }
+            if (!outputs.add(page.toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("More than one patch would be written to " + page);
+            }
+            jobs.add(new Job(input, page));
+        }
+        return jobs;
+    }
+
+    private static String pageName(Path input) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + HTML_EXTENSION;
+    }
+
+    private static boolean isGlob(String input) {
+        return firstGlobIndex(input) < input.length();
+    }
+
+    private static int firstGlobIndex(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            switch (input.charAt(i)) {
+                case '*', '?', '[', '{' -> {
+                    return i;
+                }
+                default -> {
+                }
+            }
+        }
+        return input.length();
+    }
+
+    private static String describe(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName()
+                : e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static String formatResult(Result result) {
+        double readMillis = result.readNanos() / 1e6;
+        double renderMillis = result.renderNanos() / 1e6;
+        double seconds = (result.readNanos() + result.renderNanos()) / 1e9;
+        return String.format(Locale.ROOT, "%9.1f ms (read %.1f, render %.1f) %10s -> %10s %8.1f MB/s  %s",
+                readMillis + renderMillis, readMillis, renderMillis, formatBytes(result.inputBytes()),
+                formatBytes(result.outputBytes()), result.inputBytes() / MB / Math.max(seconds, 1e-9),
+                result.job().input());
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        if (bytes < 1024L * 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f MB", bytes / MB);
+        }
+        return String.format(Locale.ROOT, "%.2f GB", bytes / MB / 1024);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.tlcsdm.patchvisualizer.util.RenderCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * JavaScript bridge for lazily rendered diff pages loaded from the render cache.
+ * <p>
+ * Installed as {@code window.patchBridge} like {@link DiffPageBridge}, but serves
+ * each file's diff from the fragments cached with the page, so showing the page
+ * does not read or parse the patch. The WebEngine only keeps a weak reference
+ * to bridge objects, so the owner must hold on to it.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class CachedPageBridge {
+
+    private final RenderCache cache;
+    private final Path source;
+    private final String variant;
+
+    public CachedPageBridge(RenderCache cache, Path source, String variant) {
+        this.cache = cache;
+        this.source = source;
+        this.variant = variant;
+    }
+
+    /**
+     * Get the unified diff text of a single file.
+     *
+     * @param index file index
+     * @return diff text, or an empty string if the fragment is no longer cached
+     */
+    public String fileDiff(int index) {
+        try {
+            String diff = cache.getFragment(source, variant, index);
+            return diff == null ? "" : diff;
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+/**
+ * How the result of comparing two files is presented.
+ *
+ * @author unknowIfGuestInDream
+ */
+enum CompareMode {
+    /**
+     * Show the whole file, switching to context mode for large files.
+     */
+    AUTO("compareMode.auto"),
+    /**
+     * Show the whole original file with the changes in place.
+     */
+    FULL("compareMode.full"),
+    /**
+     * Show only the changes with a few lines of context; collapsed lines expand on demand.
+     */
+    CONTEXT("compareMode.context");
+
+    private final String bundleKey;
+
+    CompareMode(String bundleKey) {
+        this.bundleKey = bundleKey;
+    }
+
+    /**
+     * Get the resource bundle key of the display name.
+     *
+     * @return bundle key
+     */
+    String getBundleKey() {
+        return bundleKey;
+    }
+
+    /**
+     * Get a mode by its constant name.
+     *
+     * @param name constant name
+     * @return matching mode, or {@link #AUTO} if none matches
+     */
+    static CompareMode fromName(String name) {
+        for (CompareMode mode : values()) {
+            if (mode.name().equals(name)) {
+                return mode;
+            }
+        }
+        return AUTO;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.tlcsdm.patchvisualizer.util.ContextDiff;
+
+/**
+ * JavaScript bridge for context diff pages.
+ * <p>
+ * Installed as {@code window.patchBridge}; the page draws {@link #diff()} and
+ * calls {@link #expand(int)} when a collapsed region is clicked. The WebEngine
+ * only keeps a weak reference to bridge objects, so the owner must hold on to it.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class ContextDiffBridge {
+
+    private final ContextDiff contextDiff;
+
+    public ContextDiffBridge(ContextDiff contextDiff) {
+        this.contextDiff = contextDiff;
+    }
+
+    public ContextDiff getContextDiff() {
+        return contextDiff;
+    }
+
+    /**
+     * Get the current unified diff text.
+     *
+     * @return diff text
+     */
+    public String diff() {
+        return String.join("\n", contextDiff.render());
+    }
+
+    /**
+     * Get the number of hunks in the current diff text.
+     *
+     * @return number of hunks
+     */
+    public int hunkCount() {
+        return contextDiff.hunkCount();
+    }
+
+    /**
+     * Get the number of collapsed lines before a hunk.
+     *
+     * @param hunk hunk index, or the hunk count for the lines after the last hunk
+     * @return number of hidden lines
+     */
+    public int hiddenLines(int hunk) {
+        return contextDiff.hiddenLines(hunk);
+    }
+
+    /**
+     * Reveal collapsed lines before a hunk.
+     *
+     * @param hunk hunk index, or the hunk count for the lines after the last hunk
+     * @return true if the diff text changed
+     */
+    public boolean expand(int hunk) {
+        return contextDiff.expand(hunk);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.util.DiffHandleUtil;
+
+/**
+ * JavaScript bridge for lazily rendered diff pages.
+ * <p>
+ * Installed as {@code window.patchBridge}; the page calls {@link #fileDiff(int)}
+ * for each file as it scrolls into view. The WebEngine only keeps a weak
+ * reference to bridge objects, so the owner must hold on to it.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class DiffPageBridge {
+
+    private final ParsedPatch patch;
+
+    public DiffPageBridge(ParsedPatch patch) {
+        this.patch = patch;
+    }
+
+    public ParsedPatch getPatch() {
+        return patch;
+    }
+
+    /**
+     * Get the unified diff text of a single file.
+     *
+     * @param index file index
+     * @return diff text, or an empty string for an invalid index
+     */
+    public String fileDiff(int index) {
+        if (index < 0 || index >= patch.files().size()) {
+            return "";
+        }
+        return String.join("\n", DiffHandleUtil.getFileDiff(patch, index));
+    }
+}
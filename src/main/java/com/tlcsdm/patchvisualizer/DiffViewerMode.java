@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+/**
+ * Viewer used to display a diff in a tab.
+ *
+ * @author unknowIfGuestInDream
+ */
+enum DiffViewerMode {
+    /**
+     * Use the web viewer, switching to the native viewer for very large diffs.
+     */
+    AUTO("viewer.auto"),
+    /**
+     * Always render with diff2html in a WebView.
+     */
+    WEB("viewer.web"),
+    /**
+     * Always use the virtualized native side-by-side viewer.
+     */
+    NATIVE("viewer.native");
+
+    private final String bundleKey;
+
+    DiffViewerMode(String bundleKey) {
+        this.bundleKey = bundleKey;
+    }
+
+    /**
+     * Get the resource bundle key of the display name.
+     *
+     * @return bundle key
+     */
+    String getBundleKey() {
+        return bundleKey;
+    }
+}
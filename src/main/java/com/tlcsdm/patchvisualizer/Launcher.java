@@ -35,6 +35,10 @@ package com.tlcsdm.patchvisualizer;
  * <p>
  * By using this launcher class (which does NOT extend Application), we bypass
  * this check and allow the application to start correctly from the fat JAR.
+ * <p>
+ * Arguments containing {@code --render} or {@code --compare} run the headless
+ * {@link BatchRenderer} instead, and {@code --serve} starts the {@link RenderServer};
+ * neither initializes the JavaFX toolkit.
  *
  * @author unknowIfGuestInDream
  */
@@ -46,6 +50,16 @@ public class Launcher {
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        if (BatchRenderer.isBatchCommand(args)) {
+            System.exit(BatchRenderer.run(args, System.out, System.err));
+        }
+        if (RenderServer.isServeCommand(args)) {
+            int status = RenderServer.run(args, System.out, System.err);
+            if (status != BatchRenderer.EXIT_OK) {
+                System.exit(status);
+            }
+            return;
+        }
         PatchVisualizerApp.main(args);
     }
 }
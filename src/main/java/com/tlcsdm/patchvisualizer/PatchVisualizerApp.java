@@ -35,18 +35,33 @@ import com.dlsc.preferencesfx.PreferencesFx;
 import com.dlsc.preferencesfx.model.Category;
 import com.dlsc.preferencesfx.model.Group;
 import com.dlsc.preferencesfx.model.Setting;
+import com.tlcsdm.patchvisualizer.diff.DiffAlgorithm;
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.patch.SideBySideRows;
 import com.tlcsdm.patchvisualizer.preferences.AppPreferences;
+import com.tlcsdm.patchvisualizer.util.BinarySniffer;
+import com.tlcsdm.patchvisualizer.util.ContextDiff;
 import com.tlcsdm.patchvisualizer.util.DiffHandleUtil;
+import com.tlcsdm.patchvisualizer.util.DirectoryDiff;
+import com.tlcsdm.patchvisualizer.util.ProgressListener;
+import com.tlcsdm.patchvisualizer.util.RenderCache;
 import javafx.application.Application;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
@@ -65,25 +80,41 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.control.TextArea;
+import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import javafx.scene.image.Image;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import netscape.javascript.JSObject;
 
 import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Main JavaFX application for visualizing diff and patch files.
@@ -94,6 +125,21 @@ public class PatchVisualizerApp extends Application {
 
     private static final String BUNDLE_BASE_NAME = "com.tlcsdm.patchvisualizer.i18n.messages";
     private static final int LARGE_FILE_THRESHOLD = 1024 * 1024; // 1MB
+    // Longest text put into the input area for a dropped patch; larger patches show a read-only preview
+    private static final int TEXT_PREVIEW_MAX_CHARS = LARGE_FILE_THRESHOLD;
+    // Patches above these sizes render each file on demand instead of all at once
+    private static final int LAZY_RENDER_FILE_THRESHOLD = 100;
+    private static final int LAZY_RENDER_LINE_THRESHOLD = 50_000;
+    static final int LAZY_RENDER_MAX_FILES = 30;
+    // Diffs with more lines than this use the native viewer when the tab is set to automatic
+    private static final int NATIVE_VIEW_LINE_THRESHOLD = 200_000;
+    // Minimum time between partial directory compare results pushed to the view
+    private static final long STREAM_PUBLISH_INTERVAL_NANOS = 250_000_000L;
+    private static final long RENDER_CACHE_MAX_BYTES = 512L * 1024 * 1024;
+    private static final long RENDER_CACHE_SHUTDOWN_SECONDS = 2;
+    // Combined size of two compared files above which the automatic mode shows only the changes
+    private static final long CONTEXT_MODE_SIZE_THRESHOLD = 2L * 1024 * 1024;
+    private static final int MAX_CONTEXT_LINES = 1000;
     
     // Language display name constants
     private static final String LANG_DISPLAY_ENGLISH = "English";
@@ -129,6 +175,7 @@ public class PatchVisualizerApp extends Application {
     private Stage primaryStage;
     private TextField originalFileField;
     private TextField revisedFileField;
+    private CheckBox compareDirectoriesCheckBox;
     private ResourceBundle bundle;
     private Locale currentLocale;
     private AppPreferences preferences;
@@ -136,6 +183,30 @@ public class PatchVisualizerApp extends Application {
     private boolean isChangingLanguage = false;
     // Store current diff content for each WebView to enable theme refresh
     private final Map<WebView, List<List<String>>> webViewDiffContent = new HashMap<>();
+    // Bridges for lazily rendered WebViews; also keeps them strongly reachable for the WebEngine
+    private final Map<WebView, Object> webViewBridges = new HashMap<>();
+    // Parsed patches shown in each WebView's tab, re-rendered on theme or viewer changes
+    private final Map<WebView, ParsedPatch> webViewPatches = new HashMap<>();
+    private final Map<WebView, ContextDiff> webViewContextDiffs = new HashMap<>();
+    private final Map<WebView, SideBySideDiffView> nativeViews = new HashMap<>();
+    // Viewer selected per tab, keyed by WebView id so it survives UI rebuilds
+    private final Map<String, DiffViewerMode> viewerModes = new HashMap<>();
+    // Imported patch files, so their rendered pages can be persisted and reloaded from the render cache
+    private final Map<WebView, Path> webViewSourceFiles = new HashMap<>();
+    // Fingerprints of the source files taken when they were read, stored with renderings of them
+    private final Map<WebView, RenderCache.Fingerprint> webViewSourceFingerprints = new HashMap<>();
+    private final RenderCache renderCache = new RenderCache(RenderCache.defaultDirectory(),
+            RENDER_CACHE_MAX_BYTES, true);
+    // Background loads, keyed by the WebView they render into
+    private final RenderScheduler renderScheduler = new RenderScheduler();
+    // Render cache writes run one at a time and are cancelled with their tab's next load
+    private final ExecutorService renderCacheWriter = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("render-cache-writer").daemon().factory());
+    private final Map<WebView, Future<?>> renderCacheWrites = new HashMap<>();
+    // Loading indicators standing in for WebViews while their background load runs
+    private final Map<WebView, StackPane> loadingPanes = new HashMap<>();
+    // WebViews whose page switches to the current theme once it has loaded
+    private final Set<WebView> pendingPageThemes = new HashSet<>();
 
     public static void main(String[] args) {
         launch(args);
@@ -157,6 +228,18 @@ public class PatchVisualizerApp extends Application {
         initializeUI();
     }
 
+    @Override
+    public void stop() {
+        renderScheduler.shutdown();
+        renderCacheWriter.shutdownNow();
+        try {
+            // Give an interrupted cache write the chance to delete its temporary file before the JVM exits
+            renderCacheWriter.awaitTermination(RENDER_CACHE_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void initializePreferences() {
         preferencesFx = createPreferencesFx();
 
@@ -249,6 +332,35 @@ public class PatchVisualizerApp extends Application {
             }
         });
         
+        // Create observable list of diff algorithm names
+        ObservableList<String> diffAlgorithmOptions = FXCollections.observableArrayList(
+                Arrays.stream(DiffAlgorithm.values()).map(DiffAlgorithm::getDisplayName).toList());
+
+        // Create object property for diff algorithm selection; preferences store the constant name
+        ObjectProperty<String> diffAlgorithmSelection = new SimpleObjectProperty<>(
+                DiffAlgorithm.fromName(preferences.getDiffAlgorithm()).getDisplayName());
+
+        diffAlgorithmSelection.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null && !newVal.equals(oldVal)) {
+                preferences.setDiffAlgorithm(DiffAlgorithm.fromName(newVal).name());
+            }
+        });
+
+        // Create observable list of compare mode names in the current language
+        ObservableList<String> compareModeOptions = FXCollections.observableArrayList(
+                Arrays.stream(CompareMode.values()).map(mode -> bundle.getString(mode.getBundleKey())).toList());
+
+        // Create object property for compare mode selection; preferences store the constant name
+        ObjectProperty<String> compareModeSelection = new SimpleObjectProperty<>(
+                compareModeOptions.get(CompareMode.fromName(preferences.getCompareMode()).ordinal()));
+
+        compareModeSelection.addListener((obs, oldVal, newVal) -> {
+            int index = compareModeOptions.indexOf(newVal);
+            if (index >= 0 && !newVal.equals(oldVal)) {
+                preferences.setCompareMode(CompareMode.values()[index].name());
+            }
+        });
+
         return PreferencesFx.of(AppPreferences.class,
                 Category.of(bundle.getString("preferences.category.general"),
                         Group.of(
@@ -257,7 +369,15 @@ public class PatchVisualizerApp extends Application {
                                         languageSelection),
                                 Setting.of(bundle.getString("preferences.theme"),
                                         themeOptions,
-                                        themeSelection)
+                                        themeSelection),
+                                Setting.of(bundle.getString("preferences.diffAlgorithm"),
+                                        diffAlgorithmOptions,
+                                        diffAlgorithmSelection),
+                                Setting.of(bundle.getString("preferences.compareMode"),
+                                        compareModeOptions,
+                                        compareModeSelection),
+                                Setting.of(bundle.getString("preferences.contextLines"),
+                                        preferences.contextLinesProperty())
                         )
                 )
         ).instantPersistent(false).saveSettings(true).buttonsVisibility(true);
@@ -294,14 +414,23 @@ public class PatchVisualizerApp extends Application {
         String initialContent = getInitialWebViewContent();
         for (Tab tab : tabPane.getTabs()) {
             if (tab.getContent() instanceof VBox vbox) {
-                for (javafx.scene.Node node : vbox.getChildren()) {
+                for (javafx.scene.Node child : vbox.getChildren()) {
+                    // A page streamed while its load runs sits under the loading indicator
+                    javafx.scene.Node node = child instanceof StackPane loadingPane
+                            && loadingPanes.containsValue(loadingPane) && !loadingPane.getChildren().isEmpty()
+                            ? loadingPane.getChildren().get(0) : child;
                     if (node instanceof WebView wv) {
+                        if (isNativeViewShown(wv)) {
+                            // The native viewer follows the theme through CSS
+                            continue;
+                        }
                         // Check if this WebView has stored diff content
                         List<List<String>> diffContent = webViewDiffContent.get(wv);
-                        if (diffContent != null && !diffContent.isEmpty()) {
-                            // Re-render the diff content with the new theme
-                            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-                            wv.getEngine().loadContent(html);
+                        if (webViewPatches.containsKey(wv) || webViewSourceFiles.containsKey(wv)
+                                || webViewContextDiffs.containsKey(wv)
+                                || webViewBridges.get(wv) instanceof StreamingDiffBridge
+                                || (diffContent != null && !diffContent.isEmpty())) {
+                            switchPageTheme(wv);
                         } else {
                             // WebView has no diff content, refresh with initial content for new theme
                             wv.getEngine().loadContent(initialContent);
@@ -312,6 +441,60 @@ public class PatchVisualizerApp extends Application {
         }
     }
 
+    /**
+     * Switch a WebView's rendered diff page to the current theme in place.
+     * A page still loading is switched once it has loaded, so large pages are not
+     * rendered again; only pages without the theme API are.
+     * @param webView the WebView showing a diff page
+     */
+    private void switchPageTheme(WebView webView) {
+        Worker<Void> loadWorker = webView.getEngine().getLoadWorker();
+        Worker.State state = loadWorker.getState();
+        if (state != Worker.State.SCHEDULED && state != Worker.State.RUNNING) {
+            if (!applyPageTheme(webView)) {
+                renderDiff(webView);
+            }
+            return;
+        }
+        if (!pendingPageThemes.add(webView)) {
+            // Already waiting; the theme current when the page has loaded is applied
+            return;
+        }
+        loadWorker.stateProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Worker.State> obs, Worker.State oldState,
+                                Worker.State newState) {
+                // A load replaced by another one is cancelled; keep waiting for the page that is shown
+                if (newState != Worker.State.SUCCEEDED && newState != Worker.State.FAILED) {
+                    return;
+                }
+                loadWorker.stateProperty().removeListener(this);
+                pendingPageThemes.remove(webView);
+                if (newState == Worker.State.SUCCEEDED && !applyPageTheme(webView)) {
+                    renderDiff(webView);
+                }
+            }
+        });
+    }
+
+    /**
+     * Switch the color scheme of a WebView's rendered diff page to the current theme without reloading it.
+     * @param webView the WebView showing a diff page
+     * @return true if the page was switched, false if it is not loaded or cannot switch
+     */
+    private boolean applyPageTheme(WebView webView) {
+        WebEngine engine = webView.getEngine();
+        if (engine.getLoadWorker().getState() != Worker.State.SUCCEEDED) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(engine.executeScript(DiffHandleUtil.getThemeScript(isDarkTheme())));
+        } catch (RuntimeException e) {
+            // JSException from a page without the theme API
+            return false;
+        }
+    }
+
     /**
      * Check if the current theme is a dark theme.
      * @return true if the current theme is dark, false otherwise
@@ -393,6 +576,12 @@ public class PatchVisualizerApp extends Application {
 
             // Clear stored diff content since UI will be rebuilt
             webViewDiffContent.clear();
+            webViewBridges.clear();
+            webViewPatches.clear();
+            webViewContextDiffs.clear();
+            webViewSourceFiles.clear();
+            webViewSourceFingerprints.clear();
+            nativeViews.clear();
 
             // Rebuild UI with new locale
             Scene oldScene = primaryStage.getScene();
@@ -530,14 +719,20 @@ public class PatchVisualizerApp extends Application {
         compareButton.setOnAction(e -> compareFiles());
         Button clearButton = new Button(bundle.getString("button.clear"));
         clearButton.setOnAction(e -> clearComparison());
-        buttonBox.getChildren().addAll(compareButton, clearButton);
+        compareDirectoriesCheckBox = new CheckBox(bundle.getString("checkbox.compareDirectories"));
 
         // WebView for displaying diff
         webView = new WebView();
+        webView.setId("compareWebView");
+        installDiffPageBridge(webView);
         webView.getEngine().loadContent(getInitialWebViewContent());
         VBox.setVgrow(webView, Priority.ALWAYS);
+        buttonBox.setAlignment(Pos.CENTER_LEFT);
+        buttonBox.getChildren().addAll(compareButton, clearButton, compareDirectoriesCheckBox,
+                createViewerSelector(webView));
 
         content.getChildren().addAll(fileGrid, buttonBox, webView);
+        attachNativeView(content, webView);
 
         tab.setContent(content);
         return tab;
@@ -556,15 +751,17 @@ public class PatchVisualizerApp extends Application {
         importButton.setOnAction(e -> importDiffFile());
         Label helpLabel = new Label(bundle.getString("label.help"));
         helpLabel.setStyle("-fx-text-fill: gray;");
-        importBox.getChildren().addAll(importButton, helpLabel);
 
         // WebView for displaying imported diff
         WebView importWebView = new WebView();
         importWebView.setId("importWebView");
+        installDiffPageBridge(importWebView);
         importWebView.getEngine().loadContent(getInitialWebViewContent());
         VBox.setVgrow(importWebView, Priority.ALWAYS);
+        importBox.getChildren().addAll(importButton, createViewerSelector(importWebView), helpLabel);
 
         content.getChildren().addAll(importBox, importWebView);
+        attachNativeView(content, importWebView);
 
         tab.setContent(content);
         return tab;
@@ -592,13 +789,14 @@ public class PatchVisualizerApp extends Application {
         HBox buttonBox = new HBox(10);
         Button visualizeButton = new Button(bundle.getString("button.visualize"));
         Button clearButton = new Button(bundle.getString("button.clear"));
-        buttonBox.getChildren().addAll(visualizeButton, clearButton);
 
         // WebView for displaying the diff
         WebView inputWebView = new WebView();
         inputWebView.setId("inputWebView");
+        installDiffPageBridge(inputWebView);
         inputWebView.getEngine().loadContent(getInitialWebViewContent());
         VBox.setVgrow(inputWebView, Priority.ALWAYS);
+        buttonBox.getChildren().addAll(visualizeButton, clearButton, createViewerSelector(inputWebView));
 
         // Setup drag-and-drop for TextArea
         setupDragAndDrop(diffTextArea, inputWebView, content);
@@ -610,11 +808,9 @@ public class PatchVisualizerApp extends Application {
                 if (diffText.length() > LARGE_FILE_THRESHOLD) {
                     visualizeLargeTextAsync(diffText, inputWebView, content);
                 } else {
+                    cancelBackgroundLoad(inputWebView);
                     List<String> lines = List.of(diffText.split("\n"));
-                    List<List<String>> diffContent = List.of(lines);
-                    String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-                    webViewDiffContent.put(inputWebView, diffContent);
-                    inputWebView.getEngine().loadContent(html);
+                    showDiff(inputWebView, List.of(lines));
                 }
             } else {
                 showAlert(Alert.AlertType.WARNING, bundle.getString("message.warning"),
@@ -624,11 +820,12 @@ public class PatchVisualizerApp extends Application {
 
         clearButton.setOnAction(e -> {
             diffTextArea.clear();
-            webViewDiffContent.remove(inputWebView);
-            inputWebView.getEngine().loadContent(getInitialWebViewContent());
+            diffTextArea.setEditable(true);
+            clearDiff(inputWebView);
         });
 
         content.getChildren().addAll(instructionLabel, diffTextArea, buttonBox, inputWebView);
+        attachNativeView(content, inputWebView);
 
         tab.setContent(content);
         return tab;
@@ -677,18 +874,17 @@ public class PatchVisualizerApp extends Application {
                         success = true;
                     } else {
                         // Load small files synchronously
+                        cancelBackgroundLoad(webView);
                         try {
-                            List<String> fileLines = Files.readAllLines(file.toPath());
+                            requireTextPatch(file.toPath());
+                            ParsedPatch patch = DiffHandleUtil.parsePatch(
+                                    DiffHandleUtil.readPatch(file.toPath(), ProgressListener.NONE));
                             // Optimize content to handle binary sections
-                            fileLines = DiffHandleUtil.optimizePatchContent(fileLines);
-                            String fileContent = String.join("\n", fileLines);
-                            textArea.setText(fileContent);
+                            textArea.setText(String.join("\n", DiffHandleUtil.getOptimizedContent(patch)));
+                            textArea.setEditable(true);
 
                             // Auto-visualize the content
-                            List<List<String>> diffContent = List.of(fileLines);
-                            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-                            webViewDiffContent.put(webView, diffContent);
-                            webView.getEngine().loadContent(html);
+                            showPatch(webView, patch);
                             success = true;
                         } catch (IOException e) {
                             showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
@@ -706,84 +902,98 @@ public class PatchVisualizerApp extends Application {
      * Load a dropped file asynchronously for large files.
      */
     private void loadDroppedFileAsync(File file, TextArea textArea, WebView webView, VBox container) {
-        // Show loading indicator
-        ProgressIndicator progressIndicator = new ProgressIndicator();
-        StackPane loadingPane = new StackPane(progressIndicator);
-        int webViewIndex = container.getChildren().indexOf(webView);
-        container.getChildren().set(webViewIndex, loadingPane);
-
+        ResourceBundle labels = bundle;
+        PageSettings settings = pageSettings(webView);
         // Load file in background
-        Task<List<String>> loadTask = new Task<>() {
+        Task<DroppedPatch> loadTask = new ProgressTask<>() {
             @Override
-            protected List<String> call() throws Exception {
-                List<String> content = Files.readAllLines(file.toPath());
-                // Optimize content to handle binary sections
-                return DiffHandleUtil.optimizePatchContent(content);
+            protected DroppedPatch call() throws Exception {
+                requireTextPatch(file.toPath());
+                // Map the file instead of decoding it onto the heap; lines are decoded on demand
+                List<String> content = DiffHandleUtil.readPatch(file.toPath(), progressListener());
+                // Classify binary sections and format-patch metadata in one pass
+                ParsedPatch patch = DiffHandleUtil.parsePatch(content, progressListener());
+                // Joining a huge patch into one String would block the FX thread and may not fit the heap
+                List<String> optimized = DiffHandleUtil.getOptimizedContent(patch);
+                int shown = previewLineCount(optimized, TEXT_PREVIEW_MAX_CHARS);
+                String text = String.join("\n", optimized.subList(0, shown));
+                if (shown < optimized.size()) {
+                    text += "\n\n" + MessageFormat.format(labels.getString("message.previewTruncated"),
+                            shown, optimized.size());
+                }
+                return new DroppedPatch(patch, text, shown < optimized.size(),
+                        settings.render(patch, progressListener()));
             }
         };
 
         loadTask.setOnSucceeded(event -> {
-            List<String> content = loadTask.getValue();
-            String fileContent = String.join("\n", content);
-            textArea.setText(fileContent);
-
-            List<List<String>> diffContent = List.of(content);
-            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-            webViewDiffContent.put(webView, diffContent);
-            container.getChildren().set(webViewIndex, webView);
-            webView.getEngine().loadContent(html);
+            DroppedPatch dropped = loadTask.getValue();
+            textArea.setText(dropped.text());
+            // A preview would visualize only part of the patch, so it is not meant to be edited
+            textArea.setEditable(!dropped.preview());
+            hideLoading(webView);
+            showPatch(webView, dropped.patch(), null, null,
+                    settings.equals(pageSettings(webView)) ? dropped.page() : null);
         });
 
         loadTask.setOnFailed(event -> {
-            container.getChildren().set(webViewIndex, webView);
-            webViewDiffContent.remove(webView);
+            hideLoading(webView);
+            forgetDiff(webView);
             Throwable e = loadTask.getException();
             showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
                     MessageFormat.format(bundle.getString("message.failedRead"),
                             e != null ? e.getMessage() : "Unknown error"));
         });
 
-        new Thread(loadTask).start();
+        loadTask.setOnCancelled(event -> hideLoading(webView));
+
+        // Submit first: cancelling the superseded job removes its loading indicator
+        submitBackgroundLoad(webView, loadTask);
+        showLoading(webView, container, loadTask);
     }
 
     private void visualizeLargeTextAsync(String diffText, WebView webView, VBox container) {
-        // Show loading indicator
-        ProgressIndicator progressIndicator = new ProgressIndicator();
-        StackPane loadingPane = new StackPane(progressIndicator);
-        int webViewIndex = container.getChildren().indexOf(webView);
-        container.getChildren().set(webViewIndex, loadingPane);
-
-        // Process in background - return optimized lines for theme refresh support
-        Task<List<String>> visualizeTask = new Task<>() {
+        PageSettings settings = pageSettings(webView);
+        // Process in background - return the parsed patch for theme refresh support
+        Task<RenderedPatch> visualizeTask = new ProgressTask<>() {
             @Override
-            protected List<String> call() throws Exception {
+            protected RenderedPatch call() throws Exception {
                 List<String> lines = List.of(diffText.split("\n"));
-                // Optimize content to handle binary sections
-                return DiffHandleUtil.optimizePatchContent(lines);
+                // Classify binary sections and format-patch metadata in one pass
+                ParsedPatch patch = DiffHandleUtil.parsePatch(lines, progressListener());
+                return new RenderedPatch(patch, settings.render(patch, progressListener()));
             }
         };
 
         visualizeTask.setOnSucceeded(event -> {
-            List<String> optimizedLines = visualizeTask.getValue();
-            List<List<String>> diffContent = List.of(optimizedLines);
-            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-            webViewDiffContent.put(webView, diffContent);
-            container.getChildren().set(webViewIndex, webView);
-            webView.getEngine().loadContent(html);
+            hideLoading(webView);
+            RenderedPatch rendered = visualizeTask.getValue();
+            showPatch(webView, rendered.patch(), null, null,
+                    settings.equals(pageSettings(webView)) ? rendered.page() : null);
         });
 
         visualizeTask.setOnFailed(event -> {
-            container.getChildren().set(webViewIndex, webView);
-            webViewDiffContent.remove(webView);
+            hideLoading(webView);
+            forgetDiff(webView);
             Throwable e = visualizeTask.getException();
             showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
                     e != null ? e.getMessage() : "Unknown error");
         });
 
-        new Thread(visualizeTask).start();
+        visualizeTask.setOnCancelled(event -> hideLoading(webView));
+
+        submitBackgroundLoad(webView, visualizeTask);
+        showLoading(webView, container, visualizeTask);
     }
 
     private void selectOriginalFile() {
+        if (compareDirectoriesCheckBox.isSelected()) {
+            File dir = selectDirectory(bundle.getString("fileChooser.selectOriginalDir"));
+            if (dir != null) {
+                originalFileField.setText(dir.getAbsolutePath());
+            }
+            return;
+        }
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(bundle.getString("fileChooser.selectOriginal"));
         
@@ -805,6 +1015,13 @@ public class PatchVisualizerApp extends Application {
     }
 
     private void selectRevisedFile() {
+        if (compareDirectoriesCheckBox.isSelected()) {
+            File dir = selectDirectory(bundle.getString("fileChooser.selectRevisedDir"));
+            if (dir != null) {
+                revisedFileField.setText(dir.getAbsolutePath());
+            }
+            return;
+        }
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(bundle.getString("fileChooser.selectRevised"));
         
@@ -825,6 +1042,27 @@ public class PatchVisualizerApp extends Application {
         }
     }
 
+    private File selectDirectory(String title) {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle(title);
+
+        // Set initial directory from preferences
+        String lastDir = preferences.getLastDirectory();
+        if (lastDir != null) {
+            File dir = new File(lastDir);
+            if (dir.exists() && dir.isDirectory()) {
+                directoryChooser.setInitialDirectory(dir);
+            }
+        }
+
+        File dir = directoryChooser.showDialog(primaryStage);
+        if (dir != null) {
+            // Save the parent directory for next time
+            preferences.setLastDirectory(dir.getParent() != null ? dir.getParent() : dir.getAbsolutePath());
+        }
+        return dir;
+    }
+
     private void compareFiles() {
         String originalPath = originalFileField.getText();
         String revisedPath = revisedFileField.getText();
@@ -835,23 +1073,224 @@ public class PatchVisualizerApp extends Application {
             return;
         }
 
+        Path originalDir = Path.of(originalPath);
+        Path revisedDir = Path.of(revisedPath);
+        if (Files.isDirectory(originalDir) && Files.isDirectory(revisedDir)) {
+            compareDirectoriesAsync(originalDir, revisedDir, getDiffOptions());
+            return;
+        }
+
+        boolean contextMode;
         try {
-            List<String> diffResult = DiffHandleUtil.diffString(originalPath, revisedPath);
-            List<List<String>> diffContent = List.of(diffResult);
-            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-            webViewDiffContent.put(webView, diffContent);
-            webView.getEngine().loadContent(html);
-        } catch (Exception e) {
+            contextMode = useContextMode(originalDir, revisedDir);
+        } catch (IOException e) {
             showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
                     MessageFormat.format(bundle.getString("message.failedCompare"), e.getMessage()));
+            return;
+        }
+        compareFilesAsync(originalPath, revisedPath, getDiffOptions(), contextMode);
+    }
+
+    /**
+     * Compare two files in the background.
+     * The full page is rendered in the background too, so the FX thread only loads it.
+     * @param originalPath the original file
+     * @param revisedPath the revised file
+     * @param options the diff options
+     * @param contextMode whether to show only the changes with a few lines of context
+     */
+    private void compareFilesAsync(String originalPath, String revisedPath, DiffOptions options,
+                                   boolean contextMode) {
+        WebView compareWebView = webView;
+        int contextLines = Math.clamp(preferences.getContextLines(), 0, MAX_CONTEXT_LINES);
+        DiffViewerMode mode = viewerModes.getOrDefault(compareWebView.getId(), DiffViewerMode.AUTO);
+        boolean hasNativeView = nativeViews.containsKey(compareWebView);
+        boolean darkMode = isDarkTheme();
+
+        Task<ComparedFiles> compareTask = new ProgressTask<>() {
+            @Override
+            protected ComparedFiles call() throws Exception {
+                // Binary files have no lines to show in context; they get the plain binary summary
+                if (contextMode && !DiffHandleUtil.isBinary(originalPath, revisedPath)) {
+                    ContextDiff contextDiff = DiffHandleUtil.contextDiff(originalPath, revisedPath, options,
+                            contextLines, progressListener());
+                    // The context page itself is built by the page's script; only the native viewer needs rows
+                    SideBySideRows rows = mode == DiffViewerMode.NATIVE && hasNativeView
+                            ? SideBySideRows.of(DiffHandleUtil.parsePatch(contextDiff.render())) : null;
+                    return new ComparedFiles(null, contextDiff, null, rows);
+                }
+                List<List<String>> diffContent = List.of(
+                        DiffHandleUtil.diffString(originalPath, revisedPath, options, progressListener()));
+                if (useNativeView(mode, hasNativeView, diffContent.get(0).size())) {
+                    return new ComparedFiles(diffContent, null, null,
+                            SideBySideRows.of(DiffHandleUtil.parsePatch(diffContent.get(0))));
+                }
+                return new ComparedFiles(diffContent, null,
+                        DiffHandleUtil.getDiffHtml(diffContent, darkMode, progressListener()), null);
+            }
+        };
+
+        compareTask.setOnSucceeded(event -> {
+            hideLoading(compareWebView);
+            ComparedFiles compared = compareTask.getValue();
+            boolean sameViewer = mode == viewerModes.getOrDefault(compareWebView.getId(), DiffViewerMode.AUTO);
+            if (compared.contextDiff() != null) {
+                showContextDiff(compareWebView, compared.contextDiff(), sameViewer ? compared.rows() : null);
+            } else if (compared.rows() != null && sameViewer) {
+                forgetDiff(compareWebView);
+                webViewDiffContent.put(compareWebView, compared.diffContent());
+                showNativeView(compareWebView, compared.rows());
+            } else if (compared.html() != null && darkMode == isDarkTheme() && sameViewer) {
+                showRenderedDiff(compareWebView, compared.diffContent(), compared.html());
+            } else {
+                // Theme or viewer changed while comparing; render again
+                showDiff(compareWebView, compared.diffContent());
+            }
+        });
+
+        compareTask.setOnFailed(event -> {
+            hideLoading(compareWebView);
+            Throwable e = compareTask.getException();
+            showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
+                    MessageFormat.format(bundle.getString("message.failedCompare"),
+                            e != null ? e.getMessage() : "Unknown error"));
+        });
+
+        compareTask.setOnCancelled(event -> hideLoading(compareWebView));
+
+        submitBackgroundLoad(compareWebView, compareTask);
+        if (compareWebView.getParent() instanceof VBox container) {
+            showLoading(compareWebView, container, compareTask);
         }
     }
 
+    /**
+     * Compare two directory trees in the background, showing the files compared out of the total.
+     * Changed files are appended to a streamed page as they finish, with the progress shown over
+     * it, and the files left when the comparison ends are appended too, so each file is sent to
+     * the page once.
+     * @param originalDir the original directory
+     * @param revisedDir the revised directory
+     * @param options the diff options
+     */
+    private void compareDirectoriesAsync(Path originalDir, Path revisedDir, DiffOptions options) {
+        WebView compareWebView = webView;
+        StreamingDiffBridge bridge = new StreamingDiffBridge();
+
+        Task<ParsedPatch> compareTask = new ProgressTask<>() {
+            @Override
+            protected ParsedPatch call() throws Exception {
+                long[] lastPublished = {System.nanoTime()};
+                List<DirectoryDiff.FileDiff> diffs = DirectoryDiff.compare(originalDir, revisedDir, options, diff -> {
+                    bridge.add(diff.diff());
+                    synchronized (lastPublished) {
+                        long now = System.nanoTime();
+                        if (now - lastPublished[0] < STREAM_PUBLISH_INTERVAL_NANOS) {
+                            return;
+                        }
+                        lastPublished[0] = now;
+                    }
+                    javafx.application.Platform.runLater(() -> showStreamedFiles(compareWebView, this, bridge));
+                }, fileProgressListener());
+                return DiffHandleUtil.parsePatch(diffs.stream().flatMap(diff -> diff.diff().stream()).toList());
+            }
+        };
+
+        compareTask.setOnSucceeded(event -> {
+            hideLoading(compareWebView);
+            ParsedPatch patch = compareTask.getValue();
+            if (patch.files().isEmpty()) {
+                clearDiff(compareWebView);
+                showAlert(Alert.AlertType.INFORMATION, bundle.getString("message.information"),
+                        bundle.getString("message.noDifferences"));
+            } else if (useNativeView(compareWebView, patch.contentEnd() - patch.contentStart())) {
+                showPatch(compareWebView, patch);
+            } else {
+                // The bridge holds every changed file; the page fetches those it has not shown yet
+                streamFiles(compareWebView, bridge);
+                // Kept for viewer changes, which render the patch in path order
+                webViewPatches.put(compareWebView, patch);
+            }
+        });
+
+        compareTask.setOnFailed(event -> {
+            hideLoading(compareWebView);
+            Throwable e = compareTask.getException();
+            showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
+                    MessageFormat.format(bundle.getString("message.failedCompare"),
+                            e != null ? e.getMessage() : "Unknown error"));
+        });
+
+        compareTask.setOnCancelled(event -> hideLoading(compareWebView));
+
+        submitBackgroundLoad(compareWebView, compareTask);
+        if (compareWebView.getParent() instanceof VBox container) {
+            showLoading(compareWebView, container, compareTask);
+        }
+    }
+
+    /**
+     * Show the files a running directory comparison has finished so far.
+     * The first call loads the streamed page and keeps the progress shown over it.
+     * @param webView the target WebView
+     * @param task the comparison
+     * @param bridge the bridge the comparison adds finished files to
+     */
+    private void showStreamedFiles(WebView webView, Task<?> task, StreamingDiffBridge bridge) {
+        if (task.isDone() || !renderScheduler.isCurrent(webView, task)) {
+            return;
+        }
+        showLoadingOverPage(webView);
+        streamFiles(webView, bridge);
+    }
+
+    /**
+     * Show the files of a streaming bridge: load the streamed page if the WebView does not
+     * show it yet, otherwise have the page fetch only the files added since its last fetch.
+     * @param webView the target WebView
+     * @param bridge the bridge holding the finished files
+     */
+    private void streamFiles(WebView webView, StreamingDiffBridge bridge) {
+        WebEngine engine = webView.getEngine();
+        if (webViewBridges.get(webView) != bridge) {
+            // Also after a viewer change, which renders the tab without the streamed page
+            forgetDiff(webView);
+            webViewBridges.put(webView, bridge);
+            showWebView(webView);
+            engine.loadContent(DiffHandleUtil.getStreamingDiffHtml(LAZY_RENDER_MAX_FILES, isDarkTheme()));
+        } else if (engine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+            // Until the page has loaded, its start() picks up every file added so far
+            engine.executeScript("window.patchVisualizer.append()");
+        }
+    }
+
+    /**
+     * Check whether two files are compared in context mode.
+     * @param original the original file
+     * @param revised the revised file
+     * @return true to show only the changes with a few lines of context
+     * @throws IOException if the file sizes cannot be read
+     */
+    private boolean useContextMode(Path original, Path revised) throws IOException {
+        return switch (CompareMode.fromName(preferences.getCompareMode())) {
+            case CONTEXT -> true;
+            case FULL -> false;
+            case AUTO -> Files.size(original) + Files.size(revised) > CONTEXT_MODE_SIZE_THRESHOLD;
+        };
+    }
+
+    /**
+     * Get the diff options selected in the preferences.
+     * @return the diff options
+     */
+    private DiffOptions getDiffOptions() {
+        return DiffOptions.of(DiffAlgorithm.fromName(preferences.getDiffAlgorithm()));
+    }
+
     private void clearComparison() {
         originalFileField.clear();
         revisedFileField.clear();
-        webViewDiffContent.remove(webView);
-        webView.getEngine().loadContent(getInitialWebViewContent());
+        clearDiff(webView);
     }
 
     private void importDiffFile() {
@@ -890,12 +1329,6 @@ public class PatchVisualizerApp extends Application {
 
     private void loadFile(File file) {
         try {
-            List<String> content = Files.readAllLines(file.toPath());
-            // Optimize content to handle binary sections
-            content = DiffHandleUtil.optimizePatchContent(content);
-            List<List<String>> diffContent = List.of(content);
-            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-
             // Switch to import tab (index 0) and display
             tabPane.getSelectionModel().select(0);
             Tab importTab = tabPane.getTabs().get(0);
@@ -906,8 +1339,19 @@ public class PatchVisualizerApp extends Application {
                     .orElse(null);
 
             if (importWebView != null) {
-                webViewDiffContent.put(importWebView, diffContent);
-                importWebView.getEngine().loadContent(html);
+                cancelBackgroundLoad(importWebView);
+                String cacheVariant = renderCacheVariant(importWebView);
+                RenderCache.Page cached = readRenderCache(file.toPath(), cacheVariant);
+                if (cached != null) {
+                    showCachedRender(importWebView, file.toPath(), cacheVariant, cached);
+                    return;
+                }
+                requireTextPatch(file.toPath());
+                RenderCache.Fingerprint fingerprint = fingerprintSource(file.toPath());
+                // Classify binary sections and format-patch metadata in one pass
+                ParsedPatch patch = DiffHandleUtil.parsePatch(
+                        DiffHandleUtil.readPatch(file.toPath(), ProgressListener.NONE));
+                showPatch(importWebView, patch, file.toPath(), fingerprint, null);
             }
         } catch (IOException e) {
             showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
@@ -930,42 +1374,762 @@ public class PatchVisualizerApp extends Application {
         if (importWebView == null) {
             return;
         }
+        importPatchAsync(importWebView, vbox, file.toPath());
+    }
 
-        // Show loading indicator
-        ProgressIndicator progressIndicator = new ProgressIndicator();
-        StackPane loadingPane = new StackPane(progressIndicator);
-        int webViewIndex = vbox.getChildren().indexOf(importWebView);
-        vbox.getChildren().set(webViewIndex, loadingPane);
+    /**
+     * Load a patch file into a WebView in the background, using the render cache when possible.
+     * @param importWebView the target WebView
+     * @param vbox the container holding the WebView
+     * @param source the patch file
+     */
+    private void importPatchAsync(WebView importWebView, VBox vbox, Path source) {
+        String cacheVariant = renderCacheVariant(importWebView);
+        PageSettings settings = pageSettings(importWebView);
 
         // Load file in background - return content for theme refresh support
-        Task<List<String>> loadTask = new Task<>() {
+        Task<LoadedPatch> loadTask = new ProgressTask<>() {
             @Override
-            protected List<String> call() throws Exception {
-                List<String> content = Files.readAllLines(file.toPath());
-                // Optimize content to handle binary sections
-                return DiffHandleUtil.optimizePatchContent(content);
+            protected LoadedPatch call() throws Exception {
+                RenderCache.Page cached = readRenderCache(source, cacheVariant);
+                if (cached != null) {
+                    return new LoadedPatch(null, null, cached, null);
+                }
+                requireTextPatch(source);
+                RenderCache.Fingerprint fingerprint = fingerprintSource(source);
+                // Map the file instead of decoding it onto the heap; lines are decoded on demand
+                List<String> content = DiffHandleUtil.readPatch(source, progressListener());
+                // Classify binary sections and format-patch metadata in one pass
+                ParsedPatch patch = DiffHandleUtil.parsePatch(content, progressListener());
+                return new LoadedPatch(patch, fingerprint, null, settings.render(patch, progressListener()));
             }
         };
 
         loadTask.setOnSucceeded(event -> {
-            List<String> content = loadTask.getValue();
-            List<List<String>> diffContent = List.of(content);
-            String html = DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme());
-            webViewDiffContent.put(importWebView, diffContent);
-            vbox.getChildren().set(webViewIndex, importWebView);
-            importWebView.getEngine().loadContent(html);
+            hideLoading(importWebView);
+            LoadedPatch loaded = loadTask.getValue();
+            if (loaded.cached() != null) {
+                showCachedRender(importWebView, source, cacheVariant, loaded.cached());
+            } else {
+                showPatch(importWebView, loaded.patch(), source, loaded.fingerprint(),
+                        settings.equals(pageSettings(importWebView)) ? loaded.page() : null);
+            }
         });
 
         loadTask.setOnFailed(event -> {
-            vbox.getChildren().set(webViewIndex, importWebView);
-            webViewDiffContent.remove(importWebView);
+            hideLoading(importWebView);
+            forgetDiff(importWebView);
             Throwable e = loadTask.getException();
             showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
                     MessageFormat.format(bundle.getString("message.failedRead"), 
                             e != null ? e.getMessage() : "Unknown error"));
         });
 
-        new Thread(loadTask).start();
+        loadTask.setOnCancelled(event -> hideLoading(importWebView));
+
+        submitBackgroundLoad(importWebView, loadTask);
+        showLoading(importWebView, vbox, loadTask);
+    }
+
+    /**
+     * Display diff content in a WebView's tab.
+     * @param webView the target WebView
+     * @param diffContent the diff content to display
+     */
+    private void showDiff(WebView webView, List<List<String>> diffContent) {
+        webViewPatches.remove(webView);
+        webViewContextDiffs.remove(webView);
+        webViewSourceFiles.remove(webView);
+        webViewSourceFingerprints.remove(webView);
+        webViewDiffContent.put(webView, diffContent);
+        renderDiff(webView);
+    }
+
+    /**
+     * Display diff content whose web page was already rendered.
+     * @param webView the target WebView
+     * @param diffContent the diff content, kept to render again on theme or viewer changes
+     * @param html the rendered page
+     */
+    private void showRenderedDiff(WebView webView, List<List<String>> diffContent, String html) {
+        forgetDiff(webView);
+        webViewDiffContent.put(webView, diffContent);
+        showWebView(webView);
+        webView.getEngine().loadContent(html);
+    }
+
+    /**
+     * Display a parsed patch in a WebView's tab.
+     * @param webView the target WebView
+     * @param patch the parsed patch to display
+     */
+    private void showPatch(WebView webView, ParsedPatch patch) {
+        showPatch(webView, patch, null, null, null);
+    }
+
+    /**
+     * Display a parsed patch read from a file in a WebView's tab.
+     * Its web page renderings are persisted in the render cache.
+     * @param webView the target WebView
+     * @param patch the parsed patch to display
+     * @param source the patch file, or null if the patch was not read from a file
+     * @param fingerprint the fingerprint of the file taken before it was read, or null not to cache renderings
+     * @param page the web page or native viewer rows prepared in the background for the tab's
+     *             current viewer and theme, or null to render the patch here
+     */
+    private void showPatch(WebView webView, ParsedPatch patch, Path source, RenderCache.Fingerprint fingerprint,
+                           PatchPage page) {
+        webViewDiffContent.remove(webView);
+        webViewContextDiffs.remove(webView);
+        webViewPatches.put(webView, patch);
+        if (source != null) {
+            webViewSourceFiles.put(webView, source);
+        } else {
+            webViewSourceFiles.remove(webView);
+        }
+        if (fingerprint != null) {
+            webViewSourceFingerprints.put(webView, fingerprint);
+        } else {
+            webViewSourceFingerprints.remove(webView);
+        }
+        if (page != null && page.rows() != null) {
+            webViewBridges.remove(webView);
+            showNativeView(webView, page.rows());
+        } else if (page != null) {
+            webViewBridges.remove(webView);
+            showPatchPage(webView, patch, page);
+        } else {
+            renderDiff(webView);
+        }
+    }
+
+    /**
+     * Display a comparison as hunks with context in a WebView's tab.
+     * @param webView the target WebView
+     * @param contextDiff the comparison to display
+     */
+    private void showContextDiff(WebView webView, ContextDiff contextDiff) {
+        showContextDiff(webView, contextDiff, null);
+    }
+
+    /**
+     * Display a comparison as hunks with context in a WebView's tab.
+     * @param webView the target WebView
+     * @param contextDiff the comparison to display
+     * @param rows the native viewer rows built in the background for the tab's viewer, or null to render here
+     */
+    private void showContextDiff(WebView webView, ContextDiff contextDiff, SideBySideRows rows) {
+        forgetDiff(webView);
+        webViewContextDiffs.put(webView, contextDiff);
+        if (rows != null) {
+            showNativeView(webView, rows);
+        } else {
+            renderDiff(webView);
+        }
+    }
+
+    /**
+     * Display a page loaded from the render cache.
+     * A lazy page fetches its file diffs from the fragments cached with it.
+     * @param webView the target WebView
+     * @param source the patch file the page was rendered from
+     * @param variant the render cache variant the page was found under
+     * @param page the cached page
+     */
+    private void showCachedRender(WebView webView, Path source, String variant, RenderCache.Page page) {
+        forgetDiff(webView);
+        webViewSourceFiles.put(webView, source);
+        if (page.fragmentCount() > 0) {
+            webViewBridges.put(webView, new CachedPageBridge(renderCache, source, variant));
+        }
+        showWebView(webView);
+        webView.getEngine().loadContent(page.html());
+    }
+
+    /**
+     * Reject a binary file before it is decoded as a patch.
+     * @param file the patch file
+     * @throws IOException if the file is binary or cannot be read
+     */
+    private void requireTextPatch(Path file) throws IOException {
+        if (BinarySniffer.isBinary(file)) {
+            throw new IOException(MessageFormat.format(bundle.getString("message.binaryPatch"), file.getFileName()));
+        }
+    }
+
+    /**
+     * Get the render cache variant of a WebView's current rendering.
+     * @param webView the target WebView
+     * @return variant, or null if the selected viewer does not produce cacheable pages
+     */
+    private String renderCacheVariant(WebView webView) {
+        DiffViewerMode mode = viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO);
+        if (mode == DiffViewerMode.NATIVE) {
+            return null;
+        }
+        return (isDarkTheme() ? "dark" : "light") + "|" + mode + "|" + DiffHandleUtil.getRendererVersion();
+    }
+
+    private RenderCache.Page readRenderCache(Path source, String variant) {
+        if (variant == null) {
+            return null;
+        }
+        try {
+            return renderCache.getPage(source, variant);
+        } catch (IOException e) {
+            // The cache is an optimization only; fall back to rendering
+            return null;
+        }
+    }
+
+    /**
+     * Take the fingerprint of a patch file before it is read.
+     * @param source the patch file
+     * @return fingerprint, or null if it cannot be taken and renderings are not cached
+     */
+    private RenderCache.Fingerprint fingerprintSource(Path source) {
+        try {
+            return RenderCache.fingerprint(source);
+        } catch (IOException e) {
+            // The cache is an optimization only; the read reports real problems
+            return null;
+        }
+    }
+
+    /**
+     * Persist a page rendered from a patch file in the background.
+     * @param webView the WebView showing the page
+     * @param html the rendered page
+     * @param lazyPatch the patch whose file diffs the page fetches on demand, or null for a full page
+     */
+    private void writeRenderCache(WebView webView, String html, ParsedPatch lazyPatch) {
+        // Stored under the fingerprint taken when the patch was read, not the file's current state
+        RenderCache.Fingerprint source = webViewSourceFingerprints.get(webView);
+        String variant = renderCacheVariant(webView);
+        if (source == null || variant == null) {
+            return;
+        }
+        int fragmentCount = lazyPatch == null ? 0 : lazyPatch.files().size();
+        // Compressing the page and the file diffs is done off the FX thread
+        Future<?> write = renderCacheWriter.submit(() -> {
+            try {
+                renderCache.put(source, variant, html, fragmentCount,
+                        index -> String.join("\n", DiffHandleUtil.getFileDiff(lazyPatch, index)));
+            } catch (IOException | CancellationException e) {
+                // The cache is an optimization only
+            }
+        });
+        Future<?> previous = renderCacheWrites.put(webView, write);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+
+    /**
+     * Stop persisting a WebView's page, e.g. because the tab loads other content.
+     * @param webView the WebView showing the page
+     */
+    private void cancelRenderCacheWrite(WebView webView) {
+        Future<?> write = renderCacheWrites.remove(webView);
+        if (write != null) {
+            write.cancel(true);
+        }
+    }
+
+    /**
+     * Run the background load of a WebView, replacing its previous load and cache write.
+     * @param webView the WebView being loaded
+     * @param task the background load
+     */
+    private void submitBackgroundLoad(WebView webView, Task<?> task) {
+        cancelRenderCacheWrite(webView);
+        renderScheduler.submit(webView, task);
+    }
+
+    /**
+     * Render the stored content of a WebView's tab with the viewer selected for it.
+     * Large patches render only the file index up front and fetch each file
+     * through a {@link DiffPageBridge} as it scrolls into view; very large ones
+     * go to the native viewer when the tab is set to automatic.
+     * Full and lazy pages of patch files are persisted in the render cache, lazy ones
+     * together with their file diffs; the native viewer reads the mapped file and is not cached.
+     * @param webView the target WebView
+     */
+    private void renderDiff(WebView webView) {
+        webViewBridges.remove(webView);
+        ParsedPatch patch = webViewPatches.get(webView);
+        List<List<String>> diffContent = webViewDiffContent.get(webView);
+        ContextDiff contextDiff = webViewContextDiffs.get(webView);
+        if (contextDiff != null) {
+            // Revealed lines are kept in the context diff, so switching viewer or theme keeps them
+            if (viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO) == DiffViewerMode.NATIVE
+                    && nativeViews.containsKey(webView)) {
+                showNativeViewAsync(webView, contextDiff, () -> DiffHandleUtil.parsePatch(contextDiff.render()));
+                return;
+            }
+            showWebView(webView);
+            webViewBridges.put(webView, new ContextDiffBridge(contextDiff));
+            webView.getEngine().loadContent(DiffHandleUtil.getContextDiffHtml(isDarkTheme()));
+        } else if (patch != null) {
+            if (useNativeView(webView, patch.contentEnd() - patch.contentStart())) {
+                showNativeViewAsync(webView, patch, () -> patch);
+                return;
+            }
+            showPatchPage(webView, patch, renderPatchPage(patch, isDarkTheme()));
+        } else if (diffContent != null) {
+            int lineCount = diffContent.stream().mapToInt(List::size).sum();
+            if (useNativeView(webView, lineCount)) {
+                showNativeViewAsync(webView, diffContent, () -> DiffHandleUtil.parsePatch(
+                        diffContent.size() == 1 ? diffContent.get(0)
+                                : diffContent.stream().flatMap(List::stream).toList()));
+                return;
+            }
+            showWebView(webView);
+            webView.getEngine().loadContent(DiffHandleUtil.getDiffHtml(diffContent, isDarkTheme()));
+        } else if (webViewSourceFiles.containsKey(webView) && webView.getParent() instanceof VBox container) {
+            // Shown from the render cache without parsing; load again for the new theme or viewer
+            importPatchAsync(webView, container, webViewSourceFiles.get(webView));
+        } else {
+            showWebView(webView);
+            webView.getEngine().loadContent(getInitialWebViewContent());
+        }
+    }
+
+    /**
+     * Load the web page of a patch into a WebView and persist it in the render cache.
+     * @param webView the target WebView
+     * @param patch the patch the page was rendered from
+     * @param page the page with its bridge
+     */
+    private void showPatchPage(WebView webView, ParsedPatch patch, PatchPage page) {
+        showWebView(webView);
+        if (page.bridge() != null) {
+            webViewBridges.put(webView, page.bridge());
+        }
+        webView.getEngine().loadContent(page.html());
+        writeRenderCache(webView, page.html(), page.bridge() != null ? patch : null);
+    }
+
+    /**
+     * Render the web page of a patch: the lazy page with the bridge serving its files,
+     * or the full page. The render benchmark calls this too, so it measures what the tab shows.
+     * @param patch the patch to render
+     * @param darkMode whether to use the dark color scheme
+     * @return page with its bridge
+     */
+    static PatchPage renderPatchPage(ParsedPatch patch, boolean darkMode) {
+        return renderPatchPage(patch, darkMode, ProgressListener.NONE);
+    }
+
+    /**
+     * Render the web page of a patch, reporting the rendering of a full page.
+     * @param patch the patch to render
+     * @param darkMode whether to use the dark color scheme
+     * @param listener receives the progress of the render stage
+     * @return page with its bridge
+     */
+    static PatchPage renderPatchPage(ParsedPatch patch, boolean darkMode, ProgressListener listener) {
+        if (useLazyRender(patch)) {
+            return new PatchPage(DiffHandleUtil.getLazyDiffHtml(patch, LAZY_RENDER_MAX_FILES, darkMode),
+                    new DiffPageBridge(patch));
+        }
+        return new PatchPage(DiffHandleUtil.getDiffHtml(List.of(DiffHandleUtil.getOptimizedContent(patch)), darkMode,
+                listener), null);
+    }
+
+    /**
+     * Get the viewer and theme a background task renders a WebView's tab for.
+     * @param webView the target WebView
+     * @return current settings
+     */
+    private PageSettings pageSettings(WebView webView) {
+        return new PageSettings(viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO),
+                nativeViews.containsKey(webView), isDarkTheme());
+    }
+
+    /**
+     * Install a bridge into a loaded page as {@code window.patchBridge}, then start the page.
+     * The render benchmark calls this too, so it measures what the tab shows.
+     * @param engine the engine that loaded the page
+     * @param bridge the bridge object
+     */
+    static void startPage(WebEngine engine, Object bridge) {
+        JSObject window = (JSObject) engine.executeScript("window");
+        window.setMember("patchBridge", bridge);
+        engine.executeScript("window.patchVisualizer && window.patchVisualizer.start()");
+    }
+
+    /**
+     * Check whether a patch is rendered as a file index with each file fetched on demand.
+     * @param patch the patch to render
+     * @return true for the lazy page, false for the full page
+     */
+    static boolean useLazyRender(ParsedPatch patch) {
+        return patch.files().size() > 1
+                && (patch.files().size() > LAZY_RENDER_FILE_THRESHOLD
+                || patch.contentEnd() - patch.contentStart() > LAZY_RENDER_LINE_THRESHOLD);
+    }
+
+    /**
+     * Replace a WebView with a loading indicator while its background load runs.
+     * The indicator shows the progress and current stage of the task.
+     * @param webView the WebView being loaded
+     * @param container the container holding the WebView
+     * @param task the background load
+     */
+    private void showLoading(WebView webView, VBox container, Task<?> task) {
+        hideLoading(webView);
+        showWebView(webView);
+        ProgressIndicator progressIndicator = new ProgressIndicator();
+        progressIndicator.progressProperty().bind(task.progressProperty());
+        Label stageLabel = new Label();
+        stageLabel.textProperty().bind(task.messageProperty());
+        VBox indicatorBox = new VBox(10, progressIndicator, stageLabel);
+        indicatorBox.setAlignment(Pos.CENTER);
+        StackPane loadingPane = new StackPane(indicatorBox);
+        VBox.setVgrow(loadingPane, Priority.ALWAYS);
+        container.getChildren().set(container.getChildren().indexOf(webView), loadingPane);
+        loadingPanes.put(webView, loadingPane);
+    }
+
+    /**
+     * Move a shown loading indicator to the corner of its WebView, so a page streamed while
+     * the load runs is visible and usable underneath it.
+     * @param webView the WebView being loaded
+     */
+    private void showLoadingOverPage(WebView webView) {
+        StackPane loadingPane = loadingPanes.get(webView);
+        if (loadingPane == null || webView.getParent() == loadingPane) {
+            return;
+        }
+        javafx.scene.Node indicatorBox = loadingPane.getChildren().get(0);
+        indicatorBox.setMouseTransparent(true);
+        StackPane.setAlignment(indicatorBox, Pos.TOP_RIGHT);
+        StackPane.setMargin(indicatorBox, new Insets(10, 24, 0, 0));
+        if (indicatorBox instanceof VBox box) {
+            box.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        }
+        loadingPane.getChildren().add(0, webView);
+    }
+
+    /**
+     * Put a WebView back in place of its loading indicator, if one is shown.
+     * @param webView the WebView being loaded
+     */
+    private void hideLoading(WebView webView) {
+        StackPane loadingPane = loadingPanes.remove(webView);
+        if (loadingPane != null && loadingPane.getParent() instanceof VBox container) {
+            // A WebView shown under the indicator is taken out of it first
+            loadingPane.getChildren().remove(webView);
+            container.getChildren().set(container.getChildren().indexOf(loadingPane), webView);
+        }
+    }
+
+    /**
+     * Cancel the background load of a WebView, e.g. before showing content loaded synchronously.
+     * @param webView the WebView being loaded
+     */
+    private void cancelBackgroundLoad(WebView webView) {
+        renderScheduler.cancel(webView);
+        cancelRenderCacheWrite(webView);
+        hideLoading(webView);
+    }
+
+    /**
+     * Reset a WebView to the empty initial content.
+     * @param webView the WebView to clear
+     */
+    private void clearDiff(WebView webView) {
+        cancelBackgroundLoad(webView);
+        forgetDiff(webView);
+        renderDiff(webView);
+    }
+
+    private void forgetDiff(WebView webView) {
+        webViewDiffContent.remove(webView);
+        webViewBridges.remove(webView);
+        webViewPatches.remove(webView);
+        webViewContextDiffs.remove(webView);
+        webViewSourceFiles.remove(webView);
+        webViewSourceFingerprints.remove(webView);
+    }
+
+    /**
+     * Create the viewer selector of a tab; changing it re-renders the tab's content.
+     * @param webView the WebView of the tab
+     * @return selector with its label
+     */
+    private HBox createViewerSelector(WebView webView) {
+        ComboBox<DiffViewerMode> viewerComboBox = new ComboBox<>(
+                FXCollections.observableArrayList(DiffViewerMode.values()));
+        viewerComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(DiffViewerMode mode) {
+                return mode == null ? "" : bundle.getString(mode.getBundleKey());
+            }
+
+            @Override
+            public DiffViewerMode fromString(String string) {
+                return null;
+            }
+        });
+        viewerComboBox.setValue(viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO));
+        viewerComboBox.valueProperty().addListener((obs, oldMode, newMode) -> {
+            viewerModes.put(webView.getId(), newMode);
+            renderDiff(webView);
+        });
+        HBox selectorBox = new HBox(5, new Label(bundle.getString("label.viewer")), viewerComboBox);
+        selectorBox.setAlignment(Pos.CENTER_LEFT);
+        return selectorBox;
+    }
+
+    /**
+     * Add a hidden native viewer right after a WebView; only one of them is shown at a time.
+     * @param container the container holding the WebView
+     * @param webView the WebView the native viewer stands in for
+     */
+    private void attachNativeView(VBox container, WebView webView) {
+        SideBySideDiffView nativeView = new SideBySideDiffView();
+        nativeView.setVisible(false);
+        nativeView.setManaged(false);
+        VBox.setVgrow(nativeView, Priority.ALWAYS);
+        container.getChildren().add(container.getChildren().indexOf(webView) + 1, nativeView);
+        nativeViews.put(webView, nativeView);
+    }
+
+    private boolean useNativeView(WebView webView, int lineCount) {
+        return useNativeView(viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO),
+                nativeViews.containsKey(webView), lineCount);
+    }
+
+    private static boolean useNativeView(DiffViewerMode mode, boolean hasNativeView, int lineCount) {
+        return switch (mode) {
+            case NATIVE -> hasNativeView;
+            case WEB -> false;
+            case AUTO -> hasNativeView && lineCount > NATIVE_VIEW_LINE_THRESHOLD;
+        };
+    }
+
+    private boolean isNativeViewShown(WebView webView) {
+        SideBySideDiffView nativeView = nativeViews.get(webView);
+        return nativeView != null && nativeView.isVisible();
+    }
+
+    /**
+     * Build the native viewer rows of a tab's content in the background, then show them.
+     * The rows are dropped if the tab shows other content or another viewer by then.
+     * @param webView the WebView the native viewer stands in for
+     * @param content the tab's content the rows are built from
+     * @param patch parses the content; called off the FX thread
+     */
+    private void showNativeViewAsync(WebView webView, Object content, Supplier<ParsedPatch> patch) {
+        DiffViewerMode mode = viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO);
+        Task<SideBySideRows> rowsTask = new Task<>() {
+            @Override
+            protected SideBySideRows call() {
+                return SideBySideRows.of(patch.get());
+            }
+        };
+        rowsTask.setOnSucceeded(event -> {
+            boolean shown = webViewPatches.get(webView) == content || webViewContextDiffs.get(webView) == content
+                    || webViewDiffContent.get(webView) == content;
+            if (shown && mode == viewerModes.getOrDefault(webView.getId(), DiffViewerMode.AUTO)) {
+                showNativeView(webView, rowsTask.getValue());
+            }
+        });
+        rowsTask.setOnFailed(event -> showAlert(Alert.AlertType.ERROR, bundle.getString("message.error"),
+                rowsTask.getException() != null ? rowsTask.getException().getMessage() : "Unknown error"));
+        // Keyed apart from the tab's loads, so a load still running is not cancelled
+        renderScheduler.submit(new NativeRowsKey(webView), rowsTask);
+    }
+
+    /**
+     * Show rows built in the background in the native viewer of a WebView.
+     * @param webView the WebView the native viewer stands in for
+     * @param rows the rows to show
+     */
+    private void showNativeView(WebView webView, SideBySideRows rows) {
+        SideBySideDiffView nativeView = nativeViews.get(webView);
+        nativeView.setRows(rows);
+        nativeView.setManaged(true);
+        nativeView.setVisible(true);
+        webView.setManaged(false);
+        webView.setVisible(false);
+        // Drop the previous page so it does not hold memory while hidden
+        webView.getEngine().loadContent(getInitialWebViewContent());
+    }
+
+    private void showWebView(WebView webView) {
+        SideBySideDiffView nativeView = nativeViews.get(webView);
+        if (nativeView != null && nativeView.isVisible()) {
+            nativeView.setRows(null);
+            nativeView.setManaged(false);
+            nativeView.setVisible(false);
+        }
+        webView.setManaged(true);
+        webView.setVisible(true);
+    }
+
+    /**
+     * Install the lazy rendering or context diff bridge into every page a WebView loads, then start the page.
+     * Pages without a registered bridge are left untouched.
+     * @param webView the WebView to prepare
+     */
+    private void installDiffPageBridge(WebView webView) {
+        WebEngine engine = webView.getEngine();
+        engine.getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
+            Object bridge = webViewBridges.get(webView);
+            if (newState == Worker.State.SUCCEEDED && bridge != null) {
+                startPage(engine, bridge);
+            }
+        });
+    }
+
+    /**
+     * Background task whose progress and message follow the stages reported by the diff utilities.
+     * @param <V> the result type
+     */
+    private abstract class ProgressTask<V> extends Task<V> {
+
+        private final ResourceBundle labels = bundle;
+
+        /**
+         * Get a listener forwarding reported progress to this task.
+         * @return progress listener
+         */
+        protected ProgressListener progressListener() {
+            return (stage, done, total) -> {
+                updateMessage(labels.getString(switch (stage) {
+                    case READ -> "progress.read";
+                    case PARSE -> "progress.parse";
+                    case DIFF -> "progress.diff";
+                    case RENDER -> "progress.render";
+                }));
+                updateProgress(done, total);
+            };
+        }
+
+        /**
+         * Get a listener forwarding the number of files a directory comparison has compared to this task.
+         * @return progress listener
+         */
+        protected ProgressListener fileProgressListener() {
+            return (stage, done, total) -> {
+                updateMessage(MessageFormat.format(labels.getString("progress.diffFiles"), done, total));
+                updateProgress(done, total);
+            };
+        }
+    }
+
+    /**
+     * Count the leading lines that fit into a text of limited length when joined with line breaks.
+     * @param lines the lines to join
+     * @param maxChars the maximum text length
+     * @return the number of leading lines that fit
+     */
+    static int previewLineCount(List<String> lines, int maxChars) {
+        long length = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            length += lines.get(i).length() + (i > 0 ? 1 : 0);
+            if (length > maxChars) {
+                return i;
+            }
+        }
+        return lines.size();
+    }
+
+    /**
+     * Result of loading a dropped patch file: the parsed patch and the text for the input area.
+     * @param patch the parsed patch
+     * @param text the patch text, or a preview of its first lines with a note
+     * @param preview whether the text is only a preview
+     * @param page the web page rendered for the patch, or null if the native viewer shows it
+     */
+    private record DroppedPatch(ParsedPatch patch, String text, boolean preview, PatchPage page) {
+    }
+
+    /**
+     * Web page of a patch, or the rows the native viewer shows instead.
+     * @param html the page, or null for native viewer rows
+     * @param bridge the bridge serving the files of a lazy page, or null for a full page
+     * @param rows the native viewer rows, or null for a web page
+     */
+    record PatchPage(String html, DiffPageBridge bridge, SideBySideRows rows) {
+
+        /**
+         * Web page of a patch.
+         * @param html the page
+         * @param bridge the bridge serving the files of a lazy page, or null for a full page
+         */
+        PatchPage(String html, DiffPageBridge bridge) {
+            this(html, bridge, null);
+        }
+    }
+
+    /**
+     * Scheduler key of the background job building the native viewer rows of a WebView.
+     * @param webView the WebView the native viewer stands in for
+     */
+    private record NativeRowsKey(WebView webView) {
+    }
+
+    /**
+     * Parsed patch with the web page rendered for it in the background.
+     * @param patch the parsed patch
+     * @param page the page, or the native viewer rows
+     */
+    private record RenderedPatch(ParsedPatch patch, PatchPage page) {
+    }
+
+    /**
+     * Viewer and theme a background task renders for, captured when the task is created.
+     * The task's page is shown only if the tab still has the same settings when it finishes.
+     * @param mode the viewer selected for the tab
+     * @param hasNativeView whether the tab has a native viewer
+     * @param darkMode whether the dark theme is active
+     */
+    private record PageSettings(DiffViewerMode mode, boolean hasNativeView, boolean darkMode) {
+
+        /**
+         * Render the web page of a patch, or build its rows if the native viewer shows it.
+         * @param patch the patch to render
+         * @param listener receives the progress of the render stage
+         * @return page, or the native viewer rows
+         */
+        PatchPage render(ParsedPatch patch, ProgressListener listener) {
+            return useNativeView(patch.contentEnd() - patch.contentStart())
+                    ? new PatchPage(null, null, SideBySideRows.of(patch))
+                    : renderPatchPage(patch, darkMode, listener);
+        }
+
+        /**
+         * Check whether the native viewer shows content of a given size.
+         * @param lineCount number of diff lines
+         * @return true for the native viewer
+         */
+        boolean useNativeView(int lineCount) {
+            return PatchVisualizerApp.useNativeView(mode, hasNativeView, lineCount);
+        }
+    }
+
+    /**
+     * Result of loading a patch file: either a cached page, or the parsed patch
+     * with the fingerprint its renderings are cached under and the page rendered for it.
+     */
+    private record LoadedPatch(ParsedPatch patch, RenderCache.Fingerprint fingerprint, RenderCache.Page cached,
+                               PatchPage page) {
+    }
+
+    /**
+     * Result of comparing two files: either a context diff, or the diff content
+     * with its page if the web viewer shows it.
+     * @param diffContent the diff content, or null for a context diff
+     * @param contextDiff the context diff, or null
+     * @param html the page of the diff content, or null
+     * @param rows the native viewer rows if that viewer shows the comparison, or null
+     */
+    private record ComparedFiles(List<List<String>> diffContent, ContextDiff contextDiff, String html,
+                                 SideBySideRows rows) {
     }
 
     private void showAboutDialog() {
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.event.EventHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the background loads and comparisons of all tabs.
+ * <p>
+ * Every job belongs to a key, usually the WebView of its tab, and the latest
+ * job of a key wins: submitting a job cancels the one the key is still running.
+ * Cancelled jobs are interrupted and stop at their next cancellation check;
+ * results and failures of jobs that were superseded after they finished
+ * computing are dropped before they reach the task's handlers.
+ * All methods must be called on the JavaFX application thread.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class RenderScheduler {
+
+    private final ExecutorService executor;
+    // Running job of each key
+    private final Map<Object, Task<?>> current = new HashMap<>();
+    // Token of the latest job of each key, kept after the job finished so its handlers still run
+    private final Map<Object, Object> latest = new HashMap<>();
+
+    /**
+     * Create a scheduler running each job on its own virtual thread.
+     */
+    public RenderScheduler() {
+        this(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("render-", 0).factory()));
+    }
+
+    /**
+     * Create a scheduler running jobs on the given executor.
+     *
+     * @param executor executor for the jobs
+     */
+    public RenderScheduler(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Run a job for a key, cancelling the key's previous job.
+     *
+     * @param key  owner of the job, such as the WebView of a tab
+     * @param task the job
+     * @param <T>  result type
+     * @return the submitted task
+     */
+    public <T> Task<T> submit(Object key, Task<T> task) {
+        cancel(key);
+        current.put(key, task);
+        Object token = new Object();
+        latest.put(key, token);
+        // The state listener below has already run when these events fire, so the token decides
+        EventHandler<WorkerStateEvent> dropSuperseded = event -> {
+            if (latest.get(key) != token) {
+                event.consume();
+            }
+        };
+        task.addEventFilter(WorkerStateEvent.WORKER_STATE_SUCCEEDED, dropSuperseded);
+        task.addEventFilter(WorkerStateEvent.WORKER_STATE_FAILED, dropSuperseded);
+        // Runs before the state events are fired, so isCurrent is false in the task's handlers
+        task.stateProperty().addListener((obs, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED || newState == Worker.State.FAILED
+                    || newState == Worker.State.CANCELLED) {
+                current.remove(key, task);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Check whether a job is still running as the latest one of its key.
+     *
+     * @param key  owner of the job
+     * @param task the job
+     * @return true if no other job was submitted for the key since and the job has not finished
+     */
+    public boolean isCurrent(Object key, Task<?> task) {
+        return current.get(key) == task && !task.isCancelled();
+    }
+
+    /**
+     * Cancel the running job of a key, if any.
+     *
+     * @param key owner of the job
+     */
+    public void cancel(Object key) {
+        latest.remove(key);
+        Task<?> previous = current.remove(key);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+
+    /**
+     * Cancel all jobs and stop accepting new ones.
+     */
+    public void shutdown() {
+        current.values().forEach(task -> task.cancel(true));
+        current.clear();
+        latest.clear();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,639 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.util.BinarySniffer;
+import com.tlcsdm.patchvisualizer.util.DiffHandleUtil;
+import com.tlcsdm.patchvisualizer.util.ProgressListener;
+import com.tlcsdm.patchvisualizer.util.TextReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Localhost HTTP service that renders diff pages on demand, without JavaFX.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code POST /render} renders the patch in the request body</li>
+ *   <li>{@code POST /compare?original=<path>&revised=<path>} compares two local files; the
+ *   parameters may also be posted as a form</li>
+ *   <li>{@code GET /assets/<name>} serves the diff2html assets the pages link to</li>
+ *   <li>{@code GET /metrics} reports request counts and latencies as plain text</li>
+ *   <li>{@code GET /health} answers "ok"</li>
+ * </ul>
+ * Add {@code dark=true} to the query for the dark color scheme. Pages are streamed
+ * with chunked encoding while they are written. Each request runs on its own virtual
+ * thread; renderings beyond the concurrency limit are rejected with 503 before their
+ * request body is read, and renderings running past the timeout, including the upload
+ * of the patch, are interrupted.
+ * <p>
+ * Only requests addressed to the loopback host on the bound port are answered, so a
+ * web page cannot reach the service through DNS rebinding, and cross-origin requests
+ * are refused. {@code /compare} only reads files below the configured root directories,
+ * by default the working directory, and answers missing files and files outside the
+ * roots alike, so it cannot be used to probe for paths.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class RenderServer implements AutoCloseable {
+
+    static final String SERVE = "--serve";
+
+    private static final String ASSETS_PATH = "/assets/";
+    private static final String HTML_TYPE = "text/html; charset=utf-8";
+    private static final String TEXT_TYPE = "text/plain; charset=utf-8";
+    // Assets are versioned with the renderer, so clients may keep them for a year
+    private static final String ASSET_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Latency samples kept per endpoint for the percentiles
+    private static final int LATENCY_SAMPLES = 4096;
+    // Exchange attribute marking renderings stopped by the watchdog
+    private static final String TIMED_OUT = "patchvisualizer.timedOut";
+    // Host names a request may be addressed to, with the bound port
+    private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]");
+    private static final String FORM_TYPE = "application/x-www-form-urlencoded";
+    private static final int MAX_FORM_BYTES = 64 * 1024;
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("render-watchdog").daemon().factory());
+    private final Semaphore renderPermits;
+    private final Map<String, EndpointMetrics> metrics = new HashMap<>();
+
+    /**
+     * Service configuration.
+     *
+     * @param port          port on the loopback interface; 0 picks a free port
+     * @param maxConcurrent maximum number of renderings running at the same time
+     * @param timeout       maximum time of one rendering, including streaming the page
+     * @param maxBodyBytes  maximum size of a posted patch
+     * @param roots         directories {@code /compare} may read files from; empty allows none
+     */
+    public record Config(int port, int maxConcurrent, Duration timeout, long maxBodyBytes, List<Path> roots) {
+
+        /**
+         * Default configuration: port 8765, one rendering per processor, one minute, 256 MB,
+         * files below the working directory.
+         */
+        public static final Config DEFAULT = new Config(8765, Runtime.getRuntime().availableProcessors(),
+                Duration.ofMinutes(1), 256L * 1024 * 1024);
+
+        /**
+         * Validates the configuration.
+         */
+        public Config {
+            if (port < 0 || port > 0xFFFF) {
+                throw new IllegalArgumentException("Invalid port: " + port);
+            }
+            if (maxConcurrent < 1) {
+                throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+            }
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("timeout must be positive: " + timeout);
+            }
+            if (maxBodyBytes < 1) {
+                throw new IllegalArgumentException("maxBodyBytes must be positive: " + maxBodyBytes);
+            }
+            if (roots == null) {
+                throw new IllegalArgumentException("roots must not be null");
+            }
+            roots = roots.stream().map(root -> root.toAbsolutePath().normalize()).toList();
+        }
+
+        /**
+         * Service configuration allowing {@code /compare} to read files below the working directory.
+         *
+         * @param port          port on the loopback interface; 0 picks a free port
+         * @param maxConcurrent maximum number of renderings running at the same time
+         * @param timeout       maximum time of one rendering, including streaming the page
+         * @param maxBodyBytes  maximum size of a posted patch
+         */
+        public Config(int port, int maxConcurrent, Duration timeout, long maxBodyBytes) {
+            this(port, maxConcurrent, timeout, maxBodyBytes, List.of(Path.of("")));
+        }
+
+        /**
+         * Parse the service options of a command line, starting from the defaults.
+         *
+         * @param args the arguments; other options are ignored
+         * @return the configuration
+         * @throws IllegalArgumentException if an option value is invalid
+         */
+        static Config parse(String[] args) {
+            int port = DEFAULT.port();
+            int maxConcurrent = DEFAULT.maxConcurrent();
+            Duration timeout = DEFAULT.timeout();
+            long maxBodyBytes = DEFAULT.maxBodyBytes();
+            List<Path> roots = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port" -> port = intValue(args, ++i);
+                    case "--max-concurrent" -> maxConcurrent = intValue(args, ++i);
+                    case "--timeout" -> timeout = Duration.ofSeconds(intValue(args, ++i));
+                    case "--max-body-mb" -> maxBodyBytes = intValue(args, ++i) * 1024L * 1024;
+                    case "--root" -> roots.add(Path.of(value(args, ++i)));
+                    default -> {
+                    }
+                }
+            }
+            return new Config(port, maxConcurrent, timeout, maxBodyBytes,
+                    roots.isEmpty() ? DEFAULT.roots() : roots);
+        }
+
+        private static String value(String[] args, int index) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+            }
+            return args[index];
+        }
+
+        private static int intValue(String[] args, int index) {
+            String value = value(args, index);
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + args[index - 1] + ": " + value);
+            }
+        }
+    }
+
+    private RenderServer(Config config) throws IOException {
+        this.config = config;
+        this.renderPermits = new Semaphore(config.maxConcurrent());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.port()), 0);
+        server.setExecutor(executor);
+        server.createContext("/render", exchange -> handle(exchange, "render", this::render));
+        server.createContext("/compare", exchange -> handle(exchange, "compare", this::compare));
+        server.createContext(ASSETS_PATH, exchange -> handle(exchange, "assets", this::asset));
+        server.createContext("/metrics", exchange -> handle(exchange, "metrics", this::metrics));
+        server.createContext("/health", exchange -> handle(exchange, "health",
+                e -> sendText(e, 200, "ok\n")));
+    }
+
+    /**
+     * Start a service on the loopback interface.
+     *
+     * @param config service configuration
+     * @return the running service
+     * @throws IOException if the port cannot be bound
+     */
+    public static RenderServer start(Config config) throws IOException {
+        RenderServer renderServer = new RenderServer(config);
+        renderServer.server.start();
+        return renderServer;
+    }
+
+    /**
+     * Get the bound port.
+     *
+     * @return the port
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests and stop the service, interrupting renderings still running.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Check whether command line arguments ask for the render service.
+     *
+     * @param args the arguments
+     * @return true if the arguments contain {@code --serve}
+     */
+    public static boolean isServeCommand(String[] args) {
+        return Arrays.asList(args).contains(SERVE);
+    }
+
+    /**
+     * Start the service from a command line. It keeps running until the process is stopped.
+     *
+     * @param args the arguments: {@code --serve [--port n] [--max-concurrent n] [--timeout seconds]
+     *             [--max-body-mb n] [--root dir]...}
+     * @param out  target of the startup message
+     * @param err  target of errors
+     * @return process exit code if the service could not start, or 0 once it runs
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Config config;
+        try {
+            config = Config.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return BatchRenderer.EXIT_USAGE;
+        }
+        try {
+            RenderServer renderServer = start(config);
+            Runtime.getRuntime().addShutdownHook(new Thread(renderServer::close));
+            out.printf(Locale.ROOT, "Listening on http://%s:%d/ (%d concurrent renderings, %d s timeout)%n",
+                    InetAddress.getLoopbackAddress().getHostAddress(), renderServer.port(), config.maxConcurrent(),
+                    config.timeout().toSeconds());
+            return BatchRenderer.EXIT_OK;
+        } catch (IOException e) {
+            err.println("Failed to start server: " + e.getMessage());
+            return BatchRenderer.EXIT_FAILED;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String endpoint, Handler handler) {
+        long start = System.nanoTime();
+        int status = 500;
+        try (exchange) {
+            if (isLocalRequest(exchange)) {
+                handler.handle(exchange);
+            } else {
+                sendText(exchange, 403, "Requests must address localhost on port " + port() + "\n");
+            }
+            status = exchange.getResponseCode();
+        } catch (IOException | RuntimeException e) {
+            // The client went away, or the page was cut off after its headers were sent
+            status = exchange.getResponseCode() > 0 ? exchange.getResponseCode() : 500;
+        } finally {
+            if (exchange.getAttribute(TIMED_OUT) != null) {
+                status = 504;
+            }
+            endpointMetrics(endpoint).record(status, System.nanoTime() - start);
+        }
+    }
+
+    private void render(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Use POST with the patch as request body\n");
+            return;
+        }
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && parseLong(contentLength) > config.maxBodyBytes()) {
+            sendText(exchange, 413, "Patch larger than " + config.maxBodyBytes() + " bytes\n");
+            return;
+        }
+        boolean darkMode = isDark(exchange);
+        // The body is read under the permit and the deadline, so the concurrency limit also
+        // bounds the bytes buffered and a slow client cannot hold its thread past the timeout
+        withPermit(exchange, () -> {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes((int) Math.min(config.maxBodyBytes() + 1, Integer.MAX_VALUE - 8));
+            }
+            if (body.length > config.maxBodyBytes()) {
+                sendText(exchange, 413, "Patch larger than " + config.maxBodyBytes() + " bytes\n");
+                return;
+            }
+            if (BinarySniffer.isBinary(body, 0, body.length)) {
+                sendText(exchange, 415, "Request body is binary, not a patch\n");
+                return;
+            }
+            // The body has no declared charset of its own, so detect it per file section like a patch file
+            List<String> lines = TextReader.readPatchLines(body);
+            ParsedPatch patch = DiffHandleUtil.parsePatch(lines);
+            sendPage(exchange, List.of(DiffHandleUtil.getOptimizedContent(patch)), darkMode);
+        });
+    }
+
+    private void compare(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Use POST with original=<path>&revised=<path>\n");
+            return;
+        }
+        Map<String, String> parameters = query(exchange);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(FORM_TYPE)) {
+            byte[] form;
+            try (InputStream in = exchange.getRequestBody()) {
+                form = in.readNBytes(MAX_FORM_BYTES + 1);
+            }
+            if (form.length > MAX_FORM_BYTES) {
+                sendText(exchange, 413, "Form larger than " + MAX_FORM_BYTES + " bytes\n");
+                return;
+            }
+            parseForm(new String(form, StandardCharsets.UTF_8), parameters);
+        }
+        String original = parameters.get("original");
+        String revised = parameters.get("revised");
+        if (original == null || revised == null) {
+            sendText(exchange, 400, "Pass the files as original=<path>&revised=<path>\n");
+            return;
+        }
+        Path originalFile = allowedFile(original);
+        Path revisedFile = allowedFile(revised);
+        if (originalFile == null || revisedFile == null) {
+            // One answer for missing files and files outside the roots, so paths cannot be probed
+            sendText(exchange, 404, "Both paths must be readable files below a configured root directory\n");
+            return;
+        }
+        boolean darkMode = isDark(exchange);
+        withPermit(exchange, () -> sendPage(exchange, List.of(DiffHandleUtil.diffString(originalFile.toString(),
+                revisedFile.toString(), DiffOptions.DEFAULT)), darkMode));
+    }
+
+    /**
+     * Check that a request is addressed to the loopback host on the bound port and, if it
+     * names an origin, comes from a page served the same way. A DNS-rebound name in the
+     * {@code Host} header is refused here.
+     */
+    private boolean isLocalRequest(HttpExchange exchange) {
+        Headers headers = exchange.getRequestHeaders();
+        String host = headers.getFirst("Host");
+        if (host == null || !isLocalAuthority(host)) {
+            return false;
+        }
+        String origin = headers.getFirst("Origin");
+        return origin == null || origin.startsWith("http://") && isLocalAuthority(origin.substring(7));
+    }
+
+    private boolean isLocalAuthority(String authority) {
+        int colon = authority.lastIndexOf(':');
+        if (colon < 0 || colon < authority.lastIndexOf(']')) {
+            return port() == 80 && LOCAL_HOSTS.contains(authority.toLowerCase(Locale.ROOT));
+        }
+        return LOCAL_HOSTS.contains(authority.substring(0, colon).toLowerCase(Locale.ROOT))
+                && authority.substring(colon + 1).equals(Integer.toString(port()));
+    }
+
+    /**
+     * Resolve a requested file if it lies below one of the configured roots. The path is
+     * checked as given before the file system is consulted, and again after resolving links.
+     *
+     * @return the real path of the file, or null if it is outside the roots, missing or not a regular file
+     */
+    private Path allowedFile(String name) {
+        try {
+            Path file = Path.of(name).toAbsolutePath().normalize();
+            if (config.roots().stream().noneMatch(file::startsWith)) {
+                return null;
+            }
+            Path real = file.toRealPath();
+            for (Path root : config.roots()) {
+                if (Files.isDirectory(root) && real.startsWith(root.toRealPath()) && Files.isRegularFile(real)) {
+                    return real;
+                }
+            }
+        } catch (IOException | InvalidPathException e) {
+            // Missing or unreadable: answered like a file outside the roots
+        }
+        return null;
+    }
+
+    private void asset(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring(ASSETS_PATH.length());
+        String content = DiffHandleUtil.getAsset(name);
+        if (content == null) {
+            sendText(exchange, 404, "No such asset\n");
+            return;
+        }
+        String etag = '"' + DiffHandleUtil.getRendererVersion() + '"';
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Cache-Control", ASSET_CACHE_CONTROL);
+        headers.set("ETag", etag);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        headers.set("Content-Type", (name.endsWith(".js") ? "text/javascript" : "text/css") + "; charset=utf-8");
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("renderings_in_flight ").append(config.maxConcurrent() - renderPermits.availablePermits())
+                .append('\n');
+        synchronized (metrics) {
+            metrics.keySet().stream().sorted().forEach(endpoint -> metrics.get(endpoint).appendTo(text, endpoint));
+        }
+        sendText(exchange, 200, text.toString());
+    }
+
+    @FunctionalInterface
+    private interface Rendering {
+        void run() throws IOException;
+    }
+
+    /**
+     * Run a rendering within the concurrency limit and the timeout.
+     * The watchdog interrupts the rendering at the deadline; the cancellation checks in
+     * the parse, diff and render loops then abort it, and a blocked read of the request
+     * body fails with the connection closed.
+     */
+    private void withPermit(HttpExchange exchange, Rendering rendering) throws IOException {
+        if (!renderPermits.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendText(exchange, 503, "Too many concurrent renderings\n");
+            return;
+        }
+        Thread worker = Thread.currentThread();
+        ScheduledFuture<?> deadline = watchdog.schedule(() -> {
+            exchange.setAttribute(TIMED_OUT, Boolean.TRUE);
+            worker.interrupt();
+        }, config.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        RuntimeException failure = null;
+        try {
+            rendering.run();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            deadline.cancel(false);
+            // Clear a pending interrupt so the error response can still be written
+            Thread.interrupted();
+            renderPermits.release();
+        }
+        if (failure == null) {
+            return;
+        }
+        if (exchange.getResponseCode() >= 0) {
+            // Headers are out; cutting the stream short is all that is left
+            throw failure;
+        }
+        if (failure instanceof CancellationException && exchange.getAttribute(TIMED_OUT) != null) {
+            sendText(exchange, 504, "Rendering timed out after " + config.timeout().toMillis() + " ms\n");
+        } else {
+            sendText(exchange, 500, failure.getMessage() + "\n");
+        }
+    }
+
+    private static void sendPage(HttpExchange exchange, List<List<String>> diffs, boolean darkMode)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", HTML_TYPE);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        // Length 0 selects chunked encoding, so the page is sent while it is written
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+            DiffHandleUtil.writeLinkedDiffHtml(writer, diffs, darkMode, ProgressListener.NONE);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static boolean isDark(HttpExchange exchange) {
+        return "true".equalsIgnoreCase(query(exchange).get("dark"));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> values = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            parseForm(query, values);
+        }
+        return values;
+    }
+
+    private static void parseForm(String form, Map<String, String> values) {
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            values.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private EndpointMetrics endpointMetrics(String endpoint) {
+        synchronized (metrics) {
+            return metrics.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+        }
+    }
+
+    /**
+     * Request counts by status class and recent latencies of one endpoint.
+     */
+    private static final class EndpointMetrics {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private final AtomicInteger samples = new AtomicInteger();
+        private long maxLatency;
+
+        void record(int status, long nanos) {
+            requests.increment();
+            if (status == 503) {
+                rejected.increment();
+            } else if (status == 504) {
+                timedOut.increment();
+            } else if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+            int index = samples.getAndIncrement();
+            synchronized (latencies) {
+                latencies[Math.floorMod(index, LATENCY_SAMPLES)] = nanos;
+                maxLatency = Math.max(maxLatency, nanos);
+            }
+        }
+
+        void appendTo(StringBuilder text, String endpoint) {
+            long[] sorted;
+            long max;
+            synchronized (latencies) {
+                sorted = Arrays.copyOf(latencies, Math.min(samples.get(), LATENCY_SAMPLES));
+                max = maxLatency;
+            }
+            Arrays.sort(sorted);
+            String prefix = endpoint + "_";
+            text.append(prefix).append("requests ").append(requests.sum()).append('\n')
+                    .append(prefix).append("client_errors ").append(clientErrors.sum()).append('\n')
+                    .append(prefix).append("server_errors ").append(serverErrors.sum()).append('\n')
+                    .append(prefix).append("rejected ").append(rejected.sum()).append('\n')
+                    .append(prefix).append("timed_out ").append(timedOut.sum()).append('\n');
+            for (int percentile : new int[]{50, 95, 99}) {
+                long value = sorted.length == 0 ? 0 : sorted[(sorted.length - 1) * percentile / 100];
+                text.append(prefix).append("latency_p").append(percentile).append("_ms ")
+                        .append(String.format(Locale.ROOT, "%.3f", value / 1e6)).append('\n');
+            }
+            text.append(prefix).append("latency_max_ms ")
+                    .append(String.format(Locale.ROOT, "%.3f", max / 1e6)).append('\n');
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.tlcsdm.patchvisualizer.patch.SideBySideRows;
+import javafx.collections.FXCollections;
+import javafx.scene.Node;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.OverrunStyle;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Native side-by-side diff viewer.
+ * <p>
+ * The list items are plain row indexes into a {@link SideBySideRows} index and
+ * the cells have a fixed height, so only the visible rows are ever laid out or
+ * decoded, no matter how large the patch is.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class SideBySideDiffView extends ListView<Integer> {
+
+    private static final double ROW_HEIGHT = 22;
+    // Longer lines are cut before layout; a single huge line would otherwise stall scrolling
+    private static final int MAX_DISPLAY_CHARS = 2000;
+    private static final String STYLESHEET = Objects.requireNonNull(
+            SideBySideDiffView.class.getResource("diff-view.css")).toExternalForm();
+    private static final List<String> ROW_STYLES = List.of(
+            "diff-file", "diff-hunk", "diff-binary", "diff-added", "diff-removed", "diff-empty");
+
+    private SideBySideRows rows;
+
+    SideBySideDiffView() {
+        getStyleClass().add("side-by-side-diff");
+        getStylesheets().add(STYLESHEET);
+        setFixedCellSize(ROW_HEIGHT);
+        setCellFactory(list -> new RowCell());
+    }
+
+    /**
+     * Display a row index.
+     *
+     * @param rows rows to display, or null to clear the view
+     */
+    void setRows(SideBySideRows rows) {
+        this.rows = rows;
+        setItems(rows == null ? FXCollections.observableArrayList()
+                : FXCollections.observableList(new RowIndexList(rows.size())));
+        scrollTo(0);
+    }
+
+    /**
+     * Get the displayed row index.
+     *
+     * @return rows, or null if the view is empty
+     */
+    SideBySideRows getRows() {
+        return rows;
+    }
+
+    private static void setRowStyle(Node node, String styleClass) {
+        node.getStyleClass().removeAll(ROW_STYLES);
+        if (styleClass != null) {
+            node.getStyleClass().add(styleClass);
+        }
+    }
+
+    private static String displayText(String text) {
+        return text.length() > MAX_DISPLAY_CHARS ? text.substring(0, MAX_DISPLAY_CHARS) + "\u2026" : text;
+    }
+
+    private static String lineNumber(int number) {
+        return number > 0 ? Integer.toString(number) : "";
+    }
+
+    /**
+     * Immutable list of row indexes 0..size-1 that stores nothing per row.
+     */
+    private static final class RowIndexList extends AbstractList<Integer> implements RandomAccess {
+
+        private final int size;
+
+        RowIndexList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return Objects.checkIndex(index, size);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Cell showing one row; the controls are created once and reused while scrolling.
+     */
+    private final class RowCell extends ListCell<Integer> {
+
+        private final Label leftNumber = createLabel("diff-number");
+        private final Label leftText = createLabel("diff-text");
+        private final Label rightNumber = createLabel("diff-number");
+        private final Label rightText = createLabel("diff-text");
+        private final HBox leftSide = createSide(leftNumber, leftText);
+        private final HBox rightSide = createSide(rightNumber, rightText);
+        private final HBox row = new HBox(leftSide, rightSide);
+
+        RowCell() {
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        private static Label createLabel(String styleClass) {
+            Label label = new Label();
+            label.getStyleClass().add(styleClass);
+            label.setTextOverrun(OverrunStyle.CLIP);
+            label.setMinWidth(0);
+            label.setMaxHeight(Double.MAX_VALUE);
+            return label;
+        }
+
+        private static HBox createSide(Label number, Label text) {
+            HBox side = new HBox(number, text);
+            side.getStyleClass().add("diff-side");
+            side.setMinWidth(0);
+            side.setPrefWidth(0);
+            HBox.setHgrow(side, Priority.ALWAYS);
+            HBox.setHgrow(text, Priority.ALWAYS);
+            text.setMaxWidth(Double.MAX_VALUE);
+            return side;
+        }
+
+        @Override
+        protected void updateItem(Integer index, boolean empty) {
+            super.updateItem(index, empty);
+            if (empty || index == null || rows == null) {
+                setGraphic(null);
+                return;
+            }
+            int r = index;
+            SideBySideRows.Kind kind = rows.kind(r);
+            leftNumber.setText(lineNumber(rows.leftNumber(r)));
+            rightNumber.setText(lineNumber(rows.rightNumber(r)));
+            leftText.setText(displayText(rows.leftText(r)));
+            switch (kind) {
+                case FILE, HUNK, BINARY -> {
+                    // Headers are shown once, spanning the row
+                    rightText.setText("");
+                    setRowStyle(row, "diff-" + kind.name().toLowerCase());
+                    setRowStyle(leftSide, null);
+                    setRowStyle(rightSide, null);
+                }
+                case CHANGE -> {
+                    rightText.setText(displayText(rows.rightText(r)));
+                    setRowStyle(row, null);
+                    setRowStyle(leftSide, rows.hasLeft(r) ? "diff-removed" : "diff-empty");
+                    setRowStyle(rightSide, rows.hasRight(r) ? "diff-added" : "diff-empty");
+                }
+                default -> {
+                    rightText.setText(displayText(rows.rightText(r)));
+                    setRowStyle(row, null);
+                    setRowStyle(leftSide, null);
+                    setRowStyle(rightSide, null);
+                }
+            }
+            setGraphic(row);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import com.tlcsdm.patchvisualizer.patch.FilePatch;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.util.DiffHandleUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JavaScript bridge for streamed diff pages, which grow while a comparison runs.
+ * <p>
+ * Installed as {@code window.patchBridge}; background threads {@link #add(List)} each
+ * finished file, the page calls {@link #fileIndex(int)} to pick up the files added since
+ * it last asked and {@link #fileDiff(int)} for each file as it scrolls into view.
+ * The WebEngine only keeps a weak reference to bridge objects, so the owner must hold on to it.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class StreamingDiffBridge {
+
+    private final List<String> entries = new ArrayList<>();
+    private final List<String> fileDiffs = new ArrayList<>();
+
+    /**
+     * Add the files of a finished diff.
+     *
+     * @param diff unified diff lines
+     */
+    public void add(List<String> diff) {
+        ParsedPatch patch = DiffHandleUtil.parsePatch(diff);
+        List<FilePatch> files = patch.files();
+        List<String> addedEntries = new ArrayList<>(files.size());
+        List<String> addedDiffs = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            addedEntries.add(DiffHandleUtil.getFileIndexEntry(files.get(i)));
+            addedDiffs.add(String.join("\n", DiffHandleUtil.getFileDiff(patch, i)));
+        }
+        synchronized (this) {
+            entries.addAll(addedEntries);
+            fileDiffs.addAll(addedDiffs);
+        }
+    }
+
+    /**
+     * Get the number of files added so far.
+     *
+     * @return file count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the index entries of the files added from a position on.
+     *
+     * @param from index of the first entry
+     * @return JSON array, empty if there are no such files
+     */
+    public synchronized String fileIndex(int from) {
+        if (from < 0 || from >= entries.size()) {
+            return "[]";
+        }
+        return "[" + String.join(",", entries.subList(from, entries.size())) + "]";
+    }
+
+    /**
+     * Get the unified diff text of a single file.
+     *
+     * @param index file index
+     * @return diff text, or an empty string for an invalid index
+     */
+    public synchronized String fileDiff(int index) {
+        if (index < 0 || index >= fileDiffs.size()) {
+            return "";
+        }
+        return fileDiffs.get(index);
+    }
+}
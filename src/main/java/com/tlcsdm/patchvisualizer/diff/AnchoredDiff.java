@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import com.github.difflib.patch.DeltaType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Base of diff algorithms that split the inputs at matching anchor runs.
+ * <p>
+ * Each region is trimmed of its common prefix and suffix, then split at the
+ * anchors chosen by the subclass; the gaps between anchors are processed the
+ * same way. Regions without anchors are diffed with Myers under the budget,
+ * or reported as a single change if Myers exceeds it. Regions are kept on an
+ * explicit stack, so deeply nested splits cannot overflow the call stack.
+ *
+ * @param <T> element type
+ * @author unknowIfGuestInDream
+ */
+abstract class AnchoredDiff<T> implements DiffAlgorithmI<T> {
+
+    private final Budget budget;
+
+    AnchoredDiff(Budget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Find anchors in a region whose first and last elements differ on both sides.
+     * Anchors are runs of equal elements as {aStart, bStart, length}, strictly
+     * increasing on both sides and not overlapping.
+     *
+     * @param source source elements
+     * @param aStart region start in source, inclusive
+     * @param aEnd   region end in source, exclusive
+     * @param target target elements
+     * @param bStart region start in target, inclusive
+     * @param bEnd   region end in target, exclusive
+     * @return anchors, or an empty list to fall back to Myers
+     */
+    abstract List<int[]> findAnchors(List<? extends T> source, int aStart, int aEnd,
+                                     List<? extends T> target, int bStart, int bEnd);
+
+    @Override
+    public List<Change> computeDiff(List<? extends T> source, List<? extends T> target,
+                                    DiffAlgorithmListener progress) {
+        if (progress != null) {
+            progress.diffStart();
+        }
+        List<Change> changes = new ArrayList<>();
+        Deque<int[]> regions = new ArrayDeque<>();
+        regions.push(new int[]{0, source.size(), 0, target.size()});
+        while (!regions.isEmpty()) {
+            budget.checkCancelled();
+            int[] region = regions.pop();
+            int aStart = region[0];
+            int aEnd = region[1];
+            int bStart = region[2];
+            int bEnd = region[3];
+            while (aStart < aEnd && bStart < bEnd && Objects.equals(source.get(aStart), target.get(bStart))) {
+                aStart++;
+                bStart++;
+            }
+            while (aStart < aEnd && bStart < bEnd && Objects.equals(source.get(aEnd - 1), target.get(bEnd - 1))) {
+                aEnd--;
+                bEnd--;
+            }
+            if (aStart == aEnd || bStart == bEnd) {
+                addChange(changes, aStart, aEnd, bStart, bEnd);
+                continue;
+            }
+            List<int[]> anchors = findAnchors(source, aStart, aEnd, target, bStart, bEnd);
+            if (anchors.isEmpty()) {
+                diffWithMyers(changes, source, aStart, aEnd, target, bStart, bEnd);
+                continue;
+            }
+            // Push the gaps right to left so they are popped, and their changes emitted, left to right
+            int aNext = aEnd;
+            int bNext = bEnd;
+            for (int i = anchors.size() - 1; i >= 0; i--) {
+                int[] anchor = anchors.get(i);
+                regions.push(new int[]{anchor[0] + anchor[2], aNext, anchor[1] + anchor[2], bNext});
+                aNext = anchor[0];
+                bNext = anchor[1];
+            }
+            regions.push(new int[]{aStart, aNext, bStart, bNext});
+        }
+        if (progress != null) {
+            progress.diffEnd();
+        }
+        return changes;
+    }
+
+    private void diffWithMyers(List<Change> changes, List<? extends T> source, int aStart, int aEnd,
+                               List<? extends T> target, int bStart, int bEnd) {
+        List<Change> regionChanges;
+        try {
+            regionChanges = new MyersDiff<T>().computeDiff(source.subList(aStart, aEnd),
+                    target.subList(bStart, bEnd), budget.listener());
+        } catch (Budget.Exceeded e) {
+            addChange(changes, aStart, aEnd, bStart, bEnd);
+            return;
+        }
+        for (Change change : regionChanges) {
+            changes.add(new Change(change.deltaType,
+                    change.startOriginal + aStart, change.endOriginal + aStart,
+                    change.startRevised + bStart, change.endRevised + bStart));
+        }
+    }
+
+    private static void addChange(List<Change> changes, int aStart, int aEnd, int bStart, int bEnd) {
+        if (aStart == aEnd && bStart == bEnd) {
+            return;
+        }
+        DeltaType type = aStart == aEnd ? DeltaType.INSERT : bStart == bEnd ? DeltaType.DELETE : DeltaType.CHANGE;
+        changes.add(new Change(type, aStart, aEnd, bStart, bEnd));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Edit distance and time budget of one diff, enforced through the Myers progress callback.
+ * <p>
+ * The budget also carries the cancellation token of the diff. Segments running on
+ * fork-join workers never see the interrupt of the thread that started the diff,
+ * so that thread sets the token through {@link #cancel()} and every segment checks it.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class Budget {
+
+    private final int maxEditDistance;
+    private final long deadline;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    Budget(DiffOptions options) {
+        this.maxEditDistance = options.maxEditDistance();
+        long nanos;
+        try {
+            nanos = options.timeBudget().toNanos();
+        } catch (ArithmeticException e) {
+            nanos = Long.MAX_VALUE / 2;
+        }
+        this.deadline = System.nanoTime() + Math.min(nanos, Long.MAX_VALUE / 2);
+    }
+
+    /**
+     * Check whether the time budget is used up.
+     *
+     * @return true once the deadline has passed
+     */
+    boolean expired() {
+        return System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Cancel the diff; every thread working on it stops at its next check.
+     */
+    void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Abort the diff if it was cancelled, or if the calling thread was interrupted,
+     * for example because its result is no longer needed. An interrupt cancels the
+     * diff for the other threads working on it too.
+     *
+     * @throws CancellationException if the diff is cancelled
+     */
+    void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            cancel();
+        }
+        if (cancelled.get()) {
+            throw new CancellationException("Diff cancelled");
+        }
+    }
+
+    /**
+     * Create a listener that aborts Myers once it exceeds the budget,
+     * or with a {@link CancellationException} once the diff is cancelled.
+     *
+     * @return progress listener throwing {@link Exceeded}
+     */
+    DiffAlgorithmListener listener() {
+        return new DiffAlgorithmListener() {
+            @Override
+            public void diffStart() {
+            }
+
+            @Override
+            public void diffStep(int value, int max) {
+                checkCancelled();
+                // Myers reports the edit distance it is exploring
+                if (value > maxEditDistance || expired()) {
+                    throw Exceeded.INSTANCE;
+                }
+            }
+
+            @Override
+            public void diffEnd() {
+            }
+        };
+    }
+
+    /**
+     * Thrown to abort a diff that exceeded its budget; carries no stack trace.
+     */
+    static final class Exceeded extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+        static final Exceeded INSTANCE = new Exceeded();
+
+        private Exceeded() {
+            super("Diff budget exceeded", null, false, false);
+        }
+    }
+}
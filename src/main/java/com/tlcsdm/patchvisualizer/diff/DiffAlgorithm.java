@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+/**
+ * Line diff algorithm.
+ *
+ * @author unknowIfGuestInDream
+ */
+public enum DiffAlgorithm {
+    /**
+     * Myers O(ND) diff. Produces a minimal diff, but slows down quadratically
+     * when the inputs differ a lot.
+     */
+    MYERS("Myers"),
+    /**
+     * Histogram diff. Splits the inputs at their least frequent common lines,
+     * which keeps repeated lines such as braces or log prefixes from being matched
+     * across unrelated changes.
+     */
+    HISTOGRAM("Histogram"),
+    /**
+     * Patience diff. Splits the inputs at lines that occur exactly once in both.
+     */
+    PATIENCE("Patience");
+
+    private final String displayName;
+
+    DiffAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Get the display name.
+     *
+     * @return display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Find an algorithm by display name or constant name.
+     *
+     * @param name display name or constant name
+     * @return matching algorithm, or {@link #MYERS} if none matches
+     */
+    public static DiffAlgorithm fromName(String name) {
+        for (DiffAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(name) || algorithm.displayName.equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        return MYERS;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import com.github.difflib.patch.Patch;
+
+import java.util.List;
+
+/**
+ * Computes diffs with the algorithm and budget selected in {@link DiffOptions}.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class DiffEngine {
+
+    private DiffEngine() {
+    }
+
+    /**
+     * Compute the diff between two lists.
+     *
+     * @param original original elements
+     * @param revised  revised elements
+     * @param options  algorithm and budget
+     * @param <T>      element type
+     * @return patch turning {@code original} into {@code revised}
+     */
+    public static <T> Patch<T> diff(List<T> original, List<T> revised, DiffOptions options) {
+        return DiffUtils.diff(original, revised, algorithm(options), null);
+    }
+
+    /**
+     * Compute the diff between two lists of lines.
+     * <p>
+     * Lines are interned to {@code int} IDs first, so the diff compares IDs
+     * instead of strings; the lines are only looked up again when the deltas
+     * are built. Large inputs are split into segments that are diffed in
+     * parallel, each under its own edit distance budget and the shared time budget.
+     *
+     * @param original original lines
+     * @param revised  revised lines
+     * @param options  algorithm and budget
+     * @return patch turning {@code original} into {@code revised}
+     */
+    public static Patch<String> diffLines(List<String> original, List<String> revised, DiffOptions options) {
+        LineInterner interner = new LineInterner(original.size() + revised.size());
+        int[] originalIds = interner.intern(original);
+        int[] revisedIds = interner.intern(revised);
+        Integer[] boxes = TokenList.boxes(interner.size());
+        Budget budget = new Budget(options);
+        List<Change> changes = SegmentedDiff.computeDiff(originalIds, revisedIds, boxes,
+                DiffEngine.<Integer>algorithm(options, budget), budget);
+        return Patch.generate(original, revised, changes);
+    }
+
+    /**
+     * Create the diff algorithm for a set of options. The budget starts counting
+     * when the algorithm is created, so create one per diff.
+     *
+     * @param options algorithm and budget
+     * @param <T>     element type
+     * @return diff algorithm
+     */
+    public static <T> DiffAlgorithmI<T> algorithm(DiffOptions options) {
+        return algorithm(options, new Budget(options));
+    }
+
+    private static <T> DiffAlgorithmI<T> algorithm(DiffOptions options, Budget budget) {
+        return switch (options.algorithm()) {
+            case MYERS -> new BudgetedMyersDiff<>(budget);
+            case HISTOGRAM -> new HistogramDiff<>(budget);
+            case PATIENCE -> new PatienceDiff<>(budget);
+        };
+    }
+
+    /**
+     * Myers diff that switches to histogram diff once it exceeds its budget.
+     */
+    private static final class BudgetedMyersDiff<T> implements DiffAlgorithmI<T> {
+
+        private final Budget budget;
+
+        BudgetedMyersDiff(Budget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public List<Change> computeDiff(List<? extends T> source, List<? extends T> target,
+                                        DiffAlgorithmListener progress) {
+            try {
+                return new MyersDiff<T>().computeDiff(source, target, budget.listener());
+            } catch (Budget.Exceeded e) {
+                return new HistogramDiff<T>(budget).computeDiff(source, target, progress);
+            }
+        }
+    }
+}
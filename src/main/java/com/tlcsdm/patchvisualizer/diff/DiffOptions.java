@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Options for computing a line diff.
+ * <p>
+ * Myers is bounded by an edit distance and a time budget. When
+ * {@link DiffAlgorithm#MYERS} exceeds either, the diff is computed with
+ * {@link DiffAlgorithm#HISTOGRAM} instead; regions that still exceed the
+ * budget are reported as a single change.
+ *
+ * @param algorithm       diff algorithm
+ * @param maxEditDistance maximum edit distance Myers may explore
+ * @param timeBudget      maximum time Myers may run for one diff
+ * @author unknowIfGuestInDream
+ */
+public record DiffOptions(DiffAlgorithm algorithm, int maxEditDistance, Duration timeBudget) {
+
+    /**
+     * Default maximum edit distance.
+     */
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 10_000;
+
+    /**
+     * Default time budget.
+     */
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(3);
+
+    /**
+     * Myers with the default budget.
+     */
+    public static final DiffOptions DEFAULT = new DiffOptions(DiffAlgorithm.MYERS, DEFAULT_MAX_EDIT_DISTANCE,
+            DEFAULT_TIME_BUDGET);
+
+    /**
+     * Validate the options.
+     *
+     * @param algorithm       diff algorithm
+     * @param maxEditDistance maximum edit distance Myers may explore
+     * @param timeBudget      maximum time Myers may run for one diff
+     */
+    public DiffOptions {
+        Objects.requireNonNull(algorithm, "algorithm");
+        Objects.requireNonNull(timeBudget, "timeBudget");
+        if (maxEditDistance <= 0) {
+            throw new IllegalArgumentException("maxEditDistance must be positive: " + maxEditDistance);
+        }
+        if (timeBudget.isNegative() || timeBudget.isZero()) {
+            throw new IllegalArgumentException("timeBudget must be positive: " + timeBudget);
+        }
+    }
+
+    /**
+     * Get the default options with another algorithm.
+     *
+     * @param algorithm diff algorithm
+     * @return options
+     */
+    public static DiffOptions of(DiffAlgorithm algorithm) {
+        return DEFAULT.withAlgorithm(algorithm);
+    }
+
+    /**
+     * Copy these options with another algorithm.
+     *
+     * @param algorithm diff algorithm
+     * @return options
+     */
+    public DiffOptions withAlgorithm(DiffAlgorithm algorithm) {
+        return new DiffOptions(algorithm, maxEditDistance, timeBudget);
+    }
+
+    /**
+     * Copy these options with another maximum edit distance.
+     *
+     * @param maxEditDistance maximum edit distance Myers may explore
+     * @return options
+     */
+    public DiffOptions withMaxEditDistance(int maxEditDistance) {
+        return new DiffOptions(algorithm, maxEditDistance, timeBudget);
+    }
+
+    /**
+     * Copy these options with another time budget.
+     *
+     * @param timeBudget maximum time Myers may run for one diff
+     * @return options
+     */
+    public DiffOptions withTimeBudget(Duration timeBudget) {
+        return new DiffOptions(algorithm, maxEditDistance, timeBudget);
+    }
+
+    /**
+     * Get a stable description of these options for cache keys.
+     *
+     * @return cache key part
+     */
+    public String cacheKey() {
+        return algorithm.name() + '/' + maxEditDistance + '/' + timeBudget.toMillis();
+    }
+}
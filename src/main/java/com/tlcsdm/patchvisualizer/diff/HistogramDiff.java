@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Histogram diff.
+ * <p>
+ * Each region is split at the longest common run seeded by the source element
+ * with the fewest occurrences in the region, following the approach of JGit's
+ * histogram diff. Elements occurring more than {@value #MAX_CHAIN_LENGTH} times
+ * are never used as seeds; a region made only of such elements falls back to Myers.
+ *
+ * @param <T> element type
+ * @author unknowIfGuestInDream
+ */
+final class HistogramDiff<T> extends AnchoredDiff<T> {
+
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    HistogramDiff(Budget budget) {
+        super(budget);
+    }
+
+    @Override
+    List<int[]> findAnchors(List<? extends T> source, int aStart, int aEnd,
+                            List<? extends T> target, int bStart, int bEnd) {
+        Map<T, int[]> occurrences = new HashMap<>();
+        for (int i = aStart; i < aEnd; i++) {
+            // int[0] is the count, followed by the positions while the count is within the chain limit
+            int[] positions = occurrences.computeIfAbsent(source.get(i), key -> new int[5]);
+            int count = ++positions[0];
+            if (count <= MAX_CHAIN_LENGTH) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, Math.min(positions.length * 2, MAX_CHAIN_LENGTH + 1));
+                    occurrences.put(source.get(i), positions);
+                }
+                positions[count] = i;
+            }
+        }
+
+        int bestCount = MAX_CHAIN_LENGTH;
+        int bestLength = 0;
+        int bestA = -1;
+        int bestB = -1;
+        int j = bStart;
+        while (j < bEnd) {
+            int[] positions = occurrences.get(target.get(j));
+            int next = j + 1;
+            if (positions != null && positions[0] <= bestCount) {
+                int count = positions[0];
+                for (int p = 1; p <= count; p++) {
+                    int i = positions[p];
+                    int as = i;
+                    int bs = j;
+                    while (as > aStart && bs > bStart && Objects.equals(source.get(as - 1), target.get(bs - 1))) {
+                        as--;
+                        bs--;
+                    }
+                    int ae = i + 1;
+                    int be = j + 1;
+                    while (ae < aEnd && be < bEnd && Objects.equals(source.get(ae), target.get(be))) {
+                        ae++;
+                        be++;
+                    }
+                    if (count < bestCount || ae - as > bestLength) {
+                        bestCount = count;
+                        bestLength = ae - as;
+                        bestA = as;
+                        bestB = bs;
+                    }
+                    // Positions inside this run would only find the same run again
+                    next = Math.max(next, be);
+                }
+            }
+            j = next;
+        }
+        return bestA < 0 ? List.of() : List.<int[]>of(new int[]{bestA, bestB, bestLength});
+    }
+}
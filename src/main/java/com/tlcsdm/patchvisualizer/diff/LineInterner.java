@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assigns a dense {@code int} ID to each distinct line.
+ * <p>
+ * Lines are kept in a primitive open-addressing table with linear probing, so
+ * interning costs one hash and usually one {@code equals} per line. Diffing the
+ * resulting IDs compares ints instead of strings.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class LineInterner {
+
+    // Minimum table capacity, must be a power of two
+    private static final int MIN_CAPACITY = 16;
+
+    // Table slots hold id + 1, 0 marks an empty slot
+    private int[] table;
+    private int mask;
+    private String[] lines;
+    private int[] hashes;
+    private int size;
+
+    /**
+     * Create an interner with the default capacity.
+     */
+    public LineInterner() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Create an interner sized for an expected number of distinct lines.
+     *
+     * @param expectedLines expected number of distinct lines
+     */
+    public LineInterner(int expectedLines) {
+        int capacity = tableSizeFor(Math.max(expectedLines, 1) * 2L);
+        table = new int[capacity];
+        mask = capacity - 1;
+        lines = new String[Math.max(expectedLines, MIN_CAPACITY)];
+        hashes = new int[lines.length];
+    }
+
+    /**
+     * Get the ID of a line, assigning the next free ID if it is new.
+     *
+     * @param line the line
+     * @return the line ID
+     */
+    public int intern(String line) {
+        int hash = mix(line.hashCode());
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && lines[id].equals(line)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        if (id == lines.length) {
+            lines = Arrays.copyOf(lines, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        lines[id] = line;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Intern every line of a list.
+     *
+     * @param lines the lines
+     * @return the line IDs in list order
+     */
+    public int[] intern(List<String> lines) {
+        int[] ids = new int[lines.size()];
+        int i = 0;
+        for (String line : lines) {
+            ids[i++] = intern(line);
+        }
+        return ids;
+    }
+
+    /**
+     * Get the line for an ID.
+     *
+     * @param id the line ID
+     * @return the line
+     */
+    public String line(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Invalid line id: " + id);
+        }
+        return lines[id];
+    }
+
+    /**
+     * Get the number of distinct lines.
+     *
+     * @return the number of IDs assigned
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Spread the string hash so that linear probing does not cluster on similar lines.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(long n) {
+        long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(n - 1) << 1);
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("Too many lines: " + n / 2);
+        }
+        return (int) capacity;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Patience diff.
+ * <p>
+ * Each region is split at the longest increasing sequence of elements that
+ * occur exactly once in both sides of the region. A region without such
+ * elements falls back to Myers.
+ *
+ * @param <T> element type
+ * @author unknowIfGuestInDream
+ */
+final class PatienceDiff<T> extends AnchoredDiff<T> {
+
+    PatienceDiff(Budget budget) {
+        super(budget);
+    }
+
+    @Override
+    List<int[]> findAnchors(List<? extends T> source, int aStart, int aEnd,
+                            List<? extends T> target, int bStart, int bEnd) {
+        // {count in source, position in source, count in target, position in target}
+        Map<T, int[]> counts = new HashMap<>();
+        for (int i = aStart; i < aEnd; i++) {
+            int[] c = counts.computeIfAbsent(source.get(i), key -> new int[4]);
+            c[0]++;
+            c[1] = i;
+        }
+        for (int j = bStart; j < bEnd; j++) {
+            int[] c = counts.get(target.get(j));
+            if (c != null) {
+                c[2]++;
+                c[3] = j;
+            }
+        }
+        // Target positions of elements unique on both sides, in source order
+        int[] uniqueA = new int[aEnd - aStart];
+        int[] uniqueB = new int[aEnd - aStart];
+        int unique = 0;
+        for (int i = aStart; i < aEnd; i++) {
+            int[] c = counts.get(source.get(i));
+            if (c[0] == 1 && c[2] == 1) {
+                uniqueA[unique] = i;
+                uniqueB[unique] = c[3];
+                unique++;
+            }
+        }
+        if (unique == 0) {
+            return List.of();
+        }
+        return longestIncreasing(uniqueA, uniqueB, unique);
+    }
+
+    /**
+     * Patience sorting: find the longest subsequence whose target positions increase.
+     *
+     * @param uniqueA source positions, increasing
+     * @param uniqueB target positions, distinct
+     * @param size    number of positions
+     * @return anchors {aStart, bStart, 1} in order
+     */
+    static List<int[]> longestIncreasing(int[] uniqueA, int[] uniqueB, int size) {
+        int[] tails = new int[size];
+        int[] previous = new int[size];
+        int length = 0;
+        for (int k = 0; k < size; k++) {
+            int pile = lowerBound(tails, uniqueB, length, uniqueB[k]);
+            previous[k] = pile > 0 ? tails[pile - 1] : -1;
+            tails[pile] = k;
+            if (pile == length) {
+                length++;
+            }
+        }
+        List<int[]> anchors = new ArrayList<>(length);
+        for (int k = tails[length - 1]; k >= 0; k = previous[k]) {
+            anchors.add(new int[]{uniqueA[k], uniqueB[k], 1});
+        }
+        return anchors.reversed();
+    }
+
+    private static int lowerBound(int[] tails, int[] uniqueB, int length, int value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (uniqueB[tails[mid]] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
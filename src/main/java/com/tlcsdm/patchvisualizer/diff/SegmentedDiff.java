@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.patch.DeltaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Front end that splits a large line diff into independent segments.
+ * <p>
+ * The common head and tail are stripped first. If the remaining middle is
+ * large, lines occurring exactly once on both sides are matched in order
+ * (as in patience diff) and the middle is cut at some of them into segments
+ * of roughly equal size. The segments are diffed concurrently on the
+ * fork-join pool of the caller, or the common pool, and their changes are
+ * concatenated in order. The workers never see an interrupt of the caller,
+ * so the caller cancels the budget shared by the segments instead.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class SegmentedDiff {
+
+    // Combined length of the middle below which it is diffed as one segment
+    private static final int PARALLEL_THRESHOLD = 20_000;
+    // Minimum combined length of a segment
+    private static final int MIN_SEGMENT_LINES = 4_000;
+    // Segments per worker, so uneven segments still balance
+    private static final int SEGMENTS_PER_WORKER = 4;
+
+    private SegmentedDiff() {
+    }
+
+    /**
+     * Diff two sequences of line IDs.
+     *
+     * @param source    source line IDs
+     * @param target    target line IDs
+     * @param boxes     boxed line IDs, indexed by ID
+     * @param algorithm algorithm applied to each segment; must be safe to use from several threads
+     * @param budget    budget of the algorithm, cancelled when the caller is interrupted while waiting
+     * @return changes in source order
+     * @throws CancellationException if the diff is cancelled
+     */
+    static List<Change> computeDiff(int[] source, int[] target, Integer[] boxes, DiffAlgorithmI<Integer> algorithm,
+                                    Budget budget) {
+        int aStart = 0;
+        int bStart = 0;
+        int aEnd = source.length;
+        int bEnd = target.length;
+        while (aStart < aEnd && bStart < bEnd && source[aStart] == target[bStart]) {
+            aStart++;
+            bStart++;
+        }
+        while (aStart < aEnd && bStart < bEnd && source[aEnd - 1] == target[bEnd - 1]) {
+            aEnd--;
+            bEnd--;
+        }
+        List<int[]> segments = split(source, aStart, aEnd, target, bStart, bEnd, boxes.length);
+        TokenList sourceTokens = new TokenList(source, boxes);
+        TokenList targetTokens = new TokenList(target, boxes);
+        if (segments.size() == 1) {
+            return diffSegment(sourceTokens, targetTokens, segments.getFirst(), algorithm);
+        }
+        List<ForkJoinTask<List<Change>>> tasks = new ArrayList<>(segments.size());
+        for (int[] segment : segments) {
+            tasks.add(ForkJoinTask.adapt(() -> diffSegment(sourceTokens, targetTokens, segment, algorithm)).fork());
+        }
+        List<Change> changes = new ArrayList<>();
+        try {
+            for (ForkJoinTask<List<Change>> task : tasks) {
+                // Unlike join(), get() returns early when the caller is interrupted
+                changes.addAll(task.get());
+            }
+        } catch (InterruptedException e) {
+            budget.cancel();
+            tasks.forEach(task -> task.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Diff cancelled");
+        } catch (ExecutionException e) {
+            budget.cancel();
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException("Failed to diff segment", e.getCause());
+        }
+        return changes;
+    }
+
+    /**
+     * Cut the middle into segments {aStart, aEnd, bStart, bEnd} at lines unique on both sides.
+     */
+    static List<int[]> split(int[] source, int aStart, int aEnd, int[] target, int bStart, int bEnd, int idCount) {
+        int length = (aEnd - aStart) + (bEnd - bStart);
+        if (length < PARALLEL_THRESHOLD || aStart == aEnd || bStart == bEnd) {
+            return List.of(new int[]{aStart, aEnd, bStart, bEnd});
+        }
+        int[] sourceCounts = new int[idCount];
+        int[] targetCounts = new int[idCount];
+        int[] targetPositions = new int[idCount];
+        for (int i = aStart; i < aEnd; i++) {
+            sourceCounts[source[i]]++;
+        }
+        for (int j = bStart; j < bEnd; j++) {
+            targetCounts[target[j]]++;
+            targetPositions[target[j]] = j;
+        }
+        int[] uniqueA = new int[aEnd - aStart];
+        int[] uniqueB = new int[aEnd - aStart];
+        int unique = 0;
+        for (int i = aStart; i < aEnd; i++) {
+            int id = source[i];
+            if (sourceCounts[id] == 1 && targetCounts[id] == 1) {
+                uniqueA[unique] = i;
+                uniqueB[unique] = targetPositions[id];
+                unique++;
+            }
+        }
+        if (unique == 0) {
+            return List.of(new int[]{aStart, aEnd, bStart, bEnd});
+        }
+
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int segmentLines = Math.max(MIN_SEGMENT_LINES, length / (workers * SEGMENTS_PER_WORKER));
+        List<int[]> segments = new ArrayList<>();
+        int segmentA = aStart;
+        int segmentB = bStart;
+        for (int[] anchor : PatienceDiff.longestIncreasing(uniqueA, uniqueB, unique)) {
+            // The anchor line itself is equal on both sides and belongs to no segment
+            if ((anchor[0] - segmentA) + (anchor[1] - segmentB) >= segmentLines) {
+                segments.add(new int[]{segmentA, anchor[0], segmentB, anchor[1]});
+                segmentA = anchor[0] + 1;
+                segmentB = anchor[1] + 1;
+            }
+        }
+        segments.add(new int[]{segmentA, aEnd, segmentB, bEnd});
+        return segments;
+    }
+
+    private static List<Change> diffSegment(TokenList source, TokenList target, int[] segment,
+                                            DiffAlgorithmI<Integer> algorithm) {
+        int aStart = segment[0];
+        int aEnd = segment[1];
+        int bStart = segment[2];
+        int bEnd = segment[3];
+        if (aStart == aEnd && bStart == bEnd) {
+            return List.of();
+        }
+        if (aStart == aEnd || bStart == bEnd) {
+            DeltaType type = aStart == aEnd ? DeltaType.INSERT : DeltaType.DELETE;
+            return List.of(new Change(type, aStart, aEnd, bStart, bEnd));
+        }
+        List<Change> changes = algorithm.computeDiff(source.subList(aStart, aEnd), target.subList(bStart, bEnd), null);
+        if (aStart == 0 && bStart == 0) {
+            return changes;
+        }
+        List<Change> shifted = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            shifted.add(new Change(change.deltaType,
+                    change.startOriginal + aStart, change.endOriginal + aStart,
+                    change.startRevised + bStart, change.endRevised + bStart));
+        }
+        return shifted;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list view over interned line IDs.
+ * <p>
+ * All lists of one diff share a table of boxed IDs, so {@link #get(int)}
+ * never allocates and equal IDs are the same {@link Integer} instance.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class TokenList extends AbstractList<Integer> implements RandomAccess {
+
+    private final int[] ids;
+    private final Integer[] boxes;
+
+    /**
+     * Create a view over line IDs.
+     *
+     * @param ids   the line IDs
+     * @param boxes boxed IDs, indexed by ID
+     */
+    TokenList(int[] ids, Integer[] boxes) {
+        this.ids = ids;
+        this.boxes = boxes;
+    }
+
+    /**
+     * Box the IDs {@code 0..count-1} once.
+     *
+     * @param count number of distinct IDs
+     * @return boxed IDs, indexed by ID
+     */
+    static Integer[] boxes(int count) {
+        Integer[] boxes = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            boxes[i] = i;
+        }
+        return boxes;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return boxes[ids[index]];
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+}
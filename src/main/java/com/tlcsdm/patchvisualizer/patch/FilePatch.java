@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import java.util.List;
+
+/**
+ * Changes to a single file within a patch.
+ *
+ * @param startLine index of the first header line in the source
+ * @param endLine   index after the last line belonging to this file
+ * @param oldPath   original path as written in the patch, or null if unknown
+ * @param newPath   revised path as written in the patch, or null if unknown
+ * @param binary    binary section of this file, or null for text changes
+ * @param hunks     text hunks in source order
+ * @author unknowIfGuestInDream
+ */
+public record FilePatch(int startLine, int endLine, String oldPath, String newPath, BinarySection binary,
+                        List<Hunk> hunks) {
+
+    private static final String DEV_NULL = "/dev/null";
+
+    /**
+     * Get the display path, preferring the revised path unless the file was deleted.
+     *
+     * @return file path, or null if the patch does not name the file
+     */
+    public String path() {
+        if (newPath != null && !DEV_NULL.equals(newPath)) {
+            return newPath;
+        }
+        return oldPath;
+    }
+
+    /**
+     * Check whether this file has binary content.
+     *
+     * @return true if a binary marker was found for this file
+     */
+    public boolean isBinary() {
+        return binary != null;
+    }
+
+    /**
+     * Count added lines over all hunks.
+     *
+     * @return number of added lines
+     */
+    public long additions() {
+        long count = 0;
+        for (Hunk hunk : hunks) {
+            count += hunk.additions();
+        }
+        return count;
+    }
+
+    /**
+     * Count removed lines over all hunks.
+     *
+     * @return number of removed lines
+     */
+    public long deletions() {
+        long count = 0;
+        for (Hunk hunk : hunks) {
+            count += hunk.deletions();
+        }
+        return count;
+    }
+}
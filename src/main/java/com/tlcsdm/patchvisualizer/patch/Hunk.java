@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import java.util.List;
+
+/**
+ * A single "@@" hunk of a file patch.
+ *
+ * @param headerLine index of the "@@" line in the source
+ * @param oldStart   first line in the original file
+ * @param oldCount   number of original lines covered
+ * @param newStart   first line in the revised file
+ * @param newCount   number of revised lines covered
+ * @param runs       body lines grouped by kind
+ * @author unknowIfGuestInDream
+ */
+public record Hunk(int headerLine, int oldStart, int oldCount, int newStart, int newCount, List<LineRun> runs) {
+
+    /**
+     * Get the index after the last body line of this hunk.
+     *
+     * @return exclusive end index in the source
+     */
+    public int endLine() {
+        return runs.isEmpty() ? headerLine + 1 : runs.get(runs.size() - 1).end();
+    }
+
+    /**
+     * Count added lines.
+     *
+     * @return number of added lines
+     */
+    public int additions() {
+        return count(LineKind.ADDED);
+    }
+
+    /**
+     * Count removed lines.
+     *
+     * @return number of removed lines
+     */
+    public int deletions() {
+        return count(LineKind.REMOVED);
+    }
+
+    private int count(LineKind kind) {
+        int count = 0;
+        for (LineRun run : runs) {
+            if (run.kind() == kind) {
+                count += run.length();
+            }
+        }
+        return count;
+    }
+}
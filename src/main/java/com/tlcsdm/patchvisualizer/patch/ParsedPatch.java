@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Result of parsing a patch: file patches plus the content range and binary
+ * sections found in the same pass. All positions are line indexes into the
+ * source list, which is referenced rather than copied.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class ParsedPatch {
+
+    private final List<String> source;
+    private final int contentStart;
+    private final int contentEnd;
+    private final List<FilePatch> files;
+    private final List<BinarySection> binarySections;
+    private PatchStats stats;
+
+    ParsedPatch(List<String> source, int contentStart, int contentEnd, List<FilePatch> files,
+                List<BinarySection> binarySections) {
+        this.source = source;
+        this.contentStart = contentStart;
+        this.contentEnd = Math.max(contentStart, contentEnd);
+        this.files = List.copyOf(files);
+        this.binarySections = List.copyOf(binarySections);
+    }
+
+    /**
+     * Get the source lines this patch was parsed from.
+     *
+     * @return source lines
+     */
+    public List<String> source() {
+        return source;
+    }
+
+    /**
+     * Get the index of the first diff line, after any format-patch email headers.
+     *
+     * @return content start index
+     */
+    public int contentStart() {
+        return contentStart;
+    }
+
+    /**
+     * Get the index after the last diff line, before any trailing git version signature.
+     *
+     * @return exclusive content end index
+     */
+    public int contentEnd() {
+        return contentEnd;
+    }
+
+    /**
+     * Get the file patches in source order.
+     *
+     * @return file patches
+     */
+    public List<FilePatch> files() {
+        return files;
+    }
+
+    /**
+     * Get the binary sections in source order.
+     *
+     * @return binary sections
+     */
+    public List<BinarySection> binarySections() {
+        return binarySections;
+    }
+
+    /**
+     * Get the content lines without format-patch metadata.
+     *
+     * @return view of the source between content start and end
+     */
+    public List<String> contentLines() {
+        return source.subList(contentStart, contentEnd);
+    }
+
+    /**
+     * Get the content lines with long binary sections truncated.
+     * Each binary section keeps its marker and first {@code maxBinaryLines} lines,
+     * followed by {@code truncationNotice} when lines were dropped.
+     *
+     * @param maxBinaryLines   maximum binary lines kept per section
+     * @param truncationNotice line inserted where binary content was dropped
+     * @return view of the source lines
+     */
+    public List<String> truncatedLines(int maxBinaryLines, String truncationNotice) {
+        List<int[]> segments = new ArrayList<>();
+        int from = contentStart;
+        for (BinarySection section : binarySections) {
+            if (section.bodyLength() <= maxBinaryLines) {
+                continue;
+            }
+            segments.add(new int[]{from, section.markerLine() + 1 + maxBinaryLines});
+            segments.add(null);
+            from = section.endLine();
+        }
+        if (segments.isEmpty()) {
+            return contentLines();
+        }
+        segments.add(new int[]{from, contentEnd});
+        return new SegmentedLines(source, segments, truncationNotice);
+    }
+
+    /**
+     * Get the lines of a single file patch, truncating a long binary section
+     * the same way as {@link #truncatedLines(int, String)}.
+     *
+     * @param fileIndex        index into {@link #files()}
+     * @param maxBinaryLines   maximum binary lines kept
+     * @param truncationNotice line inserted where binary content was dropped
+     * @return the file's lines, as a view of the source when nothing is dropped
+     */
+    public List<String> fileLines(int fileIndex, int maxBinaryLines, String truncationNotice) {
+        FilePatch file = files.get(fileIndex);
+        BinarySection binary = file.binary();
+        if (binary == null || binary.bodyLength() <= maxBinaryLines) {
+            return source.subList(file.startLine(), file.endLine());
+        }
+        int keepEnd = binary.markerLine() + 1 + maxBinaryLines;
+        int resume = Math.min(binary.endLine(), file.endLine());
+        List<String> lines = new ArrayList<>(keepEnd - file.startLine() + 1 + file.endLine() - resume);
+        lines.addAll(source.subList(file.startLine(), keepEnd));
+        lines.add(truncationNotice);
+        lines.addAll(source.subList(resume, file.endLine()));
+        return lines;
+    }
+
+    /**
+     * Get summary statistics, computed from the hunk runs on first use.
+     *
+     * @return patch statistics
+     */
+    public PatchStats stats() {
+        if (stats == null) {
+            int hunks = 0;
+            long additions = 0;
+            long deletions = 0;
+            int binaryFiles = 0;
+            for (FilePatch file : files) {
+                hunks += file.hunks().size();
+                additions += file.additions();
+                deletions += file.deletions();
+                if (file.isBinary()) {
+                    binaryFiles++;
+                }
+            }
+            stats = new PatchStats(files.size(), hunks, additions, deletions, binaryFiles);
+        }
+        return stats;
+    }
+
+    /**
+     * Read-only view concatenating source ranges and inserted notice lines.
+     */
+    private static final class SegmentedLines extends AbstractList<String> implements RandomAccess {
+
+        private final List<String> source;
+        private final int[] sourceStart;
+        private final int[] offsets;
+        private final String notice;
+
+        SegmentedLines(List<String> source, List<int[]> segments, String notice) {
+            this.source = source;
+            this.notice = notice;
+            this.sourceStart = new int[segments.size()];
+            this.offsets = new int[segments.size() + 1];
+            for (int i = 0; i < segments.size(); i++) {
+                int[] range = segments.get(i);
+                // A null range stands for a single notice line
+                sourceStart[i] = range == null ? -1 : range[0];
+                offsets[i + 1] = offsets[i] + (range == null ? 1 : range[1] - range[0]);
+            }
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int found = Arrays.binarySearch(offsets, index);
+            // Empty ranges share an offset with their successor, so skip to the last match
+            int segment = found >= 0 ? found : -found - 2;
+            while (segment + 1 < sourceStart.length && offsets[segment + 1] == index) {
+                segment++;
+            }
+            if (sourceStart[segment] < 0) {
+                return notice;
+            }
+            return source.get(sourceStart[segment] + index - offsets[segment]);
+        }
+
+        @Override
+        public int size() {
+            return offsets[offsets.length - 1];
+        }
+    }
+}
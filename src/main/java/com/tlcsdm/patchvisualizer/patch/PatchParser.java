@@ -0,0 +1,433 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+/**
+ * Single-pass, pull-based parser for unified diffs and git format-patch files.
+ * <p>
+ * Each call to {@link #next()} reads just enough lines to complete the next
+ * {@link FilePatch}. Format-patch email headers, the trailing git version
+ * signature and binary sections are classified during the same pass, so the
+ * source is read exactly once. Lines are never copied; the model refers to
+ * them by index.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class PatchParser implements Iterator<FilePatch> {
+
+    private static final String DIFF_GIT = "diff --git";
+    private static final String OLD_FILE = "--- ";
+    private static final String NEW_FILE = "+++ ";
+    private static final String HUNK = "@@";
+    private static final String BINARY_MARKER = "GIT binary patch";
+    private static final String BINARY_DIFF_MARKER = "Binary files";
+    private static final int BINARY_END_MIN_LINES = 5;
+    // Lines between checks whether the parsing thread was interrupted, and between progress reports
+    private static final int CANCEL_CHECK_MASK = 0xFFF;
+
+    private final List<String> source;
+    private final IntConsumer progress;
+    private final int contentEnd;
+    private int contentStart;
+    private int pos;
+    private boolean seenDiffGit;
+
+    private final ArrayDeque<FilePatch> ready = new ArrayDeque<>();
+    // Files seen before the first "diff --git" line; dropped as email headers if one follows
+    private final List<FilePatch> pending = new ArrayList<>();
+    private final List<BinarySection> binarySections = new ArrayList<>();
+
+    // Current file
+    private int fileStart = -1;
+    private String oldPath;
+    private String newPath;
+    private boolean fileHasOldLine;
+    private BinarySection fileBinary;
+    private List<Hunk> hunks;
+
+    // Current hunk
+    private int hunkHeader = -1;
+    private int oldStart;
+    private int oldCount;
+    private int newStart;
+    private int newCount;
+    private int oldRemaining;
+    private int newRemaining;
+    private List<LineRun> runs;
+    private LineKind runKind;
+    private int runStart;
+
+    // Current binary section
+    private int binaryStart = -1;
+
+    // Cursor for hunk header number parsing
+    private int cursor;
+
+    /**
+     * Create a parser over patch lines.
+     *
+     * @param source the patch lines
+     */
+    public PatchParser(List<String> source) {
+        this(source, position -> {
+        });
+    }
+
+    /**
+     * Create a parser over patch lines that periodically reports the number of lines consumed.
+     *
+     * @param source   the patch lines
+     * @param progress receives the number of source lines consumed so far
+     */
+    public PatchParser(List<String> source, IntConsumer progress) {
+        this.source = source;
+        this.progress = progress;
+        this.contentEnd = findContentEnd(source);
+    }
+
+    /**
+     * Parse a whole patch.
+     *
+     * @param source the patch lines
+     * @return parsed patch referring to {@code source}
+     */
+    public static ParsedPatch parse(List<String> source) {
+        return parse(source, position -> {
+        });
+    }
+
+    /**
+     * Parse a whole patch, periodically reporting the number of lines consumed.
+     *
+     * @param source   the patch lines
+     * @param progress receives the number of source lines consumed so far
+     * @return parsed patch referring to {@code source}
+     */
+    public static ParsedPatch parse(List<String> source, IntConsumer progress) {
+        PatchParser parser = new PatchParser(source, progress);
+        List<FilePatch> files = new ArrayList<>();
+        while (parser.hasNext()) {
+            files.add(parser.next());
+        }
+        return new ParsedPatch(source, parser.contentStart, parser.contentEnd, files, parser.binarySections);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws CancellationException if the parsing thread is interrupted
+     */
+    @Override
+    public boolean hasNext() {
+        while (ready.isEmpty() && pos <= contentEnd) {
+            if ((pos & CANCEL_CHECK_MASK) == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Patch parsing cancelled");
+                }
+                progress.accept(pos);
+            }
+            if (pos == contentEnd) {
+                finish();
+            } else {
+                processLine(pos, source.get(pos));
+            }
+            pos++;
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public FilePatch next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.poll();
+    }
+
+    /**
+     * Get the number of source lines consumed so far.
+     *
+     * @return lines consumed
+     */
+    public int position() {
+        return Math.min(pos, contentEnd);
+    }
+
+    private void processLine(int index, String line) {
+        if (binaryStart >= 0) {
+            int count = index - binaryStart;
+            if (!line.startsWith(DIFF_GIT) && !(line.startsWith("---") && count > BINARY_END_MIN_LINES)) {
+                return;
+            }
+            closeBinary(index);
+            // The line that ends a binary section is never treated as a new marker
+            processHeaderLine(index, line, false);
+            return;
+        }
+        if (hunkHeader >= 0) {
+            if (consumeHunkLine(index, line)) {
+                return;
+            }
+            closeHunk(index);
+        }
+        processHeaderLine(index, line, true);
+    }
+
+    private void processHeaderLine(int index, String line, boolean detectBinary) {
+        if (detectBinary && (line.contains(BINARY_MARKER) || line.contains(BINARY_DIFF_MARKER))) {
+            binaryStart = index;
+            return;
+        }
+        if (line.startsWith(DIFF_GIT)) {
+            closeFile(index);
+            if (!seenDiffGit) {
+                seenDiffGit = true;
+                if (index > 0) {
+                    // Everything before the first "diff --git" is format-patch email header
+                    contentStart = index;
+                    pending.clear();
+                    binarySections.clear();
+                }
+            }
+            openFile(index);
+            parseGitPaths(line);
+            return;
+        }
+        if (line.startsWith(OLD_FILE) && index + 1 < contentEnd && source.get(index + 1).startsWith(NEW_FILE)) {
+            if (fileStart < 0 || fileHasOldLine || !hunks.isEmpty() || fileBinary != null) {
+                closeFile(index);
+                openFile(index);
+            }
+            oldPath = parsePath(line);
+            fileHasOldLine = true;
+            return;
+        }
+        if (line.startsWith(NEW_FILE) && fileStart >= 0 && hunks.isEmpty()) {
+            newPath = parsePath(line);
+            return;
+        }
+        if (line.startsWith(HUNK)) {
+            if (fileStart < 0) {
+                openFile(index);
+            }
+            openHunk(index, line);
+        }
+        // Any other line is an extended header or trailing text of the current file
+    }
+
+    private boolean consumeHunkLine(int index, String line) {
+        LineKind kind;
+        char first = line.isEmpty() ? ' ' : line.charAt(0);
+        switch (first) {
+            case ' ' -> kind = LineKind.CONTEXT;
+            case '+' -> kind = LineKind.ADDED;
+            case '-' -> kind = LineKind.REMOVED;
+            case '\\' -> kind = LineKind.NO_NEWLINE;
+            default -> {
+                return false;
+            }
+        }
+        if (oldRemaining <= 0 && newRemaining <= 0 && kind != LineKind.NO_NEWLINE
+                && (line.isEmpty() || line.startsWith(OLD_FILE) || line.startsWith(NEW_FILE))) {
+            // Counts are exhausted; extra +/-/space lines are kept for malformed hunks,
+            // but anything that can start the next file ends the hunk
+            return false;
+        }
+        switch (kind) {
+            case CONTEXT -> {
+                oldRemaining--;
+                newRemaining--;
+            }
+            case REMOVED -> oldRemaining--;
+            case ADDED -> newRemaining--;
+            default -> {
+                // No newline marker does not count
+            }
+        }
+        if (kind != runKind) {
+            flushRun(index);
+            runKind = kind;
+            runStart = index;
+        }
+        return true;
+    }
+
+    private void openFile(int index) {
+        fileStart = index;
+        oldPath = null;
+        newPath = null;
+        fileHasOldLine = false;
+        fileBinary = null;
+        hunks = new ArrayList<>();
+    }
+
+    private void closeFile(int end) {
+        if (fileStart < 0) {
+            return;
+        }
+        FilePatch file = new FilePatch(fileStart, end, oldPath, newPath, fileBinary,
+                Collections.unmodifiableList(hunks));
+        if (seenDiffGit) {
+            ready.add(file);
+        } else {
+            pending.add(file);
+        }
+        fileStart = -1;
+        hunks = null;
+    }
+
+    private void openHunk(int index, String line) {
+        hunkHeader = index;
+        parseHunkHeader(line);
+        oldRemaining = oldCount;
+        newRemaining = newCount;
+        runs = new ArrayList<>();
+        runKind = null;
+    }
+
+    private void closeHunk(int end) {
+        flushRun(end);
+        hunks.add(new Hunk(hunkHeader, oldStart, oldCount, newStart, newCount, Collections.unmodifiableList(runs)));
+        hunkHeader = -1;
+        runs = null;
+    }
+
+    private void flushRun(int end) {
+        if (runKind != null) {
+            runs.add(new LineRun(runKind, runStart, end - runStart));
+            runKind = null;
+        }
+    }
+
+    private void closeBinary(int end) {
+        BinarySection section = new BinarySection(binaryStart, end);
+        binarySections.add(section);
+        if (fileStart >= 0 && fileBinary == null) {
+            fileBinary = section;
+        }
+        binaryStart = -1;
+    }
+
+    private void finish() {
+        if (binaryStart >= 0) {
+            closeBinary(contentEnd);
+        }
+        if (hunkHeader >= 0) {
+            closeHunk(contentEnd);
+        }
+        closeFile(contentEnd);
+        ready.addAll(pending);
+        pending.clear();
+    }
+
+    /**
+     * Parse "@@ -a,b +c,d @@" into the current hunk ranges. Omitted counts default to 1;
+     * malformed headers yield empty ranges.
+     */
+    private void parseHunkHeader(String line) {
+        oldStart = 0;
+        oldCount = 0;
+        newStart = 0;
+        newCount = 0;
+        int minus = line.indexOf('-', HUNK.length());
+        if (minus < 0) {
+            return;
+        }
+        cursor = minus + 1;
+        oldStart = readInt(line);
+        oldCount = readCount(line);
+        int plus = line.indexOf('+', cursor);
+        if (plus < 0) {
+            return;
+        }
+        cursor = plus + 1;
+        newStart = readInt(line);
+        newCount = readCount(line);
+    }
+
+    private int readCount(String line) {
+        if (cursor < line.length() && line.charAt(cursor) == ',') {
+            cursor++;
+            return readInt(line);
+        }
+        return 1;
+    }
+
+    private int readInt(String line) {
+        int value = 0;
+        while (cursor < line.length()) {
+            char c = line.charAt(cursor);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            cursor++;
+        }
+        return value;
+    }
+
+    private void parseGitPaths(String line) {
+        // "diff --git a/path b/path"; paths containing " b/" are resolved by the ---/+++ lines
+        int split = line.lastIndexOf(" b/");
+        if (split > DIFF_GIT.length()) {
+            oldPath = line.substring(DIFF_GIT.length() + 1, split);
+            newPath = line.substring(split + 1);
+        }
+    }
+
+    private static String parsePath(String line) {
+        int end = line.indexOf('\t', 4);
+        return line.substring(4, end < 0 ? line.length() : end);
+    }
+
+    /**
+     * Find the end of the diff content, excluding a trailing git version signature
+     * ("-- " or "---" followed by a version such as "2.34.1") and the empty lines after it.
+     */
+    private static int findContentEnd(List<String> source) {
+        int endIndex = source.size();
+        while (endIndex > 0 && source.get(endIndex - 1).trim().isEmpty()) {
+            endIndex--;
+        }
+        if (endIndex >= 2) {
+            String lastNonEmpty = source.get(endIndex - 1).trim();
+            String beforeLast = source.get(endIndex - 2);
+            if (lastNonEmpty.matches("\\d+\\.\\d+.*")
+                    && ("-- ".equals(beforeLast) || "---".equals(beforeLast) || "--".equals(beforeLast.trim()))) {
+                return endIndex - 2;
+            }
+        }
+        return source.size();
+    }
+}
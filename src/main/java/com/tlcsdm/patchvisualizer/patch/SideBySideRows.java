@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Side-by-side row index of a parsed patch.
+ * <p>
+ * Each row stores only source line indexes and line numbers in primitive arrays;
+ * text is fetched from the source when a row is displayed, so the index stays
+ * small even for patches with millions of lines.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class SideBySideRows {
+
+    /**
+     * Kind of a row.
+     */
+    public enum Kind {
+        /**
+         * File header; the text is the file path.
+         */
+        FILE,
+        /**
+         * Hunk header; the text is the "@@" line.
+         */
+        HUNK,
+        /**
+         * Unchanged line shown on both sides.
+         */
+        CONTEXT,
+        /**
+         * Removed line on the left and/or added line on the right.
+         */
+        CHANGE,
+        /**
+         * Binary content marker.
+         */
+        BINARY
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final List<String> source;
+    private final List<FilePatch> files;
+    private byte[] kinds;
+    private int[] leftLines;
+    private int[] rightLines;
+    private int[] leftNumbers;
+    private int[] rightNumbers;
+    private int size;
+
+    private SideBySideRows(ParsedPatch patch) {
+        this.source = patch.source();
+        this.files = patch.files();
+        int capacity = Math.max(16, patch.contentEnd() - patch.contentStart());
+        kinds = new byte[capacity];
+        leftLines = new int[capacity];
+        rightLines = new int[capacity];
+        leftNumbers = new int[capacity];
+        rightNumbers = new int[capacity];
+    }
+
+    /**
+     * Build the row index of a parsed patch. Adjacent removed and added runs are
+     * paired line by line; binary content is reduced to its marker line.
+     *
+     * @param patch parsed patch
+     * @return row index
+     */
+    public static SideBySideRows of(ParsedPatch patch) {
+        SideBySideRows rows = new SideBySideRows(patch);
+        List<FilePatch> files = patch.files();
+        for (int f = 0; f < files.size(); f++) {
+            FilePatch file = files.get(f);
+            rows.add(Kind.FILE, f, f, 0, 0);
+            if (file.isBinary()) {
+                int marker = file.binary().markerLine();
+                rows.add(Kind.BINARY, marker, marker, 0, 0);
+            }
+            for (Hunk hunk : file.hunks()) {
+                rows.addHunk(hunk);
+            }
+        }
+        return rows;
+    }
+
+    private void addHunk(Hunk hunk) {
+        add(Kind.HUNK, hunk.headerLine(), hunk.headerLine(), 0, 0);
+        int oldNumber = Math.max(hunk.oldStart(), 1);
+        int newNumber = Math.max(hunk.newStart(), 1);
+        List<LineRun> runs = hunk.runs();
+        for (int i = 0; i < runs.size(); i++) {
+            LineRun run = runs.get(i);
+            switch (run.kind()) {
+                case CONTEXT -> {
+                    for (int line = run.start(); line < run.end(); line++) {
+                        add(Kind.CONTEXT, line, line, oldNumber++, newNumber++);
+                    }
+                }
+                case REMOVED -> {
+                    LineRun added = i + 1 < runs.size() && runs.get(i + 1).kind() == LineKind.ADDED
+                            ? runs.get(++i) : null;
+                    int addedLength = added == null ? 0 : added.length();
+                    int count = Math.max(run.length(), addedLength);
+                    for (int k = 0; k < count; k++) {
+                        boolean hasLeft = k < run.length();
+                        boolean hasRight = k < addedLength;
+                        add(Kind.CHANGE,
+                                hasLeft ? run.start() + k : -1,
+                                hasRight ? added.start() + k : -1,
+                                hasLeft ? oldNumber++ : 0,
+                                hasRight ? newNumber++ : 0);
+                    }
+                }
+                case ADDED -> {
+                    for (int line = run.start(); line < run.end(); line++) {
+                        add(Kind.CHANGE, -1, line, 0, newNumber++);
+                    }
+                }
+                default -> {
+                    // "No newline at end of file" markers are not shown as rows
+                }
+            }
+        }
+    }
+
+    private void add(Kind kind, int leftLine, int rightLine, int leftNumber, int rightNumber) {
+        if (size == kinds.length) {
+            int grown = size + (size >> 1);
+            kinds = Arrays.copyOf(kinds, grown);
+            leftLines = Arrays.copyOf(leftLines, grown);
+            rightLines = Arrays.copyOf(rightLines, grown);
+            leftNumbers = Arrays.copyOf(leftNumbers, grown);
+            rightNumbers = Arrays.copyOf(rightNumbers, grown);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        leftLines[size] = leftLine;
+        rightLines[size] = rightLine;
+        leftNumbers[size] = leftNumber;
+        rightNumbers[size] = rightNumber;
+        size++;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the kind of a row.
+     *
+     * @param row row index
+     * @return row kind
+     */
+    public Kind kind(int row) {
+        return KINDS[kinds[checkRow(row)]];
+    }
+
+    /**
+     * Check whether a row has content on the left (original) side.
+     *
+     * @param row row index
+     * @return true if the left side is not empty
+     */
+    public boolean hasLeft(int row) {
+        return leftLines[checkRow(row)] >= 0;
+    }
+
+    /**
+     * Check whether a row has content on the right (revised) side.
+     *
+     * @param row row index
+     * @return true if the right side is not empty
+     */
+    public boolean hasRight(int row) {
+        return rightLines[checkRow(row)] >= 0;
+    }
+
+    /**
+     * Get the original line number of a row.
+     *
+     * @param row row index
+     * @return line number, or 0 if the row has none
+     */
+    public int leftNumber(int row) {
+        return leftNumbers[checkRow(row)];
+    }
+
+    /**
+     * Get the revised line number of a row.
+     *
+     * @param row row index
+     * @return line number, or 0 if the row has none
+     */
+    public int rightNumber(int row) {
+        return rightNumbers[checkRow(row)];
+    }
+
+    /**
+     * Get the left side text of a row, without the diff prefix.
+     *
+     * @param row row index
+     * @return text, or an empty string if the side is empty
+     */
+    public String leftText(int row) {
+        return text(row, leftLines[checkRow(row)]);
+    }
+
+    /**
+     * Get the right side text of a row, without the diff prefix.
+     *
+     * @param row row index
+     * @return text, or an empty string if the side is empty
+     */
+    public String rightText(int row) {
+        return text(row, rightLines[checkRow(row)]);
+    }
+
+    private String text(int row, int line) {
+        if (line < 0) {
+            return "";
+        }
+        return switch (kind(row)) {
+            case FILE -> {
+                String path = files.get(line).path();
+                yield path == null ? "" : path;
+            }
+            case HUNK, BINARY -> source.get(line);
+            default -> {
+                String text = source.get(line);
+                yield text.isEmpty() ? text : text.substring(1);
+            }
+        };
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        return row;
+    }
+}
@@ -24,6 +24,8 @@
 
 package com.tlcsdm.patchvisualizer.preferences;
 
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
@@ -41,6 +43,12 @@ public class AppPreferences {
     private static final String LANGUAGE_KEY = "language";
     private static final String THEME_KEY = "theme";
     private static final String DEFAULT_THEME = "Primer Light";
+    private static final String DIFF_ALGORITHM_KEY = "diffAlgorithm";
+    private static final String DEFAULT_DIFF_ALGORITHM = "MYERS";
+    private static final String COMPARE_MODE_KEY = "compareMode";
+    private static final String DEFAULT_COMPARE_MODE = "AUTO";
+    private static final String CONTEXT_LINES_KEY = "contextLines";
+    private static final int DEFAULT_CONTEXT_LINES = 3;
     private static final Preferences prefs = Preferences.userNodeForPackage(AppPreferences.class);
 
     private static final AppPreferences INSTANCE = new AppPreferences();
@@ -48,12 +56,18 @@ public class AppPreferences {
     private final StringProperty lastDirectory = new SimpleStringProperty();
     private final StringProperty language = new SimpleStringProperty();
     private final StringProperty theme = new SimpleStringProperty();
+    private final StringProperty diffAlgorithm = new SimpleStringProperty();
+    private final StringProperty compareMode = new SimpleStringProperty();
+    private final IntegerProperty contextLines = new SimpleIntegerProperty();
 
     private AppPreferences() {
         // Load preferences
         lastDirectory.set(prefs.get(LAST_DIRECTORY_KEY, System.getProperty("user.home")));
         language.set(prefs.get(LANGUAGE_KEY, getDefaultLanguage()));
         theme.set(prefs.get(THEME_KEY, DEFAULT_THEME));
+        diffAlgorithm.set(prefs.get(DIFF_ALGORITHM_KEY, DEFAULT_DIFF_ALGORITHM));
+        compareMode.set(prefs.get(COMPARE_MODE_KEY, DEFAULT_COMPARE_MODE));
+        contextLines.set(prefs.getInt(CONTEXT_LINES_KEY, DEFAULT_CONTEXT_LINES));
 
         // Add listeners to save changes
         lastDirectory.addListener((obs, oldVal, newVal) -> {
@@ -73,6 +87,20 @@ public class AppPreferences {
                 prefs.put(THEME_KEY, newVal);
             }
         });
+
+        diffAlgorithm.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                prefs.put(DIFF_ALGORITHM_KEY, newVal);
+            }
+        });
+
+        compareMode.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                prefs.put(COMPARE_MODE_KEY, newVal);
+            }
+        });
+
+        contextLines.addListener((obs, oldVal, newVal) -> prefs.putInt(CONTEXT_LINES_KEY, newVal.intValue()));
     }
 
     /**
@@ -138,4 +166,40 @@ public class AppPreferences {
     public StringProperty themeProperty() {
         return theme;
     }
+
+    public String getDiffAlgorithm() {
+        return diffAlgorithm.get();
+    }
+
+    public void setDiffAlgorithm(String diffAlgorithm) {
+        this.diffAlgorithm.set(diffAlgorithm);
+    }
+
+    public StringProperty diffAlgorithmProperty() {
+        return diffAlgorithm;
+    }
+
+    public String getCompareMode() {
+        return compareMode.get();
+    }
+
+    public void setCompareMode(String compareMode) {
+        this.compareMode.set(compareMode);
+    }
+
+    public StringProperty compareModeProperty() {
+        return compareMode;
+    }
+
+    public int getContextLines() {
+        return contextLines.get();
+    }
+
+    public void setContextLines(int contextLines) {
+        this.contextLines.set(contextLines);
+    }
+
+    public IntegerProperty contextLinesProperty() {
+        return contextLines;
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fast check whether a file is binary, made on its first raw bytes before any decoding.
+ * <p>
+ * A sample starting with a UTF-16 or UTF-32 byte order mark is text. Otherwise a
+ * sample containing a NUL byte is binary, as in git, and the sample is walked as
+ * UTF-8 with every invalid sequence or non-whitespace control character counting
+ * as suspicious; a sample with more than one suspicious byte in
+ * {@value #SUSPICIOUS_RATIO} is binary. Invalid sequences are forgiven when the
+ * control characters alone stay under that ratio and the sample reads as GBK,
+ * Shift_JIS or windows-1252 text. A sequence cut off at the end of the sample
+ * is not counted.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class BinarySniffer {
+
+    // Bytes inspected from the start of a file; git looks at the same amount
+    public static final int SAMPLE_SIZE = 8000;
+    // A sample is binary once more than one byte in this many is suspicious
+    static final int SUSPICIOUS_RATIO = 10;
+
+    private BinarySniffer() {
+    }
+
+    /**
+     * Check whether a file looks binary, reading at most {@link #SAMPLE_SIZE} bytes.
+     *
+     * @param file file to check
+     * @return true if the file is binary
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        byte[] sample;
+        try (InputStream in = Files.newInputStream(file)) {
+            sample = in.readNBytes(SAMPLE_SIZE);
+        }
+        return isBinary(sample, 0, sample.length);
+    }
+
+    /**
+     * Check whether the leading bytes of some content look binary.
+     * Only the first {@link #SAMPLE_SIZE} bytes of the range are inspected.
+     *
+     * @param bytes  content
+     * @param offset start of the content in {@code bytes}
+     * @param length length of the content
+     * @return true if the content is binary
+     */
+    public static boolean isBinary(byte[] bytes, int offset, int length) {
+        int end = offset + Math.min(length, SAMPLE_SIZE);
+        if (CharsetDetector.detectBom(bytes, offset, end - offset) != null) {
+            return false;
+        }
+        int controls = 0;
+        int invalid = 0;
+        int i = offset;
+        while (i < end) {
+            int b = bytes[i] & 0xFF;
+            if (b == 0) {
+                return true;
+            }
+            if (b < 0x80) {
+                if (isControl(b)) {
+                    controls++;
+                }
+                i++;
+                continue;
+            }
+            int sequence = sequenceLength(bytes, i, end);
+            if (sequence < 0) {
+                // Truncated by the end of the sample
+                break;
+            }
+            if (sequence == 0) {
+                invalid++;
+                i++;
+            } else {
+                i += sequence;
+            }
+        }
+        int sampled = end - offset;
+        if ((long) (controls + invalid) * SUSPICIOUS_RATIO <= sampled) {
+            return false;
+        }
+        // Invalid UTF-8 is expected in legacy text, but control characters are not
+        return (long) controls * SUSPICIOUS_RATIO > sampled
+                || !CharsetDetector.isLegacyText(bytes, offset, sampled);
+    }
+
+    private static boolean isControl(int b) {
+        // Tab, line feed, form feed, carriage return, backspace and escape occur in text
+        return (b < 0x20 && b != '\t' && b != '\n' && b != '\f' && b != '\r' && b != '\b' && b != 0x1B)
+                || b == 0x7F;
+    }
+
+    /**
+     * Validate the UTF-8 sequence starting with a non-ASCII lead byte.
+     *
+     * @param bytes content
+     * @param start index of the lead byte
+     * @param end   end of the sample
+     * @return the sequence length, 0 if the sequence is invalid, or -1 if it is cut off by {@code end}
+     */
+    private static int sequenceLength(byte[] bytes, int start, int end) {
+        int lead = bytes[start] & 0xFF;
+        int length;
+        // Bounds of the second byte exclude overlong forms, surrogates and code points above U+10FFFF
+        int min = 0x80;
+        int max = 0xBF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            length = 2;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            length = 3;
+            if (lead == 0xE0) {
+                min = 0xA0;
+            } else if (lead == 0xED) {
+                max = 0x9F;
+            }
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            length = 4;
+            if (lead == 0xF0) {
+                min = 0x90;
+            } else if (lead == 0xF4) {
+                max = 0x8F;
+            }
+        } else {
+            return 0;
+        }
+        for (int i = 1; i < length; i++) {
+            if (start + i >= end) {
+                return -1;
+            }
+            int b = bytes[start + i] & 0xFF;
+            if (b < (i == 1 ? min : 0x80) || b > (i == 1 ? max : 0xBF)) {
+                return 0;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Check whether two files have the same bytes, comparing sizes first.
+     *
+     * @param original first file
+     * @param revised  second file
+     * @return true if both files have identical content
+     * @throws IOException if a file cannot be read
+     */
+    public static boolean sameContent(Path original, Path revised) throws IOException {
+        return Files.size(original) == Files.size(revised) && Files.mismatch(original, revised) < 0;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Detects the charset of text from a prefix of its raw bytes.
+ * <p>
+ * A byte order mark decides the charset outright. Otherwise the sample is
+ * decoded strictly as UTF-8, then as GBK and Shift_JIS; a legacy candidate
+ * only counts if its non-ASCII characters are mostly CJK ideographs, kana
+ * and CJK punctuation. GBK decodes most Shift_JIS text as rare ideographs, so
+ * it only scores the common GB2312 characters, while Shift_JIS scores kana
+ * double; the higher score wins, GBK on a tie. Anything else
+ * falls back to windows-1252, the usual superset of Latin-1. A multi-byte
+ * sequence cut off at the end of the sample does not count against a candidate.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class CharsetDetector {
+
+    // Bytes inspected from the start of the text
+    public static final int SAMPLE_SIZE = 64 * 1024;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+    private static final Charset GBK = Charset.forName("GBK");
+    // Shift_JIS with the Windows extensions
+    private static final Charset SHIFT_JIS = Charset.forName("windows-31j");
+    // A legacy candidate needs at least this many plausible characters per ten non-ASCII ones
+    private static final int MIN_PLAUSIBLE_TENTHS = 8;
+
+    /**
+     * Detected charset of some text.
+     *
+     * @param charset   charset of the text
+     * @param bomLength length of the byte order mark to skip, 0 if there is none
+     */
+    public record Detection(Charset charset, int bomLength) {
+
+        /**
+         * Validates the detection.
+         */
+        public Detection {
+            if (charset == null) {
+                throw new IllegalArgumentException("charset must not be null");
+            }
+            if (bomLength < 0) {
+                throw new IllegalArgumentException("bomLength must not be negative: " + bomLength);
+            }
+        }
+
+        /**
+         * Check whether line terminators are single ASCII bytes in this charset,
+         * so lines can be split on raw bytes.
+         *
+         * @return false for UTF-16 and UTF-32
+         */
+        public boolean asciiCompatible() {
+            return Arrays.equals("\r\n".getBytes(charset), new byte[]{'\r', '\n'});
+        }
+    }
+
+    private CharsetDetector() {
+    }
+
+    /**
+     * Detect the charset of a file from its first {@link #SAMPLE_SIZE} bytes.
+     *
+     * @param file file to inspect
+     * @return detected charset
+     * @throws IOException if the file cannot be read
+     */
+    public static Detection detect(Path file) throws IOException {
+        byte[] sample;
+        try (InputStream in = Files.newInputStream(file)) {
+            sample = in.readNBytes(SAMPLE_SIZE);
+        }
+        return detect(sample, 0, sample.length);
+    }
+
+    /**
+     * Detect the charset of some text. Only the first {@link #SAMPLE_SIZE} bytes of the range are inspected.
+     *
+     * @param bytes  text
+     * @param offset start of the text in {@code bytes}
+     * @param length length of the text
+     * @return detected charset
+     */
+    public static Detection detect(byte[] bytes, int offset, int length) {
+        int sampled = Math.min(length, SAMPLE_SIZE);
+        Detection bom = detectBom(bytes, offset, sampled);
+        if (bom != null) {
+            return bom;
+        }
+        if (decode(StandardCharsets.UTF_8, bytes, offset, sampled) != null) {
+            return new Detection(StandardCharsets.UTF_8, 0);
+        }
+        CharBuffer gbkChars = decode(GBK, bytes, offset, sampled);
+        int gbkScore = gbkChars != null && isPlausible(gbkChars) ? countGb2312(bytes, offset, sampled) : -1;
+        CharBuffer sjisChars = decode(SHIFT_JIS, bytes, offset, sampled);
+        int sjisScore = sjisChars != null && isPlausible(sjisChars) ? scoreJapanese(sjisChars) : -1;
+        if (gbkScore >= 0 || sjisScore >= 0) {
+            return new Detection(sjisScore > gbkScore ? SHIFT_JIS : GBK, 0);
+        }
+        // windows-1252 leaves five bytes undefined, which ISO-8859-1 still accepts
+        return new Detection(decode(WINDOWS_1252, bytes, offset, sampled) != null
+                ? WINDOWS_1252 : StandardCharsets.ISO_8859_1, 0);
+    }
+
+    /**
+     * Check whether text that is not valid UTF-8 still reads as GBK, Shift_JIS or windows-1252.
+     * Only the ISO-8859-1 fallback, taken for C1 control bytes, does not count as text.
+     *
+     * @param bytes  text
+     * @param offset start of the text in {@code bytes}
+     * @param length length of the text
+     * @return true if the detected charset is a legacy text charset
+     */
+    static boolean isLegacyText(byte[] bytes, int offset, int length) {
+        return !detect(bytes, offset, length).charset().equals(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Detect a UTF-8, UTF-16 or UTF-32 byte order mark at the start of a file.
+     *
+     * @param file file to inspect
+     * @return the charset of the byte order mark, or null if there is none
+     * @throws IOException if the file cannot be read
+     */
+    public static Detection detectBom(Path file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(4);
+        }
+        return detectBom(head, 0, head.length);
+    }
+
+    /**
+     * Detect a UTF-8, UTF-16 or UTF-32 byte order mark.
+     *
+     * @param bytes  text
+     * @param offset start of the text in {@code bytes}
+     * @param length length of the text
+     * @return the charset of the byte order mark, or null if there is none
+     */
+    static Detection detectBom(byte[] bytes, int offset, int length) {
+        int b0 = length > 0 ? bytes[offset] & 0xFF : -1;
+        int b1 = length > 1 ? bytes[offset + 1] & 0xFF : -1;
+        int b2 = length > 2 ? bytes[offset + 2] & 0xFF : -1;
+        int b3 = length > 3 ? bytes[offset + 3] & 0xFF : -1;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return new Detection(StandardCharsets.UTF_8, 3);
+        }
+        // UTF-32 first: its little-endian mark starts with the UTF-16 one
+        if (b0 == 0 && b1 == 0 && b2 == 0xFE && b3 == 0xFF) {
+            return new Detection(Charset.forName("UTF-32BE"), 4);
+        }
+        if (b0 == 0xFF && b1 == 0xFE && b2 == 0 && b3 == 0) {
+            return new Detection(Charset.forName("UTF-32LE"), 4);
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return new Detection(StandardCharsets.UTF_16BE, 2);
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return new Detection(StandardCharsets.UTF_16LE, 2);
+        }
+        return null;
+    }
+
+    /**
+     * Decode a sample strictly, accepting a sequence cut off at its end.
+     *
+     * @param charset charset to decode with
+     * @param bytes   sample
+     * @param offset  start of the sample in {@code bytes}
+     * @param length  length of the sample
+     * @return the decoded characters, or null if the sample is not valid in the charset
+     */
+    private static CharBuffer decode(Charset charset, byte[] bytes, int offset, int length) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(length);
+        // Not the end of input, so an incomplete trailing sequence underflows instead of failing
+        if (decoder.decode(ByteBuffer.wrap(bytes, offset, length), out, false).isError()) {
+            return null;
+        }
+        return out.flip();
+    }
+
+    /**
+     * Check whether enough of the non-ASCII characters of decoded text are
+     * ideographs, kana, CJK punctuation or full-width forms.
+     *
+     * @param chars decoded sample
+     * @return true if the text is plausibly CJK
+     */
+    private static boolean isPlausible(CharBuffer chars) {
+        int nonAscii = 0;
+        int plausible = 0;
+        for (int i = chars.position(); i < chars.limit(); i++) {
+            char c = chars.get(i);
+            if (c >= 0x80) {
+                nonAscii++;
+                if (isKana(c) || isCjk(c)) {
+                    plausible++;
+                }
+            }
+        }
+        return plausible * 10 >= nonAscii * MIN_PLAUSIBLE_TENTHS;
+    }
+
+    /**
+     * Score decoded text as Japanese: two points per kana, one per other CJK character.
+     *
+     * @param chars decoded sample
+     * @return the score
+     */
+    private static int scoreJapanese(CharBuffer chars) {
+        int score = 0;
+        for (int i = chars.position(); i < chars.limit(); i++) {
+            char c = chars.get(i);
+            if (isKana(c)) {
+                score += 2;
+            } else if (isCjk(c)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Count the GBK byte pairs inside the GB2312 area, which holds all common Chinese characters.
+     *
+     * @param bytes  sample
+     * @param offset start of the sample in {@code bytes}
+     * @param length length of the sample
+     * @return number of GB2312 characters
+     */
+    private static int countGb2312(byte[] bytes, int offset, int length) {
+        int count = 0;
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            int lead = bytes[i] & 0xFF;
+            if (lead < 0x80) {
+                i++;
+                continue;
+            }
+            if (i + 1 < end && lead >= 0xA1 && lead <= 0xF7 && (bytes[i + 1] & 0xFF) >= 0xA1) {
+                count++;
+            }
+            i += 2;
+        }
+        return count;
+    }
+
+    private static boolean isKana(char c) {
+        return c >= 0x3040 && c <= 0x30FF;
+    }
+
+    private static boolean isCjk(char c) {
+        // Ideographs, CJK punctuation, full-width forms and general punctuation
+        return (c >= 0x4E00 && c <= 0x9FFF) || (c >= 0x3000 && c <= 0x303F)
+                || (c >= 0xFF01 && c <= 0xFF5E) || (c >= 0x2010 && c <= 0x203B);
+    }
+}
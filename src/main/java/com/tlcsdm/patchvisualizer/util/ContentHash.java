@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.util.List;
+
+/**
+ * 128-bit content hash of text lines.
+ * <p>
+ * Two independent 64-bit lanes are computed in one pass over the characters,
+ * which is far cheaper than diffing the content and makes accidental
+ * collisions negligible for cache keys.
+ *
+ * @param high first hash lane
+ * @param low  second hash lane
+ * @author unknowIfGuestInDream
+ */
+public record ContentHash(long high, long low) {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    // Outside the char range, so line boundaries cannot be forged by content
+    private static final int LINE_SEPARATOR = 0x10000;
+
+    /**
+     * Hash a list of lines. Line boundaries are part of the hash, so
+     * ["ab", "c"] and ["a", "bc"] hash differently.
+     *
+     * @param lines lines to hash
+     * @return content hash
+     */
+    public static ContentHash of(List<String> lines) {
+        long h1 = FNV_OFFSET;
+        long h2 = lines.size();
+        for (String line : lines) {
+            for (int i = 0, n = line.length(); i < n; i++) {
+                char c = line.charAt(i);
+                h1 = (h1 ^ c) * FNV_PRIME;
+                h2 = (h2 + c) * GOLDEN_GAMMA;
+            }
+            h1 = (h1 ^ LINE_SEPARATOR) * FNV_PRIME;
+            h2 = (h2 + LINE_SEPARATOR) * GOLDEN_GAMMA;
+        }
+        return new ContentHash(mix(h1), mix(h2 ^ (h2 >>> 29)));
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading every input bit over the result.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.Patch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Comparison shown as hunks with a few lines of context instead of the whole file.
+ * <p>
+ * Unchanged lines between hunks stay collapsed until they are revealed with
+ * {@link #expand(int)}, which pulls them from the original lines held here.
+ * Hunks are numbered in the order of the last {@link #render()}; revealing
+ * lines may join neighbouring hunks, so indexes refer to the current rendering.
+ * Instances are not thread-safe.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class ContextDiff {
+
+    /**
+     * Number of lines revealed by one {@link #expand(int)}.
+     */
+    public static final int EXPAND_LINES = 20;
+
+    /**
+     * Original lines {@code [start, end)} shown together, with deltas {@code [firstDelta, endDelta)}.
+     */
+    private record Hunk(int start, int end, int firstDelta, int endDelta) {
+    }
+
+    private final List<String> original;
+    private final List<AbstractDelta<String>> deltas;
+    private final String originalFileName;
+    private final String revisedFileName;
+    private final int contextLines;
+    // Revealed original line ranges as {start, end}
+    private final List<int[]> revealed = new ArrayList<>();
+    private List<Hunk> hunks;
+
+    /**
+     * Create a context view of a comparison.
+     *
+     * @param original         original lines
+     * @param patch            patch turning {@code original} into the revised lines
+     * @param originalFileName original file name
+     * @param revisedFileName  revised file name
+     * @param contextLines     unchanged lines shown around each change
+     */
+    public ContextDiff(List<String> original, Patch<String> patch, String originalFileName, String revisedFileName,
+                       int contextLines) {
+        if (contextLines < 0) {
+            throw new IllegalArgumentException("contextLines must not be negative: " + contextLines);
+        }
+        this.original = original;
+        this.deltas = patch.getDeltas();
+        this.originalFileName = originalFileName;
+        this.revisedFileName = revisedFileName;
+        this.contextLines = contextLines;
+        this.hunks = computeHunks();
+    }
+
+    /**
+     * Get the number of changed regions.
+     *
+     * @return number of deltas
+     */
+    public int changeCount() {
+        return deltas.size();
+    }
+
+    /**
+     * Get the number of hunks in the current rendering.
+     *
+     * @return number of hunks
+     */
+    public int hunkCount() {
+        return hunks.size();
+    }
+
+    /**
+     * Get the number of collapsed lines before a hunk.
+     *
+     * @param hunk hunk index, or {@link #hunkCount()} for the lines after the last hunk
+     * @return number of hidden original lines, 0 for an invalid index
+     */
+    public int hiddenLines(int hunk) {
+        if (hunk < 0 || hunk > hunks.size()) {
+            return 0;
+        }
+        return gapEnd(hunk) - gapStart(hunk);
+    }
+
+    /**
+     * Reveal up to {@link #EXPAND_LINES} collapsed lines before a hunk, starting
+     * next to the hunk; for {@link #hunkCount()} reveal the lines after the last hunk.
+     *
+     * @param hunk hunk index, or {@link #hunkCount()}
+     * @return true if lines were revealed
+     */
+    public boolean expand(int hunk) {
+        if (hiddenLines(hunk) == 0) {
+            return false;
+        }
+        int start = gapStart(hunk);
+        int end = gapEnd(hunk);
+        if (hunk == hunks.size()) {
+            revealed.add(new int[]{start, Math.min(end, start + EXPAND_LINES)});
+        } else {
+            revealed.add(new int[]{Math.max(start, end - EXPAND_LINES), end});
+        }
+        hunks = computeHunks();
+        return true;
+    }
+
+    /**
+     * Render the current view as a unified diff with a header like the full
+     * file view, including the number of differences.
+     *
+     * @return unified diff lines
+     */
+    public List<String> render() {
+        int size = 3 + hunks.size();
+        for (Hunk hunk : hunks) {
+            size += hunk.end() - hunk.start();
+            for (int d = hunk.firstDelta(); d < hunk.endDelta(); d++) {
+                size += deltas.get(d).getTarget().size();
+            }
+        }
+        List<String> result = new ArrayList<>(size);
+        result.add("--- " + originalFileName);
+        result.add("+++ " + revisedFileName + " ( " + deltas.size() + " different )");
+        if (hunks.isEmpty()) {
+            result.add(HunkMerge.PLACEHOLDER);
+            return result;
+        }
+
+        // Revised line number minus original line number before the current hunk
+        int shift = 0;
+        int shiftedDeltas = 0;
+        for (Hunk hunk : hunks) {
+            for (; shiftedDeltas < hunk.firstDelta(); shiftedDeltas++) {
+                shift += deltas.get(shiftedDeltas).getTarget().size() - deltas.get(shiftedDeltas).getSource().size();
+            }
+            int header = result.size();
+            result.add(null);
+            int originalLength = 0;
+            int revisedLength = 0;
+            int d = hunk.firstDelta();
+            int line = hunk.start();
+            while (line < hunk.end() || d < hunk.endDelta()) {
+                if (d < hunk.endDelta() && deltas.get(d).getSource().getPosition() == line) {
+                    Chunk<String> source = deltas.get(d).getSource();
+                    Chunk<String> target = deltas.get(d).getTarget();
+                    for (String removed : source.getLines()) {
+                        result.add("-" + removed);
+                    }
+                    for (String added : target.getLines()) {
+                        result.add("+" + added);
+                    }
+                    originalLength += source.size();
+                    revisedLength += target.size();
+                    line += source.size();
+                    d++;
+                } else {
+                    result.add(" " + original.get(line));
+                    originalLength++;
+                    revisedLength++;
+                    line++;
+                }
+            }
+            result.set(header, "@@ -" + (hunk.start() + 1) + "," + originalLength
+                    + " +" + (hunk.start() + shift + 1) + "," + revisedLength + " @@");
+        }
+        return result;
+    }
+
+    private int gapStart(int hunk) {
+        return hunk == 0 ? 0 : hunks.get(hunk - 1).end();
+    }
+
+    private int gapEnd(int hunk) {
+        return hunk == hunks.size() ? original.size() : hunks.get(hunk).start();
+    }
+
+    /**
+     * Merge the context around each delta and the revealed ranges; ranges that
+     * touch form one hunk, as in a unified diff.
+     */
+    private List<Hunk> computeHunks() {
+        // {start, end, 1 for a delta's context or 0 for a revealed range}
+        List<int[]> ranges = new ArrayList<>(deltas.size() + revealed.size());
+        for (AbstractDelta<String> delta : deltas) {
+            Chunk<String> source = delta.getSource();
+            ranges.add(new int[]{Math.max(0, source.getPosition() - contextLines),
+                    Math.min(original.size(), source.getPosition() + source.size() + contextLines), 1});
+        }
+        for (int[] range : revealed) {
+            ranges.add(new int[]{range[0], range[1], 0});
+        }
+        // Stable, so deltas keep their order
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+
+        List<Hunk> result = new ArrayList<>();
+        int start = -1;
+        int end = -1;
+        int firstDelta = 0;
+        int nextDelta = 0;
+        for (int[] range : ranges) {
+            if (start >= 0 && range[0] > end) {
+                result.add(new Hunk(start, end, firstDelta, nextDelta));
+                start = -1;
+            }
+            if (start < 0) {
+                start = range[0];
+                end = range[1];
+                firstDelta = nextDelta;
+            } else {
+                end = Math.max(end, range[1]);
+            }
+            nextDelta += range[2];
+        }
+        if (start >= 0) {
+            result.add(new Hunk(start, end, firstDelta, nextDelta));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed LRU cache of computed diffs.
+ * <p>
+ * Entries are keyed by the content hashes of both inputs plus everything else
+ * that affects the output, and evicted least recently used first once their
+ * estimated size exceeds the byte budget. The cache is thread-safe; diffs are
+ * computed outside the lock, so concurrent misses on the same key may both compute.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class DiffCache {
+
+    // Rough per-line cost of a cached String: object header, array header and the list slot
+    private static final int LINE_OVERHEAD_BYTES = 48;
+
+    /**
+     * Cache key.
+     *
+     * @param original     hash of the original content
+     * @param revised      hash of the revised content
+     * @param originalName original file name shown in the diff
+     * @param revisedName  revised file name shown in the diff
+     * @param options      description of any other option that affects the output
+     */
+    public record Key(ContentHash original, ContentHash revised, String originalName, String revisedName,
+                      String options) {
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, List<String>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long byteSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxBytes maximum estimated size of all cached diffs
+     */
+    public DiffCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Build the key for a diff of two contents.
+     *
+     * @param original     original content
+     * @param revised      revised content
+     * @param originalName original file name
+     * @param revisedName  revised file name
+     * @param options      description of any other option that affects the output
+     * @return cache key
+     */
+    public static Key key(List<String> original, List<String> revised, String originalName, String revisedName,
+                          String options) {
+        return new Key(ContentHash.of(original), ContentHash.of(revised), originalName, revisedName, options);
+    }
+
+    /**
+     * Get a cached diff, or compute and cache it.
+     *
+     * @param key     cache key
+     * @param compute computes the diff on a miss
+     * @return the cached or computed diff; unmodifiable
+     */
+    public List<String> computeIfAbsent(Key key, Supplier<List<String>> compute) {
+        List<String> cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> computed = List.copyOf(compute.get());
+        put(key, computed);
+        return computed;
+    }
+
+    /**
+     * Get a cached diff and count the lookup as a hit or miss.
+     *
+     * @param key cache key
+     * @return cached diff, or null if absent
+     */
+    public synchronized List<String> get(Key key) {
+        List<String> cached = entries.get(key);
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    /**
+     * Cache a diff, evicting least recently used entries as needed.
+     * Diffs larger than the whole budget are not cached.
+     *
+     * @param key  cache key
+     * @param diff diff lines
+     */
+    public synchronized void put(Key key, List<String> diff) {
+        long size = estimateSize(diff);
+        if (size > maxBytes) {
+            return;
+        }
+        List<String> previous = entries.put(key, List.copyOf(diff));
+        if (previous != null) {
+            byteSize -= estimateSize(previous);
+        }
+        byteSize += size;
+        Iterator<Map.Entry<Key, List<String>>> eldest = entries.entrySet().iterator();
+        while (byteSize > maxBytes && eldest.hasNext()) {
+            byteSize -= estimateSize(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Remove all entries; counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        byteSize = 0;
+    }
+
+    /**
+     * Estimate the memory held by a cached diff.
+     *
+     * @param diff diff lines
+     * @return estimated size in bytes
+     */
+    static long estimateSize(List<String> diff) {
+        long size = 0;
+        for (String line : diff) {
+            size += LINE_OVERHEAD_BYTES + line.length();
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of cached diffs.
+     *
+     * @return entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the estimated size of all cached diffs.
+     *
+     * @return size in bytes
+     */
+    public synchronized long byteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Get the byte budget.
+     *
+     * @return maximum size in bytes
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the number of lookups that found a cached diff.
+     *
+     * @return hit count
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that found nothing.
+     *
+     * @return miss count
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of entries evicted to stay within the budget.
+     *
+     * @return eviction count
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -26,24 +26,33 @@ package com.tlcsdm.patchvisualizer.util;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.DeltaType;
 import com.github.difflib.patch.Patch;
 import com.github.difflib.patch.PatchFailedException;
+import com.tlcsdm.patchvisualizer.diff.DiffEngine;
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import com.tlcsdm.patchvisualizer.patch.FilePatch;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.patch.PatchParser;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
-import java.util.stream.Collectors;
 
 /**
  * Diff handling utility for generating and visualizing file differences.
@@ -53,8 +62,14 @@ import java.util.stream.Collectors;
 public class DiffHandleUtil {
 
     private static final int MAX_BINARY_LINES = 100;
-    private static final String BINARY_MARKER = "GIT binary patch";
-    private static final String BINARY_DIFF_MARKER = "Binary files";
+    private static final String BINARY_TRUNCATED_NOTICE = "... (binary content truncated for performance) ...";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Patches from this size on are mapped rather than read into memory
+    private static final long MAPPED_PATCH_SIZE = 1024 * 1024;
+    private static final long DIFF_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    private static final DiffCache DIFF_CACHE = new DiffCache(DIFF_CACHE_MAX_BYTES);
+    // Options prefix of cached context diffs, which hold the changes rather than diff lines
+    private static final String CONTEXT_CACHE_OPTIONS = "context;";
 
     private DiffHandleUtil() {
     }
@@ -72,6 +87,8 @@ public class DiffHandleUtil {
 
     /**
      * Compare two files and return the difference in original file + diff format.
+     * <p>
+     * Results are cached by content, so comparing the same pair again returns immediately.
      *
      * @param original         original file content
      * @param revised          compared file content
@@ -81,28 +98,47 @@ public class DiffHandleUtil {
      */
     public static List<String> diffString(List<String> original, List<String> revised, String originalFileName,
                                           String revisedFileName) {
-        originalFileName = originalFileName == null ? "Original" : originalFileName;
-        revisedFileName = revisedFileName == null ? "Revised" : revisedFileName;
+        return diffString(original, revised, originalFileName, revisedFileName, DiffOptions.DEFAULT);
+    }
+
+    /**
+     * Compare two files with the given diff options and return the difference in original file + diff format.
+     * <p>
+     * Results are cached by content and options, so comparing the same pair again returns immediately.
+     *
+     * @param original         original file content
+     * @param revised          compared file content
+     * @param originalFileName original file name
+     * @param revisedFileName  compared file name
+     * @param options          diff algorithm and budget
+     * @return list of diff strings
+     */
+    public static List<String> diffString(List<String> original, List<String> revised, String originalFileName,
+                                          String revisedFileName, DiffOptions options) {
+        String originalName = originalFileName == null ? "Original" : originalFileName;
+        String revisedName = revisedFileName == null ? "Revised" : revisedFileName;
+        DiffCache.Key key = DiffCache.key(original, revised, originalName, revisedName, options.cacheKey());
+        return new ArrayList<>(DIFF_CACHE.computeIfAbsent(key,
+                () -> computeDiffString(original, revised, originalName, revisedName, options)));
+    }
+
+    /**
+     * Get the cache used by {@link #diffString(List, List, String, String)} and
+     * {@link #contextDiff(List, List, String, String, DiffOptions, int)}.
+     *
+     * @return the shared diff cache
+     */
+    public static DiffCache getDiffCache() {
+        return DIFF_CACHE;
+    }
+
+    private static List<String> computeDiffString(List<String> original, List<String> revised,
+                                                  String originalFileName, String revisedFileName,
+                                                  DiffOptions options) {
         // Generate diff patch
-        Patch<String> patch = DiffUtils.diff(original, revised);
-        // Generate unified diff format
-        List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff(originalFileName, revisedFileName, original,
-                patch, 0);
-        int diffCount = unifiedDiff.size();
-        if (diffCount == 0) {
-            // If no difference, insert placeholder
-            unifiedDiff.add("--- " + originalFileName);
-            unifiedDiff.add("+++ " + revisedFileName);
-            unifiedDiff.add("@@ -0,0 +0,0 @@");
-        } else if (diffCount >= 3 && !unifiedDiff.get(2).contains("@@ -1,")) {
-            unifiedDiff.set(1, unifiedDiff.get(1));
-            // If first line unchanged, insert placeholder
-            unifiedDiff.add(2, "@@ -0,0 +0,0 @@");
-        }
-        // Add space prefix to original lines
-        List<String> original1 = original.stream().map(v -> " " + v).collect(Collectors.toList());
-        // Insert diff into original file
-        return insertOrig(original1, unifiedDiff);
+        Patch<String> patch = DiffEngine.diffLines(original, revised, options);
+        // Merge the hunks into the original file
+        return HunkMerge.merge(original, patch, originalFileName, revisedFileName);
     }
 
     /**
@@ -113,17 +149,213 @@ public class DiffHandleUtil {
      * @return list of diff strings
      */
     public static List<String> diffString(String filePathOriginal, String filePathRevised) {
-        List<String> original = null;
-        List<String> revised = null;
+        return diffString(filePathOriginal, filePathRevised, DiffOptions.DEFAULT);
+    }
+
+    /**
+     * Compare two files with the given diff options and return the difference in original file + diff format.
+     *
+     * @param filePathOriginal original file path
+     * @param filePathRevised  compared file path
+     * @param options          diff algorithm and budget
+     * @return list of diff strings
+     */
+    public static List<String> diffString(String filePathOriginal, String filePathRevised, DiffOptions options) {
+        return diffString(filePathOriginal, filePathRevised, options, ProgressListener.NONE);
+    }
+
+    /**
+     * Compare two files with the given diff options and return the difference in original file + diff format,
+     * reporting the {@link ProgressListener.Stage#READ} and {@link ProgressListener.Stage#DIFF} stages.
+     * If either file is binary, only sizes and bytes are compared and a git-style binary diff is returned.
+     *
+     * @param filePathOriginal original file path
+     * @param filePathRevised  compared file path
+     * @param options          diff algorithm and budget
+     * @param listener         progress listener
+     * @return list of diff strings
+     */
+    public static List<String> diffString(String filePathOriginal, String filePathRevised, DiffOptions options,
+                                          ProgressListener listener) {
         File originalFile = new File(filePathOriginal);
         File revisedFile = new File(filePathRevised);
+        if (isBinary(filePathOriginal, filePathRevised)) {
+            return binaryDiff(originalFile, revisedFile);
+        }
+        List<List<String>> files = readFiles(originalFile, revisedFile, listener);
+        List<String> original = files.get(0);
+        List<String> revised = files.get(1);
+        long lines = (long) original.size() + revised.size();
+        listener.progress(ProgressListener.Stage.DIFF, 0, lines);
+        List<String> result = diffString(original, revised, originalFile.getName(), revisedFile.getName(), options);
+        listener.progress(ProgressListener.Stage.DIFF, lines, lines);
+        return result;
+    }
+
+    /**
+     * Check whether either of two files is binary, looking only at their first bytes.
+     *
+     * @param filePathOriginal original file path
+     * @param filePathRevised  compared file path
+     * @return true if either file is binary
+     */
+    public static boolean isBinary(String filePathOriginal, String filePathRevised) {
         try {
-            original = Files.readAllLines(originalFile.toPath());
-            revised = Files.readAllLines(revisedFile.toPath());
+            return BinarySniffer.isBinary(Path.of(filePathOriginal))
+                    || BinarySniffer.isBinary(Path.of(filePathRevised));
         } catch (IOException e) {
             throw new RuntimeException("Failed to read files", e);
         }
-        return diffString(original, revised, originalFile.getName(), revisedFile.getName());
+    }
+
+    /**
+     * Compare two files by size and bytes only, without decoding them.
+     *
+     * @param originalFile original file
+     * @param revisedFile  compared file
+     * @return git-style binary diff; only the header if both files are identical
+     */
+    private static List<String> binaryDiff(File originalFile, File revisedFile) {
+        String from = "a/" + originalFile.getName();
+        String to = "b/" + revisedFile.getName();
+        try {
+            if (BinarySniffer.sameContent(originalFile.toPath(), revisedFile.toPath())) {
+                return List.of("diff --git " + from + " " + to);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read files", e);
+        }
+        return List.of("diff --git " + from + " " + to, "Binary files " + from + " and " + to + " differ");
+    }
+
+    /**
+     * Read the lines of two files, reporting the bytes read as {@link ProgressListener.Stage#READ}
+     * after each buffer of either file.
+     *
+     * @param originalFile original file
+     * @param revisedFile  compared file
+     * @param listener     progress listener
+     * @return the lines of both files
+     */
+    private static List<List<String>> readFiles(File originalFile, File revisedFile, ProgressListener listener) {
+        long originalSize = originalFile.length();
+        long total = originalSize + revisedFile.length();
+        try {
+            listener.progress(ProgressListener.Stage.READ, 0, total);
+            // Each file may have its own charset; the bytes of the second follow those of the first
+            List<String> original = TextReader.readLines(originalFile.toPath(),
+                    (stage, done, fileTotal) -> listener.progress(stage, done, total));
+            List<String> revised = TextReader.readLines(revisedFile.toPath(),
+                    (stage, done, fileTotal) -> listener.progress(stage, originalSize + done, total));
+            return List.of(original, revised);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read files", e);
+        }
+    }
+
+    /**
+     * Compare two files and keep only the hunks with a few lines of context.
+     * The collapsed unchanged lines can be revealed later through the returned view.
+     *
+     * @param original         original file content
+     * @param revised          compared file content
+     * @param originalFileName original file name
+     * @param revisedFileName  compared file name
+     * @param options          diff algorithm and budget
+     * @param contextLines     unchanged lines shown around each change
+     * @return context view of the comparison
+     */
+    public static ContextDiff contextDiff(List<String> original, List<String> revised, String originalFileName,
+                                          String revisedFileName, DiffOptions options, int contextLines) {
+        String originalName = originalFileName == null ? "Original" : originalFileName;
+        String revisedName = revisedFileName == null ? "Revised" : revisedFileName;
+        // Names and context lines only shape the view, so one cached entry serves all of them
+        DiffCache.Key key = DiffCache.key(original, revised, null, null,
+                CONTEXT_CACHE_OPTIONS + options.cacheKey());
+        List<String> changes = DIFF_CACHE.computeIfAbsent(key,
+                () -> encodeChanges(DiffEngine.diffLines(original, revised, options)));
+        Patch<String> patch = Patch.generate(original, revised, decodeChanges(changes));
+        return new ContextDiff(original, patch, originalName, revisedName, contextLines);
+    }
+
+    /**
+     * Encode the deltas of a patch as one line per change, so the patch can be cached
+     * without its lines and generated again from the compared contents.
+     *
+     * @param patch patch to encode
+     * @return lines of type, original range and revised range
+     */
+    private static List<String> encodeChanges(Patch<String> patch) {
+        List<String> changes = new ArrayList<>(patch.getDeltas().size());
+        for (AbstractDelta<String> delta : patch.getDeltas()) {
+            int source = delta.getSource().getPosition();
+            int target = delta.getTarget().getPosition();
+            changes.add(delta.getType() + " " + source + " " + (source + delta.getSource().size())
+                    + " " + target + " " + (target + delta.getTarget().size()));
+        }
+        return changes;
+    }
+
+    /**
+     * Decode changes encoded by {@link #encodeChanges(Patch)}.
+     *
+     * @param lines encoded changes
+     * @return changes to generate the patch from
+     */
+    private static List<Change> decodeChanges(List<String> lines) {
+        List<Change> changes = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            String[] fields = line.split(" ");
+            changes.add(new Change(DeltaType.valueOf(fields[0]), Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+        }
+        return changes;
+    }
+
+    /**
+     * Compare two files and keep only the hunks with a few lines of context.
+     *
+     * @param filePathOriginal original file path
+     * @param filePathRevised  compared file path
+     * @param options          diff algorithm and budget
+     * @param contextLines     unchanged lines shown around each change
+     * @return context view of the comparison
+     * @throws IllegalArgumentException if either file is binary
+     */
+    public static ContextDiff contextDiff(String filePathOriginal, String filePathRevised, DiffOptions options,
+                                          int contextLines) {
+        return contextDiff(filePathOriginal, filePathRevised, options, contextLines, ProgressListener.NONE);
+    }
+
+    /**
+     * Compare two files and keep only the hunks with a few lines of context,
+     * reporting the {@link ProgressListener.Stage#READ} and {@link ProgressListener.Stage#DIFF} stages.
+     *
+     * @param filePathOriginal original file path
+     * @param filePathRevised  compared file path
+     * @param options          diff algorithm and budget
+     * @param contextLines     unchanged lines shown around each change
+     * @param listener         progress listener
+     * @return context view of the comparison
+     * @throws IllegalArgumentException if either file is binary
+     */
+    public static ContextDiff contextDiff(String filePathOriginal, String filePathRevised, DiffOptions options,
+                                          int contextLines, ProgressListener listener) {
+        if (isBinary(filePathOriginal, filePathRevised)) {
+            throw new IllegalArgumentException("Binary files have no context diff: " + filePathOriginal + ", "
+                    + filePathRevised);
+        }
+        File originalFile = new File(filePathOriginal);
+        File revisedFile = new File(filePathRevised);
+        List<List<String>> files = readFiles(originalFile, revisedFile, listener);
+        List<String> original = files.get(0);
+        List<String> revised = files.get(1);
+        long lines = (long) original.size() + revised.size();
+        listener.progress(ProgressListener.Stage.DIFF, 0, lines);
+        ContextDiff result = contextDiff(original, revised, originalFile.getName(), revisedFile.getName(), options,
+                contextLines);
+        listener.progress(ProgressListener.Stage.DIFF, lines, lines);
+        return result;
     }
 
     /**
@@ -139,10 +371,63 @@ public class DiffHandleUtil {
         return new ArrayList<>(patchContent);
     }
 
+    /**
+     * Read the lines of a patch file, detecting the charset of each file section separately.
+     * Patches below 1 MB are decoded in one pass, so no file handle or mapping outlives the read;
+     * a mapped file cannot be deleted or replaced on Windows while it is referenced. Larger
+     * patches are mapped and their lines decoded on demand, unless the patch is UTF-16 or
+     * UTF-32 text, which is decoded in one pass instead.
+     *
+     * @param patchFile patch file
+     * @param listener  progress listener for the {@link ProgressListener.Stage#READ} stage
+     * @return lines of the patch
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readPatch(Path patchFile, ProgressListener listener) throws IOException {
+        if (Files.size(patchFile) < MAPPED_PATCH_SIZE) {
+            return TextReader.readPatchLines(patchFile, listener);
+        }
+        CharsetDetector.Detection bom = CharsetDetector.detectBom(patchFile);
+        if (bom != null && !bom.asciiCompatible()) {
+            return TextReader.readLines(patchFile, listener);
+        }
+        return MappedLineReader.openDetected(patchFile, listener);
+    }
+
+    /**
+     * Parse patch content into a typed model in a single pass.
+     *
+     * @param patchContent the content of the patch file as lines
+     * @return parsed patch referring to {@code patchContent}
+     */
+    public static ParsedPatch parsePatch(List<String> patchContent) {
+        return PatchParser.parse(patchContent == null ? List.of() : patchContent);
+    }
+
+    /**
+     * Parse patch content into a typed model in a single pass,
+     * reporting the lines parsed as {@link ProgressListener.Stage#PARSE}.
+     *
+     * @param patchContent the content of the patch file as lines
+     * @param listener     progress listener
+     * @return parsed patch referring to {@code patchContent}
+     */
+    public static ParsedPatch parsePatch(List<String> patchContent, ProgressListener listener) {
+        List<String> content = patchContent == null ? List.of() : patchContent;
+        int total = content.size();
+        ParsedPatch patch = PatchParser.parse(content,
+                position -> listener.progress(ProgressListener.Stage.PARSE, position, total));
+        listener.progress(ProgressListener.Stage.PARSE, total, total);
+        return patch;
+    }
+
     /**
      * Filter and optimize patch content by truncating binary sections
      * and stripping git format-patch metadata (email headers, scissors line,
      * trailing git version signature).
+     * <p>
+     * Both are classified by {@link PatchParser} in one pass; the result is a
+     * read-only view over {@code patchContent} rather than a copy.
      *
      * @param patchContent the original patch content
      * @return optimized patch content
@@ -154,48 +439,28 @@ public class DiffHandleUtil {
         if (patchContent.isEmpty()) {
             return patchContent;
         }
+        return getOptimizedContent(PatchParser.parse(patchContent));
+    }
 
-        // Strip format-patch metadata before processing
-        List<String> content = stripFormatPatchMetadata(patchContent);
-
-        List<String> optimized = new ArrayList<>();
-        boolean inBinarySection = false;
-        int binaryLineCount = 0;
-
-        for (String line : content) {
-            // Detect binary section start
-            if (!inBinarySection && (line.contains(BINARY_MARKER) || line.contains(BINARY_DIFF_MARKER))) {
-                inBinarySection = true;
-                binaryLineCount = 0;
-                optimized.add(line);
-                continue;
-            }
-
-            // In binary section
-            if (inBinarySection) {
-                binaryLineCount++;
-                
-                // Only keep first MAX_BINARY_LINES lines of binary content
-                if (binaryLineCount <= MAX_BINARY_LINES) {
-                    optimized.add(line);
-                } else if (binaryLineCount == MAX_BINARY_LINES + 1) {
-                    optimized.add("... (binary content truncated for performance) ...");
-                }
-
-                // Detect binary section end (next file or diff marker)
-                if (line.startsWith("diff --git") || (line.startsWith("---") && binaryLineCount > 5)) {
-                    inBinarySection = false;
-                    // Don't skip this line, it's the start of the next diff
-                    if (binaryLineCount > MAX_BINARY_LINES) {
-                        optimized.add(line);
-                    }
-                }
-            } else {
-                optimized.add(line);
-            }
-        }
+    /**
+     * Get parsed patch content with binary sections truncated and format-patch metadata stripped.
+     *
+     * @param patch the parsed patch
+     * @return optimized patch content
+     */
+    public static List<String> getOptimizedContent(ParsedPatch patch) {
+        return patch.truncatedLines(MAX_BINARY_LINES, BINARY_TRUNCATED_NOTICE);
+    }
 
-        return optimized;
+    /**
+     * Get the optimized diff lines of a single file of a parsed patch.
+     *
+     * @param patch     the parsed patch
+     * @param fileIndex index of the file in {@link ParsedPatch#files()}
+     * @return diff lines of the file
+     */
+    public static List<String> getFileDiff(ParsedPatch patch, int fileIndex) {
+        return patch.fileLines(fileIndex, MAX_BINARY_LINES, BINARY_TRUNCATED_NOTICE);
     }
 
     /**
@@ -210,39 +475,7 @@ public class DiffHandleUtil {
         if (patchContent == null || patchContent.isEmpty()) {
             return patchContent;
         }
-
-        List<String> result = patchContent;
-
-        // Strip email headers: remove everything before the first "diff --git" line
-        int diffStartIndex = -1;
-        for (int i = 0; i < result.size(); i++) {
-            if (result.get(i).startsWith("diff --git")) {
-                diffStartIndex = i;
-                break;
-            }
-        }
-        if (diffStartIndex > 0) {
-            result = new ArrayList<>(result.subList(diffStartIndex, result.size()));
-        }
-
-        // Strip trailing git version signature
-        // Format-patch ends with "-- " (or "---") followed by a version string like "2.34.1"
-        int size = result.size();
-        // Skip trailing empty lines
-        int endIndex = size;
-        while (endIndex > 0 && result.get(endIndex - 1).trim().isEmpty()) {
-            endIndex--;
-        }
-        if (endIndex >= 2) {
-            String lastNonEmpty = result.get(endIndex - 1).trim();
-            String beforeLast = result.get(endIndex - 2);
-            if (lastNonEmpty.matches("\\d+\\.\\d+.*")
-                    && ("-- ".equals(beforeLast) || "---".equals(beforeLast) || "--".equals(beforeLast.trim()))) {
-                result = new ArrayList<>(result.subList(0, endIndex - 2));
-            }
-        }
-
-        return result;
+        return PatchParser.parse(patchContent).contentLines();
     }
 
     /**
@@ -300,15 +533,100 @@ public class DiffHandleUtil {
      * @param darkMode       whether to use dark color scheme
      */
     public static void generateDiffHtml(String htmlPath, List<List<String>> diffStringList, boolean darkMode) {
-        String template = getDiffHtml(diffStringList, darkMode);
-        try (FileWriter f = new FileWriter(htmlPath);
-             BufferedWriter buf = new BufferedWriter(f)) {
-            buf.write(template);
+        generateDiffHtml(Path.of(htmlPath), diffStringList, darkMode);
+    }
+
+    /**
+     * Generate diff HTML content from multiple diffs and stream it to a UTF-8 file.
+     * The page is written segment by segment, so the full document is never held in memory.
+     *
+     * @param htmlPath       HTML output path
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     */
+    public static void generateDiffHtml(Path htmlPath, List<List<String>> diffStringList, boolean darkMode) {
+        try (Writer writer = Files.newBufferedWriter(htmlPath, StandardCharsets.UTF_8)) {
+            writeDiffHtml(writer, diffStringList, darkMode);
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate HTML", e);
         }
     }
 
+    /**
+     * Generate diff HTML content from multiple diffs and stream it to a channel as UTF-8.
+     * The channel is flushed but not closed.
+     *
+     * @param channel        output channel
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     */
+    public static void generateDiffHtml(WritableByteChannel channel, List<List<String>> diffStringList,
+                                        boolean darkMode) {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), WRITE_BUFFER_SIZE);
+        try {
+            writeDiffHtml(writer, diffStringList, darkMode);
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to generate HTML", e);
+        }
+    }
+
+    /**
+     * Write diff HTML content to a writer.
+     * The writer is not flushed or closed; wrap unbuffered writers in a {@link java.io.BufferedWriter}.
+     *
+     * @param writer         output writer
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @throws IOException if writing fails
+     */
+    public static void writeDiffHtml(Writer writer, List<List<String>> diffStringList, boolean darkMode)
+            throws IOException {
+        DiffHtmlTemplate.render(writer, diffStringList, darkMode);
+    }
+
+    /**
+     * Write diff HTML content to a writer, reporting the diff lines written as {@link ProgressListener.Stage#RENDER}.
+     * The writer is not flushed or closed; wrap unbuffered writers in a {@link java.io.BufferedWriter}.
+     *
+     * @param writer         output writer
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @param listener       progress listener
+     * @throws IOException if writing fails
+     */
+    public static void writeDiffHtml(Writer writer, List<List<String>> diffStringList, boolean darkMode,
+                                     ProgressListener listener) throws IOException {
+        DiffHtmlTemplate.render(writer, diffStringList, darkMode, listener);
+    }
+
+    /**
+     * Write a diff page that loads the diff2html assets from {@code assets/<name>}, relative to the page,
+     * instead of inlining them. Servers can then send the assets once and let clients cache them;
+     * see {@link #getAsset(String)}.
+     * The writer is not flushed or closed.
+     *
+     * @param writer         output writer
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @param listener       progress listener
+     * @throws IOException if writing fails
+     */
+    public static void writeLinkedDiffHtml(Writer writer, List<List<String>> diffStringList, boolean darkMode,
+                                           ProgressListener listener) throws IOException {
+        DiffHtmlTemplate.renderLinked(writer, diffStringList, darkMode, listener);
+    }
+
+    /**
+     * Get an asset referenced by pages written with {@link #writeLinkedDiffHtml}.
+     *
+     * @param name asset file name, without the {@code assets/} prefix
+     * @return asset content, or null if there is no such asset
+     */
+    public static String getAsset(String name) {
+        return DiffHtmlTemplate.asset(name);
+    }
+
     /**
      * Get diff HTML content.
      *
@@ -327,97 +645,103 @@ public class DiffHandleUtil {
      * @return HTML content
      */
     public static String getDiffHtml(List<List<String>> diffStringList, boolean darkMode) {
-        Map<String, Object> map = new HashMap<>(8);
+        return DiffHtmlTemplate.render(diffStringList, darkMode);
+    }
+
+    /**
+     * Get diff HTML content, reporting the diff lines written as {@link ProgressListener.Stage#RENDER}.
+     *
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @param listener       progress listener
+     * @return HTML content
+     */
+    public static String getDiffHtml(List<List<String>> diffStringList, boolean darkMode, ProgressListener listener) {
+        return DiffHtmlTemplate.render(diffStringList, darkMode, listener);
+    }
+
+    /**
+     * Get the script that switches the color scheme of a page rendered by this class in place,
+     * for use with {@code WebEngine.executeScript}. The script evaluates to {@code true} once
+     * applied; any other result means the page has to be rendered again.
+     *
+     * @param darkMode whether to use dark color scheme
+     * @return JavaScript expression
+     */
+    public static String getThemeScript(boolean darkMode) {
+        return DiffHtmlTemplate.themeScript(darkMode);
+    }
+
+    /**
+     * Get the version of the rendered HTML output.
+     * It changes whenever the page templates or the bundled diff2html assets change,
+     * so it can be part of the key of persisted renderings.
+     *
+     * @return renderer version
+     */
+    public static String getRendererVersion() {
+        return DiffHtmlTemplate.VERSION;
+    }
+
+    /**
+     * Get lazily rendered diff HTML content.
+     * The page initially contains only the file index; each file's diff is fetched
+     * through the {@code window.patchBridge.fileDiff(index)} JavaScript bridge and
+     * rendered when it scrolls into view. The host calls
+     * {@code window.patchVisualizer.start()} after installing the bridge.
+     *
+     * @param patch            the parsed patch
+     * @param maxRenderedFiles maximum number of files kept rendered at the same time
+     * @param darkMode         whether to use dark color scheme
+     * @return HTML content
+     */
+    public static String getLazyDiffHtml(ParsedPatch patch, int maxRenderedFiles, boolean darkMode) {
+        return DiffHtmlTemplate.renderLazy(patch, maxRenderedFiles, darkMode);
+    }
+
+    /**
+     * Get streamed diff HTML content for results that arrive while they are computed.
+     * The page works like {@link #getLazyDiffHtml(ParsedPatch, int, boolean)} but starts
+     * without files. Its {@code window.patchVisualizer.append()} adds the files listed by the
+     * bridge's {@code fileIndex(from)}, a JSON array of {@link #getFileIndexEntry(FilePatch)}
+     * entries from the page's current file count on. The host calls it whenever files were added.
+     *
+     * @param maxRenderedFiles maximum number of files kept rendered at the same time
+     * @param darkMode         whether to use dark color scheme
+     * @return HTML content
+     */
+    public static String getStreamingDiffHtml(int maxRenderedFiles, boolean darkMode) {
+        return DiffHtmlTemplate.renderStreaming(maxRenderedFiles, darkMode);
+    }
+
+    /**
+     * Get the file index entry the lazy and streamed pages show for a file.
+     *
+     * @param file file of a parsed patch
+     * @return JSON object
+     */
+    public static String getFileIndexEntry(FilePatch file) {
+        StringBuilder builder = new StringBuilder(96);
         try {
-            map.put("highlightCss", readStream(
-                    DiffHandleUtil.class.getResourceAsStream("/com/tlcsdm/patchvisualizer/static/diff2html/github.min.css")));
-            map.put("diff2htmlCss", readStream(
-                    DiffHandleUtil.class.getResourceAsStream("/com/tlcsdm/patchvisualizer/static/diff2html/diff2html.min.css")));
-            map.put("diff2htmlJs", readStream(
-                    DiffHandleUtil.class.getResourceAsStream("/com/tlcsdm/patchvisualizer/static/diff2html/diff2html-ui.min.js")));
+            DiffHtmlTemplate.writeFileEntry(builder, file);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to load resources", e);
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
         }
+        return builder.toString();
+    }
 
-        // Set body class based on dark mode
-        String bodyClass = darkMode ? "d2h-dark-color-scheme" : "";
-        map.put("bodyClass", bodyClass);
-
-        String template = """
-                <!DOCTYPE html>
-                <html lang="en-us">
-                <head>
-                  <meta charset="utf-8" />
-                  <meta name="google" content="notranslate" />
-                  <meta name="author" content="unknowIfGuestInDream">
-                </head>
-                <style type="text/css">
-                {highlightCss}
-                </style>
-                <style type="text/css">
-                {diff2htmlCss}
-                </style>
-                <style type="text/css">
-                /* Dark theme for syntax highlighting */
-                .d2h-dark-color-scheme .hljs{color:#c9d1d9;background:transparent}
-                .d2h-dark-color-scheme .hljs-comment,.d2h-dark-color-scheme .hljs-quote{color:#8b949e;font-style:italic}
-                .d2h-dark-color-scheme .hljs-keyword,.d2h-dark-color-scheme .hljs-selector-tag,.d2h-dark-color-scheme .hljs-subst{color:#ff7b72;font-weight:700}
-                .d2h-dark-color-scheme .hljs-literal,.d2h-dark-color-scheme .hljs-number,.d2h-dark-color-scheme .hljs-tag .hljs-attr,.d2h-dark-color-scheme .hljs-template-variable,.d2h-dark-color-scheme .hljs-variable{color:#79c0ff}
-                .d2h-dark-color-scheme .hljs-doctag,.d2h-dark-color-scheme .hljs-string{color:#a5d6ff}
-                .d2h-dark-color-scheme .hljs-section,.d2h-dark-color-scheme .hljs-selector-id,.d2h-dark-color-scheme .hljs-title{color:#d2a8ff;font-weight:700}
-                .d2h-dark-color-scheme .hljs-class .hljs-title,.d2h-dark-color-scheme .hljs-type{color:#ffa657;font-weight:700}
-                .d2h-dark-color-scheme .hljs-attribute,.d2h-dark-color-scheme .hljs-name,.d2h-dark-color-scheme .hljs-tag{color:#7ee787}
-                .d2h-dark-color-scheme .hljs-link,.d2h-dark-color-scheme .hljs-regexp{color:#7ee787}
-                .d2h-dark-color-scheme .hljs-bullet,.d2h-dark-color-scheme .hljs-symbol{color:#f0883e}
-                .d2h-dark-color-scheme .hljs-built_in,.d2h-dark-color-scheme .hljs-builtin-name{color:#ffa657}
-                .d2h-dark-color-scheme .hljs-meta{color:#8b949e;font-weight:700}
-                .d2h-dark-color-scheme .hljs-deletion{background:rgba(248,81,73,.4)}
-                .d2h-dark-color-scheme .hljs-addition{background:rgba(46,160,67,.4)}
-                </style>
-                <script type="text/javascript">
-                {diff2htmlJs}
-                </script>
-                <script>
-                  const diffString = `
-                {diffString}
-                  `;
-
-                  document.addEventListener('DOMContentLoaded', function () {
-                    var targetElement = document.getElementById('myDiffElement');
-                    var configuration = {
-                      drawFileList: true,
-                      fileListToggle: true,
-                      fileListStartVisible: true,
-                      fileContentToggle: true,
-                      matching: 'lines',
-                      outputFormat: 'side-by-side',
-                      synchronisedScroll: true,
-                      highlight: true,
-                      renderNothingWhenEmpty: true,
-                    };
-                    var diff2htmlUi = new Diff2HtmlUI(targetElement, diffString, configuration);
-                    diff2htmlUi.draw();
-                    diff2htmlUi.highlightCode();
-                  });
-                </script>
-                <body class="{bodyClass}">
-                  <div id="myDiffElement"></div>
-                </body>
-                </html>
-                """;
-
-        StringJoiner diffStringJoiner = new StringJoiner("\n");
-        for (List<String> diffString : diffStringList) {
-            StringBuilder builder = new StringBuilder();
-            for (String line : diffString) {
-                // Escape $ character
-                builder.append(line.replace("$", "\\$"));
-                builder.append("\n");
-            }
-            diffStringJoiner.add(builder.toString());
-        }
-        map.put("diffString", diffStringJoiner.toString());
-        return formatTemplate(template, map);
+    /**
+     * Get the page for a {@link ContextDiff}.
+     * The page embeds no diff; after installing a bridge as {@code window.patchBridge}
+     * that exposes {@code diff()}, {@code hunkCount()}, {@code hiddenLines(hunk)} and
+     * {@code expand(hunk)}, the host calls {@code window.patchVisualizer.start()}.
+     *
+     * @param darkMode whether to use dark color scheme
+     * @return HTML content
+     */
+    public static String getContextDiffHtml(boolean darkMode) {
+        return DiffHtmlTemplate.renderContext(darkMode);
     }
 
     /**
@@ -441,23 +765,11 @@ public class DiffHandleUtil {
         return sb.toString();
     }
 
-    /**
-     * Format template with placeholders.
-     *
-     * @param template the template string with {key} placeholders
-     * @param map      the map of values
-     * @return formatted string
-     */
-    private static String formatTemplate(String template, Map<String, Object> map) {
-        String result = template;
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            result = result.replace("{" + entry.getKey() + "}", String.valueOf(entry.getValue()));
-        }
-        return result;
-    }
-
     /**
      * Insert unified diff into original file content.
+     * <p>
+     * {@link #diffString(List, List, String, String, DiffOptions)} builds the same
+     * output directly from the patch; this is kept for callers holding a unified diff.
      *
      * @param original    original file content (with space prefix)
      * @param unifiedDiff unified diff content
@@ -504,7 +816,8 @@ public class DiffHandleUtil {
                 if (map.get("orgRow") != 0) {
                     start = map.get("orgRow") + map.get("orgDel") - 1;
                 }
-                int end = nexMap.get("revRow") - 2;
+                // Unchanged original lines end right before the next hunk's original range
+                int end = nexMap.get("orgRow") - 2;
                 // Insert unchanged content
                 insert(result, getOrigList(original, start, end));
             }
@@ -552,7 +865,7 @@ public class DiffHandleUtil {
             // Number of lines deleted from original
             map.put("orgDel", Integer.valueOf(orgSp[1]));
 
-            String[] revSp = org.split(",");
+            String[] revSp = sp[2].split(",");
             // Revised file row number to add
             map.put("revRow", Integer.valueOf(revSp[0].substring(1)));
             map.put("revAdd", Integer.valueOf(revSp[1]));
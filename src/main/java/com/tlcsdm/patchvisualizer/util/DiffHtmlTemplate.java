@@ -0,0 +1,879 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.patch.FilePatch;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Precompiled diff2html page template.
+ * <p>
+ * The diff2html assets are loaded and inlined once at class initialization, so
+ * rendering a page only writes the cached segments and the escaped diff lines.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class DiffHtmlTemplate {
+
+    static final String DARK_BODY_CLASS = "d2h-dark-color-scheme";
+    private static final String ASSET_PATH = "/com/tlcsdm/patchvisualizer/static/diff2html/";
+    // Lines between checks whether the rendering thread was interrupted, and between progress reports
+    private static final int CANCEL_CHECK_MASK = 0xFFF;
+    private static final String SLOT_DIFF_STRING = "diffString";
+    private static final String SLOT_BODY_CLASS = "bodyClass";
+    private static final String SLOT_FILE_INDEX = "fileIndex";
+    private static final String SLOT_MAX_RENDERED_FILES = "maxRenderedFiles";
+    private static final String SLOT_STREAMING = "streaming";
+
+    private static final String HEAD_TEXT = """
+                <!DOCTYPE html>
+                <html lang="en-us">
+                <head>
+                  <meta charset="utf-8" />
+                  <meta name="google" content="notranslate" />
+                  <meta name="author" content="unknowIfGuestInDream">
+                </head>
+                {highlightCss}
+                {diff2htmlCss}
+                <style type="text/css">
+                /* Dark theme for syntax highlighting */
+                .d2h-dark-color-scheme .hljs{color:#c9d1d9;background:transparent}
+                .d2h-dark-color-scheme .hljs-comment,.d2h-dark-color-scheme .hljs-quote{color:#8b949e;font-style:italic}
+                .d2h-dark-color-scheme .hljs-keyword,.d2h-dark-color-scheme .hljs-selector-tag,.d2h-dark-color-scheme .hljs-subst{color:#ff7b72;font-weight:700}
+                .d2h-dark-color-scheme .hljs-literal,.d2h-dark-color-scheme .hljs-number,.d2h-dark-color-scheme .hljs-tag .hljs-attr,.d2h-dark-color-scheme .hljs-template-variable,.d2h-dark-color-scheme .hljs-variable{color:#79c0ff}
+                .d2h-dark-color-scheme .hljs-doctag,.d2h-dark-color-scheme .hljs-string{color:#a5d6ff}
+                .d2h-dark-color-scheme .hljs-section,.d2h-dark-color-scheme .hljs-selector-id,.d2h-dark-color-scheme .hljs-title{color:#d2a8ff;font-weight:700}
+                .d2h-dark-color-scheme .hljs-class .hljs-title,.d2h-dark-color-scheme .hljs-type{color:#ffa657;font-weight:700}
+                .d2h-dark-color-scheme .hljs-attribute,.d2h-dark-color-scheme .hljs-name,.d2h-dark-color-scheme .hljs-tag{color:#7ee787}
+                .d2h-dark-color-scheme .hljs-link,.d2h-dark-color-scheme .hljs-regexp{color:#7ee787}
+                .d2h-dark-color-scheme .hljs-bullet,.d2h-dark-color-scheme .hljs-symbol{color:#f0883e}
+                .d2h-dark-color-scheme .hljs-built_in,.d2h-dark-color-scheme .hljs-builtin-name{color:#ffa657}
+                .d2h-dark-color-scheme .hljs-meta{color:#8b949e;font-weight:700}
+                .d2h-dark-color-scheme .hljs-deletion{background:rgba(248,81,73,.4)}
+                .d2h-dark-color-scheme .hljs-addition{background:rgba(46,160,67,.4)}
+                </style>
+                {diff2htmlJs}
+                <script>
+                  // Render timings in ms; completedAt is set once the first view has been laid out
+                  window.patchVisualizerRender = {
+                    startedAt: 0,
+                    completedAt: 0,
+                    stages: {},
+                    start: function () {
+                      if (!this.startedAt) {
+                        this.startedAt = Date.now();
+                      }
+                    },
+                    time: function (stage, action) {
+                      var start = performance.now();
+                      var result = action();
+                      this.stages[stage] = (this.stages[stage] || 0) + performance.now() - start;
+                      return result;
+                    },
+                    complete: function () {
+                      if (!this.completedAt) {
+                        this.time('layout', function () {
+                          return document.body.offsetHeight;
+                        });
+                        this.completedAt = Date.now();
+                        document.dispatchEvent(new Event('patchvisualizer-rendered'));
+                      }
+                    }
+                  };
+                  // Switches the color scheme in place; returns false until the body exists
+                  window.patchVisualizerTheme = {
+                    setDark: function (dark) {
+                      if (!document.body) {
+                        return false;
+                      }
+                      if (dark) {
+                        document.body.classList.add('d2h-dark-color-scheme');
+                      } else {
+                        document.body.classList.remove('d2h-dark-color-scheme');
+                      }
+                      return true;
+                    }
+                  };
+                </script>
+                """;
+
+    private static final String PAGE_TEXT = HEAD_TEXT + """
+                <script>
+                  const diffString = `
+                {diffString}
+                  `;
+
+                  document.addEventListener('DOMContentLoaded', function () {
+                    var render = window.patchVisualizerRender;
+                    render.start();
+                    var targetElement = document.getElementById('myDiffElement');
+                    var configuration = {
+                      drawFileList: true,
+                      fileListToggle: true,
+                      fileListStartVisible: true,
+                      fileContentToggle: true,
+                      matching: 'lines',
+                      outputFormat: 'side-by-side',
+                      synchronisedScroll: true,
+                      highlight: true,
+                      renderNothingWhenEmpty: true,
+                    };
+                    var diff2htmlUi = render.time('generate', function () {
+                      return new Diff2HtmlUI(targetElement, diffString, configuration);
+                    });
+                    render.time('draw', function () {
+                      diff2htmlUi.draw();
+                    });
+                    render.time('highlight', function () {
+                      diff2htmlUi.highlightCode();
+                    });
+                    render.complete();
+                  });
+                </script>
+                <body class="{bodyClass}">
+                  <div id="myDiffElement"></div>
+                </body>
+                </html>
+                """;
+
+    private static final String LAZY_PAGE_TEXT = HEAD_TEXT + """
+                <style type="text/css">
+                .pv-file{margin-bottom:1em}
+                .pv-file-placeholder{padding:8px 10px;border:1px solid #d8d8d8;border-radius:3px;font-family:monospace;color:#888}
+                .d2h-dark-color-scheme .pv-file-placeholder{border-color:#30363d;color:#8b949e}
+                </style>
+                <script>
+                  const files = {fileIndex};
+                  const maxRenderedFiles = {maxRenderedFiles};
+                  const streaming = {streaming};
+                  const lineHeight = 20;
+                  const configuration = {
+                    drawFileList: false,
+                    fileContentToggle: true,
+                    matching: 'lines',
+                    outputFormat: 'side-by-side',
+                    synchronisedScroll: true,
+                    highlight: true,
+                    renderNothingWhenEmpty: false,
+                  };
+                  var rendered = [];
+                  var visible = new Set();
+                  var observer = null;
+                  var indexTitle = null;
+                  var indexList = null;
+
+                  function slotOf(index) {
+                    return document.getElementById('pv-file-' + index);
+                  }
+
+                  function showPlaceholder(slot, file) {
+                    var placeholder = document.createElement('div');
+                    placeholder.className = 'pv-file-placeholder';
+                    placeholder.textContent = file.p + '  +' + file.a + ' -' + file.d + (file.b ? '  (binary)' : '');
+                    var content = slot.querySelector('.pv-file-content');
+                    content.innerHTML = '';
+                    content.appendChild(placeholder);
+                  }
+
+                  function renderFile(index) {
+                    var slot = slotOf(index);
+                    if (!slot || slot.dataset.rendered === 'true' || !window.patchBridge) {
+                      return;
+                    }
+                    var content = slot.querySelector('.pv-file-content');
+                    var render = window.patchVisualizerRender;
+                    var diff2htmlUi = render.time('generate', function () {
+                      return new Diff2HtmlUI(content, String(window.patchBridge.fileDiff(index)), configuration);
+                    });
+                    render.time('draw', function () {
+                      diff2htmlUi.draw();
+                    });
+                    render.time('highlight', function () {
+                      diff2htmlUi.highlightCode();
+                    });
+                    slot.dataset.rendered = 'true';
+                    slot.style.minHeight = '';
+                    rendered.push(index);
+                    evict();
+                  }
+
+                  // Drop the oldest rendered files that are off screen, keeping their height to avoid scroll jumps
+                  function evict() {
+                    var i = 0;
+                    while (rendered.length > maxRenderedFiles && i < rendered.length) {
+                      var index = rendered[i];
+                      if (visible.has(index)) {
+                        i++;
+                        continue;
+                      }
+                      rendered.splice(i, 1);
+                      var slot = slotOf(index);
+                      slot.style.minHeight = slot.offsetHeight + 'px';
+                      slot.dataset.rendered = 'false';
+                      showPlaceholder(slot, files[index]);
+                    }
+                  }
+
+                  function buildIndex() {
+                    var wrapper = document.createElement('div');
+                    wrapper.className = 'd2h-file-list-wrapper';
+                    var header = document.createElement('div');
+                    header.className = 'd2h-file-list-header';
+                    indexTitle = document.createElement('span');
+                    indexTitle.className = 'd2h-file-list-title';
+                    header.appendChild(indexTitle);
+                    wrapper.appendChild(header);
+                    indexList = document.createElement('ol');
+                    indexList.className = 'd2h-file-list';
+                    wrapper.appendChild(indexList);
+                    return wrapper;
+                  }
+
+                  function indexItem(file, index) {
+                    var item = document.createElement('li');
+                    item.className = 'd2h-file-list-line';
+                    var stats = document.createElement('span');
+                    stats.className = 'd2h-file-stats';
+                    var added = document.createElement('span');
+                    added.className = 'd2h-lines-added';
+                    added.textContent = '+' + file.a;
+                    var deleted = document.createElement('span');
+                    deleted.className = 'd2h-lines-deleted';
+                    deleted.textContent = '-' + file.d;
+                    stats.appendChild(added);
+                    stats.appendChild(deleted);
+                    var link = document.createElement('a');
+                    link.className = 'd2h-file-name';
+                    link.href = '#pv-file-' + index;
+                    link.textContent = file.p;
+                    link.addEventListener('click', function (event) {
+                      event.preventDefault();
+                      slotOf(index).scrollIntoView();
+                      renderFile(index);
+                    });
+                    item.appendChild(stats);
+                    item.appendChild(link);
+                    return item;
+                  }
+
+                  function fileSlot(file, index) {
+                    var slot = document.createElement('div');
+                    slot.className = 'pv-file';
+                    slot.id = 'pv-file-' + index;
+                    slot.dataset.index = index;
+                    slot.style.minHeight = (Math.min(file.n, 2000) * lineHeight) + 'px';
+                    var content = document.createElement('div');
+                    content.className = 'pv-file-content';
+                    slot.appendChild(content);
+                    showPlaceholder(slot, file);
+                    return slot;
+                  }
+
+                  // Add the index entries and placeholders of the files from the given index on
+                  function addFiles(from) {
+                    indexTitle.textContent = 'Files changed (' + files.length + ')';
+                    var items = document.createDocumentFragment();
+                    var slots = document.createDocumentFragment();
+                    var added = [];
+                    for (var index = from; index < files.length; index++) {
+                      items.appendChild(indexItem(files[index], index));
+                      added.push(slots.appendChild(fileSlot(files[index], index)));
+                    }
+                    indexList.appendChild(items);
+                    document.getElementById('myDiffElement').appendChild(slots);
+                    added.forEach(function (slot) {
+                      observer.observe(slot);
+                    });
+                  }
+
+                  window.patchVisualizer = {
+                    start: function () {
+                      window.patchVisualizerRender.start();
+                      observer = new IntersectionObserver(function (entries) {
+                        entries.forEach(function (entry) {
+                          var index = Number(entry.target.dataset.index);
+                          if (entry.isIntersecting) {
+                            visible.add(index);
+                            renderFile(index);
+                          } else {
+                            visible.delete(index);
+                          }
+                        });
+                        // The first callback renders the files initially in view
+                        window.patchVisualizerRender.complete();
+                      }, { rootMargin: '200px 0px' });
+                      var targetElement = document.getElementById('myDiffElement');
+                      targetElement.innerHTML = '';
+                      targetElement.appendChild(buildIndex());
+                      addFiles(0);
+                      if (streaming) {
+                        this.append();
+                      }
+                    },
+                    // Streamed pages only: add the files the bridge received since the last call
+                    append: function () {
+                      if (!observer || !streaming) {
+                        return;
+                      }
+                      var from = files.length;
+                      var added = JSON.parse(String(window.patchBridge.fileIndex(from)));
+                      if (added.length > 0) {
+                        Array.prototype.push.apply(files, added);
+                        addFiles(from);
+                      }
+                    }
+                  };
+                </script>
+                <body class="{bodyClass}">
+                  <div id="myDiffElement"></div>
+                </body>
+                </html>
+                """;
+
+    private static final String CONTEXT_PAGE_TEXT = HEAD_TEXT + """
+                <style type="text/css">
+                .pv-expandable{cursor:pointer}
+                .pv-expandable:hover .d2h-code-side-line,.pv-expandable:hover .d2h-code-line{text-decoration:underline}
+                .pv-expand-tail{padding:6px 10px;cursor:pointer;font-family:monospace;color:#0969da}
+                .d2h-dark-color-scheme .pv-expand-tail{color:#58a6ff}
+                </style>
+                <script>
+                  const configuration = {
+                    drawFileList: false,
+                    fileContentToggle: true,
+                    matching: 'lines',
+                    outputFormat: 'side-by-side',
+                    synchronisedScroll: true,
+                    highlight: true,
+                    renderNothingWhenEmpty: false,
+                  };
+
+                  function expandLabel(hidden) {
+                    return '\\u2195 ' + hidden + ' hidden line' + (hidden === 1 ? '' : 's');
+                  }
+
+                  function expand(hunk) {
+                    var scrollY = window.scrollY;
+                    if (window.patchBridge.expand(hunk)) {
+                      draw();
+                      window.scrollTo(0, scrollY);
+                    }
+                  }
+
+                  // Hunk header rows come in hunk order on each side of the side-by-side view
+                  function decorateHunks(targetElement) {
+                    targetElement.querySelectorAll('.d2h-file-side-diff').forEach(function (side) {
+                      var hunk = 0;
+                      side.querySelectorAll('tr').forEach(function (row) {
+                        if (!row.querySelector('td.d2h-info')) {
+                          return;
+                        }
+                        var index = hunk++;
+                        var hidden = Number(window.patchBridge.hiddenLines(index));
+                        if (hidden > 0) {
+                          row.classList.add('pv-expandable');
+                          row.title = expandLabel(hidden);
+                          row.addEventListener('click', function () {
+                            expand(index);
+                          });
+                        }
+                      });
+                    });
+                    var hunks = Number(window.patchBridge.hunkCount());
+                    var hidden = Number(window.patchBridge.hiddenLines(hunks));
+                    if (hidden > 0) {
+                      var tail = document.createElement('div');
+                      tail.className = 'pv-expand-tail';
+                      tail.textContent = expandLabel(hidden);
+                      tail.addEventListener('click', function () {
+                        expand(hunks);
+                      });
+                      targetElement.appendChild(tail);
+                    }
+                  }
+
+                  function draw() {
+                    var render = window.patchVisualizerRender;
+                    var targetElement = document.getElementById('myDiffElement');
+                    targetElement.innerHTML = '';
+                    var diff2htmlUi = render.time('generate', function () {
+                      return new Diff2HtmlUI(targetElement, String(window.patchBridge.diff()), configuration);
+                    });
+                    render.time('draw', function () {
+                      diff2htmlUi.draw();
+                    });
+                    render.time('highlight', function () {
+                      diff2htmlUi.highlightCode();
+                    });
+                    render.time('decorate', function () {
+                      decorateHunks(targetElement);
+                    });
+                  }
+
+                  window.patchVisualizer = {
+                    start: function () {
+                      window.patchVisualizerRender.start();
+                      draw();
+                      window.patchVisualizerRender.complete();
+                    }
+                  };
+                </script>
+                <body class="{bodyClass}">
+                  <div id="myDiffElement"></div>
+                </body>
+                </html>
+                """;
+
+    /**
+     * Path prefix, relative to the page, of the assets referenced by linked pages.
+     */
+    static final String LINKED_ASSET_PREFIX = "assets/";
+
+    // Asset file names by placeholder
+    private static final Map<String, String> ASSET_FILES = Map.of(
+            "highlightCss", "github.min.css",
+            "diff2htmlCss", "diff2html.min.css",
+            "diff2htmlJs", "diff2html-ui.min.js");
+
+    // Asset contents by file name
+    private static final Map<String, String> ASSETS = Map.of(
+            "github.min.css", loadAsset("github.min.css"),
+            "diff2html.min.css", loadAsset("diff2html.min.css"),
+            "diff2html-ui.min.js", loadAsset("diff2html-ui.min.js"));
+
+    private static final Map<String, String> INLINE_ASSETS = assetElements(false);
+
+    private static final HtmlTemplate PAGE = HtmlTemplate.compile(PAGE_TEXT, INLINE_ASSETS,
+            Set.of(SLOT_DIFF_STRING, SLOT_BODY_CLASS));
+
+    private static final HtmlTemplate LINKED_PAGE = HtmlTemplate.compile(PAGE_TEXT, assetElements(true),
+            Set.of(SLOT_DIFF_STRING, SLOT_BODY_CLASS));
+
+    private static final HtmlTemplate LAZY_PAGE = HtmlTemplate.compile(LAZY_PAGE_TEXT, INLINE_ASSETS,
+            Set.of(SLOT_FILE_INDEX, SLOT_MAX_RENDERED_FILES, SLOT_STREAMING, SLOT_BODY_CLASS));
+
+    private static final HtmlTemplate CONTEXT_PAGE = HtmlTemplate.compile(CONTEXT_PAGE_TEXT, INLINE_ASSETS,
+            Set.of(SLOT_BODY_CLASS));
+
+    /**
+     * Identifies the rendered output; changes whenever a template or asset changes.
+     */
+    static final String VERSION = computeVersion();
+
+    private DiffHtmlTemplate() {
+    }
+
+    /**
+     * Render the diff page into a pre-sized buffer.
+     *
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @return HTML content
+     */
+    static String render(List<? extends List<String>> diffStringList, boolean darkMode) {
+        return render(diffStringList, darkMode, ProgressListener.NONE);
+    }
+
+    /**
+     * Render the diff page into a pre-sized buffer, reporting the diff lines written
+     * as {@link ProgressListener.Stage#RENDER}.
+     *
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @param listener       progress listener
+     * @return HTML content
+     */
+    static String render(List<? extends List<String>> diffStringList, boolean darkMode, ProgressListener listener) {
+        StringBuilder builder = new StringBuilder(estimateSize(diffStringList));
+        try {
+            render(builder, diffStringList, darkMode, listener);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Render the diff page to an output target.
+     *
+     * @param out            output target
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @throws IOException if writing fails
+     */
+    static void render(Appendable out, List<? extends List<String>> diffStringList, boolean darkMode)
+            throws IOException {
+        render(out, diffStringList, darkMode, ProgressListener.NONE);
+    }
+
+    /**
+     * Render the diff page to an output target, reporting the diff lines written
+     * as {@link ProgressListener.Stage#RENDER}.
+     *
+     * @param out            output target
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @param listener       progress listener
+     * @throws IOException if writing fails
+     */
+    static void render(Appendable out, List<? extends List<String>> diffStringList, boolean darkMode,
+                       ProgressListener listener) throws IOException {
+        PAGE.render(out, Map.of(
+                SLOT_DIFF_STRING, o -> writeDiffString(o, diffStringList, listener),
+                SLOT_BODY_CLASS, o -> o.append(darkMode ? DARK_BODY_CLASS : "")));
+    }
+
+    /**
+     * Render the diff page with the assets referenced under {@link #LINKED_ASSET_PREFIX}
+     * instead of inlined, so they can be served and cached separately.
+     *
+     * @param out            output target
+     * @param diffStringList list of diff strings
+     * @param darkMode       whether to use dark color scheme
+     * @param listener       progress listener
+     * @throws IOException if writing fails
+     */
+    static void renderLinked(Appendable out, List<? extends List<String>> diffStringList, boolean darkMode,
+                             ProgressListener listener) throws IOException {
+        LINKED_PAGE.render(out, Map.of(
+                SLOT_DIFF_STRING, o -> writeDiffString(o, diffStringList, listener),
+                SLOT_BODY_CLASS, o -> o.append(darkMode ? DARK_BODY_CLASS : "")));
+    }
+
+    /**
+     * Get the content of an asset referenced by linked pages.
+     *
+     * @param name asset file name
+     * @return asset content, or null if there is no such asset
+     */
+    static String asset(String name) {
+        return ASSETS.get(name);
+    }
+
+    /**
+     * Render the lazy diff page, which embeds only the file index.
+     * File diffs are requested from {@code window.patchBridge.fileDiff(index)} as they
+     * scroll into view, once the page's {@code window.patchVisualizer.start()} is called.
+     *
+     * @param patch            parsed patch
+     * @param maxRenderedFiles maximum number of files kept rendered in the DOM
+     * @param darkMode         whether to use dark color scheme
+     * @return HTML content
+     */
+    static String renderLazy(ParsedPatch patch, int maxRenderedFiles, boolean darkMode) {
+        return renderLazy(patch.files(), false, maxRenderedFiles, darkMode);
+    }
+
+    /**
+     * Render the streamed diff page, a lazy diff page that starts without files.
+     * Each call of the page's {@code window.patchVisualizer.append()} adds the files
+     * listed by {@code window.patchBridge.fileIndex(from)}, which returns the index
+     * entries from the page's current file count on; {@code start()} calls it once.
+     *
+     * @param maxRenderedFiles maximum number of files kept rendered in the DOM
+     * @param darkMode         whether to use dark color scheme
+     * @return HTML content
+     */
+    static String renderStreaming(int maxRenderedFiles, boolean darkMode) {
+        return renderLazy(List.of(), true, maxRenderedFiles, darkMode);
+    }
+
+    private static String renderLazy(List<FilePatch> files, boolean streaming, int maxRenderedFiles,
+                                     boolean darkMode) {
+        StringBuilder builder = new StringBuilder(LAZY_PAGE.literalLength() + files.size() * 96);
+        try {
+            LAZY_PAGE.render(builder, Map.of(
+                    SLOT_FILE_INDEX, o -> writeFileIndex(o, files),
+                    SLOT_MAX_RENDERED_FILES, o -> o.append(Integer.toString(Math.max(1, maxRenderedFiles))),
+                    SLOT_STREAMING, o -> o.append(Boolean.toString(streaming)),
+                    SLOT_BODY_CLASS, o -> o.append(darkMode ? DARK_BODY_CLASS : "")));
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Render the context diff page, which embeds no diff.
+     * Once the page's {@code window.patchVisualizer.start()} is called it draws
+     * {@code window.patchBridge.diff()}, and clicking a collapsed region calls
+     * {@code window.patchBridge.expand(hunk)} and draws the diff again.
+     *
+     * @param darkMode whether to use dark color scheme
+     * @return HTML content
+     */
+    static String renderContext(boolean darkMode) {
+        StringBuilder builder = new StringBuilder(CONTEXT_PAGE.literalLength() + DARK_BODY_CLASS.length());
+        try {
+            CONTEXT_PAGE.render(builder, Map.of(SLOT_BODY_CLASS, o -> o.append(darkMode ? DARK_BODY_CLASS : "")));
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get the script that switches the color scheme of a rendered page in place.
+     * It evaluates to true once applied, and to false or undefined if the page
+     * is not loaded yet or was not rendered by this class.
+     *
+     * @param darkMode whether to use dark color scheme
+     * @return JavaScript expression
+     */
+    static String themeScript(boolean darkMode) {
+        return "window.patchVisualizerTheme && window.patchVisualizerTheme.setDark(" + darkMode + ")";
+    }
+
+    /**
+     * Write the file index as a JavaScript array of
+     * {@code {p: path, a: additions, d: deletions, b: binary, n: lines}} objects.
+     *
+     * @param out   output target
+     * @param patch parsed patch
+     * @throws IOException if writing fails
+     */
+    static void writeFileIndex(Appendable out, ParsedPatch patch) throws IOException {
+        writeFileIndex(out, patch.files());
+    }
+
+    /**
+     * Write the index of the given files, as {@link #writeFileIndex(Appendable, ParsedPatch)} does.
+     *
+     * @param out   output target
+     * @param files files of a parsed patch
+     * @throws IOException if writing fails
+     */
+    static void writeFileIndex(Appendable out, List<FilePatch> files) throws IOException {
+        out.append('[');
+        for (int i = 0; i < files.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeFileEntry(out, files.get(i));
+        }
+        out.append(']');
+    }
+
+    /**
+     * Write a single file index entry as a JavaScript object.
+     *
+     * @param out  output target
+     * @param file file of a parsed patch
+     * @throws IOException if writing fails
+     */
+    static void writeFileEntry(Appendable out, FilePatch file) throws IOException {
+        out.append("{\"p\":");
+        appendJsonString(out, displayPath(file.path()));
+        out.append(",\"a\":").append(Long.toString(file.additions()))
+                .append(",\"d\":").append(Long.toString(file.deletions()))
+                .append(",\"b\":").append(Boolean.toString(file.isBinary()))
+                .append(",\"n\":").append(Integer.toString(file.endLine() - file.startLine()))
+                .append('}');
+    }
+
+    /**
+     * Append a JSON string literal that is also safe inside a script element.
+     *
+     * @param out   output target
+     * @param value the string value
+     * @throws IOException if writing fails
+     */
+    static void appendJsonString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == '\u2028' || c == '\u2029') {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private static String displayPath(String path) {
+        if (path == null) {
+            return "";
+        }
+        if (path.startsWith("a/") || path.startsWith("b/")) {
+            return path.substring(2);
+        }
+        return path;
+    }
+
+    /**
+     * Estimate the rendered page length, leaving a little room for escapes.
+     *
+     * @param diffStringList list of diff strings
+     * @return estimated length in chars
+     */
+    static int estimateSize(List<? extends List<String>> diffStringList) {
+        long size = PAGE.literalLength();
+        for (List<String> diffString : diffStringList) {
+            for (String line : diffString) {
+                size += line.length() + 1;
+            }
+            size++;
+        }
+        size += size >>> 6;
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Write all diffs as the body of a JavaScript template literal.
+     * Each line is terminated by a newline and diffs are separated by an extra newline.
+     *
+     * @param out            output target
+     * @param diffStringList list of diff strings
+     * @throws IOException           if writing fails
+     * @throws CancellationException if the thread is interrupted
+     */
+    static void writeDiffString(Appendable out, List<? extends List<String>> diffStringList) throws IOException {
+        writeDiffString(out, diffStringList, ProgressListener.NONE);
+    }
+
+    /**
+     * Write all diffs as the body of a JavaScript template literal, periodically
+     * reporting the lines written as {@link ProgressListener.Stage#RENDER}.
+     *
+     * @param out            output target
+     * @param diffStringList list of diff strings
+     * @param listener       progress listener
+     * @throws IOException           if writing fails
+     * @throws CancellationException if the thread is interrupted
+     */
+    static void writeDiffString(Appendable out, List<? extends List<String>> diffStringList,
+                                ProgressListener listener) throws IOException {
+        long total = 0;
+        for (List<String> diffString : diffStringList) {
+            total += diffString.size();
+        }
+        boolean first = true;
+        long written = 0;
+        for (List<String> diffString : diffStringList) {
+            if (!first) {
+                out.append('\n');
+            }
+            first = false;
+            for (String line : diffString) {
+                if ((++written & CANCEL_CHECK_MASK) == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Rendering cancelled");
+                    }
+                    listener.progress(ProgressListener.Stage.RENDER, written, total);
+                }
+                appendEscaped(out, line);
+                out.append('\n');
+            }
+        }
+        listener.progress(ProgressListener.Stage.RENDER, total, total);
+    }
+
+    /**
+     * Append a line escaped for a JavaScript template literal inside a script element.
+     * Escapes backslash, backtick and dollar sign, and breaks up "&lt;/" so a
+     * closing script tag in the diff cannot end the script element.
+     *
+     * @param out  output target
+     * @param line the line to escape
+     * @throws IOException if writing fails
+     */
+    static void appendEscaped(Appendable out, String line) throws IOException {
+        int start = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' || c == '`' || c == '$') {
+                out.append(line, start, i).append('\\').append(c);
+                start = i + 1;
+            } else if (c == '/' && i > 0 && line.charAt(i - 1) == '<') {
+                out.append(line, start, i).append("\\/");
+                start = i + 1;
+            }
+        }
+        out.append(line, start, length);
+    }
+
+    private static String computeVersion() {
+        List<String> parts = new ArrayList<>(List.of(PAGE_TEXT, LAZY_PAGE_TEXT, CONTEXT_PAGE_TEXT));
+        ASSETS.keySet().stream().sorted().forEach(key -> parts.add(ASSETS.get(key)));
+        ContentHash hash = ContentHash.of(parts);
+        return HexFormat.of().toHexDigits(hash.high()) + HexFormat.of().toHexDigits(hash.low());
+    }
+
+    private static Map<String, String> assetElements(boolean linked) {
+        Map<String, String> elements = new HashMap<>();
+        ASSET_FILES.forEach((placeholder, name) -> {
+            boolean script = name.endsWith(".js");
+            String element;
+            if (linked) {
+                element = script
+                        ? "<script type=\"text/javascript\" src=\"" + LINKED_ASSET_PREFIX + name + "\"></script>"
+                        : "<link rel=\"stylesheet\" type=\"text/css\" href=\"" + LINKED_ASSET_PREFIX + name + "\">";
+            } else {
+                element = script
+                        ? "<script type=\"text/javascript\">\n" + ASSETS.get(name) + "\n</script>"
+                        : "<style type=\"text/css\">\n" + ASSETS.get(name) + "\n</style>";
+            }
+            elements.put(placeholder, element);
+        });
+        return elements;
+    }
+
+    private static String loadAsset(String name) {
+        try (InputStream in = DiffHtmlTemplate.class.getResourceAsStream(ASSET_PATH + name)) {
+            if (in == null) {
+                return "";
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load resources", e);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Directory tree comparison.
+ * <p>
+ * Files of both trees are paired by relative path. Pairs with equal size and
+ * equal bytes are skipped without decoding; the others are read on virtual
+ * threads and diffed on a work-stealing pool, and each result is reported as
+ * soon as it is ready.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class DirectoryDiff {
+
+    // Bounds open files and decoded content held in memory at the same time
+    private static final int MAX_PAIRS_IN_FLIGHT = 64;
+
+    /**
+     * Change status of a file.
+     */
+    public enum Status {
+        /**
+         * The file exists only in the revised tree.
+         */
+        ADDED,
+        /**
+         * The file exists only in the original tree.
+         */
+        REMOVED,
+        /**
+         * The file exists in both trees with different content.
+         */
+        MODIFIED
+    }
+
+    /**
+     * Diff of a single changed file.
+     *
+     * @param path   path relative to the compared directories, separated by '/'
+     * @param status change status
+     * @param binary whether the file is binary
+     * @param diff   diff lines in the format of {@link DiffHandleUtil#diffString(List, List, String, String)}
+     */
+    public record FileDiff(String path, Status status, boolean binary, List<String> diff) {
+    }
+
+    private DirectoryDiff() {
+    }
+
+    /**
+     * Compare two directory trees.
+     *
+     * @param originalDir original directory
+     * @param revisedDir  revised directory
+     * @return diffs of all changed files, ordered by path
+     * @throws IOException          if a directory or file cannot be read
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public static List<FileDiff> compare(Path originalDir, Path revisedDir) throws IOException, InterruptedException {
+        return compare(originalDir, revisedDir, diff -> {
+        });
+    }
+
+    /**
+     * Compare two directory trees, reporting each changed file as it finishes.
+     * <p>
+     * The listener is called from worker threads, possibly concurrently, and in
+     * completion order rather than path order.
+     *
+     * @param originalDir original directory
+     * @param revisedDir  revised directory
+     * @param listener    receives each changed file as soon as its diff is ready
+     * @return diffs of all changed files, ordered by path
+     * @throws IOException          if a directory or file cannot be read
+     * @throws InterruptedException if the calling thread is interrupted; pending work is cancelled
+     */
+    public static List<FileDiff> compare(Path originalDir, Path revisedDir, Consumer<? super FileDiff> listener)
+            throws IOException, InterruptedException {
+        return compare(originalDir, revisedDir, DiffOptions.DEFAULT, listener);
+    }
+
+    /**
+     * Compare two directory trees with the given diff options, reporting each changed file as it finishes.
+     * <p>
+     * The listener is called from worker threads, possibly concurrently, and in
+     * completion order rather than path order.
+     *
+     * @param originalDir original directory
+     * @param revisedDir  revised directory
+     * @param options     diff algorithm and budget
+     * @param listener    receives each changed file as soon as its diff is ready
+     * @return diffs of all changed files, ordered by path
+     * @throws IOException          if a directory or file cannot be read
+     * @throws InterruptedException if the calling thread is interrupted; pending work is cancelled
+     */
+    public static List<FileDiff> compare(Path originalDir, Path revisedDir, DiffOptions options,
+                                         Consumer<? super FileDiff> listener)
+            throws IOException, InterruptedException {
+        return compare(originalDir, revisedDir, options, listener, ProgressListener.NONE);
+    }
+
+    /**
+     * Compare two directory trees with the given diff options, reporting each changed file as it
+     * finishes and the number of files compared so far.
+     * <p>
+     * Both listeners are called from worker threads, possibly concurrently, and in
+     * completion order rather than path order. Progress is reported in the
+     * {@link ProgressListener.Stage#DIFF} stage and counts files, changed or not.
+     *
+     * @param originalDir original directory
+     * @param revisedDir  revised directory
+     * @param options     diff algorithm and budget
+     * @param listener    receives each changed file as soon as its diff is ready
+     * @param progress    receives the number of files compared out of all files of both trees
+     * @return diffs of all changed files, ordered by path
+     * @throws IOException          if a directory or file cannot be read
+     * @throws InterruptedException if the calling thread is interrupted; pending work is cancelled
+     */
+    public static List<FileDiff> compare(Path originalDir, Path revisedDir, DiffOptions options,
+                                         Consumer<? super FileDiff> listener, ProgressListener progress)
+            throws IOException, InterruptedException {
+        SortedMap<String, Path> originals = listFiles(originalDir);
+        SortedMap<String, Path> revised = listFiles(revisedDir);
+        SortedSet<String> paths = new TreeSet<>(originals.keySet());
+        paths.addAll(revised.keySet());
+
+        long total = paths.size();
+        AtomicLong compared = new AtomicLong();
+        progress.progress(ProgressListener.Stage.DIFF, 0, total);
+        Semaphore inFlight = new Semaphore(MAX_PAIRS_IN_FLIGHT);
+        ForkJoinPool diffPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<FileDiff>> futures = new ArrayList<>(paths.size());
+            for (String path : paths) {
+                Path original = originals.get(path);
+                Path revision = revised.get(path);
+                futures.add(readers.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        FileDiff diff = compareFile(path, original, revision, options, diffPool);
+                        if (diff != null) {
+                            listener.accept(diff);
+                        }
+                        progress.progress(ProgressListener.Stage.DIFF, compared.incrementAndGet(), total);
+                        return diff;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            List<FileDiff> result = new ArrayList<>();
+            for (Future<FileDiff> future : futures) {
+                FileDiff diff = future.get();
+                if (diff != null) {
+                    result.add(diff);
+                }
+            }
+            return result;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            } else if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Failed to compare directories", cause);
+        } finally {
+            readers.shutdownNow();
+            diffPool.shutdownNow();
+        }
+    }
+
+    /**
+     * List the regular files of a directory tree by relative path.
+     *
+     * @param dir directory to walk
+     * @return files by '/'-separated relative path
+     * @throws IOException if the tree cannot be walked
+     */
+    static SortedMap<String, Path> listFiles(Path dir) throws IOException {
+        SortedMap<String, Path> files = new TreeMap<>();
+        try (Stream<Path> stream = Files.walk(dir)) {
+            stream.filter(Files::isRegularFile).forEach(file -> {
+                String path = dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                files.put(path, file);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return files;
+    }
+
+    private static FileDiff compareFile(String path, Path original, Path revised, DiffOptions options,
+                                        ForkJoinPool diffPool)
+            throws IOException, InterruptedException, ExecutionException {
+        Status status = original == null ? Status.ADDED : revised == null ? Status.REMOVED : Status.MODIFIED;
+        if (status == Status.MODIFIED && BinarySniffer.sameContent(original, revised)) {
+            return null;
+        }
+        List<String> originalLines = readLines(original);
+        List<String> revisedLines = originalLines == null ? null : readLines(revised);
+        if (originalLines == null || revisedLines == null) {
+            String from = original == null ? "/dev/null" : "a/" + path;
+            String to = revised == null ? "/dev/null" : "b/" + path;
+            return new FileDiff(path, status, true, List.of(
+                    "diff --git a/" + path + " b/" + path,
+                    "Binary files " + from + " and " + to + " differ"));
+        }
+        List<String> diff = diffPool.submit(
+                () -> DiffHandleUtil.diffString(originalLines, revisedLines, path, path, options)).get();
+        return new FileDiff(path, status, false, diff);
+    }
+
+    /**
+     * Read a file as lines in its detected charset.
+     *
+     * @param file file to read, or null for a missing side
+     * @return lines, an empty list for a missing side, or null if the file is binary
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> readLines(Path file) throws IOException {
+        if (file == null) {
+            return List.of();
+        }
+        if (BinarySniffer.isBinary(file)) {
+            return null;
+        }
+        return TextReader.readLines(file);
+    }
+}
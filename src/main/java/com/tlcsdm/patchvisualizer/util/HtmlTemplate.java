@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal precompiled HTML template.
+ * <p>
+ * The template text is split once into literal segments and named slots.
+ * Constant placeholders are resolved at compile time, so rendering only
+ * appends the literals and lets each slot write its own content.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class HtmlTemplate {
+
+    /**
+     * Writer for the content of a single slot.
+     */
+    @FunctionalInterface
+    interface Slot {
+
+        /**
+         * Write the slot content.
+         *
+         * @param out output target
+         * @throws IOException if writing fails
+         */
+        void writeTo(Appendable out) throws IOException;
+    }
+
+    private final String[] literals;
+    private final String[] slotNames;
+    private final int literalLength;
+
+    private HtmlTemplate(String[] literals, String[] slotNames) {
+        this.literals = literals;
+        this.slotNames = slotNames;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile a template with {key} placeholders.
+     * Only keys listed in {@code constants} or {@code slots} are treated as placeholders,
+     * so braces in inline CSS and JavaScript are left untouched.
+     *
+     * @param text      the template text
+     * @param constants placeholder values resolved at compile time
+     * @param slots     placeholder names resolved at render time
+     * @return compiled template
+     */
+    static HtmlTemplate compile(String text, Map<String, String> constants, Set<String> slots) {
+        List<String> literals = new ArrayList<>();
+        List<String> slotNames = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(text.length());
+        int pos = 0;
+        while (pos < text.length()) {
+            int open = text.indexOf('{', pos);
+            if (open < 0) {
+                break;
+            }
+            int close = text.indexOf('}', open + 1);
+            String key = close < 0 ? null : text.substring(open + 1, close);
+            if (key != null && constants.containsKey(key)) {
+                literal.append(text, pos, open).append(constants.get(key));
+                pos = close + 1;
+            } else if (key != null && slots.contains(key)) {
+                literal.append(text, pos, open);
+                literals.add(literal.toString());
+                slotNames.add(key);
+                literal.setLength(0);
+                pos = close + 1;
+            } else {
+                literal.append(text, pos, open + 1);
+                pos = open + 1;
+            }
+        }
+        literal.append(text, pos, text.length());
+        literals.add(literal.toString());
+        return new HtmlTemplate(literals.toArray(String[]::new), slotNames.toArray(String[]::new));
+    }
+
+    /**
+     * Get the total length of all literal segments.
+     *
+     * @return literal length in chars
+     */
+    int literalLength() {
+        return literalLength;
+    }
+
+    /**
+     * Render the template.
+     *
+     * @param out   output target
+     * @param slots slot writers by placeholder name; missing slots render empty
+     * @throws IOException if writing fails
+     */
+    void render(Appendable out, Map<String, Slot> slots) throws IOException {
+        for (int i = 0; i < slotNames.length; i++) {
+            out.append(literals[i]);
+            Slot slot = slots.get(slotNames[i]);
+            if (slot != null) {
+                slot.writeTo(out);
+            }
+        }
+        out.append(literals[literals.length - 1]);
+    }
+}
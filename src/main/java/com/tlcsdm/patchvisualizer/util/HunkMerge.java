@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.Patch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the "whole file + changes" view of a comparison directly from patch deltas.
+ * <p>
+ * The output is the same as generating a unified diff without context and
+ * merging it into the original with {@link DiffHandleUtil#insertOrig(List, List)}:
+ * a file header, a {@code @@ -0,0 +0,0 @@} placeholder when the first line is
+ * unchanged, and every hunk in place between the unchanged original lines. It is
+ * produced in one pass over the deltas, reading unchanged lines by index and
+ * writing into a list of exactly the final size.
+ *
+ * @author unknowIfGuestInDream
+ */
+final class HunkMerge {
+
+    // Placeholder hunk shown before unchanged leading lines, and for identical files
+    static final String PLACEHOLDER = "@@ -0,0 +0,0 @@";
+
+    /**
+     * Deltas {@code [firstDelta, endDelta)} that touch each other and form one hunk,
+     * covering original lines {@code [originalStart, originalEnd)}.
+     */
+    private record Hunk(int firstDelta, int endDelta, int originalStart, int originalEnd,
+                        int revisedStart, int revisedLength) {
+    }
+
+    private HunkMerge() {
+    }
+
+    /**
+     * Merge a patch into its original lines.
+     *
+     * @param original         original lines, without prefix
+     * @param patch            patch turning {@code original} into the revised lines
+     * @param originalFileName original file name
+     * @param revisedFileName  revised file name
+     * @return merged lines: unchanged lines prefixed with a space, hunks in unified diff format
+     */
+    static List<String> merge(List<String> original, Patch<String> patch, String originalFileName,
+                              String revisedFileName) {
+        List<AbstractDelta<String>> deltas = patch.getDeltas();
+        List<Hunk> hunks = hunks(deltas);
+        boolean placeholder = hunks.isEmpty() || hunks.getFirst().originalStart() > 0;
+
+        // Every original line appears once, either unchanged or removed; each hunk adds its header and added lines
+        int size = 2 + (placeholder ? 1 : 0) + original.size();
+        for (Hunk hunk : hunks) {
+            size += 1 + hunk.revisedLength();
+        }
+        List<String> result = new ArrayList<>(size);
+        result.add("--- " + originalFileName);
+        result.add("+++ " + revisedFileName + " ( " + hunks.size() + " different )");
+        if (placeholder) {
+            result.add(PLACEHOLDER);
+        }
+
+        int next = 0;
+        for (Hunk hunk : hunks) {
+            addUnchanged(result, original, next, hunk.originalStart());
+            int originalLength = hunk.originalEnd() - hunk.originalStart();
+            result.add("@@ -" + (hunk.originalStart() + 1) + "," + originalLength
+                    + " +" + (hunk.revisedStart() + 1) + "," + hunk.revisedLength() + " @@");
+            for (int i = hunk.firstDelta(); i < hunk.endDelta(); i++) {
+                AbstractDelta<String> delta = deltas.get(i);
+                for (String line : delta.getSource().getLines()) {
+                    result.add("-" + line);
+                }
+                for (String line : delta.getTarget().getLines()) {
+                    result.add("+" + line);
+                }
+            }
+            next = hunk.originalEnd();
+        }
+        addUnchanged(result, original, next, original.size());
+        return result;
+    }
+
+    /**
+     * Group deltas into hunks the way a zero-context unified diff does: a delta
+     * starting where the previous one ends joins its hunk.
+     */
+    private static List<Hunk> hunks(List<AbstractDelta<String>> deltas) {
+        List<Hunk> hunks = new ArrayList<>(deltas.size());
+        int first = 0;
+        while (first < deltas.size()) {
+            Chunk<String> source = deltas.get(first).getSource();
+            Chunk<String> target = deltas.get(first).getTarget();
+            int originalStart = source.getPosition();
+            int originalEnd = originalStart + source.size();
+            int revisedLength = target.size();
+            int end = first + 1;
+            while (end < deltas.size() && deltas.get(end).getSource().getPosition() <= originalEnd) {
+                Chunk<String> nextSource = deltas.get(end).getSource();
+                originalEnd = nextSource.getPosition() + nextSource.size();
+                revisedLength += deltas.get(end).getTarget().size();
+                end++;
+            }
+            hunks.add(new Hunk(first, end, originalStart, originalEnd, target.getPosition(), revisedLength));
+            first = end;
+        }
+        return hunks;
+    }
+
+    private static void addUnchanged(List<String> result, List<String> original, int start, int end) {
+        for (int i = start; i < end; i++) {
+            result.add(" " + original.get(i));
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Read-only line list backed by a memory-mapped file.
+ * <p>
+ * Opening the file scans it once to build a compact index of line start
+ * offsets (one {@code int} per line, relative to its mapped chunk). Lines are
+ * decoded only when requested, so files larger than the heap can be parsed and
+ * navigated. Lines are terminated by "\n" or "\r\n"; like
+ * {@link java.nio.file.Files#readAllLines(Path)}, a trailing terminator does
+ * not produce an extra empty line. Malformed input is replaced rather than
+ * rejected.
+ * <p>
+ * With {@link #openDetected(Path, ProgressListener)}, the file is split into
+ * sections at every line starting with "diff ", and each section's charset is
+ * detected from its own bytes the first time one of its lines is read, so a
+ * patch touching files in different encodings decodes each file correctly.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class MappedLineReader extends AbstractList<String> implements RandomAccess {
+
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] SECTION_MARKER = TextReader.SECTION_MARKER;
+
+    private final Path path;
+    private final long byteSize;
+    private final Charset charset;
+    private final MappedByteBuffer[] chunks;
+    private final long[] chunkOffsets;
+    private final int[] chunkLimits;
+    private final int[] chunkFirstLines;
+    private final int[] lineStarts;
+    private final int lineCount;
+    // First line of each section when the charset is detected per section, otherwise null
+    private final int[] sectionFirstLines;
+    // Detected lazily; a race only detects the same charset twice
+    private final Charset[] sectionCharsets;
+    private final int bomLength;
+
+    private MappedLineReader(Path path, long byteSize, Charset charset, MappedByteBuffer[] chunks,
+                             long[] chunkOffsets, int[] chunkLimits, int[] chunkFirstLines,
+                             int[] lineStarts, int lineCount, int[] sectionFirstLines, int bomLength) {
+        this.path = path;
+        this.byteSize = byteSize;
+        this.charset = charset;
+        this.chunks = chunks;
+        this.chunkOffsets = chunkOffsets;
+        this.chunkLimits = chunkLimits;
+        this.chunkFirstLines = chunkFirstLines;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+        this.sectionFirstLines = sectionFirstLines;
+        this.sectionCharsets = sectionFirstLines == null ? null : new Charset[sectionFirstLines.length];
+        this.bomLength = bomLength;
+    }
+
+    /**
+     * Map a UTF-8 file and index its lines.
+     *
+     * @param path file path
+     * @return line list backed by the mapped file
+     * @throws IOException if the file cannot be read
+     */
+    public static MappedLineReader open(Path path) throws IOException {
+        return open(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Map a file and index its lines.
+     *
+     * @param path    file path
+     * @param charset charset used to decode lines; must encode "\n" and "\r" as single ASCII bytes
+     * @return line list backed by the mapped file
+     * @throws IOException           if the file cannot be read
+     * @throws CancellationException if the thread is interrupted while indexing
+     */
+    public static MappedLineReader open(Path path, Charset charset) throws IOException {
+        return open(path, charset, ProgressListener.NONE);
+    }
+
+    /**
+     * Map a file and index its lines, reporting the bytes indexed as {@link ProgressListener.Stage#READ}.
+     *
+     * @param path     file path
+     * @param charset  charset used to decode lines; must encode "\n" and "\r" as single ASCII bytes
+     * @param listener progress listener
+     * @return line list backed by the mapped file
+     * @throws IOException           if the file cannot be read
+     * @throws CancellationException if the thread is interrupted while indexing
+     */
+    public static MappedLineReader open(Path path, Charset charset, ProgressListener listener) throws IOException {
+        return open(path, charset, MAX_CHUNK_SIZE, listener);
+    }
+
+    /**
+     * Map a file and index its lines, detecting the charset of each patch file section separately
+     * and reporting the bytes indexed as {@link ProgressListener.Stage#READ}.
+     *
+     * @param path     file path
+     * @param listener progress listener
+     * @return line list backed by the mapped file
+     * @throws IOException           if the file cannot be read, or is UTF-16 or UTF-32 text
+     * @throws CancellationException if the thread is interrupted while indexing
+     */
+    public static MappedLineReader openDetected(Path path, ProgressListener listener) throws IOException {
+        return open(path, null, MAX_CHUNK_SIZE, listener);
+    }
+
+    static MappedLineReader open(Path path, Charset charset, int chunkSize) throws IOException {
+        return open(path, charset, chunkSize, ProgressListener.NONE);
+    }
+
+    /**
+     * Map a file and index its lines.
+     *
+     * @param path      file path
+     * @param charset   charset used to decode lines, or null to detect it per section
+     * @param chunkSize maximum size of a mapped chunk
+     * @param listener  progress listener
+     * @return line list backed by the mapped file
+     * @throws IOException if the file cannot be read
+     */
+    static MappedLineReader open(Path path, Charset charset, int chunkSize, ProgressListener listener)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int estimatedChunks = (int) (size / chunkSize) + 1;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[estimatedChunks];
+            long[] chunkOffsets = new long[estimatedChunks];
+            int[] chunkLimits = new int[estimatedChunks];
+            int[] chunkFirstLines = new int[estimatedChunks];
+            int[] lineStarts = new int[(int) Math.min(Math.max(size / 64, 16), 1 << 20)];
+            int lineCount = 0;
+            int chunkCount = 0;
+            byte[] scan = new byte[SCAN_BUFFER_SIZE];
+            boolean sections = charset == null;
+            int[] sectionFirstLines = new int[16];
+            // The first section starts at the first line, before any "diff " line
+            int sectionCount = sections ? 1 : 0;
+            int bomLength = 0;
+
+            long offset = 0;
+            while (offset < size) {
+                int length = (int) Math.min(chunkSize, size - offset);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                if (sections && offset == 0) {
+                    bomLength = bomLength(chunk, length, path);
+                }
+                if (chunkCount == chunks.length) {
+                    int grown = chunkCount * 2;
+                    chunks = Arrays.copyOf(chunks, grown);
+                    chunkOffsets = Arrays.copyOf(chunkOffsets, grown);
+                    chunkLimits = Arrays.copyOf(chunkLimits, grown);
+                    chunkFirstLines = Arrays.copyOf(chunkFirstLines, grown);
+                }
+                chunks[chunkCount] = chunk;
+                chunkOffsets[chunkCount] = offset;
+                chunkFirstLines[chunkCount] = lineCount;
+
+                // Every chunk starts at a line start
+                if (lineCount == lineStarts.length) {
+                    lineStarts = grow(lineStarts);
+                }
+                if (sections && lineCount > 0 && startsSection(chunk, scan, 0, 0, 0, length)) {
+                    sectionFirstLines = addSection(sectionFirstLines, sectionCount++, lineCount);
+                }
+                lineStarts[lineCount++] = 0;
+                int lastStart = 0;
+                for (int base = 0; base < length; base += SCAN_BUFFER_SIZE) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Line indexing cancelled");
+                    }
+                    listener.progress(ProgressListener.Stage.READ, offset + base, size);
+                    int n = Math.min(SCAN_BUFFER_SIZE, length - base);
+                    chunk.get(base, scan, 0, n);
+                    for (int i = 0; i < n; i++) {
+                        if (scan[i] == '\n') {
+                            int next = base + i + 1;
+                            if (next < length) {
+                                if (lineCount == lineStarts.length) {
+                                    lineStarts = grow(lineStarts);
+                                }
+                                if (sections && startsSection(chunk, scan, i + 1, n, next, length)) {
+                                    sectionFirstLines = addSection(sectionFirstLines, sectionCount++, lineCount);
+                                }
+                                lineStarts[lineCount++] = next;
+                                lastStart = next;
+                            }
+                        }
+                    }
+                }
+
+                boolean atEnd = offset + length == size;
+                if (atEnd || chunk.get(length - 1) == '\n') {
+                    chunkLimits[chunkCount++] = length;
+                    offset += length;
+                } else {
+                    // The last line continues past this chunk; start the next chunk at that line
+                    if (lastStart == 0) {
+                        throw new IOException("Line too long to map: " + path);
+                    }
+                    lineCount--;
+                    if (sectionCount > 0 && sectionFirstLines[sectionCount - 1] == lineCount) {
+                        // The line is indexed again as the first line of the next chunk
+                        sectionCount--;
+                    }
+                    chunkLimits[chunkCount++] = lastStart;
+                    offset += lastStart;
+                }
+            }
+            listener.progress(ProgressListener.Stage.READ, size, size);
+            return new MappedLineReader(path, size, charset, Arrays.copyOf(chunks, chunkCount),
+                    Arrays.copyOf(chunkOffsets, chunkCount), Arrays.copyOf(chunkLimits, chunkCount),
+                    Arrays.copyOf(chunkFirstLines, chunkCount), lineStarts, lineCount,
+                    sections ? Arrays.copyOf(sectionFirstLines, sectionCount) : null, bomLength);
+        }
+    }
+
+    /**
+     * Get the length of a UTF-8 byte order mark at the start of a file.
+     *
+     * @param chunk  first chunk of the file
+     * @param length chunk length
+     * @param path   file path
+     * @return length of the byte order mark, 0 if there is none
+     * @throws IOException if the byte order mark is one of UTF-16 or UTF-32, whose lines cannot be split on bytes
+     */
+    private static int bomLength(MappedByteBuffer chunk, int length, Path path) throws IOException {
+        byte[] head = new byte[Math.min(length, 4)];
+        chunk.get(0, head);
+        CharsetDetector.Detection bom = CharsetDetector.detectBom(head, 0, head.length);
+        if (bom == null) {
+            return 0;
+        }
+        if (!bom.asciiCompatible()) {
+            throw new IOException("Cannot map " + bom.charset() + " text: " + path);
+        }
+        return bom.bomLength();
+    }
+
+    /**
+     * Check whether the line starting at {@code position} of a chunk begins a section.
+     *
+     * @param chunk       mapped chunk
+     * @param scan        scan buffer holding part of the chunk
+     * @param scanIndex   index of the line start in {@code scan}
+     * @param scanLength  number of valid bytes in {@code scan}
+     * @param position    line start in the chunk
+     * @param chunkLength chunk length
+     * @return true if the line starts with the section marker
+     */
+    private static boolean startsSection(MappedByteBuffer chunk, byte[] scan, int scanIndex, int scanLength,
+                                         int position, int chunkLength) {
+        if (position + SECTION_MARKER.length > chunkLength) {
+            return false;
+        }
+        for (int k = 0; k < SECTION_MARKER.length; k++) {
+            // Past the end of the scan buffer, read the few remaining bytes from the chunk itself
+            byte b = scanIndex + k < scanLength ? scan[scanIndex + k] : chunk.get(position + k);
+            if (b != SECTION_MARKER[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] addSection(int[] sectionFirstLines, int sectionCount, int line) {
+        int[] sections = sectionCount == sectionFirstLines.length ? grow(sectionFirstLines) : sectionFirstLines;
+        sections[sectionCount] = line;
+        return sections;
+    }
+
+    private static int[] grow(int[] array) {
+        long grown = array.length + (array.length >> 1) + 16L;
+        if (grown > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many lines to index");
+        }
+        return Arrays.copyOf(array, (int) grown);
+    }
+
+    /**
+     * Get the mapped file path.
+     *
+     * @return file path
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Get the file size.
+     *
+     * @return size in bytes
+     */
+    public long byteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Get the file offset where a line starts.
+     *
+     * @param index line index
+     * @return byte offset in the file
+     */
+    public long lineOffset(int index) {
+        checkIndex(index);
+        int chunk = chunkOf(index);
+        return chunkOffsets[chunk] + lineStarts[index];
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index);
+        int chunk = chunkOf(index);
+        MappedByteBuffer buffer = chunks[chunk];
+        int start = lineStarts[index];
+        boolean lastInChunk = chunk + 1 == chunks.length
+                ? index + 1 == lineCount
+                : index + 1 == chunkFirstLines[chunk + 1];
+        int end = lastInChunk ? chunkLimits[chunk] : lineStarts[index + 1];
+        if (end > start && buffer.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (index == 0) {
+            start = Math.min(start + bomLength, end);
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, charset != null ? charset : sectionCharset(index));
+    }
+
+    /**
+     * Get the charset of the section holding a line, detecting it from the section's first bytes.
+     *
+     * @param index line index
+     * @return charset of the section
+     */
+    private Charset sectionCharset(int index) {
+        int found = Arrays.binarySearch(sectionFirstLines, index);
+        int section = found >= 0 ? found : -found - 2;
+        Charset detected = sectionCharsets[section];
+        if (detected == null) {
+            int firstLine = sectionFirstLines[section];
+            int chunk = chunkOf(firstLine);
+            int start = lineStarts[firstLine];
+            // Sample up to the next section, staying within the chunk of the first line
+            int end = chunkLimits[chunk];
+            if (section + 1 < sectionFirstLines.length && chunkOf(sectionFirstLines[section + 1]) == chunk) {
+                end = lineStarts[sectionFirstLines[section + 1]];
+            }
+            byte[] sample = new byte[Math.min(end - start, CharsetDetector.SAMPLE_SIZE)];
+            chunks[chunk].get(start, sample);
+            detected = CharsetDetector.detect(sample, 0, sample.length).charset();
+            sectionCharsets[section] = detected;
+        }
+        return detected;
+    }
+
+    @Override
+    public int size() {
+        return lineCount;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= lineCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    private int chunkOf(int index) {
+        int found = Arrays.binarySearch(chunkFirstLines, index);
+        return found >= 0 ? found : -found - 2;
+    }
+}
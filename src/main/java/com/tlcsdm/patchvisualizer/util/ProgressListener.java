@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+/**
+ * Receives progress of long-running loads, comparisons and renderings.
+ * <p>
+ * Listeners are called on the working thread. They may throw a
+ * {@link java.util.concurrent.CancellationException} to abort the work.
+ *
+ * @author unknowIfGuestInDream
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Listener ignoring all progress.
+     */
+    ProgressListener NONE = (stage, done, total) -> {
+    };
+
+    /**
+     * Stage of the work being reported.
+     */
+    enum Stage {
+        /**
+         * Reading or indexing input files; measured in bytes.
+         */
+        READ,
+        /**
+         * Parsing and optimizing patch content; measured in lines.
+         */
+        PARSE,
+        /**
+         * Computing a diff; measured in input lines, or in files for directory comparisons.
+         */
+        DIFF,
+        /**
+         * Writing the diff page; measured in diff lines.
+         */
+        RENDER
+    }
+
+    /**
+     * Report progress of a stage.
+     *
+     * @param stage the current stage
+     * @param done  work done in the stage so far
+     * @param total total work of the stage, or -1 if unknown
+     */
+    void progress(Stage stage, long done, long total);
+}
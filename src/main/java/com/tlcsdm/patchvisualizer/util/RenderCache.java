@@ -0,0 +1,539 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent on-disk cache of rendered HTML.
+ * <p>
+ * Entries are addressed by source file path and a caller-defined variant
+ * (theme, renderer version, ...). Each entry records the size, modification
+ * time and SHA-256 hash of the source it was rendered from. A lookup whose
+ * size and modification time still match is a hit without reading the source;
+ * only when the modification time changed is the source rehashed. The total
+ * size of all entries is capped by evicting the least recently used ones.
+ * <p>
+ * Besides the page, an entry can hold fragments the page loads on demand, so
+ * lazily rendered pages of large patches are cached along with their file diffs.
+ * <p>
+ * Callers take the {@link Fingerprint} of a source before reading it, and store
+ * what they rendered from that read under it, so an edit made in between or
+ * afterwards makes the entry a miss rather than a stale hit.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class RenderCache {
+
+    private static final int MAGIC = 0x50564843; // "PVHC"
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_SUFFIX = ".cache";
+    private static final String TEMP_PREFIX = "entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Temporary files not written to for this long were left behind by a write that never finished
+    private static final long STALE_TEMP_MILLIS = 10 * 60 * 1000L;
+    private static final int HASH_LENGTH = 32;
+    // Offset of the modification time in the entry header: magic, format version, source size
+    private static final long MTIME_OFFSET = 4 + 4 + 8;
+    // Header: magic, format version, source size, modification time, hash, compressed flag, part count
+    private static final long HEADER_LENGTH = MTIME_OFFSET + 8 + HASH_LENGTH + 1 + 4;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean compress;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Size, modification time and SHA-256 hash of a source file at the time it was read.
+     *
+     * @param path         source file
+     * @param size         size in bytes
+     * @param modifiedTime modification time in milliseconds
+     * @param hash         SHA-256 hash of the content
+     */
+    public record Fingerprint(Path path, long size, long modifiedTime, byte[] hash) {
+
+        /**
+         * Validates the fingerprint.
+         */
+        public Fingerprint {
+            if (hash == null || hash.length != HASH_LENGTH) {
+                throw new IllegalArgumentException("hash must be a SHA-256 hash");
+            }
+        }
+    }
+
+    /**
+     * Cached page and the number of fragments stored with it.
+     *
+     * @param html          rendered page
+     * @param fragmentCount number of fragments, 0 for a self-contained page
+     */
+    public record Page(String html, int fragmentCount) {
+    }
+
+    private record Header(long mtime, byte[] hash, boolean compressed, int partCount) {
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param directory cache directory; created on first write
+     * @param maxBytes  maximum total size of all entries
+     * @param compress  whether to gzip the stored HTML
+     */
+    public RenderCache(Path directory, long maxBytes, boolean compress) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.compress = compress;
+    }
+
+    /**
+     * Get the platform's per-user cache directory for rendered HTML.
+     *
+     * @return cache directory
+     */
+    public static Path defaultDirectory() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        String home = System.getProperty("user.home");
+        Path base;
+        if (os.contains("win")) {
+            String localAppData = System.getenv("LOCALAPPDATA");
+            base = localAppData != null ? Path.of(localAppData) : Path.of(home, "AppData", "Local");
+            base = base.resolve("patchVisualizer").resolve("cache");
+        } else if (os.contains("mac")) {
+            base = Path.of(home, "Library", "Caches", "patchVisualizer");
+        } else {
+            String xdgCache = System.getenv("XDG_CACHE_HOME");
+            base = (xdgCache != null && !xdgCache.isEmpty() ? Path.of(xdgCache) : Path.of(home, ".cache"))
+                    .resolve("patchVisualizer");
+        }
+        return base.resolve("render");
+    }
+
+    /**
+     * Get the cached HTML rendered from a source file.
+     *
+     * @param source  source file
+     * @param variant variant of the rendering, such as theme and renderer version
+     * @return cached HTML, or null if there is no valid entry
+     * @throws IOException if the source file cannot be read
+     */
+    public String get(Path source, String variant) throws IOException {
+        Page page = getPage(source, variant);
+        return page == null ? null : page.html();
+    }
+
+    /**
+     * Get the cached page rendered from a source file, with the number of fragments
+     * stored alongside it. Fragments are read with {@link #getFragment(Path, String, int)}.
+     *
+     * @param source  source file
+     * @param variant variant of the rendering, such as theme and renderer version
+     * @return cached page, or null if there is no valid entry
+     * @throws IOException if the source file cannot be read
+     */
+    public Page getPage(Path source, String variant) throws IOException {
+        Path entry = entryPath(source, variant);
+        if (!Files.isRegularFile(entry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long size = Files.size(source);
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        Page page = null;
+        boolean revalidated = false;
+        try (RandomAccessFile file = new RandomAccessFile(entry.toFile(), "r")) {
+            Header header = readHeader(file, size);
+            if (header != null) {
+                // Touched but possibly unchanged, e.g. after a checkout: fall back to the content hash
+                revalidated = header.mtime() != mtime && Arrays.equals(header.hash(), hash(source));
+                if (header.mtime() == mtime || revalidated) {
+                    page = new Page(readPart(file, header, 0), header.partCount() - 1);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            // Evicted concurrently
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            // Truncated or corrupt entry
+            page = null;
+        }
+        if (page == null) {
+            invalidate(entry);
+            return null;
+        }
+        try {
+            if (revalidated) {
+                try (RandomAccessFile file = new RandomAccessFile(entry.toFile(), "rw")) {
+                    file.seek(MTIME_OFFSET);
+                    file.writeLong(mtime);
+                }
+            }
+            // Entry modification time doubles as the last access time for eviction
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Still a valid hit; bookkeeping is best effort
+        }
+        hits.incrementAndGet();
+        return page;
+    }
+
+    /**
+     * Get a fragment stored with a cached page. Only the size and modification time
+     * of the source are checked, since {@link #getPage(Path, String)} validated the entry.
+     *
+     * @param source  source file
+     * @param variant variant of the rendering, such as theme and renderer version
+     * @param index   fragment index
+     * @return fragment text, or null if the entry is gone, outdated or has no such fragment
+     * @throws IOException if the source file cannot be read
+     */
+    public String getFragment(Path source, String variant, int index) throws IOException {
+        Path entry = entryPath(source, variant);
+        long size = Files.size(source);
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        try (RandomAccessFile file = new RandomAccessFile(entry.toFile(), "r")) {
+            Header header = readHeader(file, size);
+            if (header == null || header.mtime() != mtime || index < 0 || index >= header.partCount() - 1) {
+                return null;
+            }
+            return readPart(file, header, index + 1);
+        } catch (FileNotFoundException e) {
+            // Evicted or never written
+            return null;
+        } catch (IOException e) {
+            // Truncated or corrupt entry; the next page lookup removes it
+            return null;
+        }
+    }
+
+    /**
+     * Take the fingerprint of a source file. Call this before reading the content
+     * that will be rendered, so the entry never claims a newer version of the file.
+     *
+     * @param source source file
+     * @return fingerprint of the current content
+     * @throws IOException if the source cannot be read
+     */
+    public static Fingerprint fingerprint(Path source) throws IOException {
+        long size = Files.size(source);
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        return new Fingerprint(source, size, mtime, hash(source));
+    }
+
+    /**
+     * Store HTML rendered from a source file as it was when fingerprinted, then evict
+     * least recently used entries beyond the size cap.
+     *
+     * @param source  fingerprint of the source, taken before it was read
+     * @param variant variant of the rendering, such as theme and renderer version
+     * @param html    rendered HTML
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(Fingerprint source, String variant, String html) throws IOException {
+        put(source, variant, html, 0, index -> "");
+    }
+
+    /**
+     * Store a page rendered from a source file together with fragments the page loads
+     * on demand, such as the per-file diffs of a lazily rendered page, then evict least
+     * recently used entries beyond the size cap. Each fragment is compressed on its own,
+     * so a single one is read without inflating the others. An interrupted write stops
+     * before the next fragment and leaves the previous entry in place.
+     *
+     * @param source        fingerprint of the source, taken before it was read
+     * @param variant       variant of the rendering, such as theme and renderer version
+     * @param html          rendered page
+     * @param fragmentCount number of fragments
+     * @param fragments     fragment text by index, called once for each index in order
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(Fingerprint source, String variant, String html, int fragmentCount,
+                    IntFunction<String> fragments) throws IOException {
+        if (fragmentCount < 0) {
+            throw new IllegalArgumentException("fragmentCount must not be negative");
+        }
+        Files.createDirectories(directory);
+        Path entry = entryPath(source.path(), variant);
+        Path temp = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), IO_BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(source.size());
+                out.writeLong(source.modifiedTime());
+                out.write(source.hash());
+                out.writeBoolean(compress);
+                out.writeInt(fragmentCount + 1);
+                // Parts follow the header; their offsets are appended once all are written
+                long[] offsets = new long[fragmentCount + 2];
+                long position = HEADER_LENGTH;
+                for (int part = 0; part <= fragmentCount; part++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Render cache write interrupted");
+                    }
+                    byte[] bytes = encode(part == 0 ? html : fragments.apply(part - 1));
+                    offsets[part] = position;
+                    out.write(bytes);
+                    position += bytes.length;
+                }
+                offsets[fragmentCount + 1] = position;
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+            }
+            try {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evict();
+    }
+
+    /**
+     * Delete entries, least recently used first, until the total size is within the cap.
+     * Temporary files left behind by writes that never finished are deleted as well.
+     *
+     * @throws IOException if the cache directory cannot be listed
+     */
+    void evict() throws IOException {
+        deleteStaleTempFiles();
+        record Entry(Path path, long size, long lastUsed) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    Entry entry = new Entry(path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+                    entries.add(entry);
+                    total += entry.size();
+                } catch (NoSuchFileException e) {
+                    // Removed concurrently
+                }
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(entry.path());
+            total -= entry.size();
+        }
+    }
+
+    /**
+     * Remove all entries and the temporary files of writes that never finished.
+     *
+     * @throws IOException if an entry cannot be deleted
+     */
+    public void clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+        deleteStaleTempFiles();
+    }
+
+    /**
+     * Delete temporary files that are no longer written to, such as those of a write cut
+     * off by the process exiting. Files of writes still running are kept.
+     *
+     * @throws IOException if the cache directory cannot be listed
+     */
+    private void deleteStaleTempFiles() throws IOException {
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, TEMP_PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    if (Files.getLastModifiedTime(path).toMillis() < staleBefore) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (NoSuchFileException e) {
+                    // Moved into place or removed concurrently
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the cache directory.
+     *
+     * @return directory
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Get the number of lookups that returned cached HTML.
+     *
+     * @return hit count
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of lookups that found no valid entry.
+     *
+     * @return miss count
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    private void invalidate(Path entry) {
+        misses.incrementAndGet();
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            // Overwritten by the next put
+        }
+    }
+
+    /**
+     * Read the entry header if it is current for a source of the given size.
+     *
+     * @param file       entry file, positioned at its start
+     * @param sourceSize size of the source file
+     * @return header, or null if the entry is of another format or source size
+     * @throws IOException if the entry cannot be read
+     */
+    private static Header readHeader(RandomAccessFile file, long sourceSize) throws IOException {
+        if (file.readInt() != MAGIC || file.readInt() != FORMAT_VERSION || file.readLong() != sourceSize) {
+            return null;
+        }
+        long mtime = file.readLong();
+        byte[] hash = new byte[HASH_LENGTH];
+        file.readFully(hash);
+        boolean compressed = file.readBoolean();
+        int partCount = file.readInt();
+        if (partCount < 1) {
+            throw new IOException("Invalid part count " + partCount);
+        }
+        return new Header(mtime, hash, compressed, partCount);
+    }
+
+    private static String readPart(RandomAccessFile file, Header header, int part) throws IOException {
+        file.seek(file.length() - 8L * (header.partCount() + 1) + 8L * part);
+        long start = file.readLong();
+        long end = file.readLong();
+        if (start < HEADER_LENGTH || end < start || end > file.length()) {
+            throw new IOException("Invalid part offsets " + start + ".." + end);
+        }
+        byte[] bytes = new byte[Math.toIntExact(end - start)];
+        file.seek(start);
+        file.readFully(bytes);
+        if (header.compressed()) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes), IO_BUFFER_SIZE)) {
+                bytes = in.readAllBytes();
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] encode(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (!compress) {
+            return bytes;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer, IO_BUFFER_SIZE)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private Path entryPath(Path source, String variant) {
+        String key = source.toAbsolutePath().normalize() + "\u0000" + variant;
+        return directory.resolve(HexFormat.of().formatHex(sha256().digest(key.getBytes(StandardCharsets.UTF_8)))
+                + ENTRY_SUFFIX);
+    }
+
+    private static byte[] hash(Path source) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[IO_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to create SHA-256 digest", e);
+        }
+    }
+}
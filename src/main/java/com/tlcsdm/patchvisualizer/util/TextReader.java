@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Reads text of any supported charset into lines in a single pass.
+ * <p>
+ * The first block of bytes is used both to detect the charset with
+ * {@link CharsetDetector} and as the start of the decoded text, so nothing
+ * is read twice. A byte order mark is skipped. Lines are terminated by "\n",
+ * "\r\n" or "\r" as in {@link java.io.BufferedReader#readLine()}, and
+ * malformed input is replaced rather than rejected.
+ * <p>
+ * The {@code readPatchLines} methods instead split a patch into sections at every
+ * line starting with "diff " and detect each section's charset from its own bytes,
+ * like {@link MappedLineReader#openDetected(Path, ProgressListener)} does for mapped files.
+ *
+ * @author unknowIfGuestInDream
+ */
+public final class TextReader {
+
+    private static final int BUFFER_SIZE = CharsetDetector.SAMPLE_SIZE;
+    // Lines starting with this begin a new file section of a patch
+    static final byte[] SECTION_MARKER = "diff ".getBytes(StandardCharsets.US_ASCII);
+
+    private TextReader() {
+    }
+
+    /**
+     * Read the lines of a file.
+     *
+     * @param file file to read
+     * @return lines of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readLines(Path file) throws IOException {
+        return readLines(file, ProgressListener.NONE);
+    }
+
+    /**
+     * Read the lines of a file, reporting the bytes read as {@link ProgressListener.Stage#READ}.
+     *
+     * @param file     file to read
+     * @param listener progress listener
+     * @return lines of the file
+     * @throws IOException           if the file cannot be read
+     * @throws CancellationException if the thread is interrupted while reading
+     */
+    public static List<String> readLines(Path file, ProgressListener listener) throws IOException {
+        long size = Files.size(file);
+        try (InputStream in = Files.newInputStream(file)) {
+            return readLines(in, size, listener);
+        }
+    }
+
+    /**
+     * Read the lines of a stream. The stream is not closed.
+     *
+     * @param in stream to read
+     * @return lines of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    public static List<String> readLines(InputStream in) throws IOException {
+        return readLines(in, -1, ProgressListener.NONE);
+    }
+
+    /**
+     * Read the lines of a patch file, detecting the charset of each file section separately,
+     * and report the bytes read as {@link ProgressListener.Stage#READ}. The whole file is held
+     * in memory while it is decoded.
+     *
+     * @param file     patch file to read
+     * @param listener progress listener
+     * @return lines of the patch
+     * @throws IOException           if the file cannot be read
+     * @throws CancellationException if the thread is interrupted while reading
+     */
+    public static List<String> readPatchLines(Path file, ProgressListener listener) throws IOException {
+        long size = Files.size(file);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("File too large to read into memory: " + file);
+        }
+        byte[] bytes = new byte[(int) size];
+        int read = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            while (read < bytes.length) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Reading cancelled");
+                }
+                int n = in.read(bytes, read, Math.min(BUFFER_SIZE, bytes.length - read));
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+                listener.progress(ProgressListener.Stage.READ, read, size);
+            }
+        }
+        return readPatchLines(read == bytes.length ? bytes : Arrays.copyOf(bytes, read));
+    }
+
+    /**
+     * Read the lines of a patch held in memory, detecting the charset of each file section separately.
+     * UTF-16 and UTF-32 text, recognized by its byte order mark, is decoded as one section.
+     *
+     * @param bytes patch content
+     * @return lines of the patch
+     * @throws CancellationException if the thread is interrupted while decoding
+     */
+    public static List<String> readPatchLines(byte[] bytes) {
+        CharsetDetector.Detection bom = CharsetDetector.detectBom(bytes, 0, bytes.length);
+        // Lines of text whose "\n" is not a single byte cannot be split on bytes
+        boolean sections = bom == null || bom.asciiCompatible();
+        LineSplitter lines = new LineSplitter();
+        int start = 0;
+        while (start < bytes.length) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Reading cancelled");
+            }
+            int end = sections ? nextSection(bytes, start) : bytes.length;
+            CharsetDetector.Detection detection = CharsetDetector.detect(bytes, start,
+                    Math.min(end - start, CharsetDetector.SAMPLE_SIZE));
+            int from = start + detection.bomLength();
+            // Charset.decode replaces malformed input
+            lines.accept(detection.charset().decode(ByteBuffer.wrap(bytes, from, end - from)));
+            start = end;
+        }
+        return lines.finish();
+    }
+
+    /**
+     * Find the start of the next section of a patch.
+     *
+     * @param bytes patch content
+     * @param from  start of the current section
+     * @return start of the next section, or the content length if there is none
+     */
+    private static int nextSection(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n' && startsSection(bytes, i + 1)) {
+                return i + 1;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static boolean startsSection(byte[] bytes, int position) {
+        return position + SECTION_MARKER.length <= bytes.length && Arrays.equals(bytes, position,
+                position + SECTION_MARKER.length, SECTION_MARKER, 0, SECTION_MARKER.length);
+    }
+
+    private static List<String> readLines(InputStream in, long size, ProgressListener listener) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int filled = in.readNBytes(buffer, 0, BUFFER_SIZE);
+        boolean eof = filled < BUFFER_SIZE;
+        long read = filled;
+        listener.progress(ProgressListener.Stage.READ, read, size);
+
+        CharsetDetector.Detection detection = CharsetDetector.detect(buffer, 0, filled);
+        CharsetDecoder decoder = detection.charset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, detection.bomLength(), filled - detection.bomLength());
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        LineSplitter lines = new LineSplitter();
+
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, eof);
+            lines.accept(chars.flip());
+            chars.clear();
+            if (result.isOverflow()) {
+                continue;
+            }
+            if (eof) {
+                break;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Reading cancelled");
+            }
+            // Keep an incomplete trailing sequence and fill the rest of the buffer
+            bytes.compact();
+            int n = in.read(buffer, bytes.position(), bytes.remaining());
+            if (n < 0) {
+                eof = true;
+            } else {
+                bytes.position(bytes.position() + n);
+                read += n;
+                listener.progress(ProgressListener.Stage.READ, read, size);
+            }
+            bytes.flip();
+        }
+        decoder.flush(chars);
+        lines.accept(chars.flip());
+        return lines.finish();
+    }
+
+    /**
+     * Splits decoded characters into lines across buffer boundaries.
+     */
+    private static final class LineSplitter {
+
+        private final List<String> lines = new ArrayList<>();
+        private final StringBuilder line = new StringBuilder();
+        // A "\r" ended the previous line, so a "\n" right after it belongs to the same terminator
+        private boolean afterCarriageReturn;
+
+        void accept(CharBuffer chars) {
+            char[] array = chars.array();
+            int start = chars.arrayOffset() + chars.position();
+            int end = chars.arrayOffset() + chars.limit();
+            for (int i = start; i < end; i++) {
+                char c = array[i];
+                if (c == '\n' && afterCarriageReturn) {
+                    afterCarriageReturn = false;
+                    start = i + 1;
+                    continue;
+                }
+                afterCarriageReturn = c == '\r';
+                if (c == '\n' || c == '\r') {
+                    line.append(array, start, i - start);
+                    lines.add(line.toString());
+                    line.setLength(0);
+                    start = i + 1;
+                }
+            }
+            line.append(array, start, end - start);
+        }
+
+        List<String> finish() {
+            if (!line.isEmpty()) {
+                lines.add(line.toString());
+            }
+            return lines;
+        }
+    }
+}
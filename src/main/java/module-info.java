@@ -18,6 +18,7 @@ module com.tlcsdm.patchvisualizer {
     requires org.kordamp.ikonli.material;
     requires org.kordamp.ikonli.materialdesign;
     requires com.google.gson;
+    requires jdk.httpserver;
     requires atlantafx.base;
 
     opens com.tlcsdm.patchvisualizer to javafx.fxml, com.dlsc.preferencesfx;
@@ -26,5 +27,7 @@ module com.tlcsdm.patchvisualizer {
     
     exports com.tlcsdm.patchvisualizer;
     exports com.tlcsdm.patchvisualizer.util;
+    exports com.tlcsdm.patchvisualizer.diff;
+    exports com.tlcsdm.patchvisualizer.patch;
     exports com.tlcsdm.patchvisualizer.preferences;
 }
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchRenderer.
+ */
+class BatchRendererTest {
+
+    private static final List<String> PATCH = List.of(
+            "--- a/file.txt",
+            "+++ b/file.txt",
+            "@@ -1,1 +1,1 @@",
+            "-old",
+            "+new");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIsBatchCommand() {
+        assertTrue(BatchRenderer.isBatchCommand(new String[]{"--render", "a.patch"}));
+        assertTrue(BatchRenderer.isBatchCommand(new String[]{"-o", "x.html", "--compare", "a", "b"}));
+        assertFalse(BatchRenderer.isBatchCommand(new String[0]));
+    }
+
+    @Test
+    void testParseOptions() {
+        BatchRenderer.Options options = BatchRenderer.Options.parse(
+                new String[]{"--render", "a.patch", "b/*.diff", "-o", "out", "-j", "3", "--dark"});
+
+        assertEquals(BatchRenderer.Mode.RENDER, options.mode());
+        assertEquals(List.of("a.patch", "b/*.diff"), options.inputs());
+        assertEquals(Path.of("out"), options.output());
+        assertEquals(3, options.jobs());
+        assertTrue(options.darkMode());
+    }
+
+    @Test
+    void testParseRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchRenderer.Options.parse(new String[]{"--compare", "a"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchRenderer.Options.parse(new String[]{"--render", "a", "-j", "0"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchRenderer.Options.parse(new String[]{"--render", "a", "--unknown"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchRenderer.Options.parse(new String[]{"--render", "a", "-o"}));
+    }
+
+    @Test
+    void testExpandInputsMatchesGlobs() throws IOException {
+        Files.createDirectories(tempDir.resolve("sub"));
+        Files.write(tempDir.resolve("one.patch"), PATCH);
+        Files.write(tempDir.resolve("sub/two.patch"), PATCH);
+        Files.write(tempDir.resolve("notes.txt"), PATCH);
+        String root = tempDir.toString().replace('\\', '/');
+
+        List<Path> files = BatchRenderer.expandInputs(List.of(root + "/**.patch", root + "/one.patch"));
+
+        assertEquals(List.of(tempDir.resolve("one.patch"), tempDir.resolve("sub/two.patch")), files);
+    }
+
+    @Test
+    void testPlanJobs() {
+        Path patch = Path.of("dir", "change.patch");
+
+        assertEquals(Path.of("dir", "change.html"), BatchRenderer.planJobs(List.of(patch), null).get(0).output());
+        assertEquals(Path.of("page.html"),
+                BatchRenderer.planJobs(List.of(patch), Path.of("page.html")).get(0).output());
+        assertEquals(Path.of("out", "change.html"),
+                BatchRenderer.planJobs(List.of(patch), Path.of("out")).get(0).output());
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchRenderer.planJobs(List.of(patch, Path.of("other", "change.diff")), Path.of("out")));
+    }
+
+    @Test
+    void testRenderWritesPagesAndReport() throws IOException {
+        Files.write(tempDir.resolve("one.patch"), PATCH);
+        Files.write(tempDir.resolve("two.patch"), PATCH);
+        Path outDir = tempDir.resolve("out");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exit = BatchRenderer.run(new String[]{"--render", tempDir.resolve("*.patch").toString(),
+                        "-o", outDir.toString(), "-j", "2"},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(BatchRenderer.EXIT_OK, exit, err.toString(StandardCharsets.UTF_8));
+        assertTrue(Files.readString(outDir.resolve("one.html")).contains("+new"));
+        assertTrue(Files.exists(outDir.resolve("two.html")));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("Rendered 2 of 2 files"));
+    }
+
+    @Test
+    void testRenderReportsMissingFile() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exit = BatchRenderer.run(new String[]{"--render", tempDir.resolve("missing.patch").toString()},
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(BatchRenderer.EXIT_FAILED, exit);
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("FAILED"));
+    }
+
+    @Test
+    void testCompareWritesPageToStandardOutput() throws IOException {
+        Path original = tempDir.resolve("original.txt");
+        Path revised = tempDir.resolve("revised.txt");
+        Files.write(original, List.of("a", "b"));
+        Files.write(revised, List.of("a", "c"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exit = BatchRenderer.run(new String[]{"--compare", original.toString(), revised.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(BatchRenderer.EXIT_OK, exit);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("+c"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Compared"));
+    }
+}
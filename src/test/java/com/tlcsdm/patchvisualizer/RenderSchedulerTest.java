@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for RenderScheduler, run on a headless JavaFX platform.
+ */
+class RenderSchedulerTest {
+
+    private static final Object KEY = new Object();
+
+    private final RenderScheduler scheduler = new RenderScheduler(Executors.newCachedThreadPool());
+
+    @BeforeAll
+    static void startPlatform() throws InterruptedException {
+        setDefault("glass.platform", "Monocle");
+        setDefault("monocle.platform", "Headless");
+        setDefault("prism.order", "sw");
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException e) {
+            // Already started by another test class
+            started.countDown();
+        } catch (RuntimeException | LinkageError e) {
+            assumeTrue(false, "No JavaFX platform available: " + e);
+        }
+        assumeTrue(started.await(10, TimeUnit.SECONDS), "JavaFX platform did not start");
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        onFxThread(() -> {
+            scheduler.shutdown();
+            return null;
+        });
+    }
+
+    @Test
+    void testLatestTaskRunsSucceededHandler() throws Exception {
+        CompletableFuture<String> handled = new CompletableFuture<>();
+
+        onFxThread(() -> {
+            Task<String> task = task(() -> "done");
+            task.setOnSucceeded(event -> handled.complete(task.getValue()));
+            return scheduler.submit(KEY, task);
+        });
+
+        assertEquals("done", handled.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLatestTaskRunsFailedHandler() throws Exception {
+        CompletableFuture<Throwable> handled = new CompletableFuture<>();
+
+        onFxThread(() -> {
+            Task<String> task = task(() -> {
+                throw new IllegalStateException("broken");
+            });
+            task.setOnFailed(event -> handled.complete(task.getException()));
+            return scheduler.submit(KEY, task);
+        });
+
+        assertEquals("broken", handled.get(10, TimeUnit.SECONDS).getMessage());
+    }
+
+    @Test
+    void testSupersededTaskHandlerDoesNotRun() throws Exception {
+        AtomicBoolean supersededHandled = new AtomicBoolean();
+        CompletableFuture<String> latestHandled = new CompletableFuture<>();
+
+        onFxThread(() -> {
+            Task<String> superseded = task(() -> "old");
+            superseded.setOnSucceeded(event -> supersededHandled.set(true));
+            scheduler.submit(KEY, superseded);
+            // Finished computing, but its state events wait for this FX thread to be free
+            while (!superseded.isDone()) {
+                Thread.onSpinWait();
+            }
+            Task<String> latest = task(() -> "new");
+            latest.setOnSucceeded(event -> latestHandled.complete(latest.getValue()));
+            return scheduler.submit(KEY, latest);
+        });
+
+        assertEquals("new", latestHandled.get(10, TimeUnit.SECONDS));
+        // The superseded task's events were queued first, so they have been dispatched by now
+        assertFalse(supersededHandled.get());
+    }
+
+    @FunctionalInterface
+    private interface Body<T> {
+        T call() throws Exception;
+    }
+
+    private static <T> Task<T> task(Body<T> body) {
+        return new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return body.call();
+            }
+        };
+    }
+
+    private static <T> T onFxThread(Body<T> body) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(body.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RenderServer.
+ */
+class RenderServerTest {
+
+    private static final String PATCH = "--- a/file.txt\n+++ b/file.txt\n@@ -1,1 +1,1 @@\n-old\n+new\n";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private RenderServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testRenderStreamsLinkedPage() throws IOException, InterruptedException {
+        server = RenderServer.start(new RenderServer.Config(0, 2, Duration.ofSeconds(30), 1024 * 1024));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/render?dark=true"))
+                .POST(HttpRequest.BodyPublishers.ofString(PATCH)).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""));
+        assertTrue(response.body().contains("+new"));
+        assertTrue(response.body().contains("src=\"assets/diff2html-ui.min.js\""));
+        assertTrue(response.body().contains("<body class=\"d2h-dark-color-scheme\">"));
+    }
+
+    @Test
+    void testRenderDetectsCharsetPerFileSection() throws IOException, InterruptedException {
+        server = RenderServer.start(new RenderServer.Config(0, 2, Duration.ofSeconds(30), 1024 * 1024));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("diff --git a/ja.txt b/ja.txt\n--- a/ja.txt\n+++ b/ja.txt\n@@ -1 +1 @@\n-古い\n+こんにちは、世界\n"
+                .getBytes(Charset.forName("windows-31j")));
+        body.write("diff --git a/de.txt b/de.txt\n--- a/de.txt\n+++ b/de.txt\n@@ -1 +1 @@\n-alt\n+Grüße\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/render"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("こんにちは、世界"));
+        assertTrue(response.body().contains("Grüße"));
+    }
+
+    @Test
+    void testAssetsAreCacheable() throws IOException, InterruptedException {
+        server = RenderServer.start(new RenderServer.Config(0, 2, Duration.ofSeconds(30), 1024 * 1024));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/assets/diff2html.min.css")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<String> revalidated = client.send(HttpRequest.newBuilder(uri("/assets/diff2html.min.css"))
+                .header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> missing = client.send(HttpRequest.newBuilder(uri("/assets/missing.js")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Cache-Control").orElse("").contains("max-age"));
+        assertTrue(response.body().contains(".d2h-"));
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(404, missing.statusCode());
+    }
+
+    @Test
+    void testLimitsAndMetrics() throws IOException, InterruptedException {
+        server = RenderServer.start(new RenderServer.Config(0, 2, Duration.ofMillis(1), 16));
+
+        HttpResponse<String> tooLarge = client.send(HttpRequest.newBuilder(uri("/render"))
+                .POST(HttpRequest.BodyPublishers.ofString(PATCH)).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> wrongMethod = client.send(HttpRequest.newBuilder(uri("/render")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> metrics = client.send(HttpRequest.newBuilder(uri("/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(413, tooLarge.statusCode());
+        assertEquals(405, wrongMethod.statusCode());
+        assertTrue(metrics.body().contains("render_requests 2\n"));
+        assertTrue(metrics.body().contains("render_client_errors 2\n"));
+        assertTrue(metrics.body().contains("render_latency_p99_ms "));
+    }
+
+    @Test
+    void testSlowRenderingTimesOut() throws IOException, InterruptedException {
+        // The deadline covers reading the body too, so leave time for the upload itself
+        server = RenderServer.start(new RenderServer.Config(0, 2, Duration.ofMillis(250), 64L * 1024 * 1024));
+        String patch = "--- a/file.txt\n+++ b/file.txt\n@@ -1,2000000 +1,2000000 @@\n" + "+line\n".repeat(2_000_000);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/render"))
+                .POST(HttpRequest.BodyPublishers.ofString(patch)).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(504, response.statusCode());
+    }
+
+    @Test
+    void testForeignHostAndOriginAreRejected() throws IOException, InterruptedException {
+        server = RenderServer.start(new RenderServer.Config(0, 2, Duration.ofSeconds(30), 1024 * 1024));
+
+        HttpResponse<String> local = client.send(HttpRequest.newBuilder(uri("/health")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> crossOrigin = client.send(HttpRequest.newBuilder(uri("/health"))
+                .header("Origin", "http://attacker.example").build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, local.statusCode());
+        assertEquals(403, crossOrigin.statusCode());
+        assertTrue(rawStatusLine("attacker.example:" + server.port()).contains(" 403 "));
+        assertTrue(rawStatusLine("localhost:" + (server.port() == 1 ? 2 : 1)).contains(" 403 "));
+        assertTrue(rawStatusLine("localhost:" + server.port()).contains(" 200 "));
+    }
+
+    @Test
+    void testCompareRequiresPostAndStaysBelowRoots(@TempDir Path dir) throws IOException, InterruptedException {
+        Path root = Files.createDirectory(dir.resolve("root"));
+        Path original = Files.writeString(root.resolve("a.txt"), "old\n");
+        Path revised = Files.writeString(root.resolve("b.txt"), "new\n");
+        Path outside = Files.writeString(dir.resolve("secret.txt"), "secret\n");
+        RenderServer.Config config = RenderServer.Config.parse(new String[]{"--serve", "--port", "0", "--root",
+                root.toString()});
+        server = RenderServer.start(config);
+        String query = "/compare?original=" + encode(original) + "&revised=" + encode(revised);
+
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(uri(query)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri(query))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        String fields = "original=" + encode(original) + "&revised=" + encode(outside);
+        HttpResponse<String> form = client.send(HttpRequest.newBuilder(uri("/compare"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(fields)).build(), HttpResponse.BodyHandlers.ofString());
+        String missingFields = "original=" + encode(original) + "&revised=" + encode(dir.resolve("missing.txt"));
+        HttpResponse<String> missing = client.send(HttpRequest.newBuilder(uri("/compare"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(missingFields)).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(List.of(root.toAbsolutePath()), config.roots());
+        assertEquals(405, get.statusCode());
+        assertEquals(200, post.statusCode());
+        assertTrue(post.body().contains("new"));
+        assertEquals(404, form.statusCode());
+        assertFalse(form.body().contains("secret"));
+        // A missing file outside the roots is answered like an existing one
+        assertEquals(form.statusCode(), missing.statusCode());
+        assertEquals(form.body(), missing.body());
+    }
+
+    @Test
+    void testCompareDefaultsToWorkingDirectory() {
+        RenderServer.Config config = RenderServer.Config.parse(new String[]{"--serve"});
+
+        assertEquals(List.of(Path.of("").toAbsolutePath()), config.roots());
+        assertEquals(config.roots(), new RenderServer.Config(0, 1, Duration.ofSeconds(1), 1).roots());
+    }
+
+    /**
+     * Send a request with a Host header the HTTP client would not allow to be set.
+     */
+    private String rawStatusLine(String host) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /health HTTP/1.1\r\nHost: " + host + "\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            return response.substring(0, response.indexOf("\r\n"));
+        }
+    }
+
+    private static String encode(Path path) {
+        return URLEncoder.encode(path.toString(), StandardCharsets.UTF_8);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+}
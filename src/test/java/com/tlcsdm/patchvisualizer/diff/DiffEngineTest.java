@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DiffEngine and DiffOptions.
+ */
+class DiffEngineTest {
+
+    @Test
+    void testEveryAlgorithmProducesApplicablePatch() throws PatchFailedException {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<String> original = randomLines(random, random.nextInt(60), 8);
+            List<String> revised = mutate(random, original, 8);
+            for (DiffAlgorithm algorithm : DiffAlgorithm.values()) {
+                Patch<String> patch = DiffEngine.diff(original, revised, DiffOptions.of(algorithm));
+                assertEquals(revised, DiffUtils.patch(original, patch), algorithm + " round " + round);
+            }
+        }
+    }
+
+    @Test
+    void testRepeatedLinesProduceApplicablePatch() throws PatchFailedException {
+        List<String> original = new ArrayList<>();
+        List<String> revised = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            original.add(i % 3 == 0 ? "}" : "");
+            revised.add(i % 4 == 0 ? "}" : "");
+        }
+        for (DiffAlgorithm algorithm : DiffAlgorithm.values()) {
+            Patch<String> patch = DiffEngine.diff(original, revised, DiffOptions.of(algorithm));
+            assertEquals(revised, DiffUtils.patch(original, patch), algorithm.name());
+        }
+    }
+
+    @Test
+    void testInterruptedThreadCancelsDiff() {
+        Random random = new Random(3);
+        List<String> original = randomLines(random, 200, 20);
+        List<String> revised = mutate(random, original, 20);
+        for (DiffAlgorithm algorithm : DiffAlgorithm.values()) {
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(CancellationException.class,
+                        () -> DiffEngine.diff(original, revised, DiffOptions.of(algorithm)), algorithm.name());
+            } finally {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Test
+    void testMyersMatchesLibraryDiff() {
+        Random random = new Random(7);
+        List<String> original = randomLines(random, 200, 20);
+        List<String> revised = mutate(random, original, 20);
+
+        Patch<String> expected = DiffUtils.diff(original, revised);
+        Patch<String> actual = DiffEngine.diff(original, revised, DiffOptions.DEFAULT);
+
+        assertEquals(expected.getDeltas(), actual.getDeltas());
+    }
+
+    @Test
+    void testHistogramAlignsOnUniqueLines() {
+        List<String> original = List.of("a", "}", "unique", "}", "b");
+        List<String> revised = List.of("}", "unique", "}", "c");
+
+        Patch<String> patch = DiffEngine.diff(original, revised, DiffOptions.of(DiffAlgorithm.HISTOGRAM));
+
+        assertEquals(2, patch.getDeltas().size());
+        assertEquals(List.of("a"), patch.getDeltas().get(0).getSource().getLines());
+        assertEquals(List.of("b"), patch.getDeltas().get(1).getSource().getLines());
+    }
+
+    @Test
+    void testCancelledBudgetStopsEveryAlgorithm() {
+        Random random = new Random(3);
+        List<String> original = randomLines(random, 200, 20);
+        List<String> revised = mutate(random, original, 20);
+        Budget budget = new Budget(DiffOptions.DEFAULT);
+
+        budget.cancel();
+
+        assertThrows(CancellationException.class,
+                () -> new HistogramDiff<String>(budget).computeDiff(original, revised, null));
+        assertThrows(CancellationException.class,
+                () -> new PatienceDiff<String>(budget).computeDiff(original, revised, null));
+        assertThrows(CancellationException.class, () -> budget.listener().diffStep(1, 10));
+    }
+
+    @Test
+    void testExceededBudgetFallsBack() throws PatchFailedException {
+        Random random = new Random(3);
+        List<String> original = randomLines(random, 500, 50);
+        List<String> revised = randomLines(random, 500, 50);
+        DiffOptions options = DiffOptions.DEFAULT.withMaxEditDistance(1);
+
+        for (DiffAlgorithm algorithm : DiffAlgorithm.values()) {
+            Patch<String> patch = DiffEngine.diff(original, revised, options.withAlgorithm(algorithm));
+            assertEquals(revised, DiffUtils.patch(original, patch), algorithm.name());
+        }
+    }
+
+    @Test
+    void testIdenticalAndEmptyInputs() {
+        List<String> lines = List.of("a", "b", "c");
+        for (DiffAlgorithm algorithm : DiffAlgorithm.values()) {
+            DiffOptions options = DiffOptions.of(algorithm);
+            assertTrue(DiffEngine.diff(lines, lines, options).getDeltas().isEmpty());
+            assertTrue(DiffEngine.diff(List.<String>of(), List.<String>of(), options).getDeltas().isEmpty());
+            assertEquals(1, DiffEngine.diff(List.of(), lines, options).getDeltas().size());
+        }
+    }
+
+    @Test
+    void testOptionsValidation() {
+        assertThrows(NullPointerException.class, () -> new DiffOptions(null, 1, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> DiffOptions.DEFAULT.withMaxEditDistance(0));
+        assertThrows(IllegalArgumentException.class, () -> DiffOptions.DEFAULT.withTimeBudget(Duration.ZERO));
+    }
+
+    @Test
+    void testCacheKeyDistinguishesOptions() {
+        assertEquals(DiffOptions.DEFAULT.cacheKey(), DiffOptions.of(DiffAlgorithm.MYERS).cacheKey());
+        assertNotEquals(DiffOptions.DEFAULT.cacheKey(), DiffOptions.of(DiffAlgorithm.PATIENCE).cacheKey());
+        assertNotEquals(DiffOptions.DEFAULT.cacheKey(), DiffOptions.DEFAULT.withMaxEditDistance(5).cacheKey());
+    }
+
+    @Test
+    void testAlgorithmFromName() {
+        assertEquals(DiffAlgorithm.HISTOGRAM, DiffAlgorithm.fromName("HISTOGRAM"));
+        assertEquals(DiffAlgorithm.PATIENCE, DiffAlgorithm.fromName("Patience"));
+        assertEquals(DiffAlgorithm.MYERS, DiffAlgorithm.fromName("unknown"));
+        assertEquals(DiffAlgorithm.MYERS, DiffAlgorithm.fromName(null));
+    }
+
+    private static List<String> randomLines(Random random, int count, int alphabet) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + random.nextInt(alphabet));
+        }
+        return lines;
+    }
+
+    private static List<String> mutate(Random random, List<String> lines, int alphabet) {
+        List<String> result = new ArrayList<>(lines);
+        int edits = random.nextInt(10);
+        for (int i = 0; i < edits; i++) {
+            int op = random.nextInt(3);
+            if (op == 0 || result.isEmpty()) {
+                result.add(random.nextInt(result.size() + 1), "line " + random.nextInt(alphabet));
+            } else if (op == 1) {
+                result.remove(random.nextInt(result.size()));
+            } else {
+                result.set(random.nextInt(result.size()), "changed " + random.nextInt(alphabet));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.Patch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LineInterner.
+ */
+class LineInternerTest {
+
+    @Test
+    void testEqualLinesShareId() {
+        LineInterner interner = new LineInterner();
+
+        int[] ids = interner.intern(List.of("a", "b", "a", "", "b"));
+
+        assertArrayEquals(new int[]{0, 1, 0, 2, 1}, ids);
+        assertEquals(3, interner.size());
+        assertEquals("a", interner.line(0));
+        assertEquals("", interner.line(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> interner.line(3));
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        LineInterner interner = new LineInterner(1);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, interner.intern("line " + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, interner.intern(new String("line " + i)));
+            assertEquals("line " + i, interner.line(i));
+        }
+        assertEquals(10_000, interner.size());
+    }
+
+    @Test
+    void testCollidingHashesStayDistinct() {
+        // "Aa" and "BB" have the same String hash code
+        LineInterner interner = new LineInterner();
+
+        assertArrayEquals(new int[]{0, 1, 0, 1}, interner.intern(List.of("Aa", "BB", "Aa", "BB")));
+    }
+
+    @Test
+    void testDiffLinesMatchesStringDiff() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            List<String> original = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                original.add("line " + random.nextInt(40));
+            }
+            List<String> revised = new ArrayList<>(original);
+            for (int i = 0; i < 15; i++) {
+                int index = random.nextInt(revised.size());
+                if (random.nextBoolean()) {
+                    revised.remove(index);
+                } else {
+                    revised.add(index, "new " + random.nextInt(40));
+                }
+            }
+
+            Patch<String> expected = DiffUtils.diff(original, revised);
+            Patch<String> actual = DiffEngine.diffLines(original, revised, DiffOptions.DEFAULT);
+
+            assertEquals(expected.getDeltas(), actual.getDeltas());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.diff;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SegmentedDiff.
+ */
+class SegmentedDiffTest {
+
+    @Test
+    void testSmallMiddleIsOneSegment() {
+        int[] source = {1, 2, 3};
+        int[] target = {1, 4, 3};
+
+        List<int[]> segments = SegmentedDiff.split(source, 1, 2, target, 1, 2, 5);
+
+        assertEquals(1, segments.size());
+        assertArrayEquals(new int[]{1, 2, 1, 2}, segments.getFirst());
+    }
+
+    @Test
+    void testLargeMiddleIsSplitAtUniqueLines() {
+        LineInterner interner = new LineInterner();
+        int[] source = interner.intern(lines(new Random(5), 40_000, 0));
+        int[] target = interner.intern(lines(new Random(5), 40_000, 1));
+
+        List<int[]> segments = SegmentedDiff.split(source, 0, source.length, target, 0, target.length,
+                interner.size());
+
+        assertTrue(segments.size() > 1);
+        int aNext = 0;
+        int bNext = 0;
+        for (int[] segment : segments) {
+            assertTrue(segment[0] >= aNext && segment[0] <= segment[1]);
+            assertTrue(segment[2] >= bNext && segment[2] <= segment[3]);
+            if (aNext > 0) {
+                // The line between two segments is an anchor, equal on both sides
+                assertEquals(source[segment[0] - 1], target[segment[2] - 1]);
+            }
+            aNext = segment[1] + 1;
+            bNext = segment[3] + 1;
+        }
+        assertEquals(source.length, segments.getLast()[1]);
+        assertEquals(target.length, segments.getLast()[3]);
+    }
+
+    @Test
+    void testSegmentedPatchApplies() throws PatchFailedException {
+        List<String> original = lines(new Random(9), 60_000, 0);
+        List<String> revised = lines(new Random(9), 60_000, 1);
+
+        for (DiffAlgorithm algorithm : DiffAlgorithm.values()) {
+            Patch<String> patch = DiffEngine.diffLines(original, revised, DiffOptions.of(algorithm));
+            assertEquals(revised, DiffUtils.patch(original, patch), algorithm.name());
+        }
+    }
+
+    @Test
+    void testIdenticalInputsHaveNoChanges() {
+        List<String> lines = lines(new Random(1), 30_000, 0);
+
+        assertTrue(DiffEngine.diffLines(lines, new ArrayList<>(lines), DiffOptions.DEFAULT).getDeltas().isEmpty());
+    }
+
+    @Test
+    void testInterruptedCallerCancelsRunningSegments() throws InterruptedException {
+        LineInterner interner = new LineInterner();
+        int[] source = interner.intern(lines(new Random(5), 40_000, 0));
+        int[] target = interner.intern(lines(new Random(5), 40_000, 1));
+        Integer[] boxes = TokenList.boxes(interner.size());
+        Budget budget = new Budget(DiffOptions.DEFAULT);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        // Runs until the diff is cancelled, like a segment far from done
+        DiffAlgorithmI<Integer> endless = new DiffAlgorithmI<>() {
+            @Override
+            public List<Change> computeDiff(List<? extends Integer> a, List<? extends Integer> b,
+                                            DiffAlgorithmListener progress) {
+                running.incrementAndGet();
+                started.countDown();
+                try {
+                    while (true) {
+                        budget.checkCancelled();
+                        Thread.onSpinWait();
+                    }
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                SegmentedDiff.computeDiff(source, target, boxes, endless, budget);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        caller.start();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(10_000);
+
+        assertFalse(caller.isAlive());
+        assertInstanceOf(CancellationException.class, failure.get());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (running.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, running.get());
+    }
+
+    /**
+     * Generate numbered lines mixed with repeated ones; each variant edits every 500th line differently.
+     */
+    private static List<String> lines(Random random, int count, int variant) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i % 500 == 250) {
+                lines.add("edit " + i + " variant " + variant);
+                if (variant == 1 && i % 1000 == 250) {
+                    lines.add("inserted " + i);
+                }
+            } else if (random.nextInt(4) == 0) {
+                lines.add("}");
+            } else {
+                lines.add("line " + i);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PatchParser and the parsed patch model.
+ */
+class PatchParserTest {
+
+    private static List<String> readSample(String name) throws IOException {
+        try (InputStream in = PatchParserTest.class.getResourceAsStream("/samples/" + name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    @Test
+    void testParseSingleFile() {
+        List<String> patch = Arrays.asList(
+                "--- a/file.txt",
+                "+++ b/file.txt",
+                "@@ -1,3 +1,3 @@",
+                " line 1",
+                "-line 2",
+                "+line 2 modified",
+                " line 3"
+        );
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals(1, parsed.files().size());
+        FilePatch file = parsed.files().get(0);
+        assertEquals("a/file.txt", file.oldPath());
+        assertEquals("b/file.txt", file.newPath());
+        assertEquals(0, file.startLine());
+        assertEquals(7, file.endLine());
+        Hunk hunk = file.hunks().get(0);
+        assertEquals(2, hunk.headerLine());
+        assertEquals(1, hunk.oldStart());
+        assertEquals(3, hunk.newCount());
+        assertEquals(List.of(
+                new LineRun(LineKind.CONTEXT, 3, 1),
+                new LineRun(LineKind.REMOVED, 4, 1),
+                new LineRun(LineKind.ADDED, 5, 1),
+                new LineRun(LineKind.CONTEXT, 6, 1)), hunk.runs());
+        assertEquals(7, hunk.endLine());
+        assertEquals(new PatchStats(1, 1, 1, 1, 0), parsed.stats());
+    }
+
+    @Test
+    void testParseMultiFileSample() throws IOException {
+        List<String> patch = readSample("multifile.diff");
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals(5, parsed.files().size());
+        for (FilePatch file : parsed.files()) {
+            assertTrue(patch.get(file.startLine()).startsWith("diff --git"));
+            assertFalse(file.hunks().isEmpty());
+        }
+        assertEquals(patch.size(), parsed.files().get(4).endLine());
+    }
+
+    @Test
+    void testParseEdgeCasesSample() throws IOException {
+        List<String> patch = readSample("edge_cases.diff");
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals(4, parsed.files().size());
+        FilePatch whitespace = parsed.files().get(1);
+        assertEquals("b/whitespace.txt", whitespace.path());
+        assertTrue(whitespace.hunks().get(0).runs().stream().anyMatch(r -> r.kind() == LineKind.NO_NEWLINE));
+        FilePatch created = parsed.files().get(2);
+        assertEquals(0, created.hunks().get(0).oldCount());
+        assertEquals(5, created.additions());
+        assertEquals(10, parsed.files().get(3).deletions());
+    }
+
+    @Test
+    void testParseBinarySample() throws IOException {
+        List<String> patch = readSample("binary_files.diff");
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals(5, parsed.files().size());
+        assertEquals(4, parsed.stats().binaryFiles());
+        assertTrue(parsed.files().get(0).isBinary());
+        assertFalse(parsed.files().get(4).isBinary());
+        assertEquals("b/README.md", parsed.files().get(4).path());
+    }
+
+    @Test
+    void testDeletedFilePathUsesOldPath() {
+        List<String> patch = Arrays.asList(
+                "--- a/gone.txt",
+                "+++ /dev/null",
+                "@@ -1,1 +0,0 @@",
+                "-bye"
+        );
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals("a/gone.txt", parsed.files().get(0).path());
+    }
+
+    @Test
+    void testRemovedLineLookingLikeHeaderStaysInHunk() {
+        List<String> patch = Arrays.asList(
+                "--- a/file.txt",
+                "+++ b/file.txt",
+                "@@ -1,2 +1,1 @@",
+                "--- not a header",
+                " kept"
+        );
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals(1, parsed.files().size());
+        assertEquals(1, parsed.stats().deletions());
+    }
+
+    @Test
+    void testFormatPatchHeadersAndSignature() {
+        List<String> patch = Arrays.asList(
+                "From abc123 Mon Sep 17 00:00:00 2001",
+                "Subject: [PATCH] Binary files are handled now",
+                "---",
+                " file.txt | 2 +-",
+                "",
+                "diff --git a/file.txt b/file.txt",
+                "--- a/file.txt",
+                "+++ b/file.txt",
+                "@@ -1,1 +1,1 @@",
+                "-old",
+                "+new",
+                "-- ",
+                "2.34.1",
+                ""
+        );
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertEquals(5, parsed.contentStart());
+        assertEquals(11, parsed.contentEnd());
+        assertTrue(parsed.binarySections().isEmpty());
+        assertEquals(1, parsed.files().size());
+        assertEquals(patch.subList(5, 11), parsed.contentLines());
+    }
+
+    @Test
+    void testBinaryMarkerInsideHunkIsContent() {
+        List<String> patch = Arrays.asList(
+                "--- a/notes.txt",
+                "+++ b/notes.txt",
+                "@@ -1,1 +1,2 @@",
+                " intro",
+                "+Binary files are now skipped"
+        );
+
+        ParsedPatch parsed = PatchParser.parse(patch);
+
+        assertTrue(parsed.binarySections().isEmpty());
+        assertEquals(1, parsed.stats().additions());
+    }
+
+    @Test
+    void testTruncatedLinesView() {
+        List<String> patch = new ArrayList<>();
+        patch.add("diff --git a/large.bin b/large.bin");
+        patch.add("GIT binary patch");
+        for (int i = 0; i < 50; i++) {
+            patch.add("data" + i);
+        }
+        patch.add("diff --git a/next.txt b/next.txt");
+
+        List<String> lines = PatchParser.parse(patch).truncatedLines(10, "...");
+
+        assertEquals(2 + 10 + 1 + 1, lines.size());
+        assertEquals("data9", lines.get(11));
+        assertEquals("...", lines.get(12));
+        assertEquals("diff --git a/next.txt b/next.txt", lines.get(13));
+        assertThrows(IndexOutOfBoundsException.class, () -> lines.get(14));
+    }
+
+    @Test
+    void testPullParsing() {
+        List<String> patch = Arrays.asList(
+                "diff --git a/one.txt b/one.txt",
+                "@@ -1,1 +1,1 @@",
+                "-a",
+                "+b",
+                "diff --git a/two.txt b/two.txt",
+                "@@ -1,1 +1,1 @@",
+                "-c",
+                "+d"
+        );
+        PatchParser parser = new PatchParser(patch);
+
+        assertTrue(parser.hasNext());
+        assertEquals("b/one.txt", parser.next().path());
+        // Only the first file and the header of the second have been read
+        assertEquals(5, parser.position());
+        assertEquals("b/two.txt", parser.next().path());
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testInterruptedThreadCancelsParsing() {
+        List<String> patch = List.of("--- a/file.txt", "+++ b/file.txt", "@@ -1,1 +1,1 @@", "-a", "+b");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> PatchParser.parse(patch));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testParseEmpty() {
+        ParsedPatch parsed = PatchParser.parse(List.of());
+
+        assertTrue(parsed.files().isEmpty());
+        assertTrue(parsed.contentLines().isEmpty());
+        assertEquals(new PatchStats(0, 0, 0, 0, 0), parsed.stats());
+    }
+}
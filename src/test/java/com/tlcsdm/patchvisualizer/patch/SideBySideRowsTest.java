@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.patch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SideBySideRows.
+ */
+class SideBySideRowsTest {
+
+    @Test
+    void testPairsRemovedAndAddedLines() {
+        List<String> patch = Arrays.asList(
+                "--- a/file.txt",
+                "+++ b/file.txt",
+                "@@ -10,4 +10,3 @@",
+                " keep",
+                "-old 1",
+                "-old 2",
+                "+new 1",
+                " tail",
+                "+appended"
+        );
+
+        SideBySideRows rows = SideBySideRows.of(PatchParser.parse(patch));
+
+        assertEquals(7, rows.size());
+        assertEquals(SideBySideRows.Kind.FILE, rows.kind(0));
+        assertEquals("b/file.txt", rows.leftText(0));
+        assertEquals(SideBySideRows.Kind.HUNK, rows.kind(1));
+        assertEquals("@@ -10,4 +10,3 @@", rows.rightText(1));
+
+        assertEquals(SideBySideRows.Kind.CONTEXT, rows.kind(2));
+        assertEquals("keep", rows.leftText(2));
+        assertEquals(10, rows.leftNumber(2));
+        assertEquals(10, rows.rightNumber(2));
+
+        assertEquals(SideBySideRows.Kind.CHANGE, rows.kind(3));
+        assertEquals("old 1", rows.leftText(3));
+        assertEquals("new 1", rows.rightText(3));
+        assertEquals(11, rows.leftNumber(3));
+        assertEquals(11, rows.rightNumber(3));
+
+        assertEquals("old 2", rows.leftText(4));
+        assertTrue(rows.hasLeft(4));
+        assertFalse(rows.hasRight(4));
+        assertEquals("", rows.rightText(4));
+        assertEquals(0, rows.rightNumber(4));
+
+        assertEquals("tail", rows.rightText(5));
+        assertEquals(13, rows.leftNumber(5));
+        assertEquals(12, rows.rightNumber(5));
+
+        assertFalse(rows.hasLeft(6));
+        assertEquals("appended", rows.rightText(6));
+        assertEquals(13, rows.rightNumber(6));
+    }
+
+    @Test
+    void testBinaryFileIsSingleRow() {
+        List<String> patch = Arrays.asList(
+                "diff --git a/image.png b/image.png",
+                "GIT binary patch",
+                "literal 3",
+                "zcmV-",
+                "zcmV-",
+                "",
+                "diff --git a/a.txt b/a.txt",
+                "--- a/a.txt",
+                "+++ b/a.txt",
+                "@@ -0,0 +1 @@",
+                "+created"
+        );
+
+        SideBySideRows rows = SideBySideRows.of(PatchParser.parse(patch));
+
+        assertEquals(5, rows.size());
+        assertEquals(SideBySideRows.Kind.BINARY, rows.kind(1));
+        assertEquals("GIT binary patch", rows.leftText(1));
+        assertEquals("a.txt", rows.leftText(2).substring(2));
+        assertEquals(1, rows.rightNumber(4));
+    }
+
+    @Test
+    void testNoNewlineMarkerIsSkipped() {
+        List<String> patch = Arrays.asList(
+                "--- a/f",
+                "+++ b/f",
+                "@@ -1 +1 @@",
+                "-a",
+                "\\ No newline at end of file",
+                "+b",
+                "\\ No newline at end of file"
+        );
+
+        SideBySideRows rows = SideBySideRows.of(PatchParser.parse(patch));
+
+        for (int row = 0; row < rows.size(); row++) {
+            assertFalse(rows.leftText(row).startsWith("\\"));
+            assertFalse(rows.rightText(row).startsWith("\\"));
+        }
+    }
+
+    @Test
+    void testEmptyPatch() {
+        SideBySideRows rows = SideBySideRows.of(PatchParser.parse(List.of()));
+
+        assertEquals(0, rows.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> rows.kind(0));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BinarySniffer.
+ */
+class BinarySnifferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static boolean isBinary(byte[] bytes) {
+        return BinarySniffer.isBinary(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void testTextIsNotBinary() {
+        assertFalse(isBinary("line one\n\tline two\r\n".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(isBinary("中文 日本語 😀\n".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(isBinary(new byte[0]));
+    }
+
+    @Test
+    void testNulIsBinary() {
+        assertTrue(isBinary("text\0more text".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testInvalidSequencesAreBinary() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (0x80 + (i * 37) % 0x80);
+        }
+        assertTrue(isBinary(bytes));
+    }
+
+    @Test
+    void testControlCharactersAreBinary() {
+        byte[] bytes = new byte[100];
+        Arrays.fill(bytes, (byte) 'a');
+        for (int i = 0; i < 20; i++) {
+            bytes[i * 5] = 0x01;
+        }
+        assertTrue(isBinary(bytes));
+    }
+
+    @Test
+    void testFewStrayBytesAreText() {
+        byte[] bytes = "Le café est prêt, merci pour votre aide\n".getBytes(StandardCharsets.ISO_8859_1);
+        assertFalse(isBinary(bytes));
+    }
+
+    @Test
+    void testLegacyCjkTextIsNotBinary() {
+        assertFalse(isBinary("差分を表示します。\n".getBytes(Charset.forName("windows-31j"))));
+        assertFalse(isBinary("比较两个文件的差异\n".getBytes(Charset.forName("GBK"))));
+    }
+
+    @Test
+    void testUtf16WithBomIsNotBinary() {
+        byte[] text = "patch\n".getBytes(StandardCharsets.UTF_16LE);
+        byte[] bytes = new byte[text.length + 2];
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xFE;
+        System.arraycopy(text, 0, bytes, 2, text.length);
+        assertFalse(isBinary(bytes));
+        assertTrue(isBinary(text));
+    }
+
+    @Test
+    void testSequenceCutOffBySampleIsIgnored() {
+        byte[] bytes = new byte[BinarySniffer.SAMPLE_SIZE + 10];
+        Arrays.fill(bytes, (byte) 'a');
+        byte[] han = "中".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(han, 0, bytes, BinarySniffer.SAMPLE_SIZE - 1, han.length);
+        assertFalse(isBinary(bytes));
+        // Bytes past the sample are not inspected
+        bytes[BinarySniffer.SAMPLE_SIZE + 5] = 0;
+        assertFalse(isBinary(bytes));
+    }
+
+    @Test
+    void testFileSniffAndSameContent() throws IOException {
+        Path text = Files.writeString(tempDir.resolve("a.txt"), "hello\n");
+        Path copy = Files.writeString(tempDir.resolve("b.txt"), "hello\n");
+        Path image = Files.write(tempDir.resolve("c.bin"), new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 0});
+
+        assertFalse(BinarySniffer.isBinary(text));
+        assertTrue(BinarySniffer.isBinary(image));
+        assertTrue(BinarySniffer.sameContent(text, copy));
+        assertFalse(BinarySniffer.sameContent(text, image));
+    }
+}
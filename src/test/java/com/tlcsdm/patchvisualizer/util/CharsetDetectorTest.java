@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CharsetDetector.
+ */
+class CharsetDetectorTest {
+
+    private static Charset detect(byte[] bytes) {
+        return CharsetDetector.detect(bytes, 0, bytes.length).charset();
+    }
+
+    @Test
+    void testByteOrderMarks() {
+        assertEquals(new CharsetDetector.Detection(StandardCharsets.UTF_8, 3),
+                CharsetDetector.detect(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'}, 0, 4));
+        assertEquals(new CharsetDetector.Detection(StandardCharsets.UTF_16LE, 2),
+                CharsetDetector.detect(new byte[]{(byte) 0xFF, (byte) 0xFE, 'a', 0}, 0, 4));
+        assertEquals(new CharsetDetector.Detection(StandardCharsets.UTF_16BE, 2),
+                CharsetDetector.detect(new byte[]{(byte) 0xFE, (byte) 0xFF, 0, 'a'}, 0, 4));
+        assertEquals(Charset.forName("UTF-32LE"), detect(new byte[]{(byte) 0xFF, (byte) 0xFE, 0, 0}));
+        assertFalse(CharsetDetector.detect(new byte[]{(byte) 0xFF, (byte) 0xFE}, 0, 2).asciiCompatible());
+    }
+
+    @Test
+    void testUtf8AndAscii() {
+        assertEquals(StandardCharsets.UTF_8, detect("plain ascii\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(StandardCharsets.UTF_8, detect("差分 diff\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(StandardCharsets.UTF_8, detect(new byte[0]));
+        assertTrue(CharsetDetector.detect(new byte[0], 0, 0).asciiCompatible());
+    }
+
+    @Test
+    void testLegacyCjk() {
+        Charset sjis = Charset.forName("windows-31j");
+        Charset gbk = Charset.forName("GBK");
+
+        assertEquals(sjis, detect("// ファイルを比較する\nint x = 1; // 初期値\n".getBytes(sjis)));
+        assertEquals(gbk, detect("// 比较两个文件\nint x = 1; // 初始值\n".getBytes(gbk)));
+    }
+
+    @Test
+    void testLatin1FallsBackToWindows1252() {
+        byte[] bytes = "Grüße aus Köln, café\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals(Charset.forName("windows-1252"), detect(bytes));
+    }
+
+    @Test
+    void testSequenceCutOffAtEndIsAccepted() {
+        byte[] text = "ab中".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(text, 0, text.length - 1).charset());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.Patch;
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContextDiff.
+ */
+class ContextDiffTest {
+
+    @Test
+    void testMatchesUnifiedDiff() {
+        Random random = new Random(23);
+        for (int round = 0; round < 200; round++) {
+            List<String> original = randomLines(random, random.nextInt(80));
+            List<String> revised = edit(random, original);
+            Patch<String> patch = DiffUtils.diff(original, revised);
+            if (patch.getDeltas().isEmpty()) {
+                continue;
+            }
+            for (int contextLines : new int[]{0, 1, 3}) {
+                List<String> expected = UnifiedDiffUtils.generateUnifiedDiff("a", "b", original, patch, contextLines);
+                List<String> actual = new ContextDiff(original, patch, "a", "b", contextLines).render();
+
+                assertEquals(expected.subList(2, expected.size()), actual.subList(2, actual.size()),
+                        () -> original + " -> " + revised + " with " + contextLines);
+            }
+        }
+    }
+
+    @Test
+    void testHeaderCountsDifferences() {
+        List<String> original = numbered(100);
+        List<String> revised = new ArrayList<>(original);
+        revised.set(10, "changed");
+        revised.set(80, "changed");
+
+        ContextDiff contextDiff = DiffHandleUtil.contextDiff(original, revised, "old", "new", DiffOptions.DEFAULT, 2);
+        List<String> lines = contextDiff.render();
+
+        assertEquals("--- old", lines.get(0));
+        assertEquals("+++ new ( 2 different )", lines.get(1));
+        assertEquals("@@ -9,5 +9,5 @@", lines.get(2));
+        assertEquals(2, contextDiff.hunkCount());
+        assertEquals(8, contextDiff.hiddenLines(0));
+        assertEquals(65, contextDiff.hiddenLines(1));
+        assertEquals(17, contextDiff.hiddenLines(2));
+        assertEquals(0, contextDiff.hiddenLines(3));
+    }
+
+    @Test
+    void testExpandRevealsLinesNextToHunk() {
+        List<String> original = numbered(100);
+        List<String> revised = new ArrayList<>(original);
+        revised.set(50, "changed");
+        ContextDiff contextDiff = DiffHandleUtil.contextDiff(original, revised, "old", "new", DiffOptions.DEFAULT, 0);
+
+        assertTrue(contextDiff.expand(0));
+
+        List<String> lines = contextDiff.render();
+        assertEquals("@@ -31,21 +31,21 @@", lines.get(2));
+        assertEquals(" line 30", lines.get(3));
+        assertEquals(30, contextDiff.hiddenLines(0));
+
+        assertTrue(contextDiff.expand(1));
+        assertEquals(29, contextDiff.hiddenLines(1));
+        assertEquals(" line 70", contextDiff.render().getLast());
+    }
+
+    @Test
+    void testExpandJoinsHunks() {
+        List<String> original = numbered(60);
+        List<String> revised = new ArrayList<>(original);
+        revised.set(5, "changed");
+        revised.set(30, "changed");
+        ContextDiff contextDiff = DiffHandleUtil.contextDiff(original, revised, "old", "new", DiffOptions.DEFAULT, 1);
+        assertEquals(2, contextDiff.hunkCount());
+
+        assertTrue(contextDiff.expand(1));
+        assertTrue(contextDiff.expand(1));
+
+        assertEquals(1, contextDiff.hunkCount());
+        assertEquals(4, contextDiff.hiddenLines(0));
+    }
+
+    @Test
+    void testExpandUntilWholeFile() throws Exception {
+        List<String> original = numbered(500);
+        List<String> revised = new ArrayList<>(original);
+        revised.remove(100);
+        revised.add(400, "inserted");
+        ContextDiff contextDiff = DiffHandleUtil.contextDiff(original, revised, "old", "new", DiffOptions.DEFAULT, 3);
+
+        int guard = 0;
+        int gap;
+        while ((gap = firstHiddenGap(contextDiff)) >= 0) {
+            assertTrue(contextDiff.expand(gap));
+            assertTrue(++guard < 100);
+        }
+
+        List<String> lines = contextDiff.render();
+        assertEquals("@@ -1,500 +1,500 @@", lines.get(2));
+        assertEquals(revised, DiffUtils.patch(original, UnifiedDiffUtils.parseUnifiedDiff(lines)));
+        assertFalse(contextDiff.expand(0));
+    }
+
+    @Test
+    void testIdenticalFiles() {
+        List<String> lines = numbered(30);
+        ContextDiff contextDiff = DiffHandleUtil.contextDiff(lines, lines, "old", "new", DiffOptions.DEFAULT, 3);
+
+        assertEquals(List.of("--- old", "+++ new ( 0 different )", HunkMerge.PLACEHOLDER), contextDiff.render());
+        assertEquals(30, contextDiff.hiddenLines(0));
+
+        assertTrue(contextDiff.expand(0));
+
+        assertEquals("@@ -1,20 +1,20 @@", contextDiff.render().get(2));
+        assertEquals(10, contextDiff.hiddenLines(1));
+    }
+
+    @Test
+    void testNegativeContextRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ContextDiff(List.of(), DiffUtils.diff(List.<String>of(), List.of()), "a", "b", -1));
+    }
+
+    private static int firstHiddenGap(ContextDiff contextDiff) {
+        for (int hunk = 0; hunk <= contextDiff.hunkCount(); hunk++) {
+            if (contextDiff.hiddenLines(hunk) > 0) {
+                return hunk;
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> numbered(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + i);
+        }
+        return lines;
+    }
+
+    private static List<String> randomLines(Random random, int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + random.nextInt(15));
+        }
+        return lines;
+    }
+
+    private static List<String> edit(Random random, List<String> lines) {
+        List<String> result = new ArrayList<>(lines);
+        int edits = random.nextInt(6);
+        for (int i = 0; i < edits; i++) {
+            int op = random.nextInt(3);
+            if (op == 0 || result.isEmpty()) {
+                result.add(random.nextInt(result.size() + 1), "new " + i);
+            } else if (op == 1) {
+                result.remove(random.nextInt(result.size()));
+            } else {
+                result.set(random.nextInt(result.size()), "changed " + i);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DiffCache and ContentHash.
+ */
+class DiffCacheTest {
+
+    @Test
+    void testContentHashIncludesLineBoundaries() {
+        assertEquals(ContentHash.of(List.of("ab", "c")), ContentHash.of(List.of("ab", "c")));
+        assertNotEquals(ContentHash.of(List.of("ab", "c")), ContentHash.of(List.of("a", "bc")));
+        assertNotEquals(ContentHash.of(List.of("")), ContentHash.of(List.of()));
+        // Equal String.hashCode values must not collide
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(ContentHash.of(List.of("Aa")), ContentHash.of(List.of("BB")));
+    }
+
+    @Test
+    void testComputeIfAbsentCountsHitsAndMisses() {
+        DiffCache cache = new DiffCache(1024 * 1024);
+        AtomicInteger computed = new AtomicInteger();
+        DiffCache.Key key = DiffCache.key(List.of("a"), List.of("b"), "x", "y", "");
+
+        List<String> first = cache.computeIfAbsent(key, () -> {
+            computed.incrementAndGet();
+            return List.of("-a", "+b");
+        });
+        List<String> second = cache.computeIfAbsent(DiffCache.key(List.of("a"), List.of("b"), "x", "y", ""),
+                () -> {
+                    computed.incrementAndGet();
+                    return List.of("unexpected");
+                });
+
+        assertEquals(List.of("-a", "+b"), first);
+        assertSame(first, second);
+        assertEquals(1, computed.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testKeyIncludesNamesAndOptions() {
+        DiffCache.Key key = DiffCache.key(List.of("a"), List.of("b"), "x", "y", "");
+
+        assertNotEquals(key, DiffCache.key(List.of("a"), List.of("b"), "x", "z", ""));
+        assertNotEquals(key, DiffCache.key(List.of("a"), List.of("b"), "x", "y", "other"));
+        assertNotEquals(key, DiffCache.key(List.of("b"), List.of("a"), "x", "y", ""));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByBytes() {
+        List<String> diff = List.of("0123456789");
+        long entrySize = DiffCache.estimateSize(diff);
+        DiffCache cache = new DiffCache(entrySize * 2);
+        DiffCache.Key a = DiffCache.key(List.of("a"), List.of(), null, null, "");
+        DiffCache.Key b = DiffCache.key(List.of("b"), List.of(), null, null, "");
+        DiffCache.Key c = DiffCache.key(List.of("c"), List.of(), null, null, "");
+
+        cache.put(a, diff);
+        cache.put(b, diff);
+        assertNotNull(cache.get(a));
+        cache.put(c, diff);
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+        assertEquals(1, cache.evictions());
+        assertEquals(entrySize * 2, cache.byteSize());
+    }
+
+    @Test
+    void testOversizedDiffIsNotCached() {
+        DiffCache cache = new DiffCache(10);
+        DiffCache.Key key = DiffCache.key(List.of("a"), List.of(), null, null, "");
+
+        cache.put(key, List.of("a line that does not fit"));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.byteSize());
+    }
+
+    @Test
+    void testDiffStringUsesSharedCache() {
+        DiffCache cache = DiffHandleUtil.getDiffCache();
+        List<String> original = List.of("cache test 1", "cache test 2");
+        List<String> revised = List.of("cache test 1", "cache test two");
+
+        List<String> first = DiffHandleUtil.diffString(original, revised, "o.txt", "r.txt");
+        long hits = cache.hits();
+        List<String> second = DiffHandleUtil.diffString(original, revised, "o.txt", "r.txt");
+        second.add("callers get their own copy");
+
+        assertEquals(hits + 1, cache.hits());
+        assertEquals(first, DiffHandleUtil.diffString(original, revised, "o.txt", "r.txt"));
+    }
+
+    @Test
+    void testContextDiffUsesSharedCache() {
+        DiffCache cache = DiffHandleUtil.getDiffCache();
+        List<String> original = List.of("context 1", "context 2", "context 3", "context 4");
+        List<String> revised = List.of("context 1", "context two", "context 3", "context 4", "context 5");
+
+        List<String> first = DiffHandleUtil.contextDiff(original, revised, "o.txt", "r.txt",
+                DiffOptions.DEFAULT, 1).render();
+        long hits = cache.hits();
+        // Other names and context lines reuse the cached changes
+        DiffHandleUtil.contextDiff(original, revised, "a.txt", "b.txt", DiffOptions.DEFAULT, 3);
+        List<String> second = DiffHandleUtil.contextDiff(original, revised, "o.txt", "r.txt",
+                DiffOptions.DEFAULT, 1).render();
+
+        assertEquals(hits + 2, cache.hits());
+        assertEquals(first, second);
+    }
+}
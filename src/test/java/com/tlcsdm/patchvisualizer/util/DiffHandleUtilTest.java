@@ -6,12 +6,19 @@
 
 package com.tlcsdm.patchvisualizer.util;
 
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -173,6 +180,56 @@ class DiffHandleUtilTest {
         assertTrue(result.contains("test content line 2"));
     }
 
+    @Test
+    void testDiffStringReportsStages() throws IOException {
+        Path original = tempDir.resolve("original.txt");
+        Path revised = tempDir.resolve("revised.txt");
+        Files.write(original, List.of("a", "b", "c"));
+        Files.write(revised, List.of("a", "x", "c"));
+        List<String> events = new ArrayList<>();
+
+        DiffHandleUtil.diffString(original.toString(), revised.toString(), DiffOptions.DEFAULT,
+                (stage, done, total) -> events.add(stage + " " + done + "/" + total));
+
+        assertEquals(List.of("READ 0/12", "READ 6/12", "READ 12/12", "DIFF 0/6", "DIFF 6/6"), events);
+    }
+
+    @Test
+    void testDiffStringReportsReadProgressPerBuffer() throws IOException {
+        Path original = Files.writeString(tempDir.resolve("original.txt"), "line\n".repeat(100_000));
+        Path revised = Files.writeString(tempDir.resolve("revised.txt"), "line\n".repeat(100_000) + "new\n");
+        long originalSize = Files.size(original);
+        long total = originalSize + Files.size(revised);
+        List<Long> read = new ArrayList<>();
+
+        DiffHandleUtil.diffString(original.toString(), revised.toString(), DiffOptions.DEFAULT,
+                (stage, done, stageTotal) -> {
+                    if (stage == ProgressListener.Stage.READ) {
+                        assertEquals(total, stageTotal);
+                        read.add(done);
+                    }
+                });
+
+        // Both files span several buffers, and the second continues from the bytes of the first
+        assertTrue(read.stream().filter(done -> done > 0 && done < originalSize).count() > 1);
+        assertTrue(read.stream().anyMatch(done -> done > originalSize && done < total));
+        assertEquals(total, read.get(read.size() - 1));
+        assertEquals(read.stream().sorted().toList(), read);
+    }
+
+    @Test
+    void testParsePatchAndRenderReportCompletion() throws IOException {
+        List<String> patch = List.of("--- a/file.txt", "+++ b/file.txt", "@@ -1,1 +1,1 @@", "-old", "+new");
+        List<String> events = new ArrayList<>();
+        ProgressListener listener = (stage, done, total) -> events.add(stage + " " + done + "/" + total);
+
+        DiffHandleUtil.parsePatch(patch, listener);
+        DiffHandleUtil.writeDiffHtml(new StringWriter(), List.of(patch), false, listener);
+
+        assertEquals("PARSE 5/5", events.get(events.size() - 2));
+        assertEquals("RENDER 5/5", events.get(events.size() - 1));
+    }
+
     @Test
     void testReadStreamWithNull() throws IOException {
         String result = DiffHandleUtil.readStream(null);
@@ -189,6 +246,16 @@ class DiffHandleUtilTest {
         assertEquals(5, result.get("orgDel"));
     }
 
+    @Test
+    void testGetRowMapReadsRevisedRange() {
+        Map<String, Integer> result = DiffHandleUtil.getRowMap("@@ -10,5 +12,7 @@");
+
+        assertEquals(10, result.get("orgRow"));
+        assertEquals(5, result.get("orgDel"));
+        assertEquals(12, result.get("revRow"));
+        assertEquals(7, result.get("revAdd"));
+    }
+
     @Test
     void testGetRowMapWithNonAtLine() {
         String str = "not an @@ line";
@@ -662,8 +729,60 @@ class DiffHandleUtilTest {
         assertTrue(content.length() > 10000); // Should be a large file
     }
 
+    // ==================== Charset Tests ====================
+
+    @Test
+    void testDiffStringDecodesEachFileInItsCharset() throws IOException {
+        Path original = Files.write(tempDir.resolve("sjis.txt"), "日本語\n変更前\n".getBytes(Charset.forName("windows-31j")));
+        Path revised = Files.writeString(tempDir.resolve("utf8.txt"), "日本語\n変更後\n");
+
+        List<String> diff = DiffHandleUtil.diffString(original.toString(), revised.toString());
+
+        assertTrue(diff.contains(" 日本語"));
+        assertTrue(diff.contains("-変更前"));
+        assertTrue(diff.contains("+変更後"));
+    }
+
+    @Test
+    void testReadPatchDecodesUtf16() throws IOException {
+        Path patch = tempDir.resolve("utf16.patch");
+        Files.writeString(patch, "\uFEFFdiff --git a/x b/x\n+中文\n", StandardCharsets.UTF_16LE);
+
+        assertEquals(List.of("diff --git a/x b/x", "+中文"), DiffHandleUtil.readPatch(patch, ProgressListener.NONE));
+    }
+
+    @Test
+    void testReadPatchMapsOnlyLargePatches() throws IOException {
+        Path small = Files.writeString(tempDir.resolve("small.patch"), "diff --git a/x b/x\n+x\n");
+        Path large = Files.writeString(tempDir.resolve("large.patch"),
+                "diff --git a/x b/x\n" + "+x\n".repeat(400_000));
+
+        List<String> smallLines = DiffHandleUtil.readPatch(small, ProgressListener.NONE);
+        List<String> largeLines = DiffHandleUtil.readPatch(large, ProgressListener.NONE);
+
+        assertFalse(smallLines instanceof MappedLineReader);
+        assertEquals(List.of("diff --git a/x b/x", "+x"), smallLines);
+        assertInstanceOf(MappedLineReader.class, largeLines);
+        assertEquals(400_001, largeLines.size());
+    }
+
     // ==================== Binary Content Optimization Tests ====================
 
+    @Test
+    void testDiffStringComparesBinaryFilesWithoutDecoding() throws IOException {
+        Path original = Files.write(tempDir.resolve("old.bin"), new byte[]{(byte) 0xFF, 0, 1, 2});
+        Path revised = Files.write(tempDir.resolve("new.bin"), new byte[]{(byte) 0xFF, 0, 1, 3});
+        Path copy = Files.write(tempDir.resolve("copy.bin"), new byte[]{(byte) 0xFF, 0, 1, 2});
+
+        assertTrue(DiffHandleUtil.isBinary(original.toString(), revised.toString()));
+        assertEquals(List.of("diff --git a/old.bin b/new.bin", "Binary files a/old.bin and b/new.bin differ"),
+                DiffHandleUtil.diffString(original.toString(), revised.toString()));
+        assertEquals(List.of("diff --git a/old.bin b/copy.bin"),
+                DiffHandleUtil.diffString(original.toString(), copy.toString()));
+        assertThrows(IllegalArgumentException.class, () -> DiffHandleUtil.contextDiff(original.toString(),
+                revised.toString(), DiffOptions.DEFAULT, 3));
+    }
+
     @Test
     void testOptimizePatchContentWithBinaryMarker() {
         List<String> patchContent = Arrays.asList(
@@ -739,6 +858,30 @@ class DiffHandleUtilTest {
         assertTrue(result.stream().anyMatch(s -> s.contains("New content")));
     }
 
+    @Test
+    void testGetFileDiffTruncatesBinarySection() {
+        List<String> patchContent = new ArrayList<>();
+        patchContent.add("diff --git a/large.bin b/large.bin");
+        patchContent.add("GIT binary patch");
+        for (int i = 0; i < 200; i++) {
+            patchContent.add("base64encodeddata" + i + "==");
+        }
+        patchContent.add("diff --git a/next.txt b/next.txt");
+        patchContent.add("--- a/next.txt");
+        patchContent.add("+++ b/next.txt");
+        patchContent.add("@@ -1,1 +1,1 @@");
+        patchContent.add("-old");
+        patchContent.add("+new");
+        ParsedPatch patch = DiffHandleUtil.parsePatch(patchContent);
+
+        List<String> binaryFile = DiffHandleUtil.getFileDiff(patch, 0);
+        List<String> textFile = DiffHandleUtil.getFileDiff(patch, 1);
+
+        assertEquals(2 + 100 + 1, binaryFile.size());
+        assertTrue(binaryFile.get(binaryFile.size() - 1).contains("truncated for performance"));
+        assertEquals(patchContent.subList(202, 208), textFile);
+    }
+
     @Test
     void testOptimizePatchContentWithNullOrEmpty() {
         assertNull(DiffHandleUtil.optimizePatchContent(null));
@@ -836,6 +979,52 @@ class DiffHandleUtilTest {
         assertTrue(content.contains("class=\"d2h-dark-color-scheme\""));
     }
 
+    @Test
+    void testGenerateDiffHtmlToPathUsesUtf8() throws IOException {
+        Path htmlFile = tempDir.resolve("utf8_output.html");
+        List<String> diff = Arrays.asList(
+                "--- original.txt",
+                "+++ revised.txt",
+                "@@ -1,1 +1,1 @@",
+                "-\u4e2d\u6587",
+                "+\u65e5\u672c\u8a9e"
+        );
+
+        DiffHandleUtil.generateDiffHtml(htmlFile, List.of(diff), false);
+
+        String content = Files.readString(htmlFile, StandardCharsets.UTF_8);
+        assertTrue(content.contains("+\u65e5\u672c\u8a9e"));
+        assertEquals(DiffHandleUtil.getDiffHtml(List.of(diff), false), content);
+    }
+
+    @Test
+    void testGenerateDiffHtmlToChannel() throws IOException {
+        List<String> diff = Arrays.asList(
+                "--- original.txt",
+                "+++ revised.txt",
+                "@@ -1,1 +1,1 @@",
+                "-old",
+                "+new"
+        );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(bytes);
+
+        DiffHandleUtil.generateDiffHtml(channel, List.of(diff), true);
+
+        assertTrue(channel.isOpen());
+        assertEquals(DiffHandleUtil.getDiffHtml(List.of(diff), true), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWriteDiffHtmlToWriter() throws IOException {
+        List<String> diff = Arrays.asList("--- a.txt", "+++ b.txt", "@@ -1,1 +1,1 @@", "-a", "+b");
+        StringWriter writer = new StringWriter();
+
+        DiffHandleUtil.writeDiffHtml(writer, List.of(diff), false);
+
+        assertEquals(DiffHandleUtil.getDiffHtml(List.of(diff), false), writer.toString());
+    }
+
     // ==================== Format-Patch Metadata Tests ====================
 
     @Test
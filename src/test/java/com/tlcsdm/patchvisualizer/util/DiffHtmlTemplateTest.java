@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DiffHtmlTemplate and HtmlTemplate.
+ */
+class DiffHtmlTemplateTest {
+
+    @Test
+    void testAppendEscapedPlainLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        DiffHtmlTemplate.appendEscaped(sb, " plain context line");
+        assertEquals(" plain context line", sb.toString());
+    }
+
+    @Test
+    void testAppendEscapedTemplateLiteralCharacters() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        DiffHtmlTemplate.appendEscaped(sb, "+String s = `${name}` + \"\\n\";");
+        assertEquals("+String s = \\`\\${name}\\` + \"\\\\n\";", sb.toString());
+    }
+
+    @Test
+    void testAppendEscapedClosingScriptTag() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        DiffHtmlTemplate.appendEscaped(sb, "+</script><script>alert(1)</script>");
+        assertFalse(sb.toString().contains("</script>"));
+        assertEquals("+<\\/script><script>alert(1)<\\/script>", sb.toString());
+    }
+
+    @Test
+    void testRenderSeparatesMultipleDiffs() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        DiffHtmlTemplate.writeDiffString(sb, List.of(List.of("a", "b"), List.of("c")));
+        assertEquals("a\nb\n\nc\n", sb.toString());
+    }
+
+    @Test
+    void testRenderMatchesEstimateForPlainContent() {
+        List<String> diff = Arrays.asList(
+                "--- original.txt",
+                "+++ revised.txt",
+                "@@ -1,1 +1,1 @@",
+                "-old",
+                "+new"
+        );
+
+        String html = DiffHtmlTemplate.render(List.of(diff), false);
+
+        assertTrue(html.length() <= DiffHtmlTemplate.estimateSize(List.of(diff)));
+        assertTrue(html.contains("-old\n+new\n"));
+    }
+
+    @Test
+    void testRenderIsStableAcrossCalls() {
+        List<String> diff = List.of("--- a", "+++ b", "@@ -1,1 +1,1 @@", "-x", "+y");
+
+        assertEquals(DiffHtmlTemplate.render(List.of(diff), true), DiffHtmlTemplate.render(List.of(diff), true));
+    }
+
+    @Test
+    void testRenderLazyEmbedsOnlyFileIndex() {
+        List<String> patch = Arrays.asList(
+                "diff --git a/one.txt b/one.txt",
+                "--- a/one.txt",
+                "+++ b/one.txt",
+                "@@ -1,1 +1,1 @@",
+                "-secret old line",
+                "+secret new line",
+                "diff --git a/two.txt b/two.txt",
+                "Binary files a/two.txt and b/two.txt differ"
+        );
+
+        String html = DiffHtmlTemplate.renderLazy(DiffHandleUtil.parsePatch(patch), 5, false);
+
+        assertTrue(html.contains("{\"p\":\"one.txt\",\"a\":1,\"d\":1,\"b\":false,\"n\":6}"));
+        assertTrue(html.contains("{\"p\":\"two.txt\",\"a\":0,\"d\":0,\"b\":true,\"n\":2}"));
+        assertTrue(html.contains("const maxRenderedFiles = 5;"));
+        assertTrue(html.contains("window.patchBridge.fileDiff(index)"));
+        assertFalse(html.contains("secret old line"));
+    }
+
+    @Test
+    void testRenderStreamingStartsWithoutFiles() {
+        String html = DiffHtmlTemplate.renderStreaming(5, false);
+
+        assertTrue(html.contains("const files = [];"));
+        assertTrue(html.contains("const streaming = true;"));
+        assertTrue(html.contains("window.patchBridge.fileIndex(from)"));
+        assertTrue(DiffHtmlTemplate.renderLazy(DiffHandleUtil.parsePatch(List.of("--- a", "+++ b")), 5, false)
+                .contains("const streaming = false;"));
+    }
+
+    @Test
+    void testFileIndexEntryMatchesLazyIndex() {
+        ParsedPatch patch = DiffHandleUtil.parsePatch(List.of(
+                "diff --git a/one.txt b/one.txt", "--- a/one.txt", "+++ b/one.txt", "@@ -1,1 +1,1 @@", "-x", "+y"));
+
+        assertEquals("{\"p\":\"one.txt\",\"a\":1,\"d\":1,\"b\":false,\"n\":6}",
+                DiffHandleUtil.getFileIndexEntry(patch.files().get(0)));
+    }
+
+    @Test
+    void testRenderContextEmbedsNoDiff() {
+        String html = DiffHtmlTemplate.renderContext(true);
+
+        assertTrue(html.contains("window.patchBridge.diff()"));
+        assertTrue(html.contains("window.patchBridge.expand(hunk)"));
+        assertTrue(html.contains("<body class=\"" + DiffHtmlTemplate.DARK_BODY_CLASS + "\">"));
+        assertFalse(html.contains("const diffString"));
+    }
+
+    @Test
+    void testPagesSignalRenderComplete() {
+        List<String> diff = List.of("--- a", "+++ b", "@@ -1,1 +1,1 @@", "-x", "+y");
+        ParsedPatch patch = DiffHandleUtil.parsePatch(diff);
+
+        for (String html : List.of(DiffHtmlTemplate.render(List.of(diff), false),
+                DiffHtmlTemplate.renderLazy(patch, 5, false), DiffHtmlTemplate.renderContext(false))) {
+            assertTrue(html.contains("window.patchVisualizerRender = {"));
+            assertTrue(html.contains("window.patchVisualizerRender.start()") || html.contains("render.start();"));
+            assertTrue(html.contains("complete()"));
+        }
+    }
+
+    @Test
+    void testPagesExposeThemeSwitch() {
+        List<String> diff = List.of("--- a", "+++ b", "@@ -1,1 +1,1 @@", "-x", "+y");
+        ParsedPatch patch = DiffHandleUtil.parsePatch(diff);
+
+        for (String html : List.of(DiffHtmlTemplate.render(List.of(diff), false),
+                DiffHtmlTemplate.renderLazy(patch, 5, false), DiffHtmlTemplate.renderContext(false))) {
+            assertTrue(html.contains("window.patchVisualizerTheme = {"));
+            assertTrue(html.contains("document.body.classList.add('" + DiffHtmlTemplate.DARK_BODY_CLASS + "')"));
+        }
+        assertEquals("window.patchVisualizerTheme && window.patchVisualizerTheme.setDark(true)",
+                DiffHtmlTemplate.themeScript(true));
+    }
+
+    @Test
+    void testAppendJsonStringEscapes() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        DiffHtmlTemplate.appendJsonString(sb, "a\"b\\c</script>\n");
+        assertEquals("\"a\\\"b\\\\c\\u003c/script\\u003e\\n\"", sb.toString());
+    }
+
+    @Test
+    void testHtmlTemplateIgnoresUnknownBraces() throws IOException {
+        HtmlTemplate template = HtmlTemplate.compile(".a{color:red} {name} {value} {other}",
+                Map.of("name", "N"), Set.of("value"));
+        StringBuilder sb = new StringBuilder();
+
+        template.render(sb, Map.of("value", out -> out.append("V")));
+
+        assertEquals(".a{color:red} N V {other}", sb.toString());
+    }
+
+    @Test
+    void testHtmlTemplateMissingSlotRendersEmpty() throws IOException {
+        HtmlTemplate template = HtmlTemplate.compile("[{value}]", Map.of(), Set.of("value"));
+        StringBuilder sb = new StringBuilder();
+
+        template.render(sb, Map.of());
+
+        assertEquals("[]", sb.toString());
+        assertEquals(2, template.literalLength());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.diff.DiffOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DirectoryDiff.
+ */
+class DirectoryDiffTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    @Test
+    void testCompareDirectories() throws Exception {
+        write("a/same.txt", "one\ntwo\n");
+        write("b/same.txt", "one\ntwo\n");
+        write("a/sub/changed.txt", "one\ntwo\n");
+        write("b/sub/changed.txt", "one\nTWO\n");
+        write("a/removed.txt", "gone\n");
+        write("b/added.txt", "new\n");
+        Set<String> reported = ConcurrentHashMap.newKeySet();
+
+        List<DirectoryDiff.FileDiff> diffs = DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("b"),
+                diff -> reported.add(diff.path()));
+
+        assertEquals(List.of("added.txt", "removed.txt", "sub/changed.txt"),
+                diffs.stream().map(DirectoryDiff.FileDiff::path).toList());
+        assertEquals(Set.of("added.txt", "removed.txt", "sub/changed.txt"), reported);
+        assertEquals(DirectoryDiff.Status.ADDED, diffs.get(0).status());
+        assertEquals(DirectoryDiff.Status.REMOVED, diffs.get(1).status());
+        DirectoryDiff.FileDiff changed = diffs.get(2);
+        assertEquals(DirectoryDiff.Status.MODIFIED, changed.status());
+        assertFalse(changed.binary());
+        assertEquals(DiffHandleUtil.diffString(List.of("one", "two"), List.of("one", "TWO"),
+                "sub/changed.txt", "sub/changed.txt"), changed.diff());
+        assertTrue(diffs.get(0).diff().contains("+new"));
+        assertTrue(diffs.get(1).diff().contains("-gone"));
+    }
+
+    @Test
+    void testProgressCountsAllFiles() throws Exception {
+        write("a/same.txt", "same\n");
+        write("b/same.txt", "same\n");
+        write("a/changed.txt", "old\n");
+        write("b/changed.txt", "new\n");
+        write("b/added.txt", "added\n");
+        Set<Long> reported = ConcurrentHashMap.newKeySet();
+
+        DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("b"), DiffOptions.DEFAULT, diff -> {
+        }, (stage, done, total) -> {
+            assertEquals(ProgressListener.Stage.DIFF, stage);
+            assertEquals(3, total);
+            reported.add(done);
+        });
+
+        assertEquals(Set.of(0L, 1L, 2L, 3L), reported);
+    }
+
+    @Test
+    void testSameSizeDifferentContentIsCompared() throws Exception {
+        write("a/f.txt", "abc\n");
+        write("b/f.txt", "abd\n");
+
+        List<DirectoryDiff.FileDiff> diffs = DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("b"));
+
+        assertEquals(1, diffs.size());
+        assertTrue(diffs.get(0).diff().contains("+abd"));
+    }
+
+    @Test
+    void testIdenticalTreesHaveNoDiffs() throws Exception {
+        write("a/x/y.txt", "same\n");
+        write("b/x/y.txt", "same\n");
+
+        assertTrue(DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("b")).isEmpty());
+    }
+
+    @Test
+    void testBinaryFile() throws Exception {
+        Path a = tempDir.resolve("a/image.bin");
+        Files.createDirectories(a.getParent());
+        Files.write(a, new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 1});
+        Path b = tempDir.resolve("b/image.bin");
+        Files.createDirectories(b.getParent());
+        Files.write(b, new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 2});
+
+        List<DirectoryDiff.FileDiff> diffs = DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("b"));
+
+        assertTrue(diffs.get(0).binary());
+        assertEquals(List.of("diff --git a/image.bin b/image.bin",
+                "Binary files a/image.bin and b/image.bin differ"), diffs.get(0).diff());
+    }
+
+    @Test
+    void testAddedBinaryFile() throws Exception {
+        write("a/keep.txt", "x\n");
+        Path b = tempDir.resolve("b/data.bin");
+        Files.createDirectories(b.getParent());
+        Files.write(b, new byte[]{'G', 'I', 'F', 0, 0});
+
+        List<DirectoryDiff.FileDiff> diffs = DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("b"));
+
+        DirectoryDiff.FileDiff added = diffs.get(0);
+        assertEquals(DirectoryDiff.Status.ADDED, added.status());
+        assertTrue(added.binary());
+        assertEquals("Binary files /dev/null and b/data.bin differ", added.diff().get(1));
+    }
+
+    @Test
+    void testMissingDirectory() throws Exception {
+        write("a/f.txt", "x\n");
+
+        assertThrows(NoSuchFileException.class,
+                () -> DirectoryDiff.compare(tempDir.resolve("a"), tempDir.resolve("missing")));
+    }
+}
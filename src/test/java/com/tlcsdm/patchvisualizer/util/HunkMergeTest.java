@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.Patch;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HunkMerge.
+ */
+class HunkMergeTest {
+
+    @Test
+    void testMatchesInsertOrigForSampleFiles() throws IOException {
+        assertMatchesInsertOrig(readSample("original.txt"), readSample("revised.txt"));
+        assertMatchesInsertOrig(readSample("large_original.txt"), readSample("large_revised.txt"));
+        assertMatchesInsertOrig(readSample("large_revised.txt"), readSample("large_original.txt"));
+    }
+
+    @Test
+    void testMatchesInsertOrigForRandomEdits() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            List<String> original = new ArrayList<>();
+            int count = random.nextInt(40);
+            for (int i = 0; i < count; i++) {
+                original.add("line " + random.nextInt(12));
+            }
+            List<String> revised = new ArrayList<>(original);
+            int edits = random.nextInt(6);
+            for (int i = 0; i < edits; i++) {
+                int op = random.nextInt(3);
+                if (op == 0 || revised.isEmpty()) {
+                    revised.add(random.nextInt(revised.size() + 1), "new " + random.nextInt(12));
+                } else if (op == 1) {
+                    revised.remove(random.nextInt(revised.size()));
+                } else {
+                    revised.set(random.nextInt(revised.size()), "changed " + i);
+                }
+            }
+            assertMatchesInsertOrig(original, revised);
+        }
+    }
+
+    @Test
+    void testIdenticalFiles() {
+        List<String> lines = List.of("a", "b");
+
+        List<String> result = HunkMerge.merge(lines, DiffUtils.diff(lines, lines), "old", "new");
+
+        assertEquals(List.of("--- old", "+++ new ( 0 different )", HunkMerge.PLACEHOLDER, " a", " b"), result);
+    }
+
+    @Test
+    void testChangeInMiddle() {
+        List<String> original = List.of("a", "b", "c");
+        List<String> revised = List.of("a", "x", "y", "c");
+
+        List<String> result = HunkMerge.merge(original, DiffUtils.diff(original, revised), "old", "new");
+
+        assertEquals(List.of("--- old", "+++ new ( 1 different )", HunkMerge.PLACEHOLDER,
+                " a", "@@ -2,1 +2,2 @@", "-b", "+x", "+y", " c"), result);
+    }
+
+    /**
+     * Compare against the previous implementation: a zero-context unified diff merged by insertOrig.
+     */
+    private static void assertMatchesInsertOrig(List<String> original, List<String> revised) {
+        Patch<String> patch = DiffUtils.diff(original, revised);
+        List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff("a.txt", "b.txt", original, patch, 0);
+        if (unifiedDiff.isEmpty()) {
+            unifiedDiff.add("--- a.txt");
+            unifiedDiff.add("+++ b.txt");
+            unifiedDiff.add(HunkMerge.PLACEHOLDER);
+        } else if (unifiedDiff.size() >= 3 && !unifiedDiff.get(2).contains("@@ -1,")) {
+            unifiedDiff.add(2, HunkMerge.PLACEHOLDER);
+        }
+        List<String> prefixed = original.stream().map(v -> " " + v).toList();
+        List<String> expected = DiffHandleUtil.insertOrig(prefixed, unifiedDiff);
+
+        assertEquals(expected, HunkMerge.merge(original, patch, "a.txt", "b.txt"),
+                () -> original + " -> " + revised);
+    }
+
+    private static List<String> readSample(String name) throws IOException {
+        try (InputStream in = HunkMergeTest.class.getResourceAsStream("/samples/" + name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MappedLineReader.
+ */
+class MappedLineReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesReadAllLines() throws IOException {
+        Path file = tempDir.resolve("sample.patch");
+        Files.writeString(file, "--- a/file.txt\n+++ b/file.txt\n@@ -1,1 +1,1 @@\n-old\n+new\n");
+
+        MappedLineReader lines = MappedLineReader.open(file);
+
+        assertEquals(Files.readAllLines(file), lines);
+        assertEquals(Files.size(file), lines.byteSize());
+    }
+
+    @Test
+    void testCrLfAndMissingTrailingNewline() throws IOException {
+        Path file = tempDir.resolve("crlf.diff");
+        Files.writeString(file, "line 1\r\n\r\nline 3");
+
+        MappedLineReader lines = MappedLineReader.open(file);
+
+        assertEquals(List.of("line 1", "", "line 3"), lines);
+        assertEquals(8, lines.lineOffset(1));
+    }
+
+    @Test
+    void testReportsBytesIndexed() throws IOException {
+        Path file = tempDir.resolve("progress.diff");
+        Files.writeString(file, "123456789\n".repeat(20));
+        List<Long> reported = new ArrayList<>();
+
+        MappedLineReader.open(file, StandardCharsets.UTF_8, 128, (stage, done, total) -> {
+            assertEquals(ProgressListener.Stage.READ, stage);
+            assertEquals(200, total);
+            reported.add(done);
+        });
+
+        assertEquals(200L, reported.get(reported.size() - 1));
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path file = tempDir.resolve("empty.diff");
+        Files.writeString(file, "");
+
+        MappedLineReader lines = MappedLineReader.open(file);
+
+        assertTrue(lines.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> lines.get(0));
+    }
+
+    @Test
+    void testMultiByteCharacters() throws IOException {
+        Path file = tempDir.resolve("utf8.diff");
+        Files.writeString(file, "+中文\n-日本語\n", StandardCharsets.UTF_8);
+
+        MappedLineReader lines = MappedLineReader.open(file);
+
+        assertEquals(List.of("+中文", "-日本語"), lines);
+    }
+
+    @Test
+    void testLinesSpanningChunks() throws IOException {
+        Path file = tempDir.resolve("chunks.diff");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add("+line " + i + " " + "x".repeat(i % 37));
+        }
+        Files.write(file, expected);
+
+        MappedLineReader lines = MappedLineReader.open(file, StandardCharsets.UTF_8, 128);
+
+        assertEquals(expected, lines);
+        assertEquals(expected.get(499), lines.get(499));
+    }
+
+    @Test
+    void testLineLongerThanChunkFails() throws IOException {
+        Path file = tempDir.resolve("long.diff");
+        Files.writeString(file, "x".repeat(300) + "\nshort\n");
+
+        assertThrows(IOException.class, () -> MappedLineReader.open(file, StandardCharsets.UTF_8, 128));
+    }
+
+    @Test
+    void testOptimizePatchContentOverMappedFile() throws IOException {
+        Path file = tempDir.resolve("format.patch");
+        Files.write(file, List.of(
+                "From abc123 Mon Sep 17 00:00:00 2001",
+                "Subject: [PATCH] Fix",
+                "---",
+                "diff --git a/file.txt b/file.txt",
+                "--- a/file.txt",
+                "+++ b/file.txt",
+                "@@ -1,1 +1,1 @@",
+                "-old",
+                "+new",
+                "-- ",
+                "2.34.1"));
+
+        List<String> optimized = DiffHandleUtil.optimizePatchContent(MappedLineReader.open(file));
+
+        assertEquals(6, optimized.size());
+        assertEquals("diff --git a/file.txt b/file.txt", optimized.get(0));
+        assertEquals("+new", optimized.get(5));
+    }
+
+    @Test
+    void testDetectsCharsetPerSection() throws IOException {
+        Path file = tempDir.resolve("mixed.patch");
+        try (var out = Files.newOutputStream(file)) {
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            out.write("Subject: mixed\n".getBytes(StandardCharsets.UTF_8));
+            out.write("diff --git a/ja.txt b/ja.txt\n+こんにちは、世界\n".getBytes(Charset.forName("windows-31j")));
+            out.write("diff --git a/zh.txt b/zh.txt\n+你好，世界\n".getBytes(Charset.forName("GBK")));
+            out.write("diff --git a/de.txt b/de.txt\n+Grüße\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        MappedLineReader lines = MappedLineReader.openDetected(file, ProgressListener.NONE);
+
+        assertEquals(List.of("Subject: mixed", "diff --git a/ja.txt b/ja.txt", "+こんにちは、世界",
+                "diff --git a/zh.txt b/zh.txt", "+你好，世界", "diff --git a/de.txt b/de.txt", "+Grüße"), lines);
+    }
+
+    @Test
+    void testSectionsAcrossChunks() throws IOException {
+        Path file = tempDir.resolve("chunks.patch");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("diff --git a/").append(i).append(" b/").append(i).append("\n+line ").append(i).append('\n');
+        }
+        Files.writeString(file, content);
+
+        MappedLineReader lines = MappedLineReader.open(file, null, 64, ProgressListener.NONE);
+
+        assertEquals(Files.readAllLines(file), lines);
+    }
+
+    @Test
+    void testDetectedRejectsUtf16() throws IOException {
+        Path file = tempDir.resolve("utf16.patch");
+        Files.writeString(file, "\uFEFFdiff --git a/x b/x\n", StandardCharsets.UTF_16LE);
+
+        assertThrows(IOException.class, () -> MappedLineReader.openDetected(file, ProgressListener.NONE));
+    }
+}
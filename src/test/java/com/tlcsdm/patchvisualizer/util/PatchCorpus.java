@@ -0,0 +1,441 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.patch.DeltaType;
+import com.github.difflib.patch.Patch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator for synthetic patches and file pairs.
+ * <p>
+ * The same spec always produces the same output. Files are generated one at a time
+ * and written as they are produced, so corpora of several gigabytes can be written
+ * without holding them in memory.
+ *
+ * @param seed         random seed
+ * @param files        maximum number of files
+ * @param targetBytes  stop once this many chars have been written, or 0 for no limit
+ * @param linesPerFile lines of each original file
+ * @param hunkDensity  changed blocks per 100 lines
+ * @param lineLength   average line length in chars
+ * @param binaryEvery  every n-th file of a patch is binary, or 0 for none
+ * @param formatPatch  whether to wrap the patch in git format-patch mail headers
+ * @param contextLines context lines around each hunk
+ */
+public record PatchCorpus(long seed, int files, long targetBytes, int linesPerFile, double hunkDensity,
+                          int lineLength, int binaryEvery, boolean formatPatch, int contextLines) {
+
+    /**
+     * One generated text file.
+     *
+     * @param path     path inside the patch
+     * @param original original lines
+     * @param revised  revised lines
+     */
+    public record CorpusFile(String path, List<String> original, List<String> revised) {
+    }
+
+    // Identifiers the generated lines are built from
+    private static final String[] WORDS = {"final", "String", "value", "context", "compute", "options", "result",
+            "return", "if", "index", "list.get", "builder.append", "count", "this.name", "null", "=", "+", "&&"};
+    // Kinds of changed blocks
+    private static final DeltaType[] EDITS = {DeltaType.CHANGE, DeltaType.INSERT, DeltaType.DELETE};
+    // Chars of a line of git binary patch data
+    private static final int BINARY_LINE_LENGTH = 66;
+
+    /**
+     * Validate the spec.
+     *
+     * @param seed         random seed
+     * @param files        maximum number of files
+     * @param targetBytes  stop once this many chars have been written, or 0 for no limit
+     * @param linesPerFile lines of each original file
+     * @param hunkDensity  changed blocks per 100 lines
+     * @param lineLength   average line length in chars
+     * @param binaryEvery  every n-th file of a patch is binary, or 0 for none
+     * @param formatPatch  whether to wrap the patch in git format-patch mail headers
+     * @param contextLines context lines around each hunk
+     */
+    public PatchCorpus {
+        if (files <= 0) {
+            throw new IllegalArgumentException("files must be positive: " + files);
+        }
+        if (targetBytes < 0) {
+            throw new IllegalArgumentException("targetBytes must not be negative: " + targetBytes);
+        }
+        if (linesPerFile <= 0) {
+            throw new IllegalArgumentException("linesPerFile must be positive: " + linesPerFile);
+        }
+        if (!(hunkDensity > 0 && hunkDensity <= 50)) {
+            throw new IllegalArgumentException("hunkDensity must be in (0, 50]: " + hunkDensity);
+        }
+        if (lineLength <= 0) {
+            throw new IllegalArgumentException("lineLength must be positive: " + lineLength);
+        }
+        if (binaryEvery < 0) {
+            throw new IllegalArgumentException("binaryEvery must not be negative: " + binaryEvery);
+        }
+        if (contextLines < 0) {
+            throw new IllegalArgumentException("contextLines must not be negative: " + contextLines);
+        }
+    }
+
+    /**
+     * Get a spec for a fixed number of files.
+     *
+     * @param seed  random seed
+     * @param files number of files
+     * @return spec
+     */
+    public static PatchCorpus of(long seed, int files) {
+        return new PatchCorpus(seed, files, 0, 200, 1, 60, 0, false, 3);
+    }
+
+    /**
+     * Get a spec that generates files until about {@code targetBytes} chars are written.
+     *
+     * @param seed        random seed
+     * @param targetBytes output size
+     * @return spec
+     */
+    public static PatchCorpus ofSize(long seed, long targetBytes) {
+        return of(seed, Integer.MAX_VALUE).withTargetBytes(targetBytes);
+    }
+
+    /**
+     * Copy this spec with another output size.
+     *
+     * @param targetBytes stop once this many chars have been written, or 0 for no limit
+     * @return spec
+     */
+    public PatchCorpus withTargetBytes(long targetBytes) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Copy this spec with another file length.
+     *
+     * @param linesPerFile lines of each original file
+     * @return spec
+     */
+    public PatchCorpus withLinesPerFile(int linesPerFile) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Copy this spec with another hunk density.
+     *
+     * @param hunkDensity changed blocks per 100 lines
+     * @return spec
+     */
+    public PatchCorpus withHunkDensity(double hunkDensity) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Copy this spec with another line length.
+     *
+     * @param lineLength average line length in chars
+     * @return spec
+     */
+    public PatchCorpus withLineLength(int lineLength) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Copy this spec with binary sections.
+     *
+     * @param binaryEvery every n-th file of a patch is binary, or 0 for none
+     * @return spec
+     */
+    public PatchCorpus withBinaryEvery(int binaryEvery) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Copy this spec with or without format-patch headers.
+     *
+     * @param formatPatch whether to wrap the patch in git format-patch mail headers
+     * @return spec
+     */
+    public PatchCorpus withFormatPatch(boolean formatPatch) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Copy this spec with another number of context lines.
+     *
+     * @param contextLines context lines around each hunk
+     * @return spec
+     */
+    public PatchCorpus withContextLines(int contextLines) {
+        return new PatchCorpus(seed, files, targetBytes, linesPerFile, hunkDensity, lineLength, binaryEvery,
+                formatPatch, contextLines);
+    }
+
+    /**
+     * Check whether a file of the patch is binary.
+     *
+     * @param index file index
+     * @return true if the file is written as a git binary patch
+     */
+    public boolean isBinary(int index) {
+        return binaryEvery > 0 && index % binaryEvery == binaryEvery - 1;
+    }
+
+    /**
+     * Generate one text file. Every call with the same index returns the same content.
+     *
+     * @param index file index
+     * @return the file
+     */
+    public CorpusFile file(int index) {
+        return generate(index, new ArrayList<>());
+    }
+
+    /**
+     * Generate the patch in memory.
+     *
+     * @return patch lines
+     */
+    public List<String> patchLines() {
+        List<String> lines = new ArrayList<>();
+        writePatch(line -> lines.add(line.toString()));
+        return lines;
+    }
+
+    /**
+     * Write the patch.
+     *
+     * @param out output target
+     * @return chars written
+     * @throws IOException if writing fails
+     */
+    public long writePatch(Appendable out) throws IOException {
+        try {
+            return writePatch(line -> {
+                try {
+                    out.append(line).append('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write the patch to a UTF-8 file.
+     *
+     * @param path output file
+     * @return chars written
+     * @throws IOException if writing fails
+     */
+    public long writePatch(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            return writePatch(writer);
+        }
+    }
+
+    /**
+     * Write an original and a revised file made of all generated files in order.
+     * Binary sections do not apply to file pairs.
+     *
+     * @param original output target for the original file
+     * @param revised  output target for the revised file
+     * @return chars written to the original file
+     * @throws IOException if writing fails
+     */
+    public long writeFilePair(Appendable original, Appendable revised) throws IOException {
+        long written = 0;
+        for (int index = 0; index < files && !reached(written); index++) {
+            CorpusFile file = file(index);
+            for (String line : file.original()) {
+                original.append(line).append('\n');
+                written += line.length() + 1;
+            }
+            for (String line : file.revised()) {
+                revised.append(line).append('\n');
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Write an original and a revised UTF-8 file made of all generated files in order.
+     *
+     * @param original original file
+     * @param revised  revised file
+     * @return chars written to the original file
+     * @throws IOException if writing fails
+     */
+    public long writeFilePair(Path original, Path revised) throws IOException {
+        try (Writer originalWriter = Files.newBufferedWriter(original, StandardCharsets.UTF_8);
+             Writer revisedWriter = Files.newBufferedWriter(revised, StandardCharsets.UTF_8)) {
+            return writeFilePair(originalWriter, revisedWriter);
+        }
+    }
+
+    private interface LineSink {
+
+        void accept(CharSequence line);
+    }
+
+    private long writePatch(LineSink sink) {
+        long[] written = {0};
+        LineSink counting = line -> {
+            sink.accept(line);
+            written[0] += line.length() + 1;
+        };
+        if (formatPatch) {
+            counting.accept("From 0123456789abcdef0123456789abcdef01234567 Mon Sep 17 00:00:00 2001");
+            counting.accept("From: Corpus Generator <corpus@example.com>");
+            counting.accept("Date: Thu, 1 Jan 2026 00:00:00 +0000");
+            counting.accept("Subject: [PATCH] Synthetic change " + seed);
+            counting.accept("");
+            counting.accept("---");
+            counting.accept("");
+        }
+        StringBuilder line = new StringBuilder(BINARY_LINE_LENGTH);
+        for (int index = 0; index < files && !reached(written[0]); index++) {
+            Random random = random(index);
+            if (isBinary(index)) {
+                String path = "assets/image" + index + ".png";
+                counting.accept("diff --git a/" + path + " b/" + path);
+                counting.accept("index " + hash(random) + ".." + hash(random) + " 100644");
+                counting.accept("GIT binary patch");
+                int dataLines = Math.max(1, linesPerFile * lineLength / 52);
+                counting.accept("literal " + dataLines * 52);
+                for (int i = 0; i < dataLines; i++) {
+                    line.setLength(0);
+                    line.append('z');
+                    for (int j = 1; j < BINARY_LINE_LENGTH; j++) {
+                        line.append((char) ('0' + random.nextInt(75)));
+                    }
+                    counting.accept(line);
+                }
+                counting.accept("");
+                continue;
+            }
+            List<Change> changes = new ArrayList<>();
+            CorpusFile file = generate(index, changes);
+            Patch<String> patch = Patch.generate(file.original(), file.revised(), changes);
+            counting.accept("diff --git a/" + file.path() + " b/" + file.path());
+            counting.accept("index " + hash(random) + ".." + hash(random) + " 100644");
+            for (String diffLine : UnifiedDiffUtils.generateUnifiedDiff("a/" + file.path(), "b/" + file.path(),
+                    file.original(), patch, contextLines)) {
+                counting.accept(diffLine);
+            }
+        }
+        if (formatPatch) {
+            counting.accept("-- ");
+            counting.accept("2.43.0");
+        }
+        return written[0];
+    }
+
+    private boolean reached(long written) {
+        return targetBytes > 0 && written >= targetBytes;
+    }
+
+    private Random random(int index) {
+        return new Random(seed * 0x9E3779B97F4A7C15L + index);
+    }
+
+    private static String hash(Random random) {
+        return String.format("%07x", random.nextInt(0x10000000));
+    }
+
+    /**
+     * Generate a file and record its changes as blocks of 1 to 4 replaced, inserted or deleted lines.
+     */
+    private CorpusFile generate(int index, List<Change> changes) {
+        // Use another stream than the patch headers so file content does not depend on them
+        Random random = new Random(random(index).nextLong());
+        String path = "src/main/java/corpus/p" + index % 100 + "/File" + index + ".java";
+        List<String> original = new ArrayList<>(linesPerFile);
+        List<String> revised = new ArrayList<>(linesPerFile + linesPerFile / 10);
+        double probability = hunkDensity / 100;
+        int i = 0;
+        while (i < linesPerFile) {
+            if (random.nextDouble() >= probability) {
+                String line = line(random);
+                original.add(line);
+                revised.add(line);
+                i++;
+                continue;
+            }
+            int size = 1 + random.nextInt(4);
+            int startOriginal = original.size();
+            int startRevised = revised.size();
+            DeltaType type = EDITS[random.nextInt(EDITS.length)];
+            int deleted = type == DeltaType.INSERT ? 0 : Math.min(size, linesPerFile - i);
+            int inserted = type == DeltaType.DELETE ? 0 : 1 + random.nextInt(4);
+            for (int k = 0; k < deleted; k++) {
+                original.add(line(random));
+            }
+            for (int k = 0; k < inserted; k++) {
+                revised.add(line(random));
+            }
+            changes.add(new Change(type, startOriginal, startOriginal + deleted, startRevised,
+                    startRevised + inserted));
+            i += deleted;
+            // Keep an unchanged line after each block so every block is its own change
+            if (i < linesPerFile) {
+                String line = line(random);
+                original.add(line);
+                revised.add(line);
+                i++;
+            }
+        }
+        if (changes.isEmpty()) {
+            // Every file of a patch has at least one hunk
+            int position = random.nextInt(original.size());
+            revised.set(position, line(random));
+            changes.add(new Change(DeltaType.CHANGE, position, position + 1, position, position + 1));
+        }
+        return new CorpusFile(path, original, revised);
+    }
+
+    private String line(Random random) {
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+            return "";
+        }
+        if (kind == 1) {
+            return "    }";
+        }
+        int length = Math.max(1, lineLength / 2 + random.nextInt(lineLength + 1));
+        StringBuilder sb = new StringBuilder(length + 16);
+        sb.repeat(' ', Math.min(length - 1, 4 * (1 + random.nextInt(3))));
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(4) == 0 ? '(' : ' ');
+        }
+        sb.setLength(length);
+        sb.setCharAt(length - 1, ';');
+        return sb.toString();
+    }
+}
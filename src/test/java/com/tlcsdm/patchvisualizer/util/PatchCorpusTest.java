@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import com.tlcsdm.patchvisualizer.patch.ParsedPatch;
+import com.tlcsdm.patchvisualizer.patch.PatchStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PatchCorpus.
+ */
+class PatchCorpusTest {
+
+    @Test
+    void testSameSeedGeneratesSameOutput() {
+        PatchCorpus corpus = PatchCorpus.of(11, 5).withBinaryEvery(2).withFormatPatch(true);
+
+        assertEquals(corpus.patchLines(), PatchCorpus.of(11, 5).withBinaryEvery(2).withFormatPatch(true).patchLines());
+        assertNotEquals(corpus.patchLines(), PatchCorpus.of(12, 5).withBinaryEvery(2).withFormatPatch(true)
+                .patchLines());
+    }
+
+    @Test
+    void testWritePatchMatchesPatchLines() throws IOException {
+        PatchCorpus corpus = PatchCorpus.of(3, 4);
+        StringBuilder sb = new StringBuilder();
+
+        long written = corpus.writePatch(sb);
+
+        assertEquals(sb.length(), written);
+        assertEquals(String.join("\n", corpus.patchLines()) + "\n", sb.toString());
+    }
+
+    @Test
+    void testTargetBytesStopsAfterCrossingFile() throws IOException {
+        StringBuilder sb = new StringBuilder();
+
+        long written = PatchCorpus.ofSize(5, 200_000).writePatch(sb);
+
+        assertTrue(written >= 200_000, () -> "written " + written);
+        assertTrue(written < 220_000, () -> "written " + written);
+    }
+
+    @Test
+    void testPatchParsesWithExpectedFiles() {
+        List<String> lines = PatchCorpus.of(7, 20).withBinaryEvery(4).withFormatPatch(true).patchLines();
+
+        PatchStats stats = DiffHandleUtil.parsePatch(lines).stats();
+
+        assertEquals(20, stats.files());
+        assertEquals(5, stats.binaryFiles());
+        assertTrue(lines.getFirst().startsWith("From "));
+        assertTrue(DiffHandleUtil.stripFormatPatchMetadata(lines).getFirst().startsWith("diff --git "));
+    }
+
+    @Test
+    void testFileDiffsApplyToOriginal() {
+        PatchCorpus corpus = PatchCorpus.of(9, 6).withHunkDensity(8).withContextLines(1);
+        ParsedPatch patch = DiffHandleUtil.parsePatch(corpus.patchLines());
+
+        for (int i = 0; i < 6; i++) {
+            PatchCorpus.CorpusFile file = corpus.file(i);
+            assertEquals("b/" + file.path(), patch.files().get(i).path());
+            assertEquals(file.revised(), DiffHandleUtil.applyPatch(file.original(), DiffHandleUtil.getFileDiff(patch, i)));
+        }
+    }
+
+    @Test
+    void testHunkDensityControlsHunkCount() {
+        int sparse = DiffHandleUtil.parsePatch(PatchCorpus.of(1, 10).withHunkDensity(0.5).withContextLines(0)
+                .patchLines()).stats().hunks();
+        int dense = DiffHandleUtil.parsePatch(PatchCorpus.of(1, 10).withHunkDensity(10).withContextLines(0)
+                .patchLines()).stats().hunks();
+
+        assertTrue(sparse >= 10, () -> "sparse " + sparse);
+        assertTrue(dense > sparse * 5, () -> sparse + " vs " + dense);
+    }
+
+    @Test
+    void testLineLength() {
+        List<String> lines = PatchCorpus.of(2, 1).withLinesPerFile(2_000).withLineLength(120).file(0).original();
+
+        double average = lines.stream().mapToInt(String::length).average().orElse(0);
+
+        assertTrue(average > 80 && average < 130, () -> "average " + average);
+    }
+
+    @Test
+    void testFilePairConcatenatesFiles() throws IOException {
+        PatchCorpus corpus = PatchCorpus.of(4, 3);
+        StringBuilder original = new StringBuilder();
+        StringBuilder revised = new StringBuilder();
+
+        corpus.writeFilePair(original, revised);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            corpus.file(i).revised().forEach(line -> expected.append(line).append('\n'));
+        }
+        assertEquals(expected.toString(), revised.toString());
+        assertEquals(3 * 200, original.toString().lines().count());
+    }
+
+    @Test
+    void testInvalidSpec() {
+        assertThrows(IllegalArgumentException.class, () -> PatchCorpus.of(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> PatchCorpus.of(1, 1).withHunkDensity(0));
+        assertThrows(IllegalArgumentException.class, () -> PatchCorpus.of(1, 1).withLineLength(0));
+        assertThrows(IllegalArgumentException.class, () -> PatchCorpus.ofSize(1, -1));
+    }
+}
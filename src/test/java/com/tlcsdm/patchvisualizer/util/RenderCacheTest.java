@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RenderCache.
+ */
+class RenderCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path source(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private long entryCount(RenderCache cache) throws IOException {
+        try (Stream<Path> entries = Files.list(cache.directory())) {
+            return entries.count();
+        }
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "--- a\n+++ b\n");
+
+        assertNull(cache.get(patch, "light"));
+        cache.put(RenderCache.fingerprint(patch), "light", "<html>light é</html>");
+
+        assertEquals("<html>light é</html>", cache.get(patch, "light"));
+        assertNull(cache.get(patch, "dark"));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(0, cache.getPage(patch, "light").fragmentCount());
+    }
+
+    @Test
+    void testUncompressedEntries() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, false);
+        Path patch = source("a.patch", "content");
+
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+
+        assertEquals("<html/>", cache.get(patch, "v"));
+    }
+
+    @Test
+    void testLazyPageIsServedWithItsFragmentsAfterRestart() throws IOException {
+        Path directory = tempDir.resolve("cache");
+        Path patch = source("large.patch", "many files");
+        int fileCount = 500;
+        new RenderCache(directory, 64 * 1024 * 1024, true).put(RenderCache.fingerprint(patch), "v",
+                "<html>index</html>", fileCount, index -> "--- a/f" + index + "\n+++ b/f" + index);
+
+        RenderCache cache = new RenderCache(directory, 64 * 1024 * 1024, true);
+        RenderCache.Page page = cache.getPage(patch, "v");
+
+        assertEquals("<html>index</html>", page.html());
+        assertEquals(fileCount, page.fragmentCount());
+        assertEquals("--- a/f0\n+++ b/f0", cache.getFragment(patch, "v", 0));
+        assertEquals("--- a/f499\n+++ b/f499", cache.getFragment(patch, "v", 499));
+        assertNull(cache.getFragment(patch, "v", fileCount));
+        assertNull(cache.getFragment(patch, "other", 0));
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void testFragmentsOfChangedSourceAreMisses() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, false);
+        Path patch = source("a.patch", "content");
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>", 1, index -> "diff");
+        FileTime mtime = Files.getLastModifiedTime(patch);
+
+        assertEquals("diff", cache.getFragment(patch, "v", 0));
+        Files.writeString(patch, "CONTENT");
+        Files.setLastModifiedTime(patch, FileTime.fromMillis(mtime.toMillis() + 60_000));
+
+        assertNull(cache.getFragment(patch, "v", 0));
+        assertNull(cache.getPage(patch, "v"));
+    }
+
+    @Test
+    void testTouchedSourceWithSameContentIsStillValid() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+
+        Files.setLastModifiedTime(patch, FileTime.fromMillis(Files.getLastModifiedTime(patch).toMillis() + 60_000));
+
+        assertEquals("<html/>", cache.get(patch, "v"));
+        assertEquals("<html/>", cache.get(patch, "v"));
+    }
+
+    @Test
+    void testChangedSourceInvalidatesEntry() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+        FileTime mtime = Files.getLastModifiedTime(patch);
+
+        // Same size, different bytes
+        Files.writeString(patch, "CONTENT");
+        Files.setLastModifiedTime(patch, FileTime.fromMillis(mtime.toMillis() + 60_000));
+
+        assertNull(cache.get(patch, "v"));
+        assertEquals(0, entryCount(cache));
+
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+        Files.writeString(patch, "longer content");
+        assertNull(cache.get(patch, "v"));
+    }
+
+    @Test
+    void testEntryKeepsFingerprintTakenBeforeEdit() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+        RenderCache.Fingerprint fingerprint = RenderCache.fingerprint(patch);
+        FileTime mtime = Files.getLastModifiedTime(patch);
+
+        // Edited after the read but before the rendering was stored
+        Files.writeString(patch, "CONTENT");
+        Files.setLastModifiedTime(patch, FileTime.fromMillis(mtime.toMillis() + 60_000));
+        cache.put(fingerprint, "v", "<html>content</html>");
+
+        assertNull(cache.get(patch, "v"));
+    }
+
+    @Test
+    void testCorruptEntryIsAMiss() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+        try (Stream<Path> entries = Files.list(cache.directory())) {
+            Files.writeString(entries.findFirst().orElseThrow(), "garbage");
+        }
+
+        assertNull(cache.get(patch, "v"));
+        assertEquals(0, entryCount(cache));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedBeyondCap() throws IOException {
+        Path directory = tempDir.resolve("cache");
+        Path first = source("first.patch", "1");
+        Path second = source("second.patch", "2");
+        new RenderCache(directory, Long.MAX_VALUE, false).put(RenderCache.fingerprint(first), "v", "<html>1</html>");
+        long entrySize;
+        try (Stream<Path> entries = Files.list(directory)) {
+            Path entry = entries.findFirst().orElseThrow();
+            entrySize = Files.size(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        }
+        RenderCache cache = new RenderCache(directory, entrySize + entrySize / 2, false);
+
+        cache.put(RenderCache.fingerprint(second), "v", "<html>2</html>");
+
+        assertEquals(1, entryCount(cache));
+        assertNull(cache.get(first, "v"));
+        assertEquals("<html>2</html>", cache.get(second, "v"));
+    }
+
+    @Test
+    void testClear() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+
+        cache.clear();
+
+        assertNull(cache.get(patch, "v"));
+    }
+
+    @Test
+    void testStaleTempFilesAreRemoved() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+        Files.createDirectories(cache.directory());
+        Path stale = Files.writeString(cache.directory().resolve("entry123.tmp"), "partial");
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 60 * 60 * 1000L));
+        Path inProgress = Files.writeString(cache.directory().resolve("entry456.tmp"), "partial");
+
+        cache.put(RenderCache.fingerprint(patch), "v", "<html/>");
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(inProgress));
+
+        Files.setLastModifiedTime(inProgress, FileTime.fromMillis(System.currentTimeMillis() - 60 * 60 * 1000L));
+        cache.clear();
+
+        assertEquals(0, entryCount(cache));
+    }
+
+    @Test
+    void testInterruptedPutLeavesNoTempFile() throws IOException {
+        RenderCache cache = new RenderCache(tempDir.resolve("cache"), 1024 * 1024, true);
+        Path patch = source("a.patch", "content");
+
+        try {
+            assertThrows(IOException.class, () -> cache.put(RenderCache.fingerprint(patch), "v", "<html/>", 3,
+                    index -> {
+                        Thread.currentThread().interrupt();
+                        return "file " + index;
+                    }));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(0, entryCount(cache));
+        assertNull(cache.get(patch, "v"));
+    }
+
+    @Test
+    void testRendererVersionIsStable() {
+        String version = DiffHandleUtil.getRendererVersion();
+
+        assertEquals(32, version.length());
+        assertEquals(version, DiffHandleUtil.getRendererVersion());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 unknowIfGuestInDream
+ */
+
+package com.tlcsdm.patchvisualizer.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TextReader.
+ */
+class TextReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> read(byte[] bytes) throws IOException {
+        return TextReader.readLines(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void testLineTerminators() throws IOException {
+        assertEquals(List.of("a", "", "b", "c"), read("a\n\r\nb\rc".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of("a", ""), read("a\n\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of(), read(new byte[0]));
+    }
+
+    @Test
+    void testMatchesReadAllLinesAcrossBuffers() throws IOException {
+        Path file = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            content.append("line ").append(i).append(" 中文").append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        Files.writeString(file, content);
+
+        assertEquals(Files.readAllLines(file), TextReader.readLines(file));
+    }
+
+    @Test
+    void testDecodesDetectedCharset() throws IOException {
+        Charset sjis = Charset.forName("windows-31j");
+
+        assertEquals(List.of("こんにちは", "世界"), read("こんにちは\n世界\n".getBytes(sjis)));
+        assertEquals(List.of("Grüße"), read("Grüße\n".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void testSkipsByteOrderMark() throws IOException {
+        Path utf8 = tempDir.resolve("bom8.txt");
+        Files.writeString(utf8, "\uFEFFfirst\nsecond\n");
+        Path utf16 = tempDir.resolve("bom16.txt");
+        Files.writeString(utf16, "\uFEFFfirst\nsecond\n", StandardCharsets.UTF_16BE);
+
+        assertEquals(List.of("first", "second"), TextReader.readLines(utf8));
+        assertEquals(List.of("first", "second"), TextReader.readLines(utf16));
+    }
+
+    @Test
+    void testReportsBytesRead() throws IOException {
+        Path file = tempDir.resolve("progress.txt");
+        Files.writeString(file, "x".repeat(200_000));
+        long[] last = {-1};
+
+        TextReader.readLines(file, (stage, done, total) -> {
+            assertEquals(ProgressListener.Stage.READ, stage);
+            assertEquals(200_000, total);
+            assertTrue(done >= last[0]);
+            last[0] = done;
+        });
+
+        assertEquals(200_000, last[0]);
+    }
+
+    @Test
+    void testReadPatchLinesDetectsCharsetPerSection() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        out.write("Subject: mixed\r\n".getBytes(StandardCharsets.UTF_8));
+        out.write("diff --git a/ja.txt b/ja.txt\n+こんにちは、世界\n".getBytes(Charset.forName("windows-31j")));
+        out.write("diff --git a/zh.txt b/zh.txt\n+你好，世界\n".getBytes(Charset.forName("GBK")));
+        out.write("diff --git a/de.txt b/de.txt\n+Grüße".getBytes(StandardCharsets.UTF_8));
+        Path file = Files.write(tempDir.resolve("mixed.patch"), out.toByteArray());
+        List<String> expected = List.of("Subject: mixed", "diff --git a/ja.txt b/ja.txt", "+こんにちは、世界",
+                "diff --git a/zh.txt b/zh.txt", "+你好，世界", "diff --git a/de.txt b/de.txt", "+Grüße");
+
+        assertEquals(expected, TextReader.readPatchLines(out.toByteArray()));
+        assertEquals(expected, TextReader.readPatchLines(file, ProgressListener.NONE));
+        assertEquals(MappedLineReader.openDetected(file, ProgressListener.NONE), expected);
+    }
+
+    @Test
+    void testReadPatchLinesDecodesUtf16Whole() {
+        byte[] bytes = "\uFEFFdiff --git a/x b/x\n+中文\ndiff --git a/y b/y\n".getBytes(StandardCharsets.UTF_16LE);
+
+        assertEquals(List.of("diff --git a/x b/x", "+中文", "diff --git a/y b/y"), TextReader.readPatchLines(bytes));
+        assertEquals(List.of(), TextReader.readPatchLines(new byte[0]));
+    }
+}